@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.data.impl.tree.BenchmarkModel;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of JSON serialization and parsing of NormalizedNodes, using {@link JSONNormalizedNodeStreamWriter}
+ * and {@link JsonParserStream}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+public class JsonCodecBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int outerListSize;
+
+    @Param({ "10" })
+    public int innerListSize;
+
+    private SchemaContext schemaContext;
+    private JSONCodecFactory codecFactory;
+    private ContainerNode data;
+    private String json;
+
+    public static void main(final String... args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+            .include(".*" + JsonCodecBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws ReactorException, IOException {
+        schemaContext = BenchmarkModel.createTestContext();
+        codecFactory = JSONCodecFactory.create(schemaContext);
+        data = BenchmarkModel.createTestData(outerListSize, innerListSize);
+        json = serialize(data);
+    }
+
+    @Benchmark
+    public String serializeBenchmark() throws IOException {
+        return serialize(data);
+    }
+
+    @Benchmark
+    public NormalizedNode<?, ?> parseBenchmark() throws IOException {
+        return parse(json);
+    }
+
+    @Benchmark
+    public NormalizedNode<?, ?> roundTripBenchmark() throws IOException {
+        return parse(serialize(data));
+    }
+
+    private String serialize(final NormalizedNode<?, ?> node) throws IOException {
+        final StringWriter writer = new StringWriter();
+        final NormalizedNodeStreamWriter jsonStream = JSONNormalizedNodeStreamWriter.createExclusiveWriter(
+            codecFactory, SchemaPath.ROOT, null, JsonWriterFactory.createJsonWriter(writer));
+        try (final NormalizedNodeWriter nodeWriter = NormalizedNodeWriter.forStreamWriter(jsonStream)) {
+            nodeWriter.write(node);
+        }
+        return writer.toString();
+    }
+
+    private NormalizedNode<?, ?> parse(final String input) throws IOException {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final NormalizedNodeStreamWriter streamWriter = ImmutableNormalizedNodeStreamWriter.from(result);
+        try (final JsonParserStream jsonParser = JsonParserStream.create(streamWriter, codecFactory)) {
+            jsonParser.parse(new JsonReader(new StringReader(input)));
+        }
+        return result.getResult();
+    }
+}
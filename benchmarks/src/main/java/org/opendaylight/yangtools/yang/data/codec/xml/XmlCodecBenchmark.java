@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.data.impl.tree.BenchmarkModel;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.xml.sax.SAXException;
+
+/**
+ * Benchmarking of XML serialization and parsing of NormalizedNodes, using {@link XMLStreamNormalizedNodeStreamWriter}
+ * and {@link XmlParserStream}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+public class XmlCodecBenchmark {
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    static {
+        OUTPUT_FACTORY.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, Boolean.TRUE);
+    }
+
+    @Param({ "100", "1000", "10000" })
+    public int outerListSize;
+
+    @Param({ "10" })
+    public int innerListSize;
+
+    private SchemaContext schemaContext;
+    private XmlCodecFactory codecFactory;
+    private ContainerNode data;
+    private String xml;
+
+    public static void main(final String... args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+            .include(".*" + XmlCodecBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws ReactorException, IOException, XMLStreamException {
+        schemaContext = BenchmarkModel.createTestContext();
+        codecFactory = XmlCodecFactory.create(schemaContext);
+        data = BenchmarkModel.createTestData(outerListSize, innerListSize);
+        xml = serialize(data);
+    }
+
+    @Benchmark
+    public String serializeBenchmark() throws IOException, XMLStreamException {
+        return serialize(data);
+    }
+
+    @Benchmark
+    public NormalizedNode<?, ?> parseBenchmark() throws IOException, XMLStreamException, URISyntaxException,
+            ParserConfigurationException, SAXException {
+        return parse(xml);
+    }
+
+    @Benchmark
+    public NormalizedNode<?, ?> roundTripBenchmark() throws IOException, XMLStreamException, URISyntaxException,
+            ParserConfigurationException, SAXException {
+        return parse(serialize(data));
+    }
+
+    private String serialize(final NormalizedNode<?, ?> node) throws IOException, XMLStreamException {
+        final StringWriter writer = new StringWriter();
+        final XMLStreamWriter xmlWriter = OUTPUT_FACTORY.createXMLStreamWriter(writer);
+        final NormalizedNodeStreamWriter xmlStream = XMLStreamNormalizedNodeStreamWriter.create(xmlWriter,
+            schemaContext);
+
+        // XmlParserStream expects the data to be wrapped in a document element
+        xmlWriter.writeStartElement("data");
+        NormalizedNodeWriter.forStreamWriter(xmlStream).write(node).flush();
+        xmlWriter.writeEndElement();
+        xmlWriter.close();
+        return writer.toString();
+    }
+
+    private NormalizedNode<?, ?> parse(final String input) throws IOException, XMLStreamException,
+            URISyntaxException, ParserConfigurationException, SAXException {
+        final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(input));
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final NormalizedNodeStreamWriter streamWriter = ImmutableNormalizedNodeStreamWriter.from(result);
+        try (final XmlParserStream xmlParser = XmlParserStream.create(streamWriter, codecFactory)) {
+            xmlParser.parse(reader);
+        }
+        reader.close();
+        return result.getResult();
+    }
+}
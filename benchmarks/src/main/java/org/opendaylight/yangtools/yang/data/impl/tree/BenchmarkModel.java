@@ -16,6 +16,13 @@ import java.io.InputStream;
 import java.util.Collections;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 
 /**
@@ -52,4 +59,30 @@ public class BenchmarkModel {
         return schemaContext;
     }
 
+    /**
+     * Create a populated {@code test} container, with {@code outerListSize} entries in {@code outer-list}, each of
+     * which has {@code innerListSize} entries in its {@code inner-list}.
+     *
+     * @param outerListSize number of outer-list entries
+     * @param innerListSize number of inner-list entries in each outer-list entry
+     * @return A test container
+     */
+    public static ContainerNode createTestData(final int outerListSize, final int innerListSize) {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> outerList = ImmutableNodes.mapNodeBuilder(OUTER_LIST_QNAME);
+        for (int i = 0; i < outerListSize; ++i) {
+            final CollectionNodeBuilder<MapEntryNode, MapNode> innerList = ImmutableNodes.mapNodeBuilder(
+                INNER_LIST_QNAME);
+            for (int j = 0; j < innerListSize; ++j) {
+                innerList.withChild(ImmutableNodes.mapEntryBuilder(INNER_LIST_QNAME, NAME_QNAME, j)
+                    .withChild(ImmutableNodes.leafNode(VALUE_QNAME, "value-" + i + "-" + j)).build());
+            }
+
+            outerList.withChild(ImmutableNodes.mapEntryBuilder(OUTER_LIST_QNAME, ID_QNAME, i)
+                .withChild(innerList.build()).build());
+        }
+
+        return ImmutableContainerNodeBuilder.create().withNodeIdentifier(new NodeIdentifier(TEST_QNAME))
+            .withChild(outerList.build()).build();
+    }
+
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.tree;
+
+import com.google.common.base.Optional;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of {@link DataTree} under contention from multiple threads. Each writer thread takes a snapshot,
+ * modifies its own set of outer-list entries outside of any lock and then validates, prepares and commits under
+ * the lock guarding the tree, mirroring how a datastore serializes its commits. Readers concurrently take snapshots
+ * and read from them.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+public class ConcurrentDataTreeBenchmark {
+    private static final int ENTRIES_PER_THREAD = 1000;
+    private static final int THREAD_STRIDE = 100000;
+
+    private DataTree datastore;
+
+    /**
+     * Per-thread key allocation, so that writers do not overwrite each others' entries.
+     */
+    @State(Scope.Thread)
+    public static class WriterState {
+        int base;
+        int counter;
+
+        @Setup(Level.Trial)
+        public void setup(final ThreadParams params) {
+            base = params.getThreadIndex() * THREAD_STRIDE;
+        }
+
+        int nextId() {
+            return base + counter++ % ENTRIES_PER_THREAD;
+        }
+    }
+
+    public static void main(final String... args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+            .include(".*" + ConcurrentDataTreeBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() throws ReactorException, DataValidationFailedException {
+        datastore = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        datastore.setSchemaContext(BenchmarkModel.createTestContext());
+
+        final DataTreeModification modification = datastore.takeSnapshot().newModification();
+        modification.write(BenchmarkModel.TEST_PATH, BenchmarkModel.createTestData(ENTRIES_PER_THREAD, 1));
+        commit(modification);
+    }
+
+    @Benchmark
+    @Group("writeOnly")
+    @GroupThreads(4)
+    public void writeOnlyBenchmark(final WriterState state) throws DataValidationFailedException {
+        writeAndCommit(state);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(2)
+    public void readWriteWriterBenchmark(final WriterState state) throws DataValidationFailedException {
+        writeAndCommit(state);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(2)
+    public Optional<NormalizedNode<?, ?>> readWriteReaderBenchmark() {
+        return datastore.takeSnapshot().readNode(outerListPath(0));
+    }
+
+    private void writeAndCommit(final WriterState state) throws DataValidationFailedException {
+        final int id = state.nextId();
+        final DataTreeModification modification = datastore.takeSnapshot().newModification();
+        modification.write(outerListPath(id), ImmutableNodes.mapEntry(BenchmarkModel.OUTER_LIST_QNAME,
+            BenchmarkModel.ID_QNAME, id));
+        commit(modification);
+    }
+
+    private void commit(final DataTreeModification modification) throws DataValidationFailedException {
+        modification.ready();
+        synchronized (datastore) {
+            datastore.validate(modification);
+            datastore.commit(datastore.prepare(modification));
+        }
+    }
+
+    private static YangInstanceIdentifier outerListPath(final int id) {
+        return YangInstanceIdentifier.builder(BenchmarkModel.OUTER_LIST_PATH)
+            .nodeWithKey(BenchmarkModel.OUTER_LIST_QNAME, BenchmarkModel.ID_QNAME, id).build();
+    }
+}
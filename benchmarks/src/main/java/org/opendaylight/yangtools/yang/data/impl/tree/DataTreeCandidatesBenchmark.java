@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.tree;
+
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of replicating a {@link DataTreeCandidate} produced by one data tree into another, as done by
+ * followers, using {@link DataTreeCandidates#applyToModification(DataTreeModification, DataTreeCandidate)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+public class DataTreeCandidatesBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int outerListSize;
+
+    @Param({ "10" })
+    public int innerListSize;
+
+    private DataTree follower;
+    private DataTreeCandidate candidate;
+
+    public static void main(final String... args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+            .include(".*" + DataTreeCandidatesBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws ReactorException, DataValidationFailedException {
+        final SchemaContext schemaContext = BenchmarkModel.createTestContext();
+
+        final DataTree leader = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        leader.setSchemaContext(schemaContext);
+        final DataTreeModification modification = leader.takeSnapshot().newModification();
+        modification.write(BenchmarkModel.TEST_PATH, BenchmarkModel.createTestData(outerListSize, innerListSize));
+        modification.ready();
+        leader.validate(modification);
+        candidate = leader.prepare(modification);
+
+        follower = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        follower.setSchemaContext(schemaContext);
+    }
+
+    @Benchmark
+    public DataTreeModification applyToModificationBenchmark() {
+        final DataTreeModification modification = follower.takeSnapshot().newModification();
+        DataTreeCandidates.applyToModification(modification, candidate);
+        modification.ready();
+        return modification;
+    }
+
+    @Benchmark
+    public DataTreeCandidate applyAndPrepareBenchmark() throws DataValidationFailedException {
+        final DataTreeModification modification = follower.takeSnapshot().newModification();
+        DataTreeCandidates.applyToModification(modification, candidate);
+        modification.ready();
+        follower.validate(modification);
+        return follower.prepare(modification);
+    }
+}
@@ -113,7 +113,7 @@ public class InMemoryDataTreeBenchmark {
     public void setup() throws DataValidationFailedException, SourceException, ReactorException {
         schemaContext = BenchmarkModel.createTestContext();
         final InMemoryDataTreeFactory factory = InMemoryDataTreeFactory.getInstance();
-        datastore = factory.create();
+        datastore = factory.create(TreeType.OPERATIONAL);
         datastore.setSchemaContext(schemaContext);
         final DataTreeSnapshot snapshot = datastore.takeSnapshot();
         initTestNode(snapshot);
@@ -131,6 +131,7 @@ public class InMemoryDataTreeBenchmark {
             .build();
 
         modification.write(testPath, provideOuterListNode());
+        modification.ready();
         datastore.validate(modification);
         final DataTreeCandidate candidate = datastore.prepare(modification);
         datastore.commit(candidate);
@@ -154,6 +155,7 @@ public class InMemoryDataTreeBenchmark {
         for (int outerListKey = 0; outerListKey < OUTER_LIST_100K; ++outerListKey) {
             modification.write(OUTER_LIST_100K_PATHS[outerListKey], OUTER_LIST_ONE_ITEM_INNER_LIST[outerListKey]);
         }
+        modification.ready();
         datastore.validate(modification);
         final DataTreeCandidate candidate = datastore.prepare(modification);
         datastore.commit(candidate);
@@ -167,6 +169,7 @@ public class InMemoryDataTreeBenchmark {
         for (int outerListKey = 0; outerListKey < OUTER_LIST_100K; ++outerListKey) {
             final DataTreeModification modification = snapshot.newModification();
             modification.write(OUTER_LIST_100K_PATHS[outerListKey], OUTER_LIST_ONE_ITEM_INNER_LIST[outerListKey]);
+            modification.ready();
             datastore.validate(modification);
             final DataTreeCandidate candidate = datastore.prepare(modification);
             datastore.commit(candidate);
@@ -182,6 +185,7 @@ public class InMemoryDataTreeBenchmark {
         for (int outerListKey = 0; outerListKey < OUTER_LIST_50K; ++outerListKey) {
             modification.write(OUTER_LIST_50K_PATHS[outerListKey], OUTER_LIST_TWO_ITEM_INNER_LIST[outerListKey]);
         }
+        modification.ready();
         datastore.validate(modification);
         final DataTreeCandidate candidate = datastore.prepare(modification);
         datastore.commit(candidate);
@@ -195,6 +199,7 @@ public class InMemoryDataTreeBenchmark {
         for (int outerListKey = 0; outerListKey < OUTER_LIST_50K; ++outerListKey) {
             final DataTreeModification modification = snapshot.newModification();
             modification.write(OUTER_LIST_50K_PATHS[outerListKey], OUTER_LIST_TWO_ITEM_INNER_LIST[outerListKey]);
+            modification.ready();
             datastore.validate(modification);
             final DataTreeCandidate candidate = datastore.prepare(modification);
             datastore.commit(candidate);
@@ -210,6 +215,7 @@ public class InMemoryDataTreeBenchmark {
         for (int outerListKey = 0; outerListKey < OUTER_LIST_10K; ++outerListKey) {
             modification.write(OUTER_LIST_10K_PATHS[outerListKey], OUTER_LIST_TEN_ITEM_INNER_LIST[outerListKey]);
         }
+        modification.ready();
         datastore.validate(modification);
         final DataTreeCandidate candidate = datastore.prepare(modification);
         datastore.commit(candidate);
@@ -223,6 +229,7 @@ public class InMemoryDataTreeBenchmark {
         for (int outerListKey = 0; outerListKey < OUTER_LIST_10K; ++outerListKey) {
             final DataTreeModification modification = snapshot.newModification();
             modification.write(OUTER_LIST_10K_PATHS[outerListKey], OUTER_LIST_TEN_ITEM_INNER_LIST[outerListKey]);
+            modification.ready();
             datastore.validate(modification);
             final DataTreeCandidate candidate = datastore.prepare(modification);
             datastore.commit(candidate);
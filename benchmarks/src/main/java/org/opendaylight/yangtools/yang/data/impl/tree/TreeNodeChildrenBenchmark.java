@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.tree;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.MutableTreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeFactory;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of the storage of {@link TreeNode} children of a keyed list, which backs the choice of list sizes
+ * stored in primitive key arrays. It measures a lookup of a child and a modification of a single child, which takes
+ * a mutable copy of the children, replaces the child and seals the copy. The setup prints the memory retained by
+ * the children of a sealed list, in bytes per child, as JMH does not measure footprint.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class TreeNodeChildrenBenchmark {
+
+    @Param({ "8", "16", "32", "64", "100", "128", "512", "1024" })
+    public int listSize;
+
+    private TreeNode emptyList;
+    private TreeNode[] children;
+    private MapNode listData;
+    private TreeNode list;
+    private PathArgument[] lookups;
+    private int lookupIndex;
+    private Version version;
+
+    public static void main(final String... args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+            .include(".*" + TreeNodeChildrenBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> builder =
+                ImmutableNodes.mapNodeBuilder(BenchmarkModel.OUTER_LIST_QNAME);
+        version = Version.initial();
+        emptyList = TreeNodeFactory.createTreeNode(builder.build(), version);
+
+        final Version childVersion = version.next();
+        children = new TreeNode[listSize];
+        for (int i = 0; i < listSize; ++i) {
+            final MapEntryNode entry = ImmutableNodes.mapEntry(BenchmarkModel.OUTER_LIST_QNAME,
+                BenchmarkModel.ID_QNAME, i);
+            builder.withChild(entry);
+            children[i] = TreeNodeFactory.createTreeNode(entry, childVersion);
+        }
+        listData = builder.build();
+        list = createList();
+
+        final Random random = new Random(1);
+        lookups = new PathArgument[1024];
+        for (int i = 0; i < lookups.length; ++i) {
+            lookups[i] = children[random.nextInt(listSize)].getIdentifier();
+        }
+
+        System.out.printf("%n%d children retain %.1f bytes per child%n", listSize, bytesPerChild());
+    }
+
+    private TreeNode createList() {
+        final MutableTreeNode mutable = emptyList.mutable();
+        for (TreeNode child : children) {
+            mutable.addChild(child);
+        }
+        mutable.setData(listData);
+        mutable.setSubtreeVersion(version.next());
+        return mutable.seal();
+    }
+
+    private static long usedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private double bytesPerChild() {
+        // Copies share the child nodes, hence only the container nodes and their children maps are accounted for
+        final TreeNode[] copies = new TreeNode[Math.max(100, 1000000 / listSize)];
+        final long before = usedMemory();
+        for (int i = 0; i < copies.length; ++i) {
+            copies[i] = createList();
+        }
+        final long after = usedMemory();
+        return copies[0] != null ? (double) (after - before) / copies.length / listSize : 0;
+    }
+
+    @Benchmark
+    public Object lookup() {
+        lookupIndex = lookupIndex + 1 & lookups.length - 1;
+        return list.getChild(lookups[lookupIndex]);
+    }
+
+    @Benchmark
+    public TreeNode modify() {
+        lookupIndex = lookupIndex + 1 & lookups.length - 1;
+        final MutableTreeNode mutable = list.mutable();
+        mutable.addChild(children[lookupIndex % listSize]);
+        mutable.setSubtreeVersion(version.next().next());
+        return mutable.seal();
+    }
+}
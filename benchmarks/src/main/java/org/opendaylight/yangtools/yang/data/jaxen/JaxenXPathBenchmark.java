@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.jaxen;
+
+import com.google.common.base.Converter;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableBiMap;
+import com.google.common.collect.Maps;
+import java.util.concurrent.TimeUnit;
+import javax.xml.xpath.XPathExpressionException;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathExpression;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContext;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.tree.BenchmarkModel;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of {@link JaxenXPath#evaluate(XPathDocument, YangInstanceIdentifier)} over a populated document.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+public class JaxenXPathBenchmark {
+    private static final String PREFIX = "t";
+
+    @Param({ "100", "10000" })
+    public int outerListSize;
+
+    private XPathDocument document;
+    private XPathExpression keyLookup;
+    private XPathExpression valueScan;
+    private XPathExpression countScan;
+    private YangInstanceIdentifier contextPath;
+
+    public static void main(final String... args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+            .include(".*" + JaxenXPathBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws ReactorException, XPathExpressionException {
+        final SchemaContext schemaContext = BenchmarkModel.createTestContext();
+        final XPathSchemaContext xpathContext = new JaxenSchemaContextFactory().createContext(schemaContext);
+
+        final QNameModule module = BenchmarkModel.TEST_QNAME.getModule();
+        final SchemaPath schemaPath = SchemaPath.create(true, BenchmarkModel.TEST_QNAME);
+        final Converter<String, QNameModule> prefixes = Maps.asConverter(
+            ImmutableBiMap.of(PREFIX, module));
+
+        final int lastKey = outerListSize - 1;
+        keyLookup = xpathContext.compileExpression(schemaPath, prefixes,
+            "/t:test/t:outer-list[t:id=" + lastKey + "]/t:inner-list[t:name=5]/t:value");
+        valueScan = xpathContext.compileExpression(schemaPath, prefixes,
+            "/t:test/t:outer-list/t:inner-list[t:value='value-" + lastKey + "-9']/t:name");
+        countScan = xpathContext.compileExpression(schemaPath, prefixes, "count(/t:test/t:outer-list)");
+
+        document = xpathContext.createDocument(ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(new NodeIdentifier(SchemaContext.NAME))
+            .withChild(BenchmarkModel.createTestData(outerListSize, 10)).build());
+        contextPath = BenchmarkModel.TEST_PATH;
+    }
+
+    @Benchmark
+    public Optional<? extends XPathResult<?>> keyLookupBenchmark() throws XPathExpressionException {
+        return keyLookup.evaluate(document, contextPath);
+    }
+
+    @Benchmark
+    public Optional<? extends XPathResult<?>> valueScanBenchmark() throws XPathExpressionException {
+        return valueScan.evaluate(document, contextPath);
+    }
+
+    @Benchmark
+    public Optional<? extends XPathResult<?>> countBenchmark() throws XPathExpressionException {
+        return countScan.evaluate(document, contextPath);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.stmt.reactor;
+
+import com.google.common.io.ByteSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of {@link CrossSourceStatementReactor} building an effective model from a set of generated YANG
+ * modules. Each module imports its predecessor, uses a grouping defined there and augments its top-level container,
+ * so that the build exercises linkage, grouping expansion and augmentation across sources.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+public class CrossSourceStatementReactorBenchmark {
+
+    @Param({ "10", "100" })
+    public int moduleCount;
+
+    @Param({ "20" })
+    public int containersPerModule;
+
+    private List<ByteSource> sources;
+
+    public static void main(final String... args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+            .include(".*" + CrossSourceStatementReactorBenchmark.class.getSimpleName() + ".*")
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sources = new ArrayList<>(moduleCount);
+        for (int i = 0; i < moduleCount; ++i) {
+            sources.add(ByteSource.wrap(generateModule(i).getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Benchmark
+    public SchemaContext buildEffectiveBenchmark() throws ReactorException, IOException {
+        return YangInferencePipeline.RFC6020_REACTOR.newBuild().buildEffective(sources);
+    }
+
+    private String generateModule(final int index) {
+        final String name = "bench-" + index;
+        final StringBuilder sb = new StringBuilder();
+        sb.append("module ").append(name).append(" {\n");
+        sb.append("    namespace \"urn:opendaylight:benchmark:").append(name).append("\";\n");
+        sb.append("    prefix m").append(index).append(";\n");
+        if (index != 0) {
+            sb.append("    import bench-").append(index - 1).append(" { prefix p; }\n");
+        }
+        sb.append("    revision 2016-01-01;\n");
+
+        sb.append("    typedef ranged-int { type int32 { range \"0..1000\"; } }\n");
+        sb.append("    grouping entry {\n");
+        sb.append("        leaf name { type string { length \"1..64\"; pattern \"[a-z][a-z0-9-]*\"; } }\n");
+        sb.append("        leaf value { type ranged-int; }\n");
+        sb.append("        leaf enabled { type boolean; default true; }\n");
+        sb.append("    }\n");
+
+        sb.append("    container top {\n");
+        for (int i = 0; i < containersPerModule; ++i) {
+            sb.append("        container cont-").append(i).append(" {\n");
+            sb.append("            list entries { key name; uses entry; }\n");
+            if (index != 0) {
+                sb.append("            uses p:entry;\n");
+            }
+            sb.append("            choice kind {\n");
+            sb.append("                case a { leaf a { type string; } }\n");
+            sb.append("                case b { leaf b { type uint8; } }\n");
+            sb.append("            }\n");
+            sb.append("        }\n");
+        }
+        sb.append("    }\n");
+
+        if (index != 0) {
+            sb.append("    augment \"/p:top/p:cont-0\" {\n");
+            sb.append("        container aug-").append(index).append(" { uses entry; }\n");
+            sb.append("    }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,618 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+/**
+ * A node of a Compressed Hash-Array Mapped Prefix-tree (CHAMP), as described by Steindorfer and Vinju in
+ * "Optimizing Hash-Array Mapped Tries for Fast and Lean Immutable JVM Collections". Each level of the trie consumes
+ * five bits of the key hash. A bitmap node stores its mappings inline at the front of its array and its sub-nodes,
+ * in reverse order, at the end of the array. Keys whose hashes are equal in all bits end up in a collision node.
+ *
+ * <p>
+ * Nodes are immutable unless they are owned by the edit token passed to a mutating method, in which case they are
+ * modified in place. This allows a {@link MutableChampMap} to perform a series of modifications without copying
+ * the nodes it has already copied once. A null token is never an owner.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+abstract class ChampNode<K, V> {
+    /**
+     * Outcome of a modification, filled in by the nodes visited.
+     */
+    static final class Result {
+        Object oldValue;
+        boolean sizeChanged;
+
+        void reset() {
+            oldValue = null;
+            sizeChanged = false;
+        }
+    }
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    // Maximum depth of the trie: seven bitmap levels and a collision level
+    private static final int MAX_DEPTH = 8;
+
+    @SuppressWarnings("rawtypes")
+    private static final ChampNode EMPTY = new BitmapNode<>(null, 0, 0, new Object[0]);
+
+    @SuppressWarnings("unchecked")
+    static <K, V> ChampNode<K, V> empty() {
+        return EMPTY;
+    }
+
+    static int hash(final Object key) {
+        final int h = key.hashCode();
+        return h ^ h >>> 16;
+    }
+
+    private static int mask(final int hash, final int shift) {
+        return hash >>> shift & MASK;
+    }
+
+    private static int bitpos(final int mask) {
+        return 1 << mask;
+    }
+
+    private static int index(final int bitmap, final int bit) {
+        return Integer.bitCount(bitmap & bit - 1);
+    }
+
+    abstract V get(Object key, int hash, int shift);
+
+    abstract ChampNode<K, V> put(Object owner, K key, V value, int hash, int shift, Result result);
+
+    abstract ChampNode<K, V> remove(Object owner, Object key, int hash, int shift, Result result);
+
+    abstract int payloadArity();
+
+    abstract K getKey(int index);
+
+    abstract V getValue(int index);
+
+    abstract int nodeArity();
+
+    abstract ChampNode<K, V> getNode(int index);
+
+    private boolean isSingleEntry() {
+        return payloadArity() == 1 && nodeArity() == 0;
+    }
+
+    private static <K, V> ChampNode<K, V> mergeTwo(final Object owner, final K key0, final V value0, final int hash0,
+            final K key1, final V value1, final int hash1, final int shift) {
+        if (shift >= Integer.SIZE) {
+            return new CollisionNode<>(owner, hash0, new Object[] { key0, value0, key1, value1 });
+        }
+
+        final int mask0 = mask(hash0, shift);
+        final int mask1 = mask(hash1, shift);
+        if (mask0 != mask1) {
+            final Object[] content = mask0 < mask1 ? new Object[] { key0, value0, key1, value1 }
+                : new Object[] { key1, value1, key0, value0 };
+            return new BitmapNode<>(owner, bitpos(mask0) | bitpos(mask1), 0, content);
+        }
+
+        final ChampNode<K, V> node = mergeTwo(owner, key0, value0, hash0, key1, value1, hash1, shift + BITS);
+        return new BitmapNode<>(owner, 0, bitpos(mask0), new Object[] { node });
+    }
+
+    private static <K, V> ChampNode<K, V> singleEntry(final Object owner, final Object key, final Object value,
+            final int hash) {
+        // Single-entry nodes are positioned for the root level, so they can become the root, see remove()
+        return new BitmapNode<>(owner, bitpos(mask(hash, 0)), 0, new Object[] { key, value });
+    }
+
+    /**
+     * Report differences between two tries, whose roots are at the specified shift. Identical sub-tries are skipped,
+     * hence only paths to differing mappings are walked. Values are compared by identity.
+     */
+    static <K, V> void diff(final ChampNode<K, V> before, final ChampNode<K, V> after, final int shift,
+            final ImmutableChampMap.DiffConsumer<? super K, ? super V> consumer) {
+        if (before == after) {
+            return;
+        }
+        if (before instanceof BitmapNode && after instanceof BitmapNode) {
+            ((BitmapNode<K, V>) before).diff((BitmapNode<K, V>) after, shift, consumer);
+        } else {
+            diffByLookup(before, after, shift, consumer);
+        }
+    }
+
+    // Fallback for collision nodes, looking up each mapping of one node in the other
+    private static <K, V> void diffByLookup(final ChampNode<K, V> before, final ChampNode<K, V> after,
+            final int shift, final ImmutableChampMap.DiffConsumer<? super K, ? super V> consumer) {
+        final Iterator<Entry<K, V>> it = new EntryIterator<>(before);
+        while (it.hasNext()) {
+            final Entry<K, V> e = it.next();
+            final V value = after.get(e.getKey(), hash(e.getKey()), shift);
+            if (value != e.getValue()) {
+                consumer.difference(e.getKey(), e.getValue(), value);
+            }
+        }
+
+        final Iterator<Entry<K, V>> added = new EntryIterator<>(after);
+        while (added.hasNext()) {
+            final Entry<K, V> e = added.next();
+            if (before.get(e.getKey(), hash(e.getKey()), shift) == null) {
+                consumer.difference(e.getKey(), null, e.getValue());
+            }
+        }
+    }
+
+    // Compare a mapping stored inline in one trie with the sub-node stored at the same position in the other
+    private static <K, V> void diffEntry(final K key, final V value, final ChampNode<K, V> node,
+            final boolean entryBefore, final ImmutableChampMap.DiffConsumer<? super K, ? super V> consumer) {
+        boolean found = false;
+        final Iterator<Entry<K, V>> it = new EntryIterator<>(node);
+        while (it.hasNext()) {
+            final Entry<K, V> e = it.next();
+            if (!found && key.equals(e.getKey())) {
+                found = true;
+                if (value != e.getValue()) {
+                    difference(consumer, key, value, e.getValue(), entryBefore);
+                }
+            } else {
+                difference(consumer, e.getKey(), null, e.getValue(), entryBefore);
+            }
+        }
+        if (!found) {
+            difference(consumer, key, value, null, entryBefore);
+        }
+    }
+
+    private static <K, V> void difference(final ImmutableChampMap.DiffConsumer<? super K, ? super V> consumer,
+            final K key, final V entryValue, final V nodeValue, final boolean entryBefore) {
+        if (entryBefore) {
+            consumer.difference(key, entryValue, nodeValue);
+        } else {
+            consumer.difference(key, nodeValue, entryValue);
+        }
+    }
+
+    private static <K, V> void diffAll(final ChampNode<K, V> node, final boolean removed,
+            final ImmutableChampMap.DiffConsumer<? super K, ? super V> consumer) {
+        final Iterator<Entry<K, V>> it = new EntryIterator<>(node);
+        while (it.hasNext()) {
+            final Entry<K, V> e = it.next();
+            if (removed) {
+                consumer.difference(e.getKey(), e.getValue(), null);
+            } else {
+                consumer.difference(e.getKey(), null, e.getValue());
+            }
+        }
+    }
+
+    private static final class BitmapNode<K, V> extends ChampNode<K, V> {
+        private final Object owner;
+        private int dataMap;
+        private int nodeMap;
+        private Object[] content;
+
+        BitmapNode(final Object owner, final int dataMap, final int nodeMap, final Object[] content) {
+            this.owner = owner;
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        private boolean isOwnedBy(final Object token) {
+            return token != null && token == owner;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        V get(final Object key, final int hash, final int shift) {
+            final int bit = bitpos(mask(hash, shift));
+            if ((dataMap & bit) != 0) {
+                final int i = index(dataMap, bit);
+                return key.equals(content[2 * i]) ? (V) content[2 * i + 1] : null;
+            }
+            if ((nodeMap & bit) != 0) {
+                return getNode(index(nodeMap, bit)).get(key, hash, shift + BITS);
+            }
+            return null;
+        }
+
+        @Override
+        ChampNode<K, V> put(final Object token, final K key, final V value, final int hash, final int shift,
+                final Result result) {
+            final int bit = bitpos(mask(hash, shift));
+            if ((dataMap & bit) != 0) {
+                final int i = index(dataMap, bit);
+                final K currentKey = getKey(i);
+                if (key.equals(currentKey)) {
+                    final V currentValue = getValue(i);
+                    result.oldValue = currentValue;
+                    return currentValue == value ? this : withValue(token, i, value);
+                }
+
+                final ChampNode<K, V> node = mergeTwo(token, currentKey, getValue(i), hash(currentKey), key, value,
+                    hash, shift + BITS);
+                result.sizeChanged = true;
+                return withDataMigratedToNode(token, bit, i, node);
+            }
+            if ((nodeMap & bit) != 0) {
+                final int i = index(nodeMap, bit);
+                final ChampNode<K, V> node = getNode(i);
+                final ChampNode<K, V> newNode = node.put(token, key, value, hash, shift + BITS, result);
+                return newNode == node ? this : withNode(token, i, newNode);
+            }
+
+            result.sizeChanged = true;
+            return withData(token, bit, key, value);
+        }
+
+        @Override
+        ChampNode<K, V> remove(final Object token, final Object key, final int hash, final int shift,
+                final Result result) {
+            final int bit = bitpos(mask(hash, shift));
+            if ((dataMap & bit) != 0) {
+                final int i = index(dataMap, bit);
+                if (!key.equals(content[2 * i])) {
+                    return this;
+                }
+
+                result.oldValue = content[2 * i + 1];
+                result.sizeChanged = true;
+                if (payloadArity() == 2 && nodeMap == 0) {
+                    // The remaining entry either becomes the root or gets inlined into our parent
+                    final int other = 1 - i;
+                    return singleEntry(token, content[2 * other], content[2 * other + 1], hash(content[2 * other]));
+                }
+                return withoutData(token, bit, i);
+            }
+            if ((nodeMap & bit) != 0) {
+                final int i = index(nodeMap, bit);
+                final ChampNode<K, V> node = getNode(i);
+                final ChampNode<K, V> newNode = node.remove(token, key, hash, shift + BITS, result);
+                if (newNode == node) {
+                    return this;
+                }
+                if (newNode.isSingleEntry()) {
+                    if (dataMap == 0 && nodeArity() == 1) {
+                        // Escalate the single entry towards the root
+                        return newNode;
+                    }
+                    return withNodeMigratedToData(token, bit, i, newNode.getKey(0), newNode.getValue(0));
+                }
+                return withNode(token, i, newNode);
+            }
+            return this;
+        }
+
+        void diff(final BitmapNode<K, V> other, final int shift,
+                final ImmutableChampMap.DiffConsumer<? super K, ? super V> consumer) {
+            int bits = dataMap | nodeMap | other.dataMap | other.nodeMap;
+            while (bits != 0) {
+                final int bit = Integer.lowestOneBit(bits);
+                bits ^= bit;
+
+                if ((dataMap & bit) != 0) {
+                    final int i = index(dataMap, bit);
+                    final K key = getKey(i);
+                    final V value = getValue(i);
+                    if ((other.dataMap & bit) != 0) {
+                        final int j = index(other.dataMap, bit);
+                        final K otherKey = other.getKey(j);
+                        final V otherValue = other.getValue(j);
+                        if (!key.equals(otherKey)) {
+                            consumer.difference(key, value, null);
+                            consumer.difference(otherKey, null, otherValue);
+                        } else if (value != otherValue) {
+                            consumer.difference(key, value, otherValue);
+                        }
+                    } else if ((other.nodeMap & bit) != 0) {
+                        diffEntry(key, value, other.getNode(index(other.nodeMap, bit)), true, consumer);
+                    } else {
+                        consumer.difference(key, value, null);
+                    }
+                } else if ((nodeMap & bit) != 0) {
+                    final ChampNode<K, V> node = getNode(index(nodeMap, bit));
+                    if ((other.nodeMap & bit) != 0) {
+                        ChampNode.diff(node, other.getNode(index(other.nodeMap, bit)), shift + BITS, consumer);
+                    } else if ((other.dataMap & bit) != 0) {
+                        final int j = index(other.dataMap, bit);
+                        diffEntry(other.getKey(j), other.getValue(j), node, false, consumer);
+                    } else {
+                        diffAll(node, true, consumer);
+                    }
+                } else if ((other.dataMap & bit) != 0) {
+                    final int j = index(other.dataMap, bit);
+                    consumer.difference(other.getKey(j), null, other.getValue(j));
+                } else {
+                    diffAll(other.getNode(index(other.nodeMap, bit)), false, consumer);
+                }
+            }
+        }
+
+        @Override
+        int payloadArity() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        K getKey(final int index) {
+            return (K) content[2 * index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        V getValue(final int index) {
+            return (V) content[2 * index + 1];
+        }
+
+        @Override
+        int nodeArity() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        ChampNode<K, V> getNode(final int index) {
+            return (ChampNode<K, V>) content[content.length - 1 - index];
+        }
+
+        private ChampNode<K, V> update(final Object token, final int newDataMap, final int newNodeMap,
+                final Object[] newContent) {
+            if (isOwnedBy(token)) {
+                dataMap = newDataMap;
+                nodeMap = newNodeMap;
+                content = newContent;
+                return this;
+            }
+            return new BitmapNode<>(token, newDataMap, newNodeMap, newContent);
+        }
+
+        private ChampNode<K, V> withValue(final Object token, final int index, final V value) {
+            if (isOwnedBy(token)) {
+                content[2 * index + 1] = value;
+                return this;
+            }
+
+            final Object[] dst = content.clone();
+            dst[2 * index + 1] = value;
+            return new BitmapNode<>(token, dataMap, nodeMap, dst);
+        }
+
+        private ChampNode<K, V> withNode(final Object token, final int index, final ChampNode<K, V> node) {
+            if (isOwnedBy(token)) {
+                content[content.length - 1 - index] = node;
+                return this;
+            }
+
+            final Object[] dst = content.clone();
+            dst[dst.length - 1 - index] = node;
+            return new BitmapNode<>(token, dataMap, nodeMap, dst);
+        }
+
+        private ChampNode<K, V> withData(final Object token, final int bit, final K key, final V value) {
+            final int i = 2 * index(dataMap, bit);
+            final Object[] dst = new Object[content.length + 2];
+            System.arraycopy(content, 0, dst, 0, i);
+            dst[i] = key;
+            dst[i + 1] = value;
+            System.arraycopy(content, i, dst, i + 2, content.length - i);
+            return update(token, dataMap | bit, nodeMap, dst);
+        }
+
+        private ChampNode<K, V> withoutData(final Object token, final int bit, final int index) {
+            final int i = 2 * index;
+            final Object[] dst = new Object[content.length - 2];
+            System.arraycopy(content, 0, dst, 0, i);
+            System.arraycopy(content, i + 2, dst, i, content.length - i - 2);
+            return update(token, dataMap ^ bit, nodeMap, dst);
+        }
+
+        private ChampNode<K, V> withDataMigratedToNode(final Object token, final int bit, final int index,
+                final ChampNode<K, V> node) {
+            // Nodes are stored in reverse, hence nodes with higher indices precede the new node
+            final int i = 2 * index;
+            final int dataEnd = 2 * payloadArity();
+            final int nodeIndex = index(nodeMap, bit);
+            final int nodesAfter = nodeArity() - nodeIndex;
+
+            final Object[] dst = new Object[content.length - 1];
+            System.arraycopy(content, 0, dst, 0, i);
+            System.arraycopy(content, i + 2, dst, i, dataEnd - i - 2);
+            System.arraycopy(content, dataEnd, dst, dataEnd - 2, nodesAfter);
+            dst[dataEnd - 2 + nodesAfter] = node;
+            System.arraycopy(content, dataEnd + nodesAfter, dst, dataEnd - 1 + nodesAfter, nodeIndex);
+            return update(token, dataMap ^ bit, nodeMap | bit, dst);
+        }
+
+        private ChampNode<K, V> withNodeMigratedToData(final Object token, final int bit, final int nodeIndex,
+                final K key, final V value) {
+            final int i = 2 * index(dataMap, bit);
+            final int dataEnd = 2 * payloadArity();
+            final int nodesAfter = nodeArity() - nodeIndex - 1;
+
+            final Object[] dst = new Object[content.length + 1];
+            System.arraycopy(content, 0, dst, 0, i);
+            dst[i] = key;
+            dst[i + 1] = value;
+            System.arraycopy(content, i, dst, i + 2, dataEnd - i);
+            System.arraycopy(content, dataEnd, dst, dataEnd + 2, nodesAfter);
+            System.arraycopy(content, dataEnd + nodesAfter + 1, dst, dataEnd + 2 + nodesAfter, nodeIndex);
+            return update(token, dataMap | bit, nodeMap ^ bit, dst);
+        }
+    }
+
+    private static final class CollisionNode<K, V> extends ChampNode<K, V> {
+        private final Object owner;
+        private final int hash;
+        private Object[] content;
+
+        CollisionNode(final Object owner, final int hash, final Object[] content) {
+            this.owner = owner;
+            this.hash = hash;
+            this.content = content;
+        }
+
+        private int find(final Object key) {
+            for (int i = 0; i < content.length; i += 2) {
+                if (key.equals(content[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private ChampNode<K, V> update(final Object token, final Object[] newContent) {
+            if (token != null && token == owner) {
+                content = newContent;
+                return this;
+            }
+            return new CollisionNode<>(token, hash, newContent);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        V get(final Object key, final int hash, final int shift) {
+            final int i = find(key);
+            return i == -1 ? null : (V) content[i + 1];
+        }
+
+        @Override
+        ChampNode<K, V> put(final Object token, final K key, final V value, final int hash, final int shift,
+                final Result result) {
+            final int i = find(key);
+            final Object[] dst;
+            if (i != -1) {
+                result.oldValue = content[i + 1];
+                if (content[i + 1] == value) {
+                    return this;
+                }
+                dst = content.clone();
+                dst[i + 1] = value;
+            } else {
+                result.sizeChanged = true;
+                dst = new Object[content.length + 2];
+                System.arraycopy(content, 0, dst, 0, content.length);
+                dst[content.length] = key;
+                dst[content.length + 1] = value;
+            }
+            return update(token, dst);
+        }
+
+        @Override
+        ChampNode<K, V> remove(final Object token, final Object key, final int hash, final int shift,
+                final Result result) {
+            final int i = find(key);
+            if (i == -1) {
+                return this;
+            }
+
+            result.oldValue = content[i + 1];
+            result.sizeChanged = true;
+            if (content.length == 4) {
+                final int other = 2 - i;
+                return singleEntry(token, content[other], content[other + 1], this.hash);
+            }
+
+            final Object[] dst = new Object[content.length - 2];
+            System.arraycopy(content, 0, dst, 0, i);
+            System.arraycopy(content, i + 2, dst, i, content.length - i - 2);
+            return update(token, dst);
+        }
+
+        @Override
+        int payloadArity() {
+            return content.length / 2;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        K getKey(final int index) {
+            return (K) content[2 * index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        V getValue(final int index) {
+            return (V) content[2 * index + 1];
+        }
+
+        @Override
+        int nodeArity() {
+            return 0;
+        }
+
+        @Override
+        ChampNode<K, V> getNode(final int index) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Depth-first iterator over the mappings held in a trie. The trie must not be modified while it is iterated.
+     */
+    static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+        @SuppressWarnings("unchecked")
+        private final ChampNode<K, V>[] nodes = new ChampNode[MAX_DEPTH];
+        private final int[] nodeCursors = new int[MAX_DEPTH];
+        private int depth;
+
+        private ChampNode<K, V> payloadNode;
+        private int payloadCursor;
+
+        EntryIterator(final ChampNode<K, V> root) {
+            nodes[0] = root;
+            payloadNode = root;
+        }
+
+        private boolean findPayload() {
+            while (depth >= 0) {
+                final ChampNode<K, V> node = nodes[depth];
+                if (nodeCursors[depth] < node.nodeArity()) {
+                    final ChampNode<K, V> child = node.getNode(nodeCursors[depth]++);
+                    if (child.nodeArity() != 0) {
+                        ++depth;
+                        nodes[depth] = child;
+                        nodeCursors[depth] = 0;
+                    }
+                    if (child.payloadArity() != 0) {
+                        payloadNode = child;
+                        payloadCursor = 0;
+                        return true;
+                    }
+                } else {
+                    nodes[depth--] = null;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return payloadCursor < payloadNode.payloadArity() || findPayload();
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final int i = payloadCursor++;
+            return new SimpleImmutableEntry<>(payloadNode.getKey(i), payloadNode.getValue(i));
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
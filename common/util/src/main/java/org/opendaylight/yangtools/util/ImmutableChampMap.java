@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Persistent implementation of the {@link Map} interface, backed by a Compressed Hash-Array Mapped Prefix-tree
+ * (CHAMP). A modified version of a map is obtained through {@link #toModifiableMap()}, which shares the trie with
+ * this map and copies only the nodes on paths to modified mappings, so a modification costs O(log32 n) regardless
+ * of the size of the map. The resulting {@link MutableChampMap} turns back into an immutable map in constant time.
+ *
+ * <p>
+ * This map does not allow null keys or values. Its iteration order is unspecified.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ */
+@Beta
+public final class ImmutableChampMap<K, V> extends AbstractMap<K, V> implements UnmodifiableMapPhase<K, V> {
+    /**
+     * Receiver of differences between two maps, see {@link ImmutableChampMap#diff(ImmutableChampMap, DiffConsumer)}.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     */
+    public interface DiffConsumer<K, V> {
+        /**
+         * Invoked for each key whose mapping differs between the two maps.
+         *
+         * @param key Key
+         * @param before Value in the first map, null if the key is not mapped there
+         * @param after Value in the second map, null if the key is not mapped there
+         */
+        void difference(@Nonnull K key, @Nullable V before, @Nullable V after);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static final ImmutableChampMap EMPTY = new ImmutableChampMap<>(ChampNode.empty(), 0);
+
+    private final ChampNode<K, V> root;
+    private final int size;
+    private transient int hashCode;
+
+    ImmutableChampMap(final ChampNode<K, V> root, final int size) {
+        this.root = Preconditions.checkNotNull(root);
+        this.size = size;
+    }
+
+    /**
+     * Return an empty map.
+     *
+     * @return An empty map
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull public static <K, V> ImmutableChampMap<K, V> of() {
+        return EMPTY;
+    }
+
+    /**
+     * Create an {@link ImmutableChampMap} as a copy of an existing map. This method recognizes
+     * {@link ImmutableChampMap} on input and returns it back, and it recognizes {@link MutableChampMap} and turns it
+     * into an immutable map without copying.
+     *
+     * @param m Input map, may not be null.
+     * @return An isolated, immutable copy of the input map
+     * @throws NullPointerException if the input map contains a null key or value
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull public static <K, V> ImmutableChampMap<K, V> copyOf(@Nonnull final Map<K, V> m) {
+        if (m instanceof ImmutableChampMap) {
+            return (ImmutableChampMap<K, V>) m;
+        }
+        if (m instanceof MutableChampMap) {
+            return ((MutableChampMap<K, V>) m).toUnmodifiableMap();
+        }
+
+        final MutableChampMap<K, V> ret = MutableChampMap.create();
+        ret.putAll(m);
+        return ret.toUnmodifiableMap();
+    }
+
+    /**
+     * Report mappings which differ between this map and another map. Values are compared by identity, hence a key
+     * mapped to distinct, but equal, values is reported. Since maps derived from one another share the parts of
+     * the trie which have not been modified, those parts are skipped without being examined, and the cost of this
+     * method is proportional to the number of modifications made, rather than to the size of the maps.
+     *
+     * @param after Map to compare against, holding the after-image
+     * @param consumer Receiver of differences, this map being the before-image
+     */
+    public void diff(@Nonnull final ImmutableChampMap<K, V> after,
+            @Nonnull final DiffConsumer<? super K, ? super V> consumer) {
+        ChampNode.diff(root, after.root, 0, Preconditions.checkNotNull(consumer));
+    }
+
+    ChampNode<K, V> root() {
+        return root;
+    }
+
+    @Override
+    public MutableChampMap<K, V> toModifiableMap() {
+        return new MutableChampMap<>(root, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key != null && root.get(key, ChampNode.hash(key), 0) != null;
+    }
+
+    @Override
+    public V get(final Object key) {
+        return key == null ? null : root.get(key, ChampNode.hash(key), 0);
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V remove(final Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> m) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new ChampNode.EntryIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                if (!(o instanceof Entry)) {
+                    return false;
+                }
+                final Entry<?, ?> e = (Entry<?, ?>) o;
+                final Object value = get(e.getKey());
+                return value != null && value.equals(e.getValue());
+            }
+        };
+    }
+
+    @Override
+    public int hashCode() {
+        if (hashCode == 0) {
+            hashCode = super.hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o instanceof ImmutableChampMap && root == ((ImmutableChampMap<?, ?>) o).root) {
+            return true;
+        }
+        return super.equals(o);
+    }
+}
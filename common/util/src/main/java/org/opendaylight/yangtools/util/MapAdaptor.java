@@ -20,30 +20,67 @@ import org.slf4j.LoggerFactory;
 
 /**
  * A simple layer on top of maps, which performs snapshot mediation and optimization of
- * what the underlying implementation is.
+ * what the underlying implementation is. Large maps are held in a persistent map, whose
+ * implementation is selected by {@link PersistentMapType}.
  */
 public final class MapAdaptor {
+    /**
+     * Implementation of persistent maps, which are used for maps holding more entries than can be efficiently
+     * copied on modification.
+     */
+    public enum PersistentMapType {
+        /**
+         * {@link ImmutableChampMap} and {@link MutableChampMap}, where a modification copies O(log32 n) trie nodes.
+         */
+        CHAMP,
+        /**
+         * Concurrent TrieMap snapshots.
+         */
+        TRIE_MAP,
+    }
+
     public static final int DEFAULT_COPY_MAX_ITEMS = 100;
     public static final String COPY_MAX_ITEMS_MAX_PROP = "org.opendaylight.yangtools.util.mapadaptor.maxcopy";
 
     public static final int DEFAULT_PERSIST_MIN_ITEMS = 50;
     public static final String PERSIST_MIN_ITEMS_PROP = "org.opendaylight.yangtools.util.mapadaptor.minpersist";
 
+    public static final PersistentMapType DEFAULT_PERSISTENT_TYPE = PersistentMapType.CHAMP;
+    public static final String PERSISTENT_TYPE_PROP = "org.opendaylight.yangtools.util.mapadaptor.persistent";
+
     private static final Logger LOG = LoggerFactory.getLogger(MapAdaptor.class);
     private static final MapAdaptor DEFAULT_INSTANCE;
 
     private final boolean useSingleton;
     private final int persistMinItems;
     private final int copyMaxItems;
+    private final PersistentMapType persistentType;
 
     static {
         DEFAULT_INSTANCE = new MapAdaptor(true,
                 getProperty(COPY_MAX_ITEMS_MAX_PROP, DEFAULT_COPY_MAX_ITEMS),
-                getProperty(PERSIST_MIN_ITEMS_PROP, DEFAULT_PERSIST_MIN_ITEMS));
-        LOG.debug("Configured HashMap/TrieMap cutoff at {}/{} entries",
+                getProperty(PERSIST_MIN_ITEMS_PROP, DEFAULT_PERSIST_MIN_ITEMS),
+                getPersistentType(PERSISTENT_TYPE_PROP, DEFAULT_PERSISTENT_TYPE));
+        LOG.debug("Configured HashMap/{} cutoff at {}/{} entries", DEFAULT_INSTANCE.persistentType,
                 DEFAULT_INSTANCE.persistMinItems, DEFAULT_INSTANCE.copyMaxItems);
     }
 
+    private static PersistentMapType getPersistentType(final String name, final PersistentMapType defaultValue) {
+        try {
+            final String p = System.getProperty(name);
+            if (p != null) {
+                try {
+                    return PersistentMapType.valueOf(p.trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    LOG.warn("Ignoring unknown value of {}: {}", name, p, e);
+                }
+            }
+        } catch (Exception e) {
+            LOG.debug("Failed to get {}", name, e);
+        }
+        return defaultValue;
+    }
+
     private static int getProperty(final String name, final int defaultValue) {
         try {
             final String p = System.getProperty(name);
@@ -65,10 +102,12 @@ public final class MapAdaptor {
         return defaultValue;
     }
 
-    private MapAdaptor(final boolean useSingleton, final int copyMaxItems, final int persistMinItems) {
+    private MapAdaptor(final boolean useSingleton, final int copyMaxItems, final int persistMinItems,
+            final PersistentMapType persistentType) {
         this.useSingleton = useSingleton;
         this.copyMaxItems = copyMaxItems;
         this.persistMinItems = persistMinItems;
+        this.persistentType = Preconditions.checkNotNull(persistentType);
     }
 
     /**
@@ -80,13 +119,23 @@ public final class MapAdaptor {
         return DEFAULT_INSTANCE;
     }
 
+    /**
+     * Return an instance using TrieMap as its persistent map.
+     *
+     * @see #getInstance(boolean, int, int, PersistentMapType)
+     */
     public static MapAdaptor getInstance(final boolean useSingleton, final int copyMaxItems,
             final int persistMinItems) {
+        return getInstance(useSingleton, copyMaxItems, persistMinItems, PersistentMapType.TRIE_MAP);
+    }
+
+    public static MapAdaptor getInstance(final boolean useSingleton, final int copyMaxItems,
+            final int persistMinItems, final PersistentMapType persistentType) {
         Preconditions.checkArgument(copyMaxItems >= 0, "copyMaxItems has to be a non-negative integer");
         Preconditions.checkArgument(persistMinItems >= 0, "persistMinItems has to be a positive integer");
         Preconditions.checkArgument(persistMinItems <= copyMaxItems,
                 "persistMinItems must be less than or equal to copyMaxItems");
-        return new MapAdaptor(useSingleton, copyMaxItems, persistMinItems);
+        return new MapAdaptor(useSingleton, copyMaxItems, persistMinItems, persistentType);
     }
 
     /**
@@ -99,7 +148,8 @@ public final class MapAdaptor {
     public <K, V> Map<K, V> initialSnapshot(final int expectedSize) {
         Preconditions.checkArgument(expectedSize >= 0);
         if (expectedSize > persistMinItems) {
-            return new ReadWriteTrieMap<>();
+            return persistentType == PersistentMapType.CHAMP ? MutableChampMap.<K, V>create()
+                    : new ReadWriteTrieMap<K, V>();
         }
 
         if (expectedSize < 2) {
@@ -119,6 +169,9 @@ public final class MapAdaptor {
         if (input instanceof ReadOnlyTrieMap) {
             return ((ReadOnlyTrieMap<K, V>)input).toReadWrite();
         }
+        if (input instanceof ImmutableChampMap) {
+            return ((ImmutableChampMap<K, V>)input).toModifiableMap();
+        }
 
         LOG.trace("Converting input {} to a HashMap", input);
 
@@ -192,6 +245,12 @@ public final class MapAdaptor {
         if (input instanceof ReadWriteTrieMap && size >= persistMinItems) {
             return ((ReadWriteTrieMap<K, V>)input).toReadOnly();
         }
+        if (input instanceof MutableChampMap && size >= persistMinItems) {
+            return ((MutableChampMap<K, V>)input).toUnmodifiableMap();
+        }
+        if (input instanceof ImmutableChampMap && size >= persistMinItems) {
+            return input;
+        }
 
         /*
          * If the user opted to use singleton maps, use them. Except for the case
@@ -220,7 +279,15 @@ public final class MapAdaptor {
         }
 
         /*
-         * Favor isolation speed: use a TrieMap and perform snapshots
+         * Favor isolation speed: use a persistent map
+         */
+        if (persistentType == PersistentMapType.CHAMP) {
+            LOG.trace("Copying input {} to a CHAMP map ({} entries)", input, size);
+            return ImmutableChampMap.copyOf(input);
+        }
+
+        /*
+         * Use a TrieMap and perform snapshots
          *
          * This one is a bit tricky, as the TrieMap is concurrent and does not
          * keep an uptodate size. Updating it requires a full walk -- which is
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * A modifiable version of an {@link ImmutableChampMap}. It shares the trie with the map it was created from and
+ * copies each node only once, when it is first modified, so subsequent modifications of the same node are done in
+ * place. {@link #toUnmodifiableMap()} takes constant time, as it only stops further in-place modifications of
+ * the nodes it returns.
+ *
+ * <p>
+ * This map does not allow null keys or values. Its key, value and entry views support removal, but must not be used
+ * while the map is being modified by other means.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ */
+@Beta
+public final class MutableChampMap<K, V> extends AbstractMap<K, V> implements ModifiableMapPhase<K, V> {
+    private final ChampNode.Result result = new ChampNode.Result();
+    private ChampNode<K, V> root;
+    private int size;
+
+    // Token identifying nodes this map is allowed to modify in place
+    private Object owner = new Object();
+
+    MutableChampMap(final ChampNode<K, V> root, final int size) {
+        this.root = Preconditions.checkNotNull(root);
+        this.size = size;
+    }
+
+    /**
+     * Create an empty map.
+     *
+     * @return An empty modifiable map
+     */
+    @Nonnull public static <K, V> MutableChampMap<K, V> create() {
+        return new MutableChampMap<>(ChampNode.<K, V>empty(), 0);
+    }
+
+    @Override
+    public ImmutableChampMap<K, V> toUnmodifiableMap() {
+        if (size == 0) {
+            return ImmutableChampMap.of();
+        }
+
+        // The returned map shares our nodes, hence we must not modify them anymore
+        owner = new Object();
+        return new ImmutableChampMap<>(root, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key != null && root.get(key, ChampNode.hash(key), 0) != null;
+    }
+
+    @Override
+    public V get(final Object key) {
+        return key == null ? null : root.get(key, ChampNode.hash(key), 0);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(final K key, final V value) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkNotNull(value);
+
+        result.reset();
+        root = root.put(owner, key, value, ChampNode.hash(key), 0, result);
+        if (result.sizeChanged) {
+            size++;
+        }
+        return (V) result.oldValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(final Object key) {
+        if (key == null) {
+            return null;
+        }
+
+        result.reset();
+        root = root.remove(owner, key, ChampNode.hash(key), 0, result);
+        if (result.sizeChanged) {
+            size--;
+        }
+        return (V) result.oldValue;
+    }
+
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> m) {
+        for (Entry<? extends K, ? extends V> e : m.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    @Override
+    public void clear() {
+        root = ChampNode.empty();
+        size = 0;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                final Iterator<Entry<K, V>> it = entryIterator();
+                return new Iterator<K>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public K next() {
+                        return it.next().getKey();
+                    }
+
+                    @Override
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(final Object o) {
+                return MutableChampMap.this.remove(o) != null;
+            }
+
+            @Override
+            public void clear() {
+                MutableChampMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return entryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                if (!(o instanceof Entry)) {
+                    return false;
+                }
+                final Entry<?, ?> e = (Entry<?, ?>) o;
+                final V value = get(e.getKey());
+                return value != null && value.equals(e.getValue());
+            }
+
+            @Override
+            public boolean remove(final Object o) {
+                if (!contains(o)) {
+                    return false;
+                }
+                MutableChampMap.this.remove(((Entry<?, ?>) o).getKey());
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                MutableChampMap.this.clear();
+            }
+        };
+    }
+
+    private Iterator<Entry<K, V>> entryIterator() {
+        final Iterator<Entry<K, V>> delegate = new ChampNode.EntryIterator<>(root);
+        return new Iterator<Entry<K, V>>() {
+            private boolean frozen;
+            private K lastKey;
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                final Entry<K, V> ret = delegate.next();
+                lastKey = ret.getKey();
+                return ret;
+            }
+
+            @Override
+            public void remove() {
+                Preconditions.checkState(lastKey != null, "No element to remove");
+                if (!frozen) {
+                    // Stop in-place modifications of the nodes we are iterating over, so the removal copies them
+                    owner = new Object();
+                    frozen = true;
+                }
+                MutableChampMap.this.remove(lastKey);
+                lastKey = null;
+            }
+        };
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import org.junit.Test;
+
+public class ChampMapTest {
+    /**
+     * Key whose hash code is under our control, so we can create full hash collisions.
+     */
+    private static final class Key {
+        private final int hash;
+        private final int id;
+
+        Key(final int hash, final int id) {
+            this.hash = hash;
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof Key && ((Key) obj).hash == hash && ((Key) obj).id == id;
+        }
+
+        @Override
+        public String toString() {
+            return hash + "/" + id;
+        }
+    }
+
+    @Test
+    public void testRandomOperations() {
+        final Random random = new Random(42);
+        final Map<Integer, Integer> expected = new HashMap<>();
+        ImmutableChampMap<Integer, Integer> map = ImmutableChampMap.of();
+
+        for (int round = 0; round < 50; ++round) {
+            final MutableChampMap<Integer, Integer> mutable = map.toModifiableMap();
+            for (int i = 0; i < 200; ++i) {
+                final Integer key = random.nextInt(2000);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(key), mutable.remove(key));
+                } else {
+                    assertEquals(expected.put(key, i), mutable.put(key, i));
+                }
+            }
+
+            final ImmutableChampMap<Integer, Integer> previous = map;
+            final Map<Integer, Integer> previousContent = new HashMap<>(previous);
+            map = mutable.toUnmodifiableMap();
+
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected, map);
+            assertEquals(map, expected);
+            assertEquals(expected.hashCode(), map.hashCode());
+
+            // Modifications did not leak into the previous version
+            assertEquals(previousContent, previous);
+        }
+    }
+
+    @Test
+    public void testCollisions() {
+        final MutableChampMap<Key, String> mutable = MutableChampMap.create();
+        for (int i = 0; i < 10; ++i) {
+            mutable.put(new Key(7, i), "a" + i);
+            mutable.put(new Key(7 + (1 << 30), i), "b" + i);
+        }
+        mutable.put(new Key(8, 0), "c");
+        assertEquals(21, mutable.size());
+
+        final ImmutableChampMap<Key, String> map = mutable.toUnmodifiableMap();
+        assertEquals("a3", map.get(new Key(7, 3)));
+        assertEquals("b9", map.get(new Key(7 + (1 << 30), 9)));
+        assertNull(map.get(new Key(7, 10)));
+        assertEquals(21, map.entrySet().size());
+        assertEquals(21, new HashMap<>(map).size());
+
+        final MutableChampMap<Key, String> shrinking = map.toModifiableMap();
+        for (int i = 0; i < 10; ++i) {
+            assertEquals("a" + i, shrinking.remove(new Key(7, i)));
+            assertEquals("b" + i, shrinking.remove(new Key(7 + (1 << 30), i)));
+        }
+        assertEquals(1, shrinking.size());
+        assertEquals("c", shrinking.get(new Key(8, 0)));
+        assertEquals(21, map.size());
+        assertEquals("a0", map.get(new Key(7, 0)));
+    }
+
+    private static <K, V> Map<K, Entry<V, V>> diff(final ImmutableChampMap<K, V> before,
+            final ImmutableChampMap<K, V> after) {
+        final Map<K, Entry<V, V>> ret = new HashMap<>();
+        before.diff(after, new ImmutableChampMap.DiffConsumer<K, V>() {
+            @Override
+            public void difference(final K key, final V oldValue, final V newValue) {
+                assertNull("Duplicate difference " + key, ret.put(key,
+                    new SimpleImmutableEntry<>(oldValue, newValue)));
+            }
+        });
+        return ret;
+    }
+
+    private static <K, V> Map<K, Entry<V, V>> expectedDiff(final Map<K, V> before, final Map<K, V> after) {
+        final Map<K, Entry<V, V>> ret = new HashMap<>();
+        for (Entry<K, V> e : before.entrySet()) {
+            final V value = after.get(e.getKey());
+            if (value != e.getValue()) {
+                ret.put(e.getKey(), new SimpleImmutableEntry<>(e.getValue(), value));
+            }
+        }
+        for (Entry<K, V> e : after.entrySet()) {
+            if (!before.containsKey(e.getKey())) {
+                ret.put(e.getKey(), new SimpleImmutableEntry<V, V>(null, e.getValue()));
+            }
+        }
+        return ret;
+    }
+
+    @Test
+    public void testDiff() {
+        final Random random = new Random(7);
+        ImmutableChampMap<Key, String> previous = ImmutableChampMap.of();
+        for (int round = 0; round < 200; ++round) {
+            final MutableChampMap<Key, String> mutable = previous.toModifiableMap();
+            for (int i = random.nextInt(50); i >= 0; --i) {
+                // Few distinct hashes, so that the tries contain collision nodes as well
+                final Key key = new Key(random.nextInt(64) * 0x01010101, random.nextInt(4));
+                if (random.nextInt(3) == 0) {
+                    mutable.remove(key);
+                } else {
+                    mutable.put(key, "v" + random.nextInt(4));
+                }
+            }
+
+            final ImmutableChampMap<Key, String> current = mutable.toUnmodifiableMap();
+            assertEquals(expectedDiff(previous, current), diff(previous, current));
+            assertEquals(expectedDiff(current, previous), diff(current, previous));
+            previous = current;
+        }
+    }
+
+    @Test
+    public void testDiffSharedTrie() {
+        final MutableChampMap<Integer, String> mutable = MutableChampMap.create();
+        for (int i = 0; i < 10000; ++i) {
+            mutable.put(i, "v" + i);
+        }
+        final ImmutableChampMap<Integer, String> before = mutable.toUnmodifiableMap();
+        assertTrue(diff(before, before).isEmpty());
+
+        final MutableChampMap<Integer, String> modified = before.toModifiableMap();
+        final String value = "w";
+        modified.put(5, value);
+        modified.remove(6);
+        modified.put(10000, value);
+        final Map<Integer, Entry<String, String>> changes = diff(before, modified.toUnmodifiableMap());
+        assertEquals(3, changes.size());
+        assertEquals(new SimpleImmutableEntry<>("v5", value), changes.get(5));
+        assertEquals(new SimpleImmutableEntry<>("v6", null), changes.get(6));
+        assertEquals(new SimpleImmutableEntry<>(null, value), changes.get(10000));
+
+        // Values are compared by identity, hence equal values created separately differ
+        final MutableChampMap<Integer, String> equal = MutableChampMap.create();
+        for (int i = 0; i < 10000; ++i) {
+            equal.put(i, "v" + i);
+        }
+        assertEquals(before, equal);
+        assertEquals(10000, diff(before, equal.toUnmodifiableMap()).size());
+    }
+
+    @Test
+    public void testFreezeIsolation() {
+        final MutableChampMap<String, String> mutable = MutableChampMap.create();
+        mutable.put("a", "a");
+        mutable.put("b", "b");
+        final ImmutableChampMap<String, String> first = mutable.toUnmodifiableMap();
+
+        // Further modifications must not be visible through the frozen map
+        mutable.put("a", "x");
+        mutable.remove("b");
+        mutable.put("c", "c");
+        assertEquals(2, first.size());
+        assertEquals("a", first.get("a"));
+        assertEquals("b", first.get("b"));
+        assertFalse(first.containsKey("c"));
+
+        assertSame(first, ImmutableChampMap.copyOf(first));
+        assertEquals(ImmutableChampMap.copyOf(mutable), mutable);
+        assertTrue(ImmutableChampMap.copyOf(new HashMap<String, String>()).isEmpty());
+    }
+
+    @Test
+    public void testRemovalThroughViews() {
+        final Map<Integer, Integer> expected = new HashMap<>();
+        final MutableChampMap<Integer, Integer> mutable = MutableChampMap.create();
+        for (int i = 0; i < 1000; ++i) {
+            expected.put(i, i % 10);
+            mutable.put(i, i % 10);
+        }
+        final ImmutableChampMap<Integer, Integer> frozen = mutable.toUnmodifiableMap();
+
+        assertTrue(mutable.keySet().removeAll(Arrays.asList(1, 2, 3, 5000)));
+        expected.keySet().removeAll(Arrays.asList(1, 2, 3, 5000));
+        assertEquals(expected, mutable);
+
+        assertTrue(mutable.values().removeAll(Collections.singleton(7)));
+        expected.values().removeAll(Collections.singleton(7));
+        assertEquals(expected, mutable);
+
+        for (Iterator<Entry<Integer, Integer>> it = mutable.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getKey() % 3 == 0) {
+                it.remove();
+            }
+        }
+        for (Iterator<Integer> it = expected.keySet().iterator(); it.hasNext(); ) {
+            if (it.next() % 3 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(expected, mutable);
+        assertEquals(expected.size(), mutable.size());
+
+        assertTrue(mutable.entrySet().remove(new SimpleImmutableEntry<>(4, 4)));
+        assertFalse(mutable.entrySet().remove(new SimpleImmutableEntry<>(8, 4)));
+        assertFalse(mutable.containsKey(4));
+
+        // The frozen map is not affected
+        assertEquals(1000, frozen.size());
+        assertEquals(Integer.valueOf(3), frozen.get(3));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        ImmutableChampMap.copyOf(ImmutableChampMap.<String, String>of()).put("a", "b");
+    }
+}
@@ -145,4 +145,38 @@ public class MapAdaptorTest {
         assertEquals(HashMap.class, opt2.getClass());
         assertEquals(4, opt2.size());
     }
+
+    @Test
+    public void testChamp() {
+        final MapAdaptor champ = MapAdaptor.getInstance(true, 10, 5, MapAdaptor.PersistentMapType.CHAMP);
+        final Map<String, String> input = new TreeMap<>();
+        for (char c = 'a'; c <= 'z'; ++c) {
+            final String s = String.valueOf(c);
+            input.put(s, s);
+        }
+
+        final Map<String, String> opt1 = champ.optimize(input);
+        assertEquals(input, opt1);
+        assertEquals(ImmutableChampMap.class, opt1.getClass());
+        assertSame(opt1, champ.optimize(opt1));
+
+        final Map<String, String> snap1 = champ.takeSnapshot(opt1);
+        assertEquals(MutableChampMap.class, snap1.getClass());
+        snap1.remove("a");
+        assertEquals(25, snap1.size());
+        assertEquals(26, opt1.size());
+
+        final Map<String, String> opt2 = champ.optimize(snap1);
+        assertEquals(ImmutableChampMap.class, opt2.getClass());
+        assertEquals(snap1, opt2);
+
+        // Below persistMinItems we revert to a HashMap
+        final Map<String, String> snap2 = champ.takeSnapshot(opt2);
+        for (char c = 'b'; c <= 'w'; ++c) {
+            snap2.remove(String.valueOf(c));
+        }
+        assertEquals(3, snap2.size());
+        assertEquals(HashMap.class, champ.optimize(snap2).getClass());
+        assertEquals(MutableChampMap.class, champ.initialSnapshot(6).getClass());
+    }
 }
@@ -7,8 +7,10 @@
  */
 package org.opendaylight.yangtools.yang.data.api.schema;
 
+import com.google.common.annotations.Beta;
 import com.google.common.base.Optional;
 import java.util.Collection;
+import javax.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 
 /**
@@ -51,4 +53,19 @@ public interface NormalizedNodeContainer<I extends PathArgument, K extends PathA
      *         {@link Optional#absent()} if child does not exists.
      */
     Optional<V> getChild(K child);
+
+    /**
+     * Returns child node identified by provided key, or null if it does not exist. This is equivalent to
+     * {@code getChild(child).orNull()}, but implementations backed by a map can avoid allocating an
+     * {@link Optional}, which matters when walking many paths.
+     *
+     * @param child
+     *            Path argument identifying child node
+     * @return Child node, or null if child does not exist.
+     */
+    @Beta
+    @Nullable
+    default V getChildOrNull(final K child) {
+        return getChild(child).orNull();
+    }
 }
@@ -14,9 +14,15 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
@@ -36,6 +42,25 @@ public final class NormalizedNodes {
         }
     };
 
+    /**
+     * Orders paths so that paths sharing a prefix are adjacent. The order itself is not meaningful.
+     */
+    private static final Comparator<YangInstanceIdentifier> PREFIX_ORDER = new Comparator<YangInstanceIdentifier>() {
+        @Override
+        public int compare(final YangInstanceIdentifier o1, final YangInstanceIdentifier o2) {
+            final List<PathArgument> args1 = o1.getPathArguments();
+            final List<PathArgument> args2 = o2.getPathArguments();
+            final int size = Math.min(args1.size(), args2.size());
+            for (int i = 0; i < size; ++i) {
+                final int cmp = Integer.compare(args1.get(i).hashCode(), args2.get(i).hashCode());
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return Integer.compare(args1.size(), args2.size());
+        }
+    };
+
     private NormalizedNodes() {
         throw new UnsupportedOperationException("Utility class should not be instantiated");
     }
@@ -53,12 +78,16 @@ public final class NormalizedNodes {
         checkNotNull(parent, "Parent must not be null");
         checkNotNull(relativePath, "Relative path must not be null");
 
-        Optional<NormalizedNode<?, ?>> currentNode = parent;
+        if (!parent.isPresent()) {
+            return parent;
+        }
+
+        NormalizedNode<?, ?> currentNode = parent.get();
         final Iterator<PathArgument> pathIterator = relativePath.iterator();
-        while (currentNode.isPresent() && pathIterator.hasNext()) {
-            currentNode = getDirectChild(currentNode.get(), pathIterator.next());
+        while (currentNode != null && pathIterator.hasNext()) {
+            currentNode = getDirectChildOrNull(currentNode, pathIterator.next());
         }
-        return currentNode;
+        return Optional.<NormalizedNode<?, ?>>fromNullable(currentNode);
     }
 
     public static Optional<NormalizedNode<?, ?>> findNode(final Optional<NormalizedNode<?, ?>> parent, final PathArgument... relativePath) {
@@ -80,18 +109,87 @@ public final class NormalizedNodes {
         return findNode(Optional.of(tree), path.getPathArguments());
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
+    /**
+     * Find multiple nodes in a tree at once. Paths are sorted first, so that nodes on a prefix shared by multiple
+     * paths are looked up only once.
+     *
+     * @param tree Tree root
+     * @param paths Paths to look up, relative to tree root
+     * @return Map of found nodes, keyed by their path. Paths which do not exist in the tree are not present.
+     */
+    public static Map<YangInstanceIdentifier, NormalizedNode<?, ?>> findNodes(final NormalizedNode<?, ?> tree,
+            final Collection<YangInstanceIdentifier> paths) {
+        checkNotNull(tree, "Tree must not be null");
+        checkNotNull(paths, "Paths must not be null");
+
+        final YangInstanceIdentifier[] sorted = paths.toArray(new YangInstanceIdentifier[paths.size()]);
+        Arrays.sort(sorted, PREFIX_ORDER);
+
+        final Map<YangInstanceIdentifier, NormalizedNode<?, ?>> ret = new HashMap<>(sorted.length * 4 / 3 + 1);
+
+        // Nodes resolved for the previous path: nodes[i] corresponds to its first i arguments
+        NormalizedNode<?, ?>[] nodes = new NormalizedNode<?, ?>[8];
+        nodes[0] = tree;
+        List<PathArgument> prevArgs = Collections.emptyList();
+        int prevDepth = 0;
+
+        for (YangInstanceIdentifier path : sorted) {
+            final List<PathArgument> args = path.getPathArguments();
+            if (nodes.length <= args.size()) {
+                nodes = Arrays.copyOf(nodes, args.size() + 1);
+            }
+
+            int depth = 0;
+            final int shared = Math.min(prevDepth, args.size());
+            while (depth < shared && args.get(depth).equals(prevArgs.get(depth))) {
+                ++depth;
+            }
+
+            NormalizedNode<?, ?> node = nodes[depth];
+            while (depth < args.size()) {
+                final NormalizedNode<?, ?> child = getDirectChildOrNull(node, args.get(depth));
+                if (child == null) {
+                    break;
+                }
+                node = child;
+                nodes[++depth] = child;
+            }
+
+            if (depth == args.size()) {
+                ret.put(path, node);
+            }
+            prevArgs = args;
+            prevDepth = depth;
+        }
+
+        return ret;
+    }
+
     public static Optional<NormalizedNode<?, ?>> getDirectChild(final NormalizedNode<?, ?> node, final PathArgument pathArg) {
+        return Optional.<NormalizedNode<?, ?>>fromNullable(getDirectChildOrNull(node, pathArg));
+    }
+
+    /**
+     * Look up a direct child of a node without allocating an {@link Optional}.
+     *
+     * @param node Parent node
+     * @param pathArg Child identifier
+     * @return Child node, or null if it does not exist
+     */
+    @Nullable
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static NormalizedNode<?, ?> getDirectChildOrNull(final NormalizedNode<?, ?> node,
+            final PathArgument pathArg) {
         if (node instanceof LeafNode<?> || node instanceof LeafSetEntryNode<?>) {
-            return Optional.absent();
+            return null;
         } else if (node instanceof DataContainerNode<?>) {
-            return (Optional) ((DataContainerNode<?>) node).getChild(pathArg);
+            return ((DataContainerNode<?>) node).getChildOrNull(pathArg);
         } else if (node instanceof MapNode && pathArg instanceof NodeIdentifierWithPredicates) {
-            return (Optional) ((MapNode) node).getChild((NodeIdentifierWithPredicates) pathArg);
+            return ((MapNode) node).getChildOrNull((NodeIdentifierWithPredicates) pathArg);
         } else if (node instanceof LeafSetNode<?>) {
-            return (Optional) ((LeafSetNode<?>) node).getChild((NodeWithValue) pathArg);
+            return ((LeafSetNode) node).getChildOrNull((NodeWithValue) pathArg);
         }
-        return Optional.absent();
+        return null;
     }
 
     /**
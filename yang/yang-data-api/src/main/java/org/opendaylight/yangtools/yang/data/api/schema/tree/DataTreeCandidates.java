@@ -13,6 +13,7 @@ import java.util.Iterator;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +36,52 @@ public final class DataTreeCandidates {
         return new DefaultDataTreeCandidate(rootPath, new NormalizedNodeDataTreeCandidateNode(node));
     }
 
+    /**
+     * Create a candidate describing the changes needed to turn the data in one snapshot into the data in another.
+     * Both snapshots are expected to come from the same data tree, in which case unmodified subtrees are shared
+     * between them and are skipped without being compared. The returned candidate is computed lazily as it is
+     * being walked. Unless the snapshot holding the after-image is a {@link DiffingDataTreeSnapshot}, children of
+     * modified containers are compared one by one.
+     *
+     * @param before Snapshot holding the before-image
+     * @param after Snapshot holding the after-image
+     * @return A candidate rooted at {@link YangInstanceIdentifier#EMPTY}
+     */
+    public static DataTreeCandidate diff(final DataTreeSnapshot before, final DataTreeSnapshot after) {
+        return diff(YangInstanceIdentifier.EMPTY, before, after);
+    }
+
+    /**
+     * Create a candidate describing the changes needed to turn the data at a particular path in one snapshot into
+     * the data at that path in another.
+     *
+     * @param rootPath Path to compare
+     * @param before Snapshot holding the before-image
+     * @param after Snapshot holding the after-image
+     * @return A candidate rooted at rootPath
+     * @throws IllegalArgumentException if the path is empty and neither snapshot holds a root node
+     */
+    public static DataTreeCandidate diff(final YangInstanceIdentifier rootPath, final DataTreeSnapshot before,
+            final DataTreeSnapshot after) {
+        final NormalizedNode<?, ?> oldData = before.readNode(rootPath).orNull();
+        final NormalizedNode<?, ?> newData = after.readNode(rootPath).orNull();
+
+        final PathArgument identifier;
+        if (newData != null) {
+            identifier = newData.getIdentifier();
+        } else if (oldData != null) {
+            identifier = oldData.getIdentifier();
+        } else {
+            identifier = rootPath.getLastPathArgument();
+            Preconditions.checkArgument(identifier != null, "Neither %s nor %s has a root node", before, after);
+        }
+
+        final DataTreeCandidateNode rootNode = after instanceof DiffingDataTreeSnapshot
+                ? ((DiffingDataTreeSnapshot) after).diff(identifier, oldData, newData)
+                : new DiffDataTreeCandidateNode(identifier, oldData, newData);
+        return new DefaultDataTreeCandidate(rootPath, rootNode);
+    }
+
     public static void applyToCursor(final DataTreeModificationCursor cursor, final DataTreeCandidate candidate) {
         DataTreeCandidateNodes.applyToCursor(cursor, candidate.getRootNode());
     }
@@ -8,8 +8,15 @@
 package org.opendaylight.yangtools.yang.data.api.schema.tree;
 
 import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import org.opendaylight.yangtools.concepts.Immutable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
 
 /**
  * DataTree configuration class.
@@ -19,6 +26,10 @@ import org.opendaylight.yangtools.concepts.Immutable;
  * <li>treeType</li>
  * <li>enable/disable unique indexes and unique constraint validation</li>
  * <li>enable/disable mandatory nodes validation</li>
+ * <li>enable/disable rebasing of candidates onto a newer tree state on commit</li>
+ * <li>enable/disable must and when constraint validation, by providing an XPath implementation</li>
+ * <li>retention of historical tree states, bounded by their number and age</li>
+ * <li>non-unique secondary indexes on list leaves</li>
  * </ul>
  *
  * TreeConfig can be easily extended in order to support further data tree
@@ -36,19 +47,31 @@ import org.opendaylight.yangtools.concepts.Immutable;
 @Beta
 public class DataTreeConfiguration implements Immutable {
     public static final DataTreeConfiguration DEFAULT_CONFIGURATION = new DataTreeConfiguration(TreeType.CONFIGURATION,
-            false, true);
+            false, true, false, null, 0, 0, ImmutableSet.<SecondaryIndexDefinition>of());
     public static final DataTreeConfiguration DEFAULT_OPERATIONAL = new DataTreeConfiguration(TreeType.OPERATIONAL,
-            false, true);
+            false, true, false, null, 0, 0, ImmutableSet.<SecondaryIndexDefinition>of());
 
     private final TreeType treeType;
     private final boolean uniqueIndexes;
     private final boolean mandatoryNodesValidation;
+    private final boolean commitRebase;
+    private final XPathSchemaContextFactory xpathContextFactory;
+    private final int historySize;
+    private final long historyMaxAge;
+    private final Set<SecondaryIndexDefinition> secondaryIndexes;
 
     private DataTreeConfiguration(final TreeType treeType, final boolean uniqueIndexes,
-            final boolean mandatoryNodesValidation) {
+            final boolean mandatoryNodesValidation, final boolean commitRebase,
+            final XPathSchemaContextFactory xpathContextFactory, final int historySize, final long historyMaxAge,
+            final Set<SecondaryIndexDefinition> secondaryIndexes) {
         this.treeType = Preconditions.checkNotNull(treeType);
         this.uniqueIndexes = uniqueIndexes;
         this.mandatoryNodesValidation = mandatoryNodesValidation;
+        this.commitRebase = commitRebase;
+        this.xpathContextFactory = xpathContextFactory;
+        this.historySize = historySize;
+        this.historyMaxAge = historyMaxAge;
+        this.secondaryIndexes = Preconditions.checkNotNull(secondaryIndexes);
     }
 
     public TreeType getTreeType() {
@@ -63,6 +86,57 @@ public class DataTreeConfiguration implements Immutable {
         return mandatoryNodesValidation;
     }
 
+    /**
+     * Check whether a candidate prepared against an older state of the tree can be committed, as long as the subtrees
+     * it modifies have not been changed in the meantime. If this is disabled, such a commit fails.
+     *
+     * @return True if candidates are rebased onto the current tree state on commit.
+     */
+    public boolean isCommitRebaseEnabled() {
+        return commitRebase;
+    }
+
+    /**
+     * Return the XPath implementation used to evaluate YANG must and when constraints. If it is not present, these
+     * constraints are not enforced.
+     *
+     * @return Optional XPath schema context factory.
+     */
+    public Optional<XPathSchemaContextFactory> getXPathSchemaContextFactory() {
+        return Optional.fromNullable(xpathContextFactory);
+    }
+
+    /**
+     * Return the maximum number of past tree states retained for historical reads, in addition to the current
+     * state. Zero indicates that no history is kept.
+     *
+     * @return Maximum number of retained past states.
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * Return the time, in milliseconds, for which a past tree state is retained after it has been superseded by
+     * a commit. Zero indicates that past states are retained regardless of their age, bounded only by
+     * {@link #getHistorySize()}.
+     *
+     * @return Maximum age of retained past states, in milliseconds.
+     */
+    public long getHistoryMaxAge() {
+        return historyMaxAge;
+    }
+
+    /**
+     * Return the secondary indexes maintained by the data tree. Snapshots of a data tree with indexes implement
+     * {@link IndexedDataTreeSnapshot}.
+     *
+     * @return Set of secondary index definitions, empty if no indexes are maintained.
+     */
+    public Set<SecondaryIndexDefinition> getSecondaryIndexes() {
+        return secondaryIndexes;
+    }
+
     public static DataTreeConfiguration getDefault(final TreeType treeType) {
         Preconditions.checkNotNull(treeType);
         switch (treeType) {
@@ -71,7 +145,8 @@ public class DataTreeConfiguration implements Immutable {
         case OPERATIONAL:
             return DEFAULT_OPERATIONAL;
         default:
-            return new DataTreeConfiguration(treeType, false, true);
+            return new DataTreeConfiguration(treeType, false, true, false, null, 0, 0,
+                ImmutableSet.<SecondaryIndexDefinition>of());
         }
     }
 
@@ -79,6 +154,11 @@ public class DataTreeConfiguration implements Immutable {
         private final TreeType treeType;
         private boolean uniqueIndexes;
         private boolean mandatoryNodesValidation;
+        private boolean commitRebase;
+        private XPathSchemaContextFactory xpathContextFactory;
+        private int historySize;
+        private long historyMaxAge;
+        private final ImmutableSet.Builder<SecondaryIndexDefinition> secondaryIndexes = ImmutableSet.builder();
 
         public Builder(final TreeType treeType) {
             this.treeType = Preconditions.checkNotNull(treeType);
@@ -94,8 +174,36 @@ public class DataTreeConfiguration implements Immutable {
             return this;
         }
 
+        public Builder setCommitRebase(final boolean commitRebase) {
+            this.commitRebase = commitRebase;
+            return this;
+        }
+
+        public Builder setXPathSchemaContextFactory(final XPathSchemaContextFactory xpathContextFactory) {
+            this.xpathContextFactory = xpathContextFactory;
+            return this;
+        }
+
+        public Builder setHistorySize(final int historySize) {
+            Preconditions.checkArgument(historySize >= 0, "Negative history size %s", historySize);
+            this.historySize = historySize;
+            return this;
+        }
+
+        public Builder setHistoryMaxAge(final long historyMaxAge, final TimeUnit unit) {
+            Preconditions.checkArgument(historyMaxAge >= 0, "Negative history age %s", historyMaxAge);
+            this.historyMaxAge = unit.toMillis(historyMaxAge);
+            return this;
+        }
+
+        public Builder addSecondaryIndex(final SchemaPath listPath, final QName leaf) {
+            secondaryIndexes.add(SecondaryIndexDefinition.create(listPath, leaf));
+            return this;
+        }
+
         public DataTreeConfiguration build() {
-            return new DataTreeConfiguration(treeType, uniqueIndexes, mandatoryNodesValidation);
+            return new DataTreeConfiguration(treeType, uniqueIndexes, mandatoryNodesValidation, commitRebase,
+                xpathContextFactory, historySize, historyMaxAge, secondaryIndexes.build());
         }
     }
 }
\ No newline at end of file
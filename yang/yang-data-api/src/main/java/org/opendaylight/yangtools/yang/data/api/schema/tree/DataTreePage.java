@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.concepts.Immutable;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+
+/**
+ * A page of entries of a keyed list, as returned from
+ * {@link DataTreeSnapshot#readPage(org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier,
+ * DataTreePageToken, int)}. The entries are a view of the list, they are not copied.
+ */
+@Beta
+public final class DataTreePage implements Immutable {
+    private final List<MapEntryNode> entries;
+    private final DataTreePageToken nextToken;
+    private final int listSize;
+
+    DataTreePage(final List<MapEntryNode> entries, final DataTreePageToken nextToken, final int listSize) {
+        this.entries = Preconditions.checkNotNull(entries);
+        this.nextToken = nextToken;
+        this.listSize = listSize;
+    }
+
+    /**
+     * Return the entries on this page.
+     *
+     * @return Unmodifiable list of entries
+     */
+    @Nonnull public List<MapEntryNode> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Return the token for reading the next page.
+     *
+     * @return Token, or absent if this is the last page
+     */
+    @Nonnull public Optional<DataTreePageToken> getNextToken() {
+        return Optional.fromNullable(nextToken);
+    }
+
+    /**
+     * Return the total number of entries in the list.
+     *
+     * @return Number of entries
+     */
+    public int getListSize() {
+        return listSize;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("entries", entries.size()).add("next", nextToken)
+                .add("listSize", listSize).toString();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+
+/**
+ * Paging indices of unordered lists of a single data tree, see {@link DataTreePages} for how entries are ordered.
+ * An index is created when a list is paged for the first time and is retained for as long as that list instance is.
+ * Since lists which have not been modified are shared between snapshots, so are their indices. The data tree reports
+ * committed candidates to {@link #update(DataTreeCandidate)}, which derives indices of modified lists from their
+ * previous versions.
+ */
+@Beta
+@ThreadSafe
+public final class DataTreePageIndices {
+    // Keys are weak, hence they are compared by identity and entries go away together with the lists
+    private final LoadingCache<MapNode, UnorderedListIndex> indices = CacheBuilder.newBuilder().weakKeys()
+            .build(new CacheLoader<MapNode, UnorderedListIndex>() {
+                @Override
+                public UnorderedListIndex load(final MapNode key) {
+                    return UnorderedListIndex.create(DataTreePages.KEY_ORDER, key.getValue());
+                }
+            });
+
+    private DataTreePageIndices() {
+        // Hidden on purpose
+    }
+
+    /**
+     * Create a new set of indices, which is empty.
+     *
+     * @return New indices
+     */
+    @Nonnull public static DataTreePageIndices create() {
+        return new DataTreePageIndices();
+    }
+
+    /**
+     * Read a page of a keyed list, using an index of this set.
+     *
+     * @param list List node
+     * @param token Token returned with the previous page, null to read the first page
+     * @param limit Maximum number of entries on the page
+     * @return A page of entries
+     * @throws IllegalArgumentException if list is not a {@link MapNode}, the token does not match the kind of the
+     *                                  list, or the limit is not positive
+     */
+    @Nonnull public DataTreePage readPage(@Nonnull final NormalizedNode<?, ?> list,
+            @Nullable final DataTreePageToken token, final int limit) {
+        return DataTreePages.readPage(list, token, limit, this);
+    }
+
+    /**
+     * Read a page of a keyed list starting at a particular offset, using an index of this set.
+     *
+     * @param list List node
+     * @param offset Offset of the first entry
+     * @param limit Maximum number of entries on the page
+     * @return A page of entries
+     * @throws IllegalArgumentException if list is not a {@link MapNode}, or the offset is negative or the limit
+     *                                  is not positive
+     */
+    @Nonnull public DataTreePage readPage(@Nonnull final NormalizedNode<?, ?> list, final int offset,
+            final int limit) {
+        return DataTreePages.readPage(list, offset, limit, this);
+    }
+
+    /**
+     * Update indices of unordered lists modified by a committed candidate. If a modified list has been paged before
+     * the modification, the index of its new version is derived from the index of the previous version, instead of
+     * being created when that version is paged. This method does nothing if no list has been paged.
+     *
+     * @param candidate Committed candidate
+     */
+    public void update(@Nonnull final DataTreeCandidate candidate) {
+        if (indices.size() != 0) {
+            update(candidate.getRootNode());
+        }
+    }
+
+    UnorderedListIndex indexOf(final MapNode list) {
+        return indices.getUnchecked(list);
+    }
+
+    private void update(final DataTreeCandidateNode node) {
+        if (node.getModificationType() != ModificationType.SUBTREE_MODIFIED) {
+            // Lists have been either removed or replaced as a whole
+            return;
+        }
+
+        final Optional<NormalizedNode<?, ?>> before = node.getDataBefore();
+        final Optional<NormalizedNode<?, ?>> after = node.getDataAfter();
+        if (before.isPresent() && before.get() instanceof MapNode && !(before.get() instanceof OrderedMapNode)
+                && after.isPresent() && after.get() instanceof MapNode) {
+            final UnorderedListIndex index = indices.getIfPresent(before.get());
+            if (index != null) {
+                final Map<NodeIdentifierWithPredicates, MapEntryNode> changes = new HashMap<>();
+                for (DataTreeCandidateNode child : node.getChildNodes()) {
+                    if (child.getModificationType() != ModificationType.UNMODIFIED) {
+                        changes.put((NodeIdentifierWithPredicates) child.getIdentifier(),
+                            (MapEntryNode) child.getDataAfter().orNull());
+                    }
+                }
+                indices.put((MapNode) after.get(), index.update(changes));
+            }
+        }
+
+        // Modified entries and containers may hold further lists
+        for (DataTreeCandidateNode child : node.getChildNodes()) {
+            update(child);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import java.io.Serializable;
+import java.util.Objects;
+import org.opendaylight.yangtools.concepts.Immutable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+
+/**
+ * An opaque token identifying where the next {@link DataTreePage} of a list starts. Tokens of user-ordered lists
+ * hold a position, tokens of other lists hold the key of the last entry returned, so that iteration can continue
+ * in a newer snapshot of the same list.
+ */
+@Beta
+public final class DataTreePageToken implements Immutable, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final NodeIdentifierWithPredicates lastKey;
+    private final int offset;
+
+    private DataTreePageToken(final NodeIdentifierWithPredicates lastKey, final int offset) {
+        this.lastKey = lastKey;
+        this.offset = offset;
+    }
+
+    static DataTreePageToken afterKey(final NodeIdentifierWithPredicates lastKey) {
+        return new DataTreePageToken(Preconditions.checkNotNull(lastKey), -1);
+    }
+
+    static DataTreePageToken atOffset(final int offset) {
+        Preconditions.checkArgument(offset >= 0);
+        return new DataTreePageToken(null, offset);
+    }
+
+    NodeIdentifierWithPredicates getLastKey() {
+        return lastKey;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(lastKey) * 31 + offset;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DataTreePageToken)) {
+            return false;
+        }
+        final DataTreePageToken other = (DataTreePageToken) obj;
+        return offset == other.offset && Objects.equals(lastKey, other.lastKey);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).omitNullValues().add("lastKey", lastKey)
+                .add("offset", offset < 0 ? null : offset).toString();
+    }
+}
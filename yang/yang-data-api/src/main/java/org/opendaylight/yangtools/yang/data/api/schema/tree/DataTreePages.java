@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.RandomAccess;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+
+/**
+ * Utility methods for reading keyed lists in {@link DataTreePage}s.
+ *
+ * <p>
+ * Entries of user-ordered lists are paged in their order, by position. Other lists do not have a defined order,
+ * hence their entries are paged in the order of their key's hash code. Pages are views of an index, which holds
+ * the entries of a particular list instance in that order. Methods of this class create such an index for each page
+ * they read, data trees keep indices of their lists in {@link DataTreePageIndices} instead. A page continues after
+ * the last key of the previous page, even if the list has been modified in the meantime.
+ */
+@Beta
+public final class DataTreePages {
+    static final Comparator<NodeIdentifierWithPredicates> KEY_ORDER = new Comparator<NodeIdentifierWithPredicates>() {
+        @Override
+        public int compare(final NodeIdentifierWithPredicates o1, final NodeIdentifierWithPredicates o2) {
+            final int cmp = Integer.compare(o1.hashCode(), o2.hashCode());
+            // Hash collisions are rare, the string form provides a stable order in that case
+            return cmp != 0 ? cmp : o1.toString().compareTo(o2.toString());
+        }
+    };
+
+    private DataTreePages() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read a page of a keyed list.
+     *
+     * @param list List node
+     * @param token Token returned with the previous page, null to read the first page
+     * @param limit Maximum number of entries on the page
+     * @return A page of entries
+     * @throws IllegalArgumentException if list is not a {@link MapNode}, the token does not match the kind of the
+     *                                  list, or the limit is not positive
+     */
+    @Nonnull public static DataTreePage readPage(@Nonnull final NormalizedNode<?, ?> list,
+            @Nullable final DataTreePageToken token, final int limit) {
+        return readPage(list, token, limit, null);
+    }
+
+    /**
+     * Read a page of a keyed list starting at a particular offset.
+     *
+     * @param list List node
+     * @param offset Offset of the first entry
+     * @param limit Maximum number of entries on the page
+     * @return A page of entries
+     * @throws IllegalArgumentException if list is not a {@link MapNode}, or the offset is negative or the limit
+     *                                  is not positive
+     */
+    @Nonnull public static DataTreePage readPage(@Nonnull final NormalizedNode<?, ?> list, final int offset,
+            final int limit) {
+        return readPage(list, offset, limit, null);
+    }
+
+    static DataTreePage readPage(final NormalizedNode<?, ?> list, final DataTreePageToken token, final int limit,
+            final DataTreePageIndices indices) {
+        final MapNode map = checkList(list, limit);
+        if (token == null) {
+            return readPage(map, 0, limit, indices);
+        }
+
+        if (map instanceof OrderedMapNode) {
+            Preconditions.checkArgument(token.getLastKey() == null, "Token %s does not apply to ordered list %s",
+                token, map.getIdentifier());
+            return orderedPage((OrderedMapNode) map, token.getOffset(), limit);
+        }
+
+        final NodeIdentifierWithPredicates lastKey = token.getLastKey();
+        Preconditions.checkArgument(lastKey != null, "Token %s does not apply to unordered list %s", token,
+            map.getIdentifier());
+        final UnorderedListIndex index = indexOf(map, indices);
+        return unorderedPage(index, index.indexAfter(lastKey), limit);
+    }
+
+    static DataTreePage readPage(final NormalizedNode<?, ?> list, final int offset, final int limit,
+            final DataTreePageIndices indices) {
+        final MapNode map = checkList(list, limit);
+        Preconditions.checkArgument(offset >= 0, "Offset %s is negative", offset);
+        if (map instanceof OrderedMapNode) {
+            return orderedPage((OrderedMapNode) map, offset, limit);
+        }
+        return unorderedPage(indexOf(map, indices), offset, limit);
+    }
+
+    private static UnorderedListIndex indexOf(final MapNode list, final DataTreePageIndices indices) {
+        return indices != null ? indices.indexOf(list) : UnorderedListIndex.create(KEY_ORDER, list.getValue());
+    }
+
+    private static MapNode checkList(final NormalizedNode<?, ?> list, final int limit) {
+        Preconditions.checkArgument(list instanceof MapNode, "Node %s is not a keyed list", list.getIdentifier());
+        Preconditions.checkArgument(limit > 0, "Limit %s is not positive", limit);
+        return (MapNode) list;
+    }
+
+    private static int endOf(final int from, final int limit, final int size) {
+        return (int) Math.min((long) from + limit, size);
+    }
+
+    private static DataTreePage orderedPage(final OrderedMapNode list, final int offset, final int limit) {
+        final int size = list.getSize();
+        final int from = Math.min(offset, size);
+        final int to = endOf(from, limit, size);
+        return new DataTreePage(new OrderedView(list, from, to - from),
+            to < size ? DataTreePageToken.atOffset(to) : null, size);
+    }
+
+    private static DataTreePage unorderedPage(final UnorderedListIndex index, final int offset, final int limit) {
+        final int size = index.size();
+        final int from = Math.min(offset, size);
+        final int to = endOf(from, limit, size);
+        final MapEntryNode[] entries = index.slice(from, to);
+        return new DataTreePage(Collections.unmodifiableList(Arrays.asList(entries)),
+            to < size ? DataTreePageToken.afterKey(entries[entries.length - 1].getIdentifier()) : null, size);
+    }
+
+    private static final class OrderedView extends AbstractList<MapEntryNode> implements RandomAccess {
+        private final OrderedMapNode list;
+        private final int offset;
+        private final int size;
+
+        OrderedView(final OrderedMapNode list, final int offset, final int size) {
+            this.list = list;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public MapEntryNode get(final int index) {
+            Preconditions.checkElementIndex(index, size);
+            return list.getChild(offset + index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
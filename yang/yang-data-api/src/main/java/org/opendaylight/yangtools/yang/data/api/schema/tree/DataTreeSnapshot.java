@@ -7,11 +7,15 @@
  */
 package org.opendaylight.yangtools.yang.data.api.schema.tree;
 
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 
-import com.google.common.base.Optional;
-
 /**
  * Read-only snapshot of a {@link DataTree}. The snapshot is stable and isolated,
  * e.g. data tree changes occurring after the snapshot has been taken are not
@@ -26,6 +30,59 @@ public interface DataTreeSnapshot {
      */
     Optional<NormalizedNode<?, ?>> readNode(YangInstanceIdentifier path);
 
+    /**
+     * Read multiple nodes from the snapshot. Implementations are encouraged to look up nodes on paths sharing
+     * a common prefix together. The default implementation invokes {@link #readNode(YangInstanceIdentifier)}
+     * for each path.
+     *
+     * @param paths Paths of the nodes
+     * @return Map of nodes which are present, keyed by their path
+     */
+    @Beta
+    default Map<YangInstanceIdentifier, NormalizedNode<?, ?>> readNodes(final Collection<YangInstanceIdentifier> paths) {
+        final Map<YangInstanceIdentifier, NormalizedNode<?, ?>> ret = new HashMap<>();
+        for (YangInstanceIdentifier path : paths) {
+            final Optional<NormalizedNode<?, ?>> node = readNode(path);
+            if (node.isPresent()) {
+                ret.put(path, node.get());
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Read a page of entries of a keyed list. See {@link DataTreePages} for details on how entries are ordered.
+     *
+     * @param path Path of the list
+     * @param token Token returned with the previous page, null to read the first page
+     * @param limit Maximum number of entries on the page
+     * @return A page of entries, or absent if the list does not exist
+     * @throws IllegalArgumentException if the path does not identify a keyed list or the token does not apply to it
+     */
+    @Beta
+    default Optional<DataTreePage> readPage(final YangInstanceIdentifier path, @Nullable final DataTreePageToken token,
+            final int limit) {
+        final Optional<NormalizedNode<?, ?>> list = readNode(path);
+        return list.isPresent() ? Optional.of(DataTreePages.readPage(list.get(), token, limit))
+                : Optional.<DataTreePage>absent();
+    }
+
+    /**
+     * Read a page of entries of a keyed list, starting at a particular offset.
+     *
+     * @param path Path of the list
+     * @param offset Offset of the first entry
+     * @param limit Maximum number of entries on the page
+     * @return A page of entries, or absent if the list does not exist
+     * @throws IllegalArgumentException if the path does not identify a keyed list
+     */
+    @Beta
+    default Optional<DataTreePage> readPage(final YangInstanceIdentifier path, final int offset, final int limit) {
+        final Optional<NormalizedNode<?, ?>> list = readNode(path);
+        return list.isPresent() ? Optional.of(DataTreePages.readPage(list.get(), offset, limit))
+                : Optional.<DataTreePage>absent();
+    }
+
     /**
      * Create a new data tree modification based on this snapshot, using the
      * specified data application strategy.
@@ -9,7 +9,11 @@ package org.opendaylight.yangtools.yang.data.api.schema.tree;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Optional;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
@@ -97,6 +101,43 @@ public interface DataTreeSnapshotCursor extends AutoCloseable {
      */
     Optional<NormalizedNode<?, ?>> readNode(@Nonnull PathArgument child);
 
+    /**
+     * Read multiple children of the current position. The default implementation invokes
+     * {@link #readNode(PathArgument)} for each child.
+     *
+     * @param children Child identifiers
+     * @return Map of children which are present, keyed by their identifier
+     * @throws BackendFailedException when implementation-specific error occurs while
+     *                                servicing the request.
+     * @throws IllegalArgumentException when a specified identifier does not identify a valid child.
+     */
+    default Map<PathArgument, NormalizedNode<?, ?>> readNodes(@Nonnull final Collection<PathArgument> children) {
+        final Map<PathArgument, NormalizedNode<?, ?>> ret = new HashMap<>();
+        for (PathArgument child : children) {
+            final Optional<NormalizedNode<?, ?>> node = readNode(child);
+            if (node.isPresent()) {
+                ret.put(child, node.get());
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Read a page of entries of a keyed list, which is a child of the current position.
+     *
+     * @param child Child identifier
+     * @param token Token returned with the previous page, null to read the first page
+     * @param limit Maximum number of entries on the page
+     * @return A page of entries, or absent if the list does not exist
+     * @throws IllegalArgumentException if the child is not a keyed list or the token does not apply to it
+     */
+    default Optional<DataTreePage> readPage(@Nonnull final PathArgument child,
+            @Nullable final DataTreePageToken token, final int limit) {
+        final Optional<NormalizedNode<?, ?>> list = readNode(child);
+        return list.isPresent() ? Optional.of(DataTreePages.readPage(list.get(), token, limit))
+                : Optional.<DataTreePage>absent();
+    }
+
     /**
      * Close this cursor. Attempting any further operations on the cursor will lead
      * to undefined behavior.
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListNode;
+
+/**
+ * A {@link DataTreeCandidateNode} describing the difference between two versions of a node. Data trees share
+ * unmodified subtrees between their versions, hence identical instances are known to be equal and are not
+ * examined any further. Children are compared only when they are requested and the result is cached, so the work
+ * done is proportional to the part of the tree which has actually been walked.
+ *
+ * <p>
+ * The modification type of a node is derived from the identity and presence of its data, without looking at its
+ * children. A container replaced with a distinct, but equal, instance is therefore reported as
+ * {@link ModificationType#SUBTREE_MODIFIED} with no modified children. Leaf values and unkeyed lists, which are
+ * treated as opaque values, are compared for equality.
+ */
+final class DiffDataTreeCandidateNode implements DataTreeCandidateNode {
+    private final PathArgument identifier;
+    private final NormalizedNode<?, ?> before;
+    private final NormalizedNode<?, ?> after;
+
+    // Lazily computed when both before and after are containers, the list is immutable and safe to publish
+    private volatile List<DataTreeCandidateNode> modifiedChildren;
+
+    DiffDataTreeCandidateNode(@Nonnull final PathArgument identifier, @Nullable final NormalizedNode<?, ?> before,
+            @Nullable final NormalizedNode<?, ?> after) {
+        this.identifier = Preconditions.checkNotNull(identifier);
+        this.before = before;
+        this.after = after;
+    }
+
+    private static boolean isContainer(final NormalizedNode<?, ?> data) {
+        // Unkeyed list entries cannot be addressed individually, hence we treat unkeyed lists as opaque values
+        return data instanceof NormalizedNodeContainer && !(data instanceof UnkeyedListNode);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> container(
+            final NormalizedNode<?, ?> data) {
+        return (NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>>) data;
+    }
+
+    private boolean isComparedByChildren() {
+        return isContainer(before) && isContainer(after);
+    }
+
+    // Both versions are present, containers are not examined any further
+    private static boolean isModified(final NormalizedNode<?, ?> oldData, final NormalizedNode<?, ?> newData) {
+        if (oldData == newData) {
+            return false;
+        }
+        return isContainer(oldData) && isContainer(newData) || !oldData.equals(newData);
+    }
+
+    private List<DataTreeCandidateNode> modifiedChildren() {
+        List<DataTreeCandidateNode> ret = modifiedChildren;
+        if (ret == null) {
+            ret = new ArrayList<>();
+
+            final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> oldData = container(before);
+            final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> newData = container(after);
+            for (NormalizedNode<?, ?> child : newData.getValue()) {
+                final Optional<NormalizedNode<?, ?>> oldChild = oldData.getChild(child.getIdentifier());
+                if (!oldChild.isPresent()) {
+                    ret.add(new DiffDataTreeCandidateNode(child.getIdentifier(), null, child));
+                } else if (isModified(oldChild.get(), child)) {
+                    ret.add(new DiffDataTreeCandidateNode(child.getIdentifier(), oldChild.get(), child));
+                }
+            }
+            for (NormalizedNode<?, ?> child : oldData.getValue()) {
+                if (!newData.getChild(child.getIdentifier()).isPresent()) {
+                    ret.add(new DiffDataTreeCandidateNode(child.getIdentifier(), child, null));
+                }
+            }
+
+            ret = Collections.unmodifiableList(ret);
+            modifiedChildren = ret;
+        }
+        return ret;
+    }
+
+    private static List<DataTreeCandidateNode> allChildren(final NormalizedNode<?, ?> data, final boolean deleted) {
+        if (!isContainer(data)) {
+            return Collections.emptyList();
+        }
+
+        final Collection<NormalizedNode<?, ?>> children = container(data).getValue();
+        final List<DataTreeCandidateNode> ret = new ArrayList<>(children.size());
+        for (NormalizedNode<?, ?> child : children) {
+            ret.add(deleted ? new DiffDataTreeCandidateNode(child.getIdentifier(), child, null)
+                    : new DiffDataTreeCandidateNode(child.getIdentifier(), null, child));
+        }
+        return ret;
+    }
+
+    @Override
+    @Nonnull
+    public PathArgument getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    @Nonnull
+    public ModificationType getModificationType() {
+        if (before == after) {
+            return ModificationType.UNMODIFIED;
+        }
+        if (before == null) {
+            return ModificationType.WRITE;
+        }
+        if (after == null) {
+            return ModificationType.DELETE;
+        }
+        if (isComparedByChildren()) {
+            return ModificationType.SUBTREE_MODIFIED;
+        }
+        return before.equals(after) ? ModificationType.UNMODIFIED : ModificationType.WRITE;
+    }
+
+    @Override
+    @Nonnull
+    public Collection<DataTreeCandidateNode> getChildNodes() {
+        if (before == after) {
+            return Collections.emptyList();
+        }
+        if (before == null) {
+            return allChildren(after, false);
+        }
+        if (after == null) {
+            return allChildren(before, true);
+        }
+        if (isComparedByChildren()) {
+            return modifiedChildren();
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public DataTreeCandidateNode getModifiedChild(final PathArgument childId) {
+        final NormalizedNode<?, ?> oldChild = isContainer(before) ? container(before).getChild(childId).orNull()
+                : null;
+        final NormalizedNode<?, ?> newChild = isContainer(after) ? container(after).getChild(childId).orNull()
+                : null;
+        if (oldChild == newChild) {
+            return null;
+        }
+
+        final DataTreeCandidateNode ret = new DiffDataTreeCandidateNode(childId, oldChild, newChild);
+        return ret.getModificationType() == ModificationType.UNMODIFIED ? null : ret;
+    }
+
+    @Override
+    @Nonnull
+    public Optional<NormalizedNode<?, ?>> getDataAfter() {
+        return Optional.<NormalizedNode<?, ?>>fromNullable(after);
+    }
+
+    @Override
+    @Nonnull
+    public Optional<NormalizedNode<?, ?>> getDataBefore() {
+        return Optional.<NormalizedNode<?, ?>>fromNullable(before);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{identifier = " + identifier + ", type = " + getModificationType() + "}";
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+
+/**
+ * A {@link DataTreeSnapshot} which knows how its data is stored and can therefore find the differences between
+ * two versions of a node without comparing all of their children, for example by skipping parts of their storage
+ * which are shared between the versions. {@link DataTreeCandidates#diff(DataTreeSnapshot, DataTreeSnapshot)} uses
+ * this interface when it is implemented by the snapshot holding the after-image.
+ */
+@Beta
+public interface DiffingDataTreeSnapshot extends DataTreeSnapshot {
+    /**
+     * Create a candidate node describing the difference between two versions of a node. The after-image has been
+     * read from this snapshot, the before-image is expected to come from a snapshot of the same data tree.
+     *
+     * @param identifier Identifier of the node
+     * @param before Before-image, null if the node did not exist
+     * @param after After-image, null if the node does not exist
+     * @return A candidate node, whose children are computed lazily as they are being walked
+     */
+    @Nonnull DataTreeCandidateNode diff(@Nonnull PathArgument identifier, @Nullable NormalizedNode<?, ?> before,
+            @Nullable NormalizedNode<?, ?> after);
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.hash.HashCode;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeDigests;
+
+/**
+ * A {@link DataTreeSnapshot} which can provide content digests of its nodes. Two snapshots hold the same data at
+ * a particular path if, and only if, barring hash collisions, their digests at that path are equal. This allows
+ * two replicas to find out where their data differ by comparing digests, starting at the root and descending only
+ * into children whose digests do not match. See {@link TreeNodeDigests} for details on how digests are computed.
+ */
+@Beta
+public interface DigestingDataTreeSnapshot extends DataTreeSnapshot {
+    /**
+     * Read the digest of a particular node.
+     *
+     * @param path Path of the node
+     * @return Digest of the node, or absent if the node does not exist
+     */
+    @Nonnull Optional<HashCode> readDigest(@Nonnull YangInstanceIdentifier path);
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+
+/**
+ * A {@link DataTree} which retains a bounded number of its past states and allows them to be read. States are
+ * identified by the subtree {@link Version} of their root node. Since tree nodes are immutable and shared between
+ * states, retaining a past state costs only the nodes which have been replaced since.
+ *
+ * <p>
+ * The number and age of retained states are controlled by {@link DataTreeConfiguration#getHistorySize()} and
+ * {@link DataTreeConfiguration#getHistoryMaxAge()}. The current state is always available.
+ */
+@Beta
+public interface HistoricalDataTree extends DataTree {
+    /**
+     * Return versions of the retained states, starting with the current state and going back in time.
+     *
+     * @return List of versions, newest first
+     */
+    @Nonnull List<Version> getRetainedVersions();
+
+    /**
+     * Take a read-only snapshot of the state identified by a particular version.
+     *
+     * @param version Version of the root node
+     * @return A snapshot of that state, or absent if such a state is not retained
+     */
+    @Nonnull Optional<DataTreeSnapshot> takeSnapshot(@Nonnull Version version);
+
+    /**
+     * Take a read-only snapshot of the state which was current at a particular point in time.
+     *
+     * @param timestamp Point in time, in milliseconds since the epoch
+     * @return A snapshot of that state, or absent if such a state is not retained
+     */
+    @Nonnull Optional<DataTreeSnapshot> takeSnapshotAt(long timestamp);
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+/**
+ * A {@link DataTreeSnapshot} which can look up list entries using the secondary indexes configured through
+ * {@link DataTreeConfiguration#getSecondaryIndexes()}. Indexes are maintained as part of each commit, hence a lookup
+ * reflects the data in this snapshot and takes time independent of the size of the indexed lists.
+ */
+@Beta
+public interface IndexedDataTreeSnapshot extends DataTreeSnapshot {
+    /**
+     * Find list entries whose indexed leaf has the specified value.
+     *
+     * @param index Index definition
+     * @param value Leaf value
+     * @return Unmodifiable set of paths of matching list entries, empty if there are none
+     * @throws IllegalArgumentException if the index is not configured or the current schema does not contain it
+     */
+    @Nonnull Set<YangInstanceIdentifier> findEntries(@Nonnull SecondaryIndexDefinition index, @Nonnull Object value);
+}
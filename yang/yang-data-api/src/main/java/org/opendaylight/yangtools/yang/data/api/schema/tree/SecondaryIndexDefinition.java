@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.concepts.Immutable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+
+/**
+ * Definition of a non-unique secondary index, which maps values of a leaf to the keyed list entries holding them.
+ * The index covers all instances of the list, including instances nested in other lists. Entries which do not have
+ * the leaf present are not indexed.
+ *
+ * @see DataTreeConfiguration.Builder#addSecondaryIndex(SchemaPath, QName)
+ * @see IndexedDataTreeSnapshot
+ */
+@Beta
+public final class SecondaryIndexDefinition implements Immutable {
+    private final SchemaPath listPath;
+    private final QName leaf;
+
+    private SecondaryIndexDefinition(final SchemaPath listPath, final QName leaf) {
+        this.listPath = Preconditions.checkNotNull(listPath);
+        this.leaf = Preconditions.checkNotNull(leaf);
+    }
+
+    /**
+     * Create an index definition.
+     *
+     * @param listPath Absolute schema path of the keyed list
+     * @param leaf Name of the indexed leaf, which is a direct child of the list
+     * @return An index definition
+     * @throws IllegalArgumentException if the path is not absolute or it is the schema root
+     */
+    public static SecondaryIndexDefinition create(@Nonnull final SchemaPath listPath, @Nonnull final QName leaf) {
+        Preconditions.checkArgument(listPath.isAbsolute() && listPath.getLastComponent() != null,
+            "List path %s is not a non-root absolute path", listPath);
+        return new SecondaryIndexDefinition(listPath, leaf);
+    }
+
+    @Nonnull public SchemaPath getListPath() {
+        return listPath;
+    }
+
+    @Nonnull public QName getLeaf() {
+        return leaf;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(listPath, leaf);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SecondaryIndexDefinition)) {
+            return false;
+        }
+        final SecondaryIndexDefinition other = (SecondaryIndexDefinition) obj;
+        return listPath.equals(other.listPath) && leaf.equals(other.leaf);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("listPath", listPath).add("leaf", leaf).toString();
+    }
+}
@@ -7,11 +7,44 @@
  */
 package org.opendaylight.yangtools.yang.data.api.schema.tree;
 
+import com.google.common.annotations.Beta;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * A {@link DataTree} which produces {@link DataTreeCandidateTip} candidates,
  * thus allowing existence of multiple candidates, which can be {@link #commit(DataTreeCandidate)}ed
  * in sequence.
  */
 public interface TipProducingDataTree extends DataTree, TipProducingDataTreeTip {
+    /**
+     * Validate, prepare and commit a batch of sealed modifications. Each modification is applied on top of the state
+     * produced by its predecessor. If any modification fails validation, none of them is committed.
+     *
+     * <p>
+     * Implementations are encouraged to install the result of the entire batch in a single state transition. The
+     * default implementation chains the modifications through {@link DataTreeCandidateTip}s and then commits the
+     * resulting candidates one by one.
+     *
+     * @param modifications Sealed modifications, in the order in which they should be applied
+     * @return Candidates corresponding to the modifications, in the same order
+     * @throws DataValidationFailedException if any of the modifications fails validation
+     */
+    @Beta
+    default List<DataTreeCandidate> commitBatch(final List<? extends DataTreeModification> modifications)
+            throws DataValidationFailedException {
+        final List<DataTreeCandidate> ret = new ArrayList<>(modifications.size());
+        TipProducingDataTreeTip tip = this;
+        for (DataTreeModification modification : modifications) {
+            tip.validate(modification);
+            final DataTreeCandidateTip candidate = tip.prepare(modification);
+            ret.add(candidate);
+            tip = candidate;
+        }
 
+        for (DataTreeCandidate candidate : ret) {
+            commit(candidate);
+        }
+        return ret;
+    }
 }
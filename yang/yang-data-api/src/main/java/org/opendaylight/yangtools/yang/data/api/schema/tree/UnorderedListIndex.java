@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+
+/**
+ * Persistent index of the entries of an unordered list, sorted in paging order. Entries are held in sorted chunks
+ * of bounded size, so that an updated index can be derived from a previous one by copying only the chunks which
+ * contain changed entries, plus the chunk directory, rather than by sorting all entries again.
+ */
+final class UnorderedListIndex {
+    // Chunks are split once they reach twice this size
+    private static final int CHUNK_SIZE = 64;
+    private static final MapEntryNode[][] NO_CHUNKS = new MapEntryNode[0][];
+
+    private final Comparator<NodeIdentifierWithPredicates> keyOrder;
+    private final MapEntryNode[][] chunks;
+    // Number of entries in chunks up to and including the chunk at the same offset
+    private final int[] ends;
+
+    private UnorderedListIndex(final Comparator<NodeIdentifierWithPredicates> keyOrder,
+            final MapEntryNode[][] chunks) {
+        this.keyOrder = keyOrder;
+        this.chunks = chunks;
+        this.ends = new int[chunks.length];
+        int end = 0;
+        for (int i = 0; i < chunks.length; ++i) {
+            end += chunks[i].length;
+            ends[i] = end;
+        }
+    }
+
+    static UnorderedListIndex create(final Comparator<NodeIdentifierWithPredicates> keyOrder,
+            final Collection<MapEntryNode> entries) {
+        final MapEntryNode[] sorted = entries.toArray(new MapEntryNode[entries.size()]);
+        Arrays.sort(sorted, new Comparator<MapEntryNode>() {
+            @Override
+            public int compare(final MapEntryNode o1, final MapEntryNode o2) {
+                return keyOrder.compare(o1.getIdentifier(), o2.getIdentifier());
+            }
+        });
+
+        final List<MapEntryNode[]> chunks = new ArrayList<>(sorted.length / CHUNK_SIZE + 1);
+        addChunks(chunks, sorted, sorted.length);
+        return new UnorderedListIndex(keyOrder, chunks.toArray(NO_CHUNKS));
+    }
+
+    int size() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    /**
+     * Copy a range of entries.
+     *
+     * @param from Offset of the first entry, must be a valid offset
+     * @param to Offset after the last entry, must not exceed size
+     * @return Entries in the range
+     */
+    MapEntryNode[] slice(final int from, final int to) {
+        final MapEntryNode[] ret = new MapEntryNode[to - from];
+        int chunk = chunkOf(from);
+        int offset = from - chunkStart(chunk);
+        int copied = 0;
+        while (copied < ret.length) {
+            final int count = Math.min(chunks[chunk].length - offset, ret.length - copied);
+            System.arraycopy(chunks[chunk], offset, ret, copied, count);
+            copied += count;
+            chunk++;
+            offset = 0;
+        }
+        return ret;
+    }
+
+    /**
+     * Find the offset of the first entry ordered after a key.
+     *
+     * @param key Key, which does not need to be present
+     * @return Offset of the first entry after the key, size if there is no such entry
+     */
+    int indexAfter(final NodeIdentifierWithPredicates key) {
+        int low = 0;
+        int high = chunks.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final MapEntryNode[] chunk = chunks[mid];
+            if (keyOrder.compare(chunk[chunk.length - 1].getIdentifier(), key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == chunks.length) {
+            return size();
+        }
+
+        final MapEntryNode[] chunk = chunks[low];
+        int from = 0;
+        int to = chunk.length;
+        while (from < to) {
+            final int mid = (from + to) >>> 1;
+            if (keyOrder.compare(chunk[mid].getIdentifier(), key) <= 0) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return chunkStart(low) + from;
+    }
+
+    /**
+     * Derive an index with some entries changed.
+     *
+     * @param changes Changed entries. A null value indicates that the entry has been removed.
+     * @return Updated index
+     */
+    UnorderedListIndex update(final Map<NodeIdentifierWithPredicates, MapEntryNode> changes) {
+        final NodeIdentifierWithPredicates[] keys = changes.keySet().toArray(
+            new NodeIdentifierWithPredicates[changes.size()]);
+        Arrays.sort(keys, keyOrder);
+
+        final List<MapEntryNode[]> newChunks = new ArrayList<>(chunks.length + 1);
+        int next = 0;
+        final int last = Math.max(chunks.length - 1, 0);
+        for (int i = 0; i <= last; ++i) {
+            final MapEntryNode[] chunk = chunks.length == 0 ? new MapEntryNode[0] : chunks[i];
+
+            // Changes falling into this chunk: all remaining ones for the last chunk
+            final int first = next;
+            if (i == last) {
+                next = keys.length;
+            } else {
+                final NodeIdentifierWithPredicates chunkLast = chunk[chunk.length - 1].getIdentifier();
+                while (next < keys.length && keyOrder.compare(keys[next], chunkLast) <= 0) {
+                    next++;
+                }
+            }
+
+            if (first == next) {
+                newChunks.add(chunk);
+            } else {
+                final MapEntryNode[] merged = merge(chunk, keys, first, next, changes);
+                addChunks(newChunks, merged, merged.length);
+            }
+        }
+        return new UnorderedListIndex(keyOrder, newChunks.toArray(NO_CHUNKS));
+    }
+
+    private MapEntryNode[] merge(final MapEntryNode[] chunk, final NodeIdentifierWithPredicates[] keys,
+            final int from, final int to, final Map<NodeIdentifierWithPredicates, MapEntryNode> changes) {
+        final MapEntryNode[] ret = new MapEntryNode[chunk.length + to - from];
+        int size = 0;
+        int i = 0;
+        int k = from;
+        while (i < chunk.length || k < to) {
+            final int cmp;
+            if (i == chunk.length) {
+                cmp = 1;
+            } else if (k == to) {
+                cmp = -1;
+            } else {
+                cmp = keyOrder.compare(chunk[i].getIdentifier(), keys[k]);
+            }
+
+            if (cmp < 0) {
+                ret[size++] = chunk[i++];
+            } else {
+                // Replaced, removed or inserted entry
+                final MapEntryNode entry = changes.get(keys[k++]);
+                if (entry != null) {
+                    ret[size++] = entry;
+                }
+                if (cmp == 0) {
+                    i++;
+                }
+            }
+        }
+        return size == ret.length ? ret : Arrays.copyOf(ret, size);
+    }
+
+    private static void addChunks(final List<MapEntryNode[]> chunks, final MapEntryNode[] entries, final int size) {
+        if (size == 0) {
+            return;
+        }
+        if (size < 2 * CHUNK_SIZE) {
+            chunks.add(entries);
+            return;
+        }
+        for (int from = 0; from < size; from += CHUNK_SIZE) {
+            chunks.add(Arrays.copyOfRange(entries, from, Math.min(from + CHUNK_SIZE, size)));
+        }
+    }
+
+    private int chunkStart(final int chunk) {
+        return chunk == 0 ? 0 : ends[chunk - 1];
+    }
+
+    private int chunkOf(final int offset) {
+        int low = 0;
+        int high = ends.length - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (ends[mid] <= offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
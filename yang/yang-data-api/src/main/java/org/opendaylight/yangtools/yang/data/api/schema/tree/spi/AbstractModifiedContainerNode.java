@@ -10,7 +10,6 @@ package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
 import com.google.common.base.MoreObjects.ToStringHelper;
 import com.google.common.base.Preconditions;
 import java.util.Map;
-import org.opendaylight.yangtools.util.MapAdaptor;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 
@@ -33,7 +32,7 @@ abstract class AbstractModifiedContainerNode extends AbstractContainerNode {
     }
 
     protected final Map<PathArgument, TreeNode> snapshotChildren() {
-        return MapAdaptor.getDefaultInstance().takeSnapshot(children);
+        return PrimitiveKeyedChildren.takeSnapshot(children);
     }
 
     @Override
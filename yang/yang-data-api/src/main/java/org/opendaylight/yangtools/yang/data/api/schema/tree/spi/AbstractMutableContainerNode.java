@@ -10,7 +10,6 @@ package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
 import java.util.Map;
-import org.opendaylight.yangtools.util.MapAdaptor;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
@@ -78,7 +77,7 @@ abstract class AbstractMutableContainerNode implements MutableTreeNode {
          * => more materialization can happen
          */
         if (!version.equals(subtreeVersion)) {
-            final Map<PathArgument, TreeNode> newChildren = MapAdaptor.getDefaultInstance().optimize(children);
+            final Map<PathArgument, TreeNode> newChildren = PrimitiveKeyedChildren.optimize(children);
             final int dataSize = getData().getValue().size();
             if (dataSize != newChildren.size()) {
                 Verify.verify(dataSize > newChildren.size(), "Detected %s modified children, data has only %s",
@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableMap;
+import java.math.BigInteger;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.opendaylight.yangtools.util.MapAdaptor;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+
+/**
+ * Compact storage of children of a keyed list with a single integral key, such as uint32 or uint64. Children are held
+ * in a sorted array of primitive keys and a parallel array of {@link TreeNode}s, so a child costs a long and a
+ * reference instead of a hash map entry. {@link PathArgument}s are not retained by the arrays, as each child node
+ * carries its own identifier.
+ *
+ * <p>
+ * Recent modifications are kept in an overlay, which is backed by a persistent map, so taking a mutable copy of the
+ * children does not copy the arrays. The overlay is folded into the arrays once it grows past a fraction of their
+ * size.
+ *
+ * <p>
+ * This representation is used only for mid-sized lists, where {@link MapAdaptor} would use hash maps, which are
+ * copied on each modification and take more than twice the memory. Larger lists are left to the persistent maps
+ * {@link MapAdaptor} uses for them, which are about as compact and are faster to look up in.
+ */
+final class PrimitiveKeyedChildren extends AbstractMap<PathArgument, TreeNode> {
+    /**
+     * Minimum number of children for which the compact representation is used. From this size on, it takes less than
+     * half the memory of the hash maps {@link MapAdaptor} uses for small maps and a modification costs a fraction of
+     * copying them. Smaller maps are left to {@link MapAdaptor}, as lookups in the compact form are several times
+     * slower than in a hash map and the memory saved is small.
+     */
+    static final int MIN_COMPACT_SIZE = 16;
+
+    /**
+     * Maximum number of children for which the compact representation is used. Beyond this size {@link MapAdaptor}
+     * uses persistent maps, which are modified without being copied and take about as much memory per child as the
+     * compact form, hence the compact form has nothing to offer there.
+     */
+    static final int MAX_COMPACT_SIZE = MapAdaptor.DEFAULT_COPY_MAX_ITEMS;
+
+    /**
+     * Minimum number of overlay entries before they are folded into the arrays.
+     */
+    private static final int MIN_MERGE_SIZE = 8;
+
+    private final Shape shape;
+    private final long[] keys;
+    private final TreeNode[] values;
+    private final Map<PathArgument, Optional<TreeNode>> overlay;
+    private final int size;
+
+    private PrimitiveKeyedChildren(final Shape shape, final long[] keys, final TreeNode[] values,
+            final Map<PathArgument, Optional<TreeNode>> overlay, final int size) {
+        this.shape = Preconditions.checkNotNull(shape);
+        this.keys = Preconditions.checkNotNull(keys);
+        this.values = Preconditions.checkNotNull(values);
+        this.overlay = Preconditions.checkNotNull(overlay);
+        this.size = size;
+    }
+
+    /**
+     * Turn a map of children, which will not be modified anymore, into its read-only form. If the map is eligible
+     * for compact storage, a {@link PrimitiveKeyedChildren} is returned, otherwise this method defers to
+     * {@link MapAdaptor#optimize(Map)}.
+     *
+     * @param children Children map
+     * @return Read-only children map
+     */
+    static Map<PathArgument, TreeNode> optimize(final Map<PathArgument, TreeNode> children) {
+        if (children instanceof Mutable) {
+            return ((Mutable) children).seal();
+        }
+
+        final int size = children.size();
+        if (size >= MIN_COMPACT_SIZE && size <= MAX_COMPACT_SIZE) {
+            final Shape shape = Shape.forChildren(children);
+            if (shape != null) {
+                return build(shape, children);
+            }
+        }
+        return MapAdaptor.getDefaultInstance().optimize(children);
+    }
+
+    /**
+     * Take a mutable copy of a children map returned from {@link #optimize(Map)}.
+     *
+     * @param children Children map
+     * @return Mutable children map
+     */
+    static Map<PathArgument, TreeNode> takeSnapshot(final Map<PathArgument, TreeNode> children) {
+        if (children instanceof PrimitiveKeyedChildren) {
+            return new Mutable((PrimitiveKeyedChildren) children);
+        }
+        return MapAdaptor.getDefaultInstance().takeSnapshot(children);
+    }
+
+    private static PrimitiveKeyedChildren build(final Shape shape, final Map<PathArgument, TreeNode> children) {
+        final int count = children.size();
+        final long[] keys = new long[count];
+        int offset = 0;
+        for (PathArgument child : children.keySet()) {
+            keys[offset++] = shape.keyOf(child);
+        }
+        Arrays.sort(keys);
+
+        final TreeNode[] values = new TreeNode[count];
+        for (Entry<PathArgument, TreeNode> e : children.entrySet()) {
+            values[Arrays.binarySearch(keys, shape.keyOf(e.getKey()))] = e.getValue();
+        }
+
+        return new PrimitiveKeyedChildren(shape, keys, values, ImmutableMap.of(), count);
+    }
+
+    private int indexOf(final Object key) {
+        final Number value = shape.keyValue(key);
+        return value != null ? Arrays.binarySearch(keys, value.longValue()) : -1;
+    }
+
+    private TreeNode baseGet(final Object key) {
+        final int index = indexOf(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public TreeNode get(final Object key) {
+        final Optional<TreeNode> modified = overlay.get(key);
+        return modified != null ? modified.orNull() : baseGet(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<PathArgument, TreeNode>> entrySet() {
+        return new EntrySet(keys.length, values, overlay, size);
+    }
+
+    /**
+     * Key layout shared by all children: a single key leaf of a particular list, holding values of a particular
+     * integral type.
+     */
+    private static final class Shape {
+        private final QName nodeType;
+        private final QName keyName;
+        private final Class<?> valueClass;
+
+        private Shape(final QName nodeType, final QName keyName, final Class<?> valueClass) {
+            this.nodeType = nodeType;
+            this.keyName = keyName;
+            this.valueClass = valueClass;
+        }
+
+        static Shape forChildren(final Map<PathArgument, TreeNode> children) {
+            final Iterator<PathArgument> it = children.keySet().iterator();
+            final Shape shape = forArgument(it.next());
+            if (shape == null) {
+                return null;
+            }
+            while (it.hasNext()) {
+                if (!shape.matches(it.next())) {
+                    return null;
+                }
+            }
+            return shape;
+        }
+
+        private static Shape forArgument(final PathArgument arg) {
+            if (!(arg instanceof NodeIdentifierWithPredicates)) {
+                return null;
+            }
+            final Map<QName, Object> keyValues = ((NodeIdentifierWithPredicates) arg).getKeyValues();
+            if (keyValues.size() != 1) {
+                return null;
+            }
+
+            final Entry<QName, Object> e = keyValues.entrySet().iterator().next();
+            final Object value = e.getValue();
+            if (!isIntegral(value)) {
+                return null;
+            }
+            return new Shape(arg.getNodeType(), e.getKey(), value.getClass());
+        }
+
+        private static boolean isIntegral(final Object value) {
+            if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
+                return true;
+            }
+            // uint64 values are stored as their unsigned two's complement, which is unique as long as they fit
+            return value instanceof BigInteger && ((BigInteger) value).signum() >= 0
+                    && ((BigInteger) value).bitLength() <= Long.SIZE;
+        }
+
+        boolean matches(final Object obj) {
+            return keyValue(obj) != null;
+        }
+
+        /**
+         * Return the key value of a path argument which matches this shape.
+         *
+         * @param obj Path argument
+         * @return Key value, or null if the argument does not match
+         */
+        Number keyValue(final Object obj) {
+            if (!(obj instanceof NodeIdentifierWithPredicates)) {
+                return null;
+            }
+            final NodeIdentifierWithPredicates arg = (NodeIdentifierWithPredicates) obj;
+            if (!nodeType.equals(arg.getNodeType())) {
+                return null;
+            }
+            final Map<QName, Object> keyValues = arg.getKeyValues();
+            if (keyValues.size() != 1) {
+                return null;
+            }
+            final Object value = keyValues.get(keyName);
+            return value != null && valueClass.equals(value.getClass()) && isIntegral(value) ? (Number) value : null;
+        }
+
+        long keyOf(final PathArgument arg) {
+            return ((Number) ((NodeIdentifierWithPredicates) arg).getKeyValues().get(keyName)).longValue();
+        }
+    }
+
+    /**
+     * Mutable view produced by {@link PrimitiveKeyedChildren#takeSnapshot(Map)}. Modifications are recorded in
+     * the overlay, absent values mark removed children.
+     */
+    private static final class Mutable extends AbstractMap<PathArgument, TreeNode> {
+        private final PrimitiveKeyedChildren base;
+        private final Map<PathArgument, Optional<TreeNode>> overlay;
+        private int size;
+
+        Mutable(final PrimitiveKeyedChildren base) {
+            this.base = base;
+            this.overlay = MapAdaptor.getDefaultInstance().takeSnapshot(base.overlay);
+            this.size = base.size;
+        }
+
+        @Override
+        public TreeNode get(final Object key) {
+            final Optional<TreeNode> modified = overlay.get(key);
+            return modified != null ? modified.orNull() : base.baseGet(key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public TreeNode put(final PathArgument key, final TreeNode value) {
+            final TreeNode prev = get(key);
+            overlay.put(key, Optional.of(value));
+            if (prev == null) {
+                size++;
+            }
+            return prev;
+        }
+
+        @Override
+        public TreeNode remove(final Object key) {
+            final TreeNode prev = get(key);
+            if (prev != null) {
+                if (base.indexOf(key) >= 0) {
+                    overlay.put((PathArgument) key, Optional.absent());
+                } else {
+                    overlay.remove(key);
+                }
+                size--;
+            }
+            return prev;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<PathArgument, TreeNode>> entrySet() {
+            return new EntrySet(base.keys.length, base.values, overlay, size);
+        }
+
+        Map<PathArgument, TreeNode> seal() {
+            if (size <= MAX_COMPACT_SIZE && overlay.size() < Math.max(MIN_MERGE_SIZE, base.keys.length / 8)) {
+                boolean compatible = true;
+                for (PathArgument arg : overlay.keySet()) {
+                    if (!base.shape.matches(arg)) {
+                        compatible = false;
+                        break;
+                    }
+                }
+                if (compatible) {
+                    return new PrimitiveKeyedChildren(base.shape, base.keys, base.values,
+                        MapAdaptor.getDefaultInstance().optimize(overlay), size);
+                }
+            }
+
+            return optimize(new HashMap<>(this));
+        }
+    }
+
+    /**
+     * Entries of the arrays which are not shadowed by the overlay, followed by entries present in the overlay.
+     */
+    private static final class EntrySet extends AbstractSet<Entry<PathArgument, TreeNode>> {
+        private final int baseSize;
+        private final TreeNode[] values;
+        private final Map<PathArgument, Optional<TreeNode>> overlay;
+        private final int size;
+
+        EntrySet(final int baseSize, final TreeNode[] values, final Map<PathArgument, Optional<TreeNode>> overlay,
+                final int size) {
+            this.baseSize = baseSize;
+            this.values = values;
+            this.overlay = overlay;
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<Entry<PathArgument, TreeNode>> iterator() {
+            final Iterator<Entry<PathArgument, Optional<TreeNode>>> modified = overlay.entrySet().iterator();
+            return new AbstractIterator<Entry<PathArgument, TreeNode>>() {
+                private int offset;
+
+                @Override
+                protected Entry<PathArgument, TreeNode> computeNext() {
+                    while (offset < baseSize) {
+                        final TreeNode value = values[offset++];
+                        final PathArgument key = value.getIdentifier();
+                        if (!overlay.containsKey(key)) {
+                            return new SimpleImmutableEntry<>(key, value);
+                        }
+                    }
+                    while (modified.hasNext()) {
+                        final Entry<PathArgument, Optional<TreeNode>> e = modified.next();
+                        if (e.getValue().isPresent()) {
+                            return new SimpleImmutableEntry<>(e.getKey(), e.getValue().get());
+                        }
+                    }
+                    return endOfData();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
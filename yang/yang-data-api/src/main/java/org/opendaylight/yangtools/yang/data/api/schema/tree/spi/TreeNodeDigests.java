@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.xml.XMLConstants;
+import javax.xml.transform.dom.DOMSource;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListNode;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Content digests of {@link TreeNode}s, suitable for checking whether two data trees hold the same data without
+ * transferring it. The digest of a container is combined from the digests of its children, so two trees can be
+ * compared by descending only into subtrees whose digests do not match.
+ *
+ * <p>
+ * Digests are computed lazily and cached for each container. Since unmodified subtrees are shared between versions
+ * of a data tree, a digest of a new version needs to be computed only for the containers on paths to modified nodes.
+ * A modification always results in new data, hence cached digests never need to be invalidated.
+ *
+ * <p>
+ * Children of unordered containers, such as map nodes, are combined independently of their order. Leaf values are
+ * hashed in a canonical form: binary values are hashed directly, anyxml content is hashed by element names,
+ * attributes and text, instance identifiers by their path arguments, and values of other types which have
+ * a canonical string form are hashed using that form. Values of other types are rejected.
+ */
+@Beta
+public final class TreeNodeDigests {
+    private static final HashFunction FUNCTION = Hashing.sha256();
+    private static final Set<Class<?>> STRING_CANONICAL_TYPES = ImmutableSet.<Class<?>>of(String.class, Boolean.class,
+        Byte.class, Short.class, Integer.class, Long.class, BigInteger.class, QName.class);
+
+    /*
+     * Keys are weak, hence they are compared by identity and entries go away together with data they describe.
+     * Digests are computed outside of the cache, so that failures reach callers as they are thrown, rather than
+     * wrapped by a cache loader. Concurrent callers may compute the same digest, which is harmless.
+     */
+    private static final Cache<NormalizedNode<?, ?>, HashCode> CACHE = CacheBuilder.newBuilder().weakKeys().build();
+
+    private TreeNodeDigests() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Return the digest of data held by a tree node.
+     *
+     * @param node Tree node
+     * @return Content digest
+     * @throws IllegalArgumentException if the data holds a value which does not have a canonical form
+     */
+    @Nonnull public static HashCode digest(@Nonnull final TreeNode node) {
+        return digest(node.getData());
+    }
+
+    /**
+     * Return the digest of a normalized node.
+     *
+     * @param data Normalized node
+     * @return Content digest
+     * @throws IllegalArgumentException if the data holds a value which does not have a canonical form
+     */
+    @Nonnull public static HashCode digest(@Nonnull final NormalizedNode<?, ?> data) {
+        if (isContainer(data)) {
+            HashCode ret = CACHE.getIfPresent(data);
+            if (ret == null) {
+                ret = containerDigest(data);
+                CACHE.put(data, ret);
+            }
+            return ret;
+        }
+
+        final Hasher hasher = FUNCTION.newHasher();
+        putPathArgument(hasher, data.getIdentifier());
+        putValue(hasher, data.getValue());
+        return hasher.hash();
+    }
+
+    private static boolean isContainer(final NormalizedNode<?, ?> data) {
+        return data instanceof NormalizedNodeContainer || data instanceof UnkeyedListNode;
+    }
+
+    private static HashCode containerDigest(final NormalizedNode<?, ?> data) {
+        final Collection<?> children = (Collection<?>) data.getValue();
+        final List<HashCode> digests = new ArrayList<>(children.size());
+        for (Object child : children) {
+            digests.add(digest((NormalizedNode<?, ?>) child));
+        }
+
+        final Hasher hasher = FUNCTION.newHasher();
+        putPathArgument(hasher, data.getIdentifier());
+        hasher.putInt(digests.size());
+        if (!digests.isEmpty()) {
+            final boolean ordered = data instanceof OrderedNodeContainer || data instanceof UnkeyedListNode;
+            hasher.putBytes((ordered ? Hashing.combineOrdered(digests) : Hashing.combineUnordered(digests))
+                .asBytes());
+        }
+        return hasher.hash();
+    }
+
+    // Strings are length-prefixed, so that concatenations of different strings do not collide
+    private static void putString(final Hasher hasher, final String str) {
+        hasher.putInt(str.length()).putString(str, Charsets.UTF_8);
+    }
+
+    private static void putQName(final Hasher hasher, final QName qname) {
+        putString(hasher, qname.toString());
+    }
+
+    private static void putPathArgument(final Hasher hasher, final PathArgument arg) {
+        if (arg instanceof AugmentationIdentifier) {
+            hasher.putByte((byte) 1);
+            for (QName qname : new TreeSet<>(((AugmentationIdentifier) arg).getPossibleChildNames())) {
+                putQName(hasher, qname);
+            }
+            return;
+        }
+
+        putQName(hasher, arg.getNodeType());
+        if (arg instanceof NodeIdentifierWithPredicates) {
+            hasher.putByte((byte) 2);
+            final Map<QName, Object> keys = new TreeMap<>(((NodeIdentifierWithPredicates) arg).getKeyValues());
+            for (Entry<QName, Object> e : keys.entrySet()) {
+                putQName(hasher, e.getKey());
+                putValue(hasher, e.getValue());
+            }
+        } else if (arg instanceof NodeWithValue) {
+            hasher.putByte((byte) 3);
+            putValue(hasher, ((NodeWithValue<?>) arg).getValue());
+        } else {
+            hasher.putByte((byte) 0);
+        }
+    }
+
+    private static void putValue(final Hasher hasher, final Object value) {
+        if (value instanceof Set) {
+            // Bits, which do not have a defined order
+            final Set<String> items = new TreeSet<>();
+            for (Object item : (Set<?>) value) {
+                items.add(item.toString());
+            }
+            hasher.putByte((byte) 1).putInt(items.size());
+            for (String item : items) {
+                putString(hasher, item);
+            }
+        } else if (value instanceof byte[]) {
+            hasher.putByte((byte) 2).putInt(((byte[]) value).length).putBytes((byte[]) value);
+        } else if (value instanceof DOMSource) {
+            hasher.putByte((byte) 3);
+            putXml(hasher, ((DOMSource) value).getNode());
+        } else if (value instanceof BigDecimal) {
+            // Scale is not significant, 1.0 and 1.00 are the same decimal64 value
+            final BigDecimal decimal = (BigDecimal) value;
+            hasher.putByte((byte) 4);
+            putString(hasher, decimal.signum() == 0 ? "0" : decimal.stripTrailingZeros().toPlainString());
+        } else if (value instanceof YangInstanceIdentifier) {
+            hasher.putByte((byte) 5);
+            final List<PathArgument> args = ((YangInstanceIdentifier) value).getPathArguments();
+            hasher.putInt(args.size());
+            for (PathArgument arg : args) {
+                putPathArgument(hasher, arg);
+            }
+        } else if (value == null) {
+            // Leaves of type empty
+            hasher.putByte((byte) 6);
+        } else {
+            Preconditions.checkArgument(STRING_CANONICAL_TYPES.contains(value.getClass()),
+                "Value %s does not have a canonical form", value);
+            hasher.putByte((byte) 0);
+            putString(hasher, value.getClass().getName());
+            putString(hasher, value.toString());
+        }
+    }
+
+    /*
+     * Canonical form of XML content: namespaces and local names of elements and attributes, with attributes sorted
+     * and namespace declarations left out, as prefixes are not significant. Adjacent text and CDATA sections are
+     * merged, comments and processing instructions are ignored.
+     */
+    private static void putXml(final Hasher hasher, final Node node) {
+        if (node == null) {
+            hasher.putByte((byte) 0);
+            return;
+        }
+
+        switch (node.getNodeType()) {
+        case Node.DOCUMENT_NODE:
+        case Node.DOCUMENT_FRAGMENT_NODE:
+            putXmlChildren(hasher, node);
+            break;
+        case Node.ELEMENT_NODE:
+            hasher.putByte((byte) 1);
+            putXmlName(hasher, node);
+            final Map<String, String> attributes = new TreeMap<>();
+            final NamedNodeMap attrs = node.getAttributes();
+            for (int i = 0; i < attrs.getLength(); ++i) {
+                final Node attr = attrs.item(i);
+                if (!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attr.getNamespaceURI())) {
+                    attributes.put(Strings.nullToEmpty(attr.getNamespaceURI()) + ' ' + localName(attr),
+                        attr.getNodeValue());
+                }
+            }
+            hasher.putInt(attributes.size());
+            for (Entry<String, String> e : attributes.entrySet()) {
+                putString(hasher, e.getKey());
+                putString(hasher, e.getValue());
+            }
+            putXmlChildren(hasher, node);
+            hasher.putByte((byte) 2);
+            break;
+        default:
+            break;
+        }
+    }
+
+    private static void putXmlChildren(final Hasher hasher, final Node node) {
+        final StringBuilder text = new StringBuilder();
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            switch (child.getNodeType()) {
+            case Node.TEXT_NODE:
+            case Node.CDATA_SECTION_NODE:
+                text.append(child.getNodeValue());
+                break;
+            case Node.ELEMENT_NODE:
+                putXmlText(hasher, text);
+                putXml(hasher, child);
+                break;
+            case Node.ENTITY_REFERENCE_NODE:
+                throw new IllegalArgumentException("Unexpanded entity reference " + child.getNodeName()
+                    + " does not have a canonical form");
+            default:
+                break;
+            }
+        }
+        putXmlText(hasher, text);
+    }
+
+    private static void putXmlText(final Hasher hasher, final StringBuilder text) {
+        if (text.length() != 0) {
+            hasher.putByte((byte) 3);
+            putString(hasher, text.toString());
+            text.setLength(0);
+        }
+    }
+
+    private static void putXmlName(final Hasher hasher, final Node node) {
+        putString(hasher, Strings.nullToEmpty(node.getNamespaceURI()));
+        putString(hasher, localName(node));
+    }
+
+    private static String localName(final Node node) {
+        // Nodes created without namespace awareness do not have a local name
+        final String localName = node.getLocalName();
+        return localName != null ? localName : node.getNodeName();
+    }
+}
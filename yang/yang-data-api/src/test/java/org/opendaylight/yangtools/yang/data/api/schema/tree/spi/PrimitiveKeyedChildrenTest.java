@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+
+public class PrimitiveKeyedChildrenTest {
+    private static final QName LIST = QName.create("urn:test", "list");
+    private static final QName KEY = QName.create(LIST, "key");
+    private static final int COUNT = 2 * PrimitiveKeyedChildren.MIN_COMPACT_SIZE;
+
+    private static PathArgument id(final Object key) {
+        return new NodeIdentifierWithPredicates(LIST, KEY, key);
+    }
+
+    private static TreeNode node(final PathArgument id) {
+        final LeafNode<?> data = Mockito.mock(LeafNode.class);
+        Mockito.doReturn(id).when(data).getIdentifier();
+        return TreeNodeFactory.createTreeNode(data, Version.initial());
+    }
+
+    private static Map<PathArgument, TreeNode> children(final int count) {
+        final Map<PathArgument, TreeNode> ret = new HashMap<>();
+        for (long i = 0; i < count; ++i) {
+            final PathArgument id = id(i * 3);
+            ret.put(id, node(id));
+        }
+        return ret;
+    }
+
+    @Test
+    public void testCompactRepresentation() {
+        final Map<PathArgument, TreeNode> expected = children(COUNT);
+        final Map<PathArgument, TreeNode> optimized = PrimitiveKeyedChildren.optimize(new HashMap<>(expected));
+
+        assertTrue(optimized instanceof PrimitiveKeyedChildren);
+        assertEquals(expected, optimized);
+        assertSame(expected.get(id(30L)), optimized.get(id(30L)));
+        assertNull(optimized.get(id(31L)));
+        // Same numeric value, different type, is a different key
+        assertNull(optimized.get(id(30)));
+        assertFalse(optimized.containsKey(id("30")));
+    }
+
+    @Test
+    public void testSmallMap() {
+        assertFalse(PrimitiveKeyedChildren.optimize(children(10)) instanceof PrimitiveKeyedChildren);
+    }
+
+    @Test
+    public void testLargeMap() {
+        final Map<PathArgument, TreeNode> expected = children(PrimitiveKeyedChildren.MAX_COMPACT_SIZE);
+        final Map<PathArgument, TreeNode> optimized = PrimitiveKeyedChildren.optimize(new HashMap<>(expected));
+        assertTrue(optimized instanceof PrimitiveKeyedChildren);
+        assertFalse(PrimitiveKeyedChildren.optimize(children(PrimitiveKeyedChildren.MAX_COMPACT_SIZE + 1))
+            instanceof PrimitiveKeyedChildren);
+
+        // Growing past the maximum hands the children over to MapAdaptor
+        final Map<PathArgument, TreeNode> mutable = PrimitiveKeyedChildren.takeSnapshot(optimized);
+        final PathArgument added = id(-1L);
+        final TreeNode node = node(added);
+        mutable.put(added, node);
+        expected.put(added, node);
+
+        final Map<PathArgument, TreeNode> sealed = PrimitiveKeyedChildren.optimize(mutable);
+        assertFalse(sealed instanceof PrimitiveKeyedChildren);
+        assertEquals(expected, sealed);
+    }
+
+    @Test
+    public void testIneligibleKeys() {
+        final Map<PathArgument, TreeNode> children = children(COUNT);
+        final PathArgument stringId = id("foo");
+        children.put(stringId, node(stringId));
+
+        final Map<PathArgument, TreeNode> optimized = PrimitiveKeyedChildren.optimize(children);
+        assertFalse(optimized instanceof PrimitiveKeyedChildren);
+        assertEquals(COUNT + 1, optimized.size());
+    }
+
+    @Test
+    public void testUint64Keys() {
+        final Map<PathArgument, TreeNode> expected = new HashMap<>();
+        final BigInteger base = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.valueOf(COUNT));
+        for (int i = 0; i < COUNT; ++i) {
+            final PathArgument id = id(base.add(BigInteger.valueOf(i)));
+            expected.put(id, node(id));
+        }
+
+        final Map<PathArgument, TreeNode> optimized = PrimitiveKeyedChildren.optimize(new HashMap<>(expected));
+        assertTrue(optimized instanceof PrimitiveKeyedChildren);
+        assertEquals(expected, optimized);
+    }
+
+    @Test
+    public void testModifications() {
+        final Map<PathArgument, TreeNode> expected = children(COUNT);
+        Map<PathArgument, TreeNode> current = PrimitiveKeyedChildren.optimize(new HashMap<>(expected));
+
+        for (int round = 0; round < 20; ++round) {
+            final Map<PathArgument, TreeNode> mutable = PrimitiveKeyedChildren.takeSnapshot(current);
+            for (int i = 0; i < 10; ++i) {
+                final PathArgument added = id(-((long) round * 1000 + i + 1));
+                final TreeNode node = node(added);
+                assertNull(mutable.put(added, node));
+                expected.put(added, node);
+
+                // Remove entries added by the previous round, so the size stays in the compact range
+                final PathArgument removed = round == 0 ? id((long) i * 3) : id(-((long) (round - 1) * 1000 + i + 1));
+                assertSame(expected.remove(removed), mutable.remove(removed));
+
+                final PathArgument replaced = id((long) (COUNT - 1 - i) * 3);
+                final TreeNode replacement = node(replaced);
+                assertSame(expected.put(replaced, replacement), mutable.put(replaced, replacement));
+            }
+            assertEquals(expected, mutable);
+
+            final Map<PathArgument, TreeNode> sealed = PrimitiveKeyedChildren.optimize(mutable);
+            assertTrue(sealed instanceof PrimitiveKeyedChildren);
+            assertEquals(expected.size(), sealed.size());
+            assertEquals(expected, sealed);
+            assertEquals(expected.hashCode(), sealed.hashCode());
+
+            // Previous generation is not affected
+            assertFalse(current.equals(sealed));
+            current = sealed;
+        }
+    }
+}
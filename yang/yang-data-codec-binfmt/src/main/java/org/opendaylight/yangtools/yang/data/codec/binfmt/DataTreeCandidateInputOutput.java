@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.opendaylight.yangtools.concepts.WritableObjects;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+
+/**
+ * Utility methods for transferring {@link DataTreeCandidate}s over a binary stream. Only the delta is transferred:
+ * written subtrees are emitted in full, deleted nodes are emitted as identifiers and modified nodes as the set of
+ * their modified children. Unmodified children are skipped.
+ *
+ * <p>A candidate read back from the stream has the same structure and modification types as the original, but it
+ * does not provide data before the modification. Data after the modification is available only for
+ * {@link ModificationType#WRITE} nodes. This is sufficient to apply the candidate to another tree via
+ * {@link DataTreeCandidates#applyToModification(org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification, DataTreeCandidate)}.
+ */
+@Beta
+public final class DataTreeCandidateInputOutput {
+    private DataTreeCandidateInputOutput() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write a {@link DataTreeCandidate} into a stream.
+     *
+     * @param out Stream output
+     * @param candidate Candidate to write
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeDataTreeCandidate(final NormalizedNodeDataOutput out, final DataTreeCandidate candidate)
+            throws IOException {
+        out.writeYangInstanceIdentifier(candidate.getRootPath());
+        writeNode(out, candidate.getRootNode(), true);
+    }
+
+    /**
+     * Read a {@link DataTreeCandidate} from a stream.
+     *
+     * @param in Stream input
+     * @return A new DataTreeCandidate
+     * @throws IOException if an I/O error occurs or the stream is malformed
+     */
+    public static DataTreeCandidate readDataTreeCandidate(final NormalizedNodeDataInput in) throws IOException {
+        final YangInstanceIdentifier rootPath = in.readYangInstanceIdentifier();
+        return DataTreeCandidates.newDataTreeCandidate(rootPath, readNode(in, true));
+    }
+
+    private static void writeNode(final NormalizedNodeDataOutput out, final DataTreeCandidateNode node,
+            final boolean root) throws IOException {
+        final ModificationType type = node.getModificationType();
+        switch (type) {
+            case WRITE:
+                out.writeCandidateToken(Tokens.CANDIDATE_WRITE);
+                out.writeNormalizedNode(node.getDataAfter().get());
+                break;
+            case DELETE:
+                out.writeCandidateToken(Tokens.CANDIDATE_DELETE);
+                writeIdentifier(out, node, root);
+                break;
+            case UNMODIFIED:
+                out.writeCandidateToken(Tokens.CANDIDATE_UNMODIFIED);
+                writeIdentifier(out, node, root);
+                break;
+            case SUBTREE_MODIFIED:
+                writeParent(out, Tokens.CANDIDATE_SUBTREE_MODIFIED, node, root);
+                break;
+            case APPEARED:
+                writeParent(out, Tokens.CANDIDATE_APPEARED, node, root);
+                break;
+            case DISAPPEARED:
+                writeParent(out, Tokens.CANDIDATE_DISAPPEARED, node, root);
+                break;
+            default:
+                throw new IllegalArgumentException("Unhandled modification type " + type);
+        }
+    }
+
+    private static void writeParent(final NormalizedNodeDataOutput out, final byte token,
+            final DataTreeCandidateNode node, final boolean root) throws IOException {
+        final Collection<DataTreeCandidateNode> children = node.getChildNodes();
+        final List<DataTreeCandidateNode> modified = new ArrayList<>(children.size());
+        for (DataTreeCandidateNode child : children) {
+            if (child.getModificationType() != ModificationType.UNMODIFIED) {
+                modified.add(child);
+            }
+        }
+
+        out.writeCandidateToken(token);
+        writeIdentifier(out, node, root);
+        out.writeSize(modified.size());
+        for (DataTreeCandidateNode child : modified) {
+            writeNode(out, child, false);
+        }
+    }
+
+    private static void writeIdentifier(final NormalizedNodeDataOutput out, final DataTreeCandidateNode node,
+            final boolean root) throws IOException {
+        // Root nodes do not have an identifier, their position is given by the candidate's root path
+        if (!root) {
+            out.writePathArgument(node.getIdentifier());
+        }
+    }
+
+    private static PathArgument readIdentifier(final NormalizedNodeDataInput in, final boolean root)
+            throws IOException {
+        return root ? null : in.readPathArgument();
+    }
+
+    private static DataTreeCandidateNode readNode(final NormalizedNodeDataInput in, final boolean root)
+            throws IOException {
+        final byte token = in.readCandidateToken();
+        switch (token) {
+            case Tokens.CANDIDATE_WRITE:
+                return DataTreeCandidateNodes.fromNormalizedNode(in.readNormalizedNode());
+            case Tokens.CANDIDATE_DELETE:
+                return new DeltaDataTreeCandidateNode(readIdentifier(in, root), ModificationType.DELETE,
+                    ImmutableMap.<PathArgument, DataTreeCandidateNode>of());
+            case Tokens.CANDIDATE_UNMODIFIED:
+                return new DeltaDataTreeCandidateNode(readIdentifier(in, root), ModificationType.UNMODIFIED,
+                    ImmutableMap.<PathArgument, DataTreeCandidateNode>of());
+            case Tokens.CANDIDATE_SUBTREE_MODIFIED:
+                return readParent(in, ModificationType.SUBTREE_MODIFIED, root);
+            case Tokens.CANDIDATE_APPEARED:
+                return readParent(in, ModificationType.APPEARED, root);
+            case Tokens.CANDIDATE_DISAPPEARED:
+                return readParent(in, ModificationType.DISAPPEARED, root);
+            default:
+                throw new IOException("Invalid candidate node token " + token);
+        }
+    }
+
+    private static DataTreeCandidateNode readParent(final NormalizedNodeDataInput in, final ModificationType type,
+            final boolean root) throws IOException {
+        final PathArgument identifier = readIdentifier(in, root);
+        final int size = in.readSize();
+        final ImmutableMap.Builder<PathArgument, DataTreeCandidateNode> children = ImmutableMap.builder();
+        for (int i = 0; i < size; ++i) {
+            final DataTreeCandidateNode child = readNode(in, false);
+            children.put(child.getIdentifier(), child);
+        }
+        return new DeltaDataTreeCandidateNode(identifier, type, children.build());
+    }
+}
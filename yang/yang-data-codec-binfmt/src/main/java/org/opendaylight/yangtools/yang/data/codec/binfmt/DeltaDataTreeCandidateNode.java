@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import java.util.Collection;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+
+/**
+ * A {@link DataTreeCandidateNode} reconstructed from a stream, which does not carry any data. Used for all
+ * modification types except {@link ModificationType#WRITE}. Since the stream format carries only the delta, neither
+ * the data before nor the data after the modification is available. A root node does not have an identifier.
+ */
+final class DeltaDataTreeCandidateNode implements DataTreeCandidateNode {
+    private final Map<PathArgument, DataTreeCandidateNode> children;
+    private final ModificationType type;
+    private final PathArgument identifier;
+
+    DeltaDataTreeCandidateNode(@Nullable final PathArgument identifier, final ModificationType type,
+            final Map<PathArgument, DataTreeCandidateNode> children) {
+        this.identifier = identifier;
+        this.type = Preconditions.checkNotNull(type);
+        this.children = Preconditions.checkNotNull(children);
+    }
+
+    @Override
+    public PathArgument getIdentifier() {
+        Preconditions.checkState(identifier != null, "Attempted to get identifier of the root node");
+        return identifier;
+    }
+
+    @Override
+    public Collection<DataTreeCandidateNode> getChildNodes() {
+        return children.values();
+    }
+
+    @Override
+    public DataTreeCandidateNode getModifiedChild(final PathArgument childIdentifier) {
+        return children.get(childIdentifier);
+    }
+
+    @Override
+    public ModificationType getModificationType() {
+        return type;
+    }
+
+    @Override
+    public Optional<NormalizedNode<?, ?>> getDataAfter() {
+        return Optional.absent();
+    }
+
+    @Override
+    public Optional<NormalizedNode<?, ?>> getDataBefore() {
+        return Optional.absent();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{identifier=" + identifier + ", type=" + type + ", children="
+                + children.keySet() + "}";
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.dom.DOMSource;
+import org.opendaylight.yangtools.concepts.WritableObjects;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.common.SimpleDateFormatUtil;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Reader of the binary format produced by {@link NormalizedNodeDataOutput}. As the stream contains dictionary
+ * definitions which are referenced later on, a single instance of this class has to be used to read all data from
+ * a particular stream.
+ *
+ * <p>This class is not thread-safe.
+ */
+@Beta
+public final class NormalizedNodeDataInput {
+    /*
+     * Sizes come from the stream, which may be truncated or malicious. We never allocate more than this many bytes
+     * ahead of data which has actually been read, so that a bogus size results in an EOFException rather than
+     * an OutOfMemoryError.
+     */
+    private static final int MAX_PREALLOCATED_BYTES = 65536;
+    private static final DocumentBuilderFactory BUILDER_FACTORY;
+
+    static {
+        final DocumentBuilderFactory f = DocumentBuilderFactory.newInstance();
+        f.setNamespaceAware(true);
+        // Streams may come from untrusted peers, do not resolve external entities or DTDs
+        f.setXIncludeAware(false);
+        f.setExpandEntityReferences(false);
+        try {
+            f.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            f.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            f.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            f.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            f.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        } catch (ParserConfigurationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        BUILDER_FACTORY = f;
+    }
+
+    private final List<QNameModule> moduleDictionary = new ArrayList<>();
+    private final List<QName> qnameDictionary = new ArrayList<>();
+    private final DataInput input;
+
+    private boolean headerRead;
+
+    public NormalizedNodeDataInput(final DataInput input) {
+        this.input = Preconditions.checkNotNull(input);
+    }
+
+    /**
+     * Read a {@link NormalizedNode} from the stream.
+     *
+     * @return A new NormalizedNode
+     * @throws IOException if an I/O error occurs or the stream is malformed
+     */
+    public NormalizedNode<?, ?> readNormalizedNode() throws IOException {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        streamNormalizedNode(ImmutableNormalizedNodeStreamWriter.from(result));
+        return result.getResult();
+    }
+
+    /**
+     * Read a {@link NormalizedNode} from the stream, replaying its events into specified writer.
+     *
+     * @param writer Writer to receive the events
+     * @throws IOException if an I/O error occurs or the stream is malformed
+     */
+    public void streamNormalizedNode(final NormalizedNodeStreamWriter writer) throws IOException {
+        ensureHeaderRead();
+        streamNode(writer, input.readByte());
+    }
+
+    /**
+     * Read a {@link YangInstanceIdentifier} from the stream.
+     *
+     * @return A YangInstanceIdentifier
+     * @throws IOException if an I/O error occurs or the stream is malformed
+     */
+    public YangInstanceIdentifier readYangInstanceIdentifier() throws IOException {
+        ensureHeaderRead();
+        return readYangInstanceIdentifierInternal();
+    }
+
+    /**
+     * Read a {@link PathArgument} from the stream.
+     *
+     * @return A PathArgument
+     * @throws IOException if an I/O error occurs or the stream is malformed
+     */
+    public PathArgument readPathArgument() throws IOException {
+        ensureHeaderRead();
+        return readPathArgumentInternal();
+    }
+
+    /**
+     * Read a {@link QName} from the stream.
+     *
+     * @return A QName
+     * @throws IOException if an I/O error occurs or the stream is malformed
+     */
+    public QName readQName() throws IOException {
+        ensureHeaderRead();
+        return readQNameInternal();
+    }
+
+    byte readCandidateToken() throws IOException {
+        ensureHeaderRead();
+        return input.readByte();
+    }
+
+    private void ensureHeaderRead() throws IOException {
+        if (!headerRead) {
+            final byte marker = input.readByte();
+            if (marker != Tokens.SIGNATURE_MARKER) {
+                throw new IOException(String.format("Invalid signature marker %02x", marker));
+            }
+            final short version = input.readShort();
+            if (version != Tokens.VERSION) {
+                throw new IOException("Unsupported stream version " + version);
+            }
+            headerRead = true;
+        }
+    }
+
+    private void streamNode(final NormalizedNodeStreamWriter writer, final byte token) throws IOException {
+        switch (token) {
+            case Tokens.NODE_LEAF:
+                writer.leafNode(readNodeIdentifier(), readValue());
+                return;
+            case Tokens.NODE_LEAF_SET_ENTRY:
+                writer.leafSetEntryNode(readQNameInternal(), readValue());
+                return;
+            case Tokens.NODE_ANYXML:
+                writer.anyxmlNode(readNodeIdentifier(), readDOMSource());
+                return;
+            case Tokens.NODE_LEAF_SET:
+                writer.startLeafSet(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.NODE_ORDERED_LEAF_SET:
+                writer.startOrderedLeafSet(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.NODE_CONTAINER:
+                writer.startContainerNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.NODE_UNKEYED_LIST:
+                writer.startUnkeyedList(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.NODE_UNKEYED_LIST_ITEM:
+                writer.startUnkeyedListItem(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.NODE_MAP:
+                writer.startMapNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.NODE_MAP_ENTRY:
+                writer.startMapEntryNode(new NodeIdentifierWithPredicates(readQNameInternal(), readKeyValues()),
+                    NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.NODE_ORDERED_MAP:
+                writer.startOrderedMapNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.NODE_CHOICE:
+                writer.startChoiceNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            case Tokens.NODE_AUGMENTATION:
+                writer.startAugmentationNode(new AugmentationIdentifier(readQNameSet()));
+                break;
+            case Tokens.NODE_YANG_MODELED_ANYXML:
+                writer.startYangModeledAnyXmlNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                break;
+            default:
+                throw new IOException("Invalid node token " + token);
+        }
+
+        // We have started a node, stream its children until the matching end
+        for (byte child = input.readByte(); child != Tokens.NODE_END; child = input.readByte()) {
+            streamNode(writer, child);
+        }
+        writer.endNode();
+    }
+
+    private NodeIdentifier readNodeIdentifier() throws IOException {
+        return NodeIdentifier.create(readQNameInternal());
+    }
+
+    private QName readQNameInternal() throws IOException {
+        final byte header = WritableObjects.readLongHeader(input);
+        if (WritableObjects.longHeaderFlags(header) == Tokens.DICTIONARY_REFERENCE) {
+            return lookup(qnameDictionary, WritableObjects.readLongBody(input, header), "QName");
+        }
+
+        final QNameModule module = readModule();
+        final QName qname = QName.create(module, readString()).intern();
+        qnameDictionary.add(qname);
+        return qname;
+    }
+
+    private QNameModule readModule() throws IOException {
+        final byte header = WritableObjects.readLongHeader(input);
+        if (WritableObjects.longHeaderFlags(header) == Tokens.DICTIONARY_REFERENCE) {
+            return lookup(moduleDictionary, WritableObjects.readLongBody(input, header), "module");
+        }
+
+        final String namespace = readString();
+        final String revision = readString();
+
+        final QNameModule module;
+        try {
+            final Date date = revision.isEmpty() ? null : SimpleDateFormatUtil.getRevisionFormat().parse(revision);
+            module = QNameModule.create(new URI(namespace), date).intern();
+        } catch (URISyntaxException | ParseException e) {
+            throw new IOException("Invalid module namespace " + namespace + " revision " + revision, e);
+        }
+        moduleDictionary.add(module);
+        return module;
+    }
+
+    private static <T> T lookup(final List<T> dictionary, final long index, final String what) throws IOException {
+        if (index < 0 || index >= dictionary.size()) {
+            throw new IOException("Invalid " + what + " reference " + index);
+        }
+        return dictionary.get((int) index);
+    }
+
+    private Set<QName> readQNameSet() throws IOException {
+        final int size = readSize();
+        final ImmutableSet.Builder<QName> builder = ImmutableSet.builder();
+        for (int i = 0; i < size; ++i) {
+            builder.add(readQNameInternal());
+        }
+        return builder.build();
+    }
+
+    private Map<QName, Object> readKeyValues() throws IOException {
+        final int size = readSize();
+        if (size == 1) {
+            return ImmutableMap.of(readQNameInternal(), readValue());
+        }
+
+        final ImmutableMap.Builder<QName, Object> builder = ImmutableMap.builder();
+        for (int i = 0; i < size; ++i) {
+            builder.put(readQNameInternal(), readValue());
+        }
+        return builder.build();
+    }
+
+    private YangInstanceIdentifier readYangInstanceIdentifierInternal() throws IOException {
+        final int size = readSize();
+        // Do not pre-size from an untrusted count
+        final List<PathArgument> args = new ArrayList<>();
+        for (int i = 0; i < size; ++i) {
+            args.add(readPathArgumentInternal());
+        }
+        return YangInstanceIdentifier.create(args);
+    }
+
+    private PathArgument readPathArgumentInternal() throws IOException {
+        final byte token = input.readByte();
+        switch (token) {
+            case Tokens.PATH_NODE_IDENTIFIER:
+                return readNodeIdentifier();
+            case Tokens.PATH_NODE_IDENTIFIER_WITH_PREDICATES:
+                return new NodeIdentifierWithPredicates(readQNameInternal(), readKeyValues());
+            case Tokens.PATH_NODE_WITH_VALUE:
+                return new NodeWithValue<>(readQNameInternal(), readValue());
+            case Tokens.PATH_AUGMENTATION_IDENTIFIER:
+                return new AugmentationIdentifier(readQNameSet());
+            default:
+                throw new IOException("Invalid path argument token " + token);
+        }
+    }
+
+    private Object readValue() throws IOException {
+        final byte token = input.readByte();
+        switch (token) {
+            case Tokens.VALUE_NULL:
+                return null;
+            case Tokens.VALUE_STRING:
+                return readString();
+            case Tokens.VALUE_EMPTY_STRING:
+                return "";
+            case Tokens.VALUE_BOOLEAN_FALSE:
+                return Boolean.FALSE;
+            case Tokens.VALUE_BOOLEAN_TRUE:
+                return Boolean.TRUE;
+            case Tokens.VALUE_BYTE:
+                return input.readByte();
+            case Tokens.VALUE_SHORT:
+                return input.readShort();
+            case Tokens.VALUE_INT:
+                return (int) readSignedLong();
+            case Tokens.VALUE_LONG:
+                return readSignedLong();
+            case Tokens.VALUE_BIG_INTEGER:
+                return new BigInteger(readBytes());
+            case Tokens.VALUE_BIG_DECIMAL:
+                final int scale = (int) readSignedLong();
+                return new BigDecimal(new BigInteger(readBytes()), scale);
+            case Tokens.VALUE_BINARY:
+                return readBytes();
+            case Tokens.VALUE_QNAME:
+                return readQNameInternal();
+            case Tokens.VALUE_YANG_IDENTIFIER:
+                return readYangInstanceIdentifierInternal();
+            case Tokens.VALUE_BITS:
+                final int size = readSize();
+                final ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+                for (int i = 0; i < size; ++i) {
+                    builder.add(readString());
+                }
+                return builder.build();
+            default:
+                throw new IOException("Invalid value token " + token);
+        }
+    }
+
+    int readSize() throws IOException {
+        final long size = WritableObjects.readLong(input);
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Invalid size " + size);
+        }
+        return (int) size;
+    }
+
+    private long readSignedLong() throws IOException {
+        final long zigzag = WritableObjects.readLong(input);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private byte[] readBytes() throws IOException {
+        final int size = readSize();
+        if (size <= MAX_PREALLOCATED_BYTES) {
+            final byte[] bytes = new byte[size];
+            input.readFully(bytes);
+            return bytes;
+        }
+
+        // Large values are read in chunks, so the buffer grows only with data which is actually present
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream(MAX_PREALLOCATED_BYTES);
+        final byte[] chunk = new byte[MAX_PREALLOCATED_BYTES];
+        int remaining = size;
+        while (remaining > 0) {
+            final int count = Math.min(remaining, chunk.length);
+            input.readFully(chunk, 0, count);
+            bos.write(chunk, 0, count);
+            remaining -= count;
+        }
+        return bos.toByteArray();
+    }
+
+    private String readString() throws IOException {
+        return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    private DOMSource readDOMSource() throws IOException {
+        final String xml = readString();
+        final Document doc;
+        try {
+            doc = BUILDER_FACTORY.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Failed to parse anyxml value", e);
+        }
+        return new DOMSource(doc.getDocumentElement());
+    }
+}
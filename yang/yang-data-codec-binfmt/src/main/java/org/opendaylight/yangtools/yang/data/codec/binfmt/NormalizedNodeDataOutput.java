@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.io.DataOutput;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.opendaylight.yangtools.concepts.WritableObjects;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+
+/**
+ * A {@link NormalizedNodeStreamWriter} which emits a compact binary representation of the events it receives into a
+ * {@link DataOutput}. The resulting stream can be read back using {@link NormalizedNodeDataInput}.
+ *
+ * <p>Namespaces and QNames are emitted in full only on their first occurrence in the stream and are referenced by
+ * their index afterwards, hence an instance of this class should be reused for all data written to a particular
+ * stream. Lengths and indices are encoded via {@link WritableObjects#writeLong(DataOutput, long, int)}, leaf values
+ * are encoded based on their Java type.
+ *
+ * <p>This class is not thread-safe.
+ */
+@Beta
+public final class NormalizedNodeDataOutput implements NormalizedNodeStreamWriter {
+    private final Map<QNameModule, Integer> moduleDictionary = new HashMap<>();
+    private final Map<QName, Integer> qnameDictionary = new HashMap<>();
+    private final DataOutput output;
+
+    private NormalizedNodeWriter normalizedNodeWriter;
+    private boolean headerWritten;
+
+    public NormalizedNodeDataOutput(final DataOutput output) {
+        this.output = Preconditions.checkNotNull(output);
+    }
+
+    /**
+     * Write a {@link NormalizedNode} into the stream.
+     *
+     * @param node Node to write
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if the node contains a leaf value of an unsupported type
+     */
+    public void writeNormalizedNode(final NormalizedNode<?, ?> node) throws IOException {
+        ensureHeaderWritten();
+        if (normalizedNodeWriter == null) {
+            normalizedNodeWriter = NormalizedNodeWriter.forStreamWriter(this);
+        }
+        normalizedNodeWriter.write(node);
+    }
+
+    /**
+     * Write a {@link YangInstanceIdentifier} into the stream.
+     *
+     * @param identifier Identifier to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeYangInstanceIdentifier(final YangInstanceIdentifier identifier) throws IOException {
+        ensureHeaderWritten();
+        writeYangInstanceIdentifierInternal(identifier);
+    }
+
+    /**
+     * Write a {@link PathArgument} into the stream.
+     *
+     * @param pathArgument Path argument to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void writePathArgument(final PathArgument pathArgument) throws IOException {
+        ensureHeaderWritten();
+        writePathArgumentInternal(pathArgument);
+    }
+
+    /**
+     * Write a {@link QName} into the stream.
+     *
+     * @param qname QName to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeQName(final QName qname) throws IOException {
+        ensureHeaderWritten();
+        writeQNameInternal(qname);
+    }
+
+    @Override
+    public void leafNode(final NodeIdentifier name, final Object value) throws IOException {
+        startNode(Tokens.NODE_LEAF, name.getNodeType());
+        writeValue(value);
+    }
+
+    @Override
+    public void startLeafSet(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.NODE_LEAF_SET, name.getNodeType());
+    }
+
+    @Override
+    public void startOrderedLeafSet(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.NODE_ORDERED_LEAF_SET, name.getNodeType());
+    }
+
+    @Override
+    public void leafSetEntryNode(final QName name, final Object value) throws IOException {
+        startNode(Tokens.NODE_LEAF_SET_ENTRY, name);
+        writeValue(value);
+    }
+
+    @Override
+    public void startContainerNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.NODE_CONTAINER, name.getNodeType());
+    }
+
+    @Override
+    public void startUnkeyedList(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.NODE_UNKEYED_LIST, name.getNodeType());
+    }
+
+    @Override
+    public void startUnkeyedListItem(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.NODE_UNKEYED_LIST_ITEM, name.getNodeType());
+    }
+
+    @Override
+    public void startMapNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.NODE_MAP, name.getNodeType());
+    }
+
+    @Override
+    public void startMapEntryNode(final NodeIdentifierWithPredicates identifier, final int childSizeHint)
+            throws IOException {
+        startNode(Tokens.NODE_MAP_ENTRY, identifier.getNodeType());
+        writeKeyValues(identifier.getKeyValues());
+    }
+
+    @Override
+    public void startOrderedMapNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.NODE_ORDERED_MAP, name.getNodeType());
+    }
+
+    @Override
+    public void startChoiceNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.NODE_CHOICE, name.getNodeType());
+    }
+
+    @Override
+    public void startAugmentationNode(final AugmentationIdentifier identifier) throws IOException {
+        ensureHeaderWritten();
+        output.writeByte(Tokens.NODE_AUGMENTATION);
+        writeQNameSet(identifier.getPossibleChildNames());
+    }
+
+    @Override
+    public void anyxmlNode(final NodeIdentifier name, final Object value) throws IOException {
+        Preconditions.checkArgument(value instanceof DOMSource, "Unsupported anyxml value %s", value);
+        startNode(Tokens.NODE_ANYXML, name.getNodeType());
+        writeString(domSourceToString((DOMSource) value));
+    }
+
+    @Override
+    public void startYangModeledAnyXmlNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(Tokens.NODE_YANG_MODELED_ANYXML, name.getNodeType());
+    }
+
+    @Override
+    public void endNode() throws IOException {
+        output.writeByte(Tokens.NODE_END);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (output instanceof Flushable) {
+            ((Flushable) output).flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    void writeCandidateToken(final byte token) throws IOException {
+        ensureHeaderWritten();
+        output.writeByte(token);
+    }
+
+    void writeSize(final int size) throws IOException {
+        ensureHeaderWritten();
+        WritableObjects.writeLong(output, size);
+    }
+
+    private void ensureHeaderWritten() throws IOException {
+        if (!headerWritten) {
+            output.writeByte(Tokens.SIGNATURE_MARKER);
+            output.writeShort(Tokens.VERSION);
+            headerWritten = true;
+        }
+    }
+
+    private void startNode(final byte token, final QName qname) throws IOException {
+        ensureHeaderWritten();
+        output.writeByte(token);
+        writeQNameInternal(qname);
+    }
+
+    private void writeQNameInternal(final QName qname) throws IOException {
+        final Integer index = qnameDictionary.get(qname);
+        if (index != null) {
+            WritableObjects.writeLong(output, index, Tokens.DICTIONARY_REFERENCE);
+            return;
+        }
+
+        WritableObjects.writeLong(output, 0, Tokens.DICTIONARY_DEFINE);
+        writeModule(qname.getModule());
+        writeString(qname.getLocalName());
+        qnameDictionary.put(qname, qnameDictionary.size());
+    }
+
+    private void writeModule(final QNameModule module) throws IOException {
+        final Integer index = moduleDictionary.get(module);
+        if (index != null) {
+            WritableObjects.writeLong(output, index, Tokens.DICTIONARY_REFERENCE);
+            return;
+        }
+
+        WritableObjects.writeLong(output, 0, Tokens.DICTIONARY_DEFINE);
+        writeString(module.getNamespace().toString());
+        final String revision = module.getFormattedRevision();
+        writeString(revision == null ? "" : revision);
+        moduleDictionary.put(module, moduleDictionary.size());
+    }
+
+    private void writeQNameSet(final Set<QName> qnames) throws IOException {
+        WritableObjects.writeLong(output, qnames.size());
+        for (QName qname : qnames) {
+            writeQNameInternal(qname);
+        }
+    }
+
+    private void writeKeyValues(final Map<QName, Object> keyValues) throws IOException {
+        WritableObjects.writeLong(output, keyValues.size());
+        for (Entry<QName, Object> entry : keyValues.entrySet()) {
+            writeQNameInternal(entry.getKey());
+            writeValue(entry.getValue());
+        }
+    }
+
+    private void writeYangInstanceIdentifierInternal(final YangInstanceIdentifier identifier) throws IOException {
+        final Collection<PathArgument> args = identifier.getPathArguments();
+        WritableObjects.writeLong(output, args.size());
+        for (PathArgument arg : args) {
+            writePathArgumentInternal(arg);
+        }
+    }
+
+    private void writePathArgumentInternal(final PathArgument pathArgument) throws IOException {
+        if (pathArgument instanceof NodeIdentifier) {
+            output.writeByte(Tokens.PATH_NODE_IDENTIFIER);
+            writeQNameInternal(pathArgument.getNodeType());
+        } else if (pathArgument instanceof NodeIdentifierWithPredicates) {
+            output.writeByte(Tokens.PATH_NODE_IDENTIFIER_WITH_PREDICATES);
+            writeQNameInternal(pathArgument.getNodeType());
+            writeKeyValues(((NodeIdentifierWithPredicates) pathArgument).getKeyValues());
+        } else if (pathArgument instanceof NodeWithValue) {
+            output.writeByte(Tokens.PATH_NODE_WITH_VALUE);
+            writeQNameInternal(pathArgument.getNodeType());
+            writeValue(((NodeWithValue<?>) pathArgument).getValue());
+        } else if (pathArgument instanceof AugmentationIdentifier) {
+            output.writeByte(Tokens.PATH_AUGMENTATION_IDENTIFIER);
+            writeQNameSet(((AugmentationIdentifier) pathArgument).getPossibleChildNames());
+        } else {
+            throw new IllegalArgumentException("Unhandled path argument " + pathArgument);
+        }
+    }
+
+    private void writeValue(final Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(Tokens.VALUE_NULL);
+        } else if (value instanceof String) {
+            final String str = (String) value;
+            if (str.isEmpty()) {
+                output.writeByte(Tokens.VALUE_EMPTY_STRING);
+            } else {
+                output.writeByte(Tokens.VALUE_STRING);
+                writeString(str);
+            }
+        } else if (value instanceof Boolean) {
+            output.writeByte((Boolean) value ? Tokens.VALUE_BOOLEAN_TRUE : Tokens.VALUE_BOOLEAN_FALSE);
+        } else if (value instanceof Byte) {
+            output.writeByte(Tokens.VALUE_BYTE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            output.writeByte(Tokens.VALUE_SHORT);
+            output.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(Tokens.VALUE_INT);
+            writeSignedLong((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(Tokens.VALUE_LONG);
+            writeSignedLong((Long) value);
+        } else if (value instanceof BigInteger) {
+            output.writeByte(Tokens.VALUE_BIG_INTEGER);
+            writeBytes(((BigInteger) value).toByteArray());
+        } else if (value instanceof BigDecimal) {
+            final BigDecimal decimal = (BigDecimal) value;
+            output.writeByte(Tokens.VALUE_BIG_DECIMAL);
+            writeSignedLong(decimal.scale());
+            writeBytes(decimal.unscaledValue().toByteArray());
+        } else if (value instanceof byte[]) {
+            output.writeByte(Tokens.VALUE_BINARY);
+            writeBytes((byte[]) value);
+        } else if (value instanceof QName) {
+            output.writeByte(Tokens.VALUE_QNAME);
+            writeQNameInternal((QName) value);
+        } else if (value instanceof YangInstanceIdentifier) {
+            output.writeByte(Tokens.VALUE_YANG_IDENTIFIER);
+            writeYangInstanceIdentifierInternal((YangInstanceIdentifier) value);
+        } else if (value instanceof Set) {
+            final Set<?> bits = (Set<?>) value;
+            output.writeByte(Tokens.VALUE_BITS);
+            WritableObjects.writeLong(output, bits.size());
+            for (Object bit : bits) {
+                Preconditions.checkArgument(bit instanceof String, "Unsupported bits value %s", value);
+                writeString((String) bit);
+            }
+        } else {
+            throw new IllegalArgumentException("Unhandled value type " + value.getClass());
+        }
+    }
+
+    private void writeSignedLong(final long value) throws IOException {
+        // ZigZag encoding, so small negative values remain compact
+        WritableObjects.writeLong(output, (value << 1) ^ (value >> 63));
+    }
+
+    private void writeBytes(final byte[] bytes) throws IOException {
+        WritableObjects.writeLong(output, bytes.length);
+        output.write(bytes);
+    }
+
+    private void writeString(final String str) throws IOException {
+        writeBytes(str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String domSourceToString(final DOMSource source) throws IOException {
+        final StringWriter writer = new StringWriter();
+        try {
+            final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.transform(source, new StreamResult(writer));
+        } catch (TransformerException e) {
+            throw new IOException("Failed to serialize anyxml value", e);
+        }
+        return writer.toString();
+    }
+}
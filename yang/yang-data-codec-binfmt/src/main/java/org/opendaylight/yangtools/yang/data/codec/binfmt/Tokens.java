@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+/**
+ * Constants used in the binary stream format. Shared between {@link NormalizedNodeDataOutput} and
+ * {@link NormalizedNodeDataInput}.
+ */
+final class Tokens {
+    /**
+     * Stream signature, emitted once at the start of a stream.
+     */
+    static final byte SIGNATURE_MARKER = (byte) 0xab;
+
+    /**
+     * Current stream format version.
+     */
+    static final short VERSION = 1;
+
+    // Dictionary reference flags, stored in WritableObjects long header
+    static final int DICTIONARY_DEFINE = 0x00;
+    static final int DICTIONARY_REFERENCE = 0x10;
+
+    // Node tokens, one per NormalizedNodeStreamWriter event
+    static final byte NODE_END = 0;
+    static final byte NODE_LEAF = 1;
+    static final byte NODE_LEAF_SET = 2;
+    static final byte NODE_ORDERED_LEAF_SET = 3;
+    static final byte NODE_LEAF_SET_ENTRY = 4;
+    static final byte NODE_CONTAINER = 5;
+    static final byte NODE_UNKEYED_LIST = 6;
+    static final byte NODE_UNKEYED_LIST_ITEM = 7;
+    static final byte NODE_MAP = 8;
+    static final byte NODE_MAP_ENTRY = 9;
+    static final byte NODE_ORDERED_MAP = 10;
+    static final byte NODE_CHOICE = 11;
+    static final byte NODE_AUGMENTATION = 12;
+    static final byte NODE_ANYXML = 13;
+    static final byte NODE_YANG_MODELED_ANYXML = 14;
+
+    // Path argument tokens
+    static final byte PATH_NODE_IDENTIFIER = 1;
+    static final byte PATH_NODE_IDENTIFIER_WITH_PREDICATES = 2;
+    static final byte PATH_NODE_WITH_VALUE = 3;
+    static final byte PATH_AUGMENTATION_IDENTIFIER = 4;
+
+    // Leaf value tokens
+    static final byte VALUE_NULL = 0;
+    static final byte VALUE_STRING = 1;
+    static final byte VALUE_BOOLEAN_FALSE = 2;
+    static final byte VALUE_BOOLEAN_TRUE = 3;
+    static final byte VALUE_BYTE = 4;
+    static final byte VALUE_SHORT = 5;
+    static final byte VALUE_INT = 6;
+    static final byte VALUE_LONG = 7;
+    static final byte VALUE_BIG_INTEGER = 8;
+    static final byte VALUE_BIG_DECIMAL = 9;
+    static final byte VALUE_BINARY = 10;
+    static final byte VALUE_QNAME = 11;
+    static final byte VALUE_YANG_IDENTIFIER = 12;
+    static final byte VALUE_BITS = 13;
+    static final byte VALUE_EMPTY_STRING = 14;
+
+    // DataTreeCandidate node tokens
+    static final byte CANDIDATE_UNMODIFIED = 0;
+    static final byte CANDIDATE_SUBTREE_MODIFIED = 1;
+    static final byte CANDIDATE_WRITE = 2;
+    static final byte CANDIDATE_DELETE = 3;
+    static final byte CANDIDATE_APPEARED = 4;
+    static final byte CANDIDATE_DISAPPEARED = 5;
+
+    private Tokens() {
+        throw new UnsupportedOperationException();
+    }
+}
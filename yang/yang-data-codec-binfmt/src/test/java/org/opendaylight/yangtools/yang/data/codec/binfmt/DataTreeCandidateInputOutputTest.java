@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.opendaylight.yangtools.yang.parser.stmt.reactor.CrossSourceStatementReactor;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangStatementSourceImpl;
+
+public class DataTreeCandidateInputOutputTest {
+    private static final QName TOP = QName.create("urn:opendaylight:params:xml:ns:yang:binfmt-test", "2016-10-01",
+        "top");
+    private static final QName FLAG = QName.create(TOP, "flag");
+    private static final QName ENTRY = QName.create(TOP, "entry");
+    private static final QName ID = QName.create(TOP, "id");
+    private static final QName NAME = QName.create(TOP, "name");
+    private static final YangInstanceIdentifier TOP_PATH = YangInstanceIdentifier.of(TOP);
+    private static final YangInstanceIdentifier ENTRY_PATH = TOP_PATH.node(ENTRY);
+
+    private SchemaContext schemaContext;
+    private DataTree leader;
+    private DataTree follower;
+
+    @Before
+    public void setup() throws ReactorException, DataValidationFailedException {
+        final CrossSourceStatementReactor.BuildAction reactor = YangInferencePipeline.RFC6020_REACTOR.newBuild();
+        reactor.addSource(new YangStatementSourceImpl("/binfmt-test.yang", false));
+        schemaContext = reactor.buildEffective();
+
+        leader = createTree();
+        follower = createTree();
+    }
+
+    private DataTree createTree() throws DataValidationFailedException {
+        final DataTree tree = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        tree.setSchemaContext(schemaContext);
+
+        final CollectionNodeBuilder<MapEntryNode, MapNode> entries = ImmutableNodes.mapNodeBuilder(ENTRY);
+        for (int i = 0; i < 10; ++i) {
+            entries.withChild(entry(i, "entry-" + i));
+        }
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TOP_PATH, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TOP))
+            .withChild(ImmutableNodes.leafNode(FLAG, Boolean.FALSE))
+            .withChild(entries.build()).build());
+        commit(tree, mod);
+        return tree;
+    }
+
+    private static MapEntryNode entry(final int id, final String name) {
+        return ImmutableNodes.mapEntryBuilder(ENTRY, ID, id).withChild(ImmutableNodes.leafNode(NAME, name)).build();
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return ENTRY_PATH.node(new NodeIdentifierWithPredicates(ENTRY, ID, id));
+    }
+
+    private static DataTreeCandidate commit(final DataTree tree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        final DataTreeCandidate candidate = tree.prepare(mod);
+        tree.commit(candidate);
+        return candidate;
+    }
+
+    private static DataTreeCandidate roundTrip(final DataTreeCandidate candidate) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataTreeCandidateInputOutput.writeDataTreeCandidate(new NormalizedNodeDataOutput(new DataOutputStream(bos)),
+            candidate);
+        return DataTreeCandidateInputOutput.readDataTreeCandidate(new NormalizedNodeDataInput(new DataInputStream(
+            new ByteArrayInputStream(bos.toByteArray()))));
+    }
+
+    @Test
+    public void testReplicateDelta() throws DataValidationFailedException, IOException {
+        final DataTreeModification mod = leader.takeSnapshot().newModification();
+        mod.write(entryPath(10), entry(10, "added"));
+        mod.delete(entryPath(3));
+        mod.merge(entryPath(5).node(NAME), ImmutableNodes.leafNode(NAME, "renamed"));
+        mod.write(TOP_PATH.node(FLAG), ImmutableNodes.leafNode(FLAG, Boolean.TRUE));
+        final DataTreeCandidate candidate = commit(leader, mod);
+
+        final DataTreeCandidate read = roundTrip(candidate);
+        assertEquals(candidate.getRootPath(), read.getRootPath());
+        assertEquals(candidate.getRootNode().getModificationType(), read.getRootNode().getModificationType());
+
+        final DataTreeCandidateNode top = read.getRootNode().getModifiedChild(new NodeIdentifier(TOP));
+        assertNotNull(top);
+        assertEquals(ModificationType.SUBTREE_MODIFIED, top.getModificationType());
+        assertFalse(top.getDataBefore().isPresent());
+
+        final DataTreeCandidateNode entries = top.getModifiedChild(new NodeIdentifier(ENTRY));
+        assertEquals(3, entries.getChildNodes().size());
+        assertEquals(ModificationType.DELETE, entries.getModifiedChild(
+            new NodeIdentifierWithPredicates(ENTRY, ID, 3)).getModificationType());
+        assertEquals(entry(10, "added"), entries.getModifiedChild(new NodeIdentifierWithPredicates(ENTRY, ID, 10))
+            .getDataAfter().get());
+
+        final DataTreeModification followerMod = follower.takeSnapshot().newModification();
+        DataTreeCandidates.applyToModification(followerMod, read);
+        commit(follower, followerMod);
+
+        assertEquals(leader.takeSnapshot().readNode(TOP_PATH), follower.takeSnapshot().readNode(TOP_PATH));
+    }
+
+    @Test
+    public void testRootedWrite() throws DataValidationFailedException, IOException {
+        final DataTreeCandidate candidate = DataTreeCandidates.fromNormalizedNode(entryPath(11), entry(11, "eleven"));
+
+        final DataTreeCandidate read = roundTrip(candidate);
+        assertEquals(entryPath(11), read.getRootPath());
+        assertEquals(ModificationType.WRITE, read.getRootNode().getModificationType());
+
+        final DataTreeModification followerMod = follower.takeSnapshot().newModification();
+        DataTreeCandidates.applyToModification(followerMod, read);
+        commit(follower, followerMod);
+        assertEquals(entry(11, "eleven"), follower.takeSnapshot().readNode(entryPath(11)).get());
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binfmt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.dom.DOMSource;
+import org.junit.Test;
+import org.opendaylight.yangtools.concepts.WritableObjects;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+public class NormalizedNodeDataInputOutputTest {
+    private static final QName ROOT = QName.create("urn:test", "2016-10-01", "root");
+    private static final QName OTHER = QName.create("urn:other", "other");
+    private static final QName LIST = QName.create(ROOT, "list");
+    private static final QName KEY = QName.create(ROOT, "key");
+    private static final QName LEAF = QName.create(ROOT, "leaf");
+    private static final QName LEAF_LIST = QName.create(ROOT, "leaf-list");
+    private static final QName CHOICE = QName.create(ROOT, "choice");
+    private static final QName UNKEYED = QName.create(ROOT, "unkeyed");
+    private static final QName ANYXML = QName.create(ROOT, "anyxml");
+
+    @Test
+    public void testNormalizedNodeRoundTrip() throws IOException {
+        final ContainerNode node = Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ROOT))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "string"), "foo"))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "empty-string"), ""))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "empty"), null))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "boolean"), Boolean.TRUE))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "byte"), (byte) -3))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "short"), (short) 1234))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "int"), -123456))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "long"), Long.MIN_VALUE))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "big-integer"), new BigInteger("18446744073709551615")))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "big-decimal"), new BigDecimal("-12.345")))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "qname"), OTHER))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "bits"), ImmutableSet.of("one", "two")))
+            .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "instance-identifier"),
+                YangInstanceIdentifier.builder().node(ROOT).node(LIST).nodeWithKey(LIST, KEY, 5).build()))
+            .withChild(ImmutableNodes.mapNodeBuilder(LIST)
+                .withChild(ImmutableNodes.mapEntryBuilder(LIST, KEY, 1)
+                    .withChild(ImmutableNodes.leafNode(LEAF, "one")).build())
+                .withChild(ImmutableNodes.mapEntryBuilder(LIST, KEY, 2)
+                    .withChild(ImmutableNodes.leafNode(LEAF, "two")).build())
+                .build())
+            .withChild(Builders.leafSetBuilder().withNodeIdentifier(new NodeIdentifier(LEAF_LIST))
+                .withChild(Builders.leafSetEntryBuilder().withNodeIdentifier(new NodeWithValue<>(LEAF_LIST, "a"))
+                    .withValue("a").build())
+                .build())
+            .withChild(Builders.choiceBuilder().withNodeIdentifier(new NodeIdentifier(CHOICE))
+                .withChild(ImmutableNodes.leafNode(QName.create(ROOT, "case-leaf"), 7)).build())
+            .withChild(Builders.augmentationBuilder()
+                .withNodeIdentifier(new AugmentationIdentifier(ImmutableSet.of(OTHER)))
+                .withChild(ImmutableNodes.leafNode(OTHER, "augmented")).build())
+            .withChild(Builders.unkeyedListBuilder().withNodeIdentifier(new NodeIdentifier(UNKEYED))
+                .withChild(Builders.unkeyedListEntryBuilder().withNodeIdentifier(new NodeIdentifier(UNKEYED))
+                    .withChild(ImmutableNodes.leafNode(LEAF, "unkeyed")).build())
+                .build())
+            .build();
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final NormalizedNodeDataOutput out = new NormalizedNodeDataOutput(new DataOutputStream(bos));
+        out.writeNormalizedNode(node);
+        out.writeNormalizedNode(node);
+
+        final NormalizedNodeDataInput in = new NormalizedNodeDataInput(new DataInputStream(
+            new ByteArrayInputStream(bos.toByteArray())));
+        assertEquals(node, in.readNormalizedNode());
+        assertEquals(node, in.readNormalizedNode());
+    }
+
+    @Test
+    public void testDictionaryReuse() throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final NormalizedNodeDataOutput out = new NormalizedNodeDataOutput(new DataOutputStream(bos));
+        out.writeNormalizedNode(ImmutableNodes.leafNode(LEAF, "x"));
+        final int first = bos.size();
+        out.writeNormalizedNode(ImmutableNodes.leafNode(LEAF, "x"));
+
+        // node token, QName reference, value token, two bytes of length and the character
+        assertEquals(6, bos.size() - first);
+    }
+
+    @Test
+    public void testBinaryValue() throws IOException {
+        final byte[] bytes = new byte[] { 1, 2, 3 };
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        new NormalizedNodeDataOutput(new DataOutputStream(bos)).writeNormalizedNode(
+            ImmutableNodes.leafNode(LEAF, bytes));
+
+        final NormalizedNode<?, ?> read = new NormalizedNodeDataInput(new DataInputStream(
+            new ByteArrayInputStream(bos.toByteArray()))).readNormalizedNode();
+        assertTrue(read instanceof LeafNode);
+        assertArrayEquals(bytes, (byte[]) read.getValue());
+    }
+
+    @Test
+    public void testYangInstanceIdentifierRoundTrip() throws IOException {
+        final YangInstanceIdentifier id = YangInstanceIdentifier.builder().node(ROOT).node(LIST)
+            .nodeWithKey(LIST, ImmutableMap.<QName, Object>of(KEY, 1, LEAF, "foo"))
+            .node(new AugmentationIdentifier(ImmutableSet.of(OTHER)))
+            .node(new NodeWithValue<>(LEAF_LIST, "bar"))
+            .build();
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final NormalizedNodeDataOutput out = new NormalizedNodeDataOutput(new DataOutputStream(bos));
+        out.writeYangInstanceIdentifier(id);
+        out.writePathArgument(new NodeIdentifierWithPredicates(LIST, KEY, 2));
+        out.writeQName(OTHER);
+
+        final NormalizedNodeDataInput in = new NormalizedNodeDataInput(new DataInputStream(
+            new ByteArrayInputStream(bos.toByteArray())));
+        assertEquals(id, in.readYangInstanceIdentifier());
+        assertEquals(new NodeIdentifierWithPredicates(LIST, KEY, 2), in.readPathArgument());
+        assertEquals(OTHER, in.readQName());
+    }
+
+    @Test
+    public void testAnyXmlDoctypeRejected() throws Exception {
+        // Serialize a regular value, then replace it with a document of the same length declaring an external entity
+        final String padding = Strings.repeat("x", 100);
+        final DOMSource source = new DOMSource(DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new InputSource(new StringReader("<a>" + padding + "</a>"))).getDocumentElement());
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        new NormalizedNodeDataOutput(new DataOutputStream(bos)).writeNormalizedNode(Builders.anyXmlBuilder()
+            .withNodeIdentifier(new NodeIdentifier(ANYXML)).withValue(source).build());
+
+        final String bytes = new String(bos.toByteArray(), StandardCharsets.ISO_8859_1);
+        final int start = bytes.indexOf("<?xml");
+        final int end = bytes.indexOf("</a>") + 4;
+        final String doctype = "<!DOCTYPE a [<!ENTITY x SYSTEM \"file:///etc/passwd\">]><a>&x;</a>";
+        final String replaced = bytes.substring(0, start) + doctype
+            + Strings.repeat(" ", end - start - doctype.length()) + bytes.substring(end);
+
+        try {
+            new NormalizedNodeDataInput(new DataInputStream(new ByteArrayInputStream(
+                replaced.getBytes(StandardCharsets.ISO_8859_1)))).readNormalizedNode();
+            fail("Document type declaration should have been rejected");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof SAXException);
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void testTruncatedLargeValue() throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        new NormalizedNodeDataOutput(new DataOutputStream(bos)).writeNormalizedNode(ImmutableNodes.leafNode(LEAF, "x"));
+
+        // Replace the length and the character with a length of Integer.MAX_VALUE and no data
+        final byte[] bytes = bos.toByteArray();
+        final ByteArrayOutputStream truncated = new ByteArrayOutputStream();
+        truncated.write(bytes, 0, bytes.length - 3);
+        WritableObjects.writeLong(new DataOutputStream(truncated), Integer.MAX_VALUE);
+
+        new NormalizedNodeDataInput(new DataInputStream(new ByteArrayInputStream(truncated.toByteArray())))
+            .readNormalizedNode();
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidSignature() throws IOException {
+        new NormalizedNodeDataInput(new DataInputStream(new ByteArrayInputStream(new byte[] { 0, 0, 1 })))
+            .readNormalizedNode();
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Pattern;
+
+/**
+ * A JSON tokenizer which is fed characters in arbitrary pieces. Unlike {@link com.google.gson.stream.JsonReader} it
+ * does not pull data from a source, but retains its state between invocations of {@link #process(CharBuffer)} and
+ * reports tokens to a {@link Listener} as soon as they are complete. It also verifies that the input is well-formed.
+ */
+final class IncrementalJsonTokenizer {
+    /**
+     * Receiver of tokens. Events are reported in document order and are guaranteed to form a well-formed document.
+     */
+    interface Listener {
+        void beginObject() throws IOException;
+
+        void endObject() throws IOException;
+
+        void beginArray() throws IOException;
+
+        void endArray() throws IOException;
+
+        void name(String name) throws IOException;
+
+        /**
+         * Report a scalar value.
+         *
+         * @param type One of {@link JsonToken#STRING}, {@link JsonToken#NUMBER}, {@link JsonToken#BOOLEAN} or
+         *             {@link JsonToken#NULL}
+         * @param value String value, literal number text, "true", "false" or null
+         */
+        void value(JsonToken type, String value) throws IOException;
+    }
+
+    private enum Expect {
+        VALUE,
+        VALUE_OR_END_ARRAY,
+        NAME,
+        NAME_OR_END_OBJECT,
+        COLON,
+        COMMA_OR_END,
+        DONE,
+    }
+
+    private enum Lexeme {
+        NONE,
+        STRING,
+        STRING_ESCAPE,
+        STRING_UNICODE,
+        LITERAL,
+    }
+
+    private static final Pattern NUMBER = Pattern.compile("-?(?:0|[1-9][0-9]*)(?:\\.[0-9]+)?(?:[eE][+-]?[0-9]+)?");
+
+    // True for objects, false for arrays
+    private final Deque<Boolean> containers = new ArrayDeque<>();
+    private final StringBuilder sb = new StringBuilder();
+    private final Listener listener;
+
+    private Expect expect = Expect.VALUE;
+    private Lexeme lexeme = Lexeme.NONE;
+    private boolean stringIsName;
+    private int unicodeDigits;
+    private int unicodeValue;
+    private boolean empty = true;
+
+    IncrementalJsonTokenizer(final Listener listener) {
+        this.listener = Preconditions.checkNotNull(listener);
+    }
+
+    /**
+     * Process all remaining characters in a buffer.
+     *
+     * @param chars Input characters
+     * @throws IOException if the listener throws it
+     * @throws JsonSyntaxException if the input is not well-formed
+     */
+    void process(final CharBuffer chars) throws IOException {
+        while (chars.hasRemaining()) {
+            process(chars.get());
+        }
+    }
+
+    /**
+     * Signal end of input.
+     *
+     * @return False if the input contained only whitespace, true if it contained a complete document.
+     * @throws IOException if the listener throws it
+     * @throws JsonSyntaxException if the input does not contain a complete document
+     */
+    boolean finish() throws IOException {
+        if (lexeme == Lexeme.LITERAL) {
+            lexeme = Lexeme.NONE;
+            literalDone();
+        }
+        if (empty) {
+            return false;
+        }
+        if (lexeme != Lexeme.NONE || expect != Expect.DONE) {
+            throw new JsonSyntaxException("Unexpected end of input");
+        }
+        return true;
+    }
+
+    private void process(final char c) throws IOException {
+        switch (lexeme) {
+            case STRING:
+                if (c == '"') {
+                    lexeme = Lexeme.NONE;
+                    stringDone();
+                } else if (c == '\\') {
+                    lexeme = Lexeme.STRING_ESCAPE;
+                } else if (c < 0x20) {
+                    throw new JsonSyntaxException("Unescaped control character in string");
+                } else {
+                    sb.append(c);
+                }
+                return;
+            case STRING_ESCAPE:
+                processEscape(c);
+                return;
+            case STRING_UNICODE:
+                final int digit = Character.digit(c, 16);
+                if (digit == -1) {
+                    throw new JsonSyntaxException("Invalid unicode escape digit '" + c + "'");
+                }
+                unicodeValue = unicodeValue * 16 + digit;
+                if (++unicodeDigits == 4) {
+                    sb.append((char) unicodeValue);
+                    lexeme = Lexeme.STRING;
+                }
+                return;
+            case LITERAL:
+                if (isLiteral(c)) {
+                    sb.append(c);
+                    return;
+                }
+                lexeme = Lexeme.NONE;
+                literalDone();
+                break;
+            case NONE:
+                break;
+            default:
+                throw new IllegalStateException("Unhandled lexeme " + lexeme);
+        }
+
+        switch (c) {
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\r':
+                return;
+            case '{':
+                beginValue();
+                containers.push(Boolean.TRUE);
+                expect = Expect.NAME_OR_END_OBJECT;
+                listener.beginObject();
+                return;
+            case '[':
+                beginValue();
+                containers.push(Boolean.FALSE);
+                expect = Expect.VALUE_OR_END_ARRAY;
+                listener.beginArray();
+                return;
+            case '}':
+                if ((expect != Expect.NAME_OR_END_OBJECT && expect != Expect.COMMA_OR_END)
+                        || !containers.peek()) {
+                    throw unexpected(c);
+                }
+                containers.pop();
+                listener.endObject();
+                valueDone();
+                return;
+            case ']':
+                if ((expect != Expect.VALUE_OR_END_ARRAY && expect != Expect.COMMA_OR_END)
+                        || containers.peek()) {
+                    throw unexpected(c);
+                }
+                containers.pop();
+                listener.endArray();
+                valueDone();
+                return;
+            case ':':
+                if (expect != Expect.COLON) {
+                    throw unexpected(c);
+                }
+                expect = Expect.VALUE;
+                return;
+            case ',':
+                if (expect != Expect.COMMA_OR_END) {
+                    throw unexpected(c);
+                }
+                expect = containers.peek() ? Expect.NAME : Expect.VALUE;
+                return;
+            case '"':
+                if (expect == Expect.NAME || expect == Expect.NAME_OR_END_OBJECT) {
+                    stringIsName = true;
+                } else {
+                    beginValue();
+                    stringIsName = false;
+                }
+                lexeme = Lexeme.STRING;
+                return;
+            default:
+                beginValue();
+                lexeme = Lexeme.LITERAL;
+                sb.append(c);
+        }
+    }
+
+    private void processEscape(final char c) {
+        lexeme = Lexeme.STRING;
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                sb.append(c);
+                break;
+            case 'b':
+                sb.append('\b');
+                break;
+            case 'f':
+                sb.append('\f');
+                break;
+            case 'n':
+                sb.append('\n');
+                break;
+            case 'r':
+                sb.append('\r');
+                break;
+            case 't':
+                sb.append('\t');
+                break;
+            case 'u':
+                lexeme = Lexeme.STRING_UNICODE;
+                unicodeDigits = 0;
+                unicodeValue = 0;
+                break;
+            default:
+                throw new JsonSyntaxException("Invalid escape sequence '\\" + c + "'");
+        }
+    }
+
+    private static boolean isLiteral(final char c) {
+        switch (c) {
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\r':
+            case '{':
+            case '}':
+            case '[':
+            case ']':
+            case ':':
+            case ',':
+            case '"':
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private void beginValue() {
+        if (expect != Expect.VALUE && expect != Expect.VALUE_OR_END_ARRAY) {
+            throw new JsonSyntaxException("Unexpected start of a value, expecting " + expect);
+        }
+        empty = false;
+    }
+
+    private void valueDone() {
+        expect = containers.isEmpty() ? Expect.DONE : Expect.COMMA_OR_END;
+    }
+
+    private void stringDone() throws IOException {
+        final String str = sb.toString();
+        sb.setLength(0);
+        if (stringIsName) {
+            expect = Expect.COLON;
+            listener.name(str);
+        } else {
+            valueDone();
+            listener.value(JsonToken.STRING, str);
+        }
+    }
+
+    private void literalDone() throws IOException {
+        final String str = sb.toString();
+        sb.setLength(0);
+
+        final JsonToken type;
+        final String value;
+        switch (str) {
+            case "true":
+            case "false":
+                type = JsonToken.BOOLEAN;
+                value = str;
+                break;
+            case "null":
+                type = JsonToken.NULL;
+                value = null;
+                break;
+            default:
+                if (!NUMBER.matcher(str).matches()) {
+                    throw new JsonSyntaxException("Invalid literal '" + str + "'");
+                }
+                type = JsonToken.NUMBER;
+                value = str;
+        }
+
+        valueDone();
+        listener.value(type, value);
+    }
+
+    private JsonSyntaxException unexpected(final char c) {
+        return new JsonSyntaxException("Unexpected character '" + c + "', expecting " + expect);
+    }
+}
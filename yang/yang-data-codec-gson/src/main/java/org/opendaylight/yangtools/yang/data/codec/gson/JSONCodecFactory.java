@@ -72,6 +72,19 @@ public final class JSONCodecFactory {
         }
     });
 
+    /*
+     * Factories shared among users of the same SchemaContext. A factory references its SchemaContext, hence it is
+     * held weakly: it is shared for as long as some user holds it, after which both the factory and the SchemaContext
+     * can be collected.
+     */
+    private static final LoadingCache<SchemaContext, JSONCodecFactory> SHARED_FACTORIES = CacheBuilder.newBuilder()
+            .weakKeys().weakValues().build(new CacheLoader<SchemaContext, JSONCodecFactory>() {
+                @Override
+                public JSONCodecFactory load(final SchemaContext key) {
+                    return new JSONCodecFactory(key);
+                }
+            });
+
     private final SchemaContext schemaContext;
     private final JSONCodec<?> iidCodec;
 
@@ -90,6 +103,18 @@ public final class JSONCodecFactory {
         return new JSONCodecFactory(context);
     }
 
+    /**
+     * Get a codec factory attached to a particular context, shared with other users of the same context. Since codecs
+     * are created on demand and cached, using a shared factory means that they are instantiated once for each
+     * SchemaContext, rather than once for each user.
+     *
+     * @param context SchemaContext to which the factory should be bound
+     * @return A shared codec factory instance.
+     */
+    public static JSONCodecFactory getShared(final SchemaContext context) {
+        return SHARED_FACTORIES.getUnchecked(context);
+    }
+
     private JSONCodec<?> createCodec(final DataSchemaNode key, final TypeDefinition<?> type) {
         if (type instanceof LeafrefTypeDefinition) {
             return createReferencedTypeCodec(key, (LeafrefTypeDefinition) type);
@@ -55,20 +55,30 @@ abstract class JSONStreamWriterContext {
      * @throws IOException when the writer reports it
      */
     final void writeChildJsonIdentifier(final SchemaContext schema, final JsonWriter writer, final QName qname) throws IOException {
-
-        final StringBuilder sb = new StringBuilder();
         // Prepend module name if namespaces do not match
-        final URI ns = qname.getNamespace();
-        if (!ns.equals(getNamespace())) {
-            final Module module = schema.findModuleByNamespaceAndRevision(ns, null);
-            Preconditions.checkArgument(module != null, "Could not find module for namespace {}", ns);
+        final boolean qualified = !qname.getNamespace().equals(getNamespace());
+        if (writer instanceof Utf8JsonWriter) {
+            // Reuse the already-encoded name
+            final Utf8JsonWriter utf8 = (Utf8JsonWriter) writer;
+            byte[] name = utf8.cachedName(qname, qualified);
+            if (name == null) {
+                name = utf8.cacheName(qname, qualified, jsonIdentifier(schema, qname, qualified));
+            }
+            utf8.name(name);
+        } else {
+            writer.name(jsonIdentifier(schema, qname, qualified));
+        }
+    }
 
-            sb.append(module.getName());
-            sb.append(':');
+    private static String jsonIdentifier(final SchemaContext schema, final QName qname, final boolean qualified) {
+        if (!qualified) {
+            return qname.getLocalName();
         }
-        sb.append(qname.getLocalName());
 
-        writer.name(sb.toString());
+        final URI ns = qname.getNamespace();
+        final Module module = schema.findModuleByNamespaceAndRevision(ns, null);
+        Preconditions.checkArgument(module != null, "Could not find module for namespace {}", ns);
+        return module.getName() + ':' + qname.getLocalName();
     }
 
     /**
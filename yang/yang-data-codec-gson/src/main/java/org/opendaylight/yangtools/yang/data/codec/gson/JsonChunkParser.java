@@ -0,0 +1,587 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.codec.gson.JsonParserStream.MapEntryStart;
+import org.opendaylight.yangtools.yang.data.util.CompositeNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.LeafListEntryNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.ListEntryNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaNode;
+
+/**
+ * A JSON parser which is fed UTF-8 encoded input in chunks, as it becomes available, rather than pulling it from
+ * a blocking reader. It retains its state between invocations of {@link #feed(ByteBuffer)} and emits data into
+ * a {@link NormalizedNodeStreamWriter} as soon as possible, hence it can be driven directly by a non-blocking I/O
+ * thread without buffering the entire input.
+ *
+ * <p>
+ * Emitted data is the same as emitted by a parser created via
+ * {@link JsonParserStream#createStreaming(NormalizedNodeStreamWriter, JSONCodecFactory, SchemaNode)}, including its
+ * buffering rules. Once an invocation throws an exception, the parser cannot be used anymore.
+ */
+@Beta
+@NotThreadSafe
+public final class JsonChunkParser implements Closeable, Flushable {
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final CharBuffer chars = CharBuffer.allocate(4096);
+    // Incomplete UTF-8 sequence at the end of the previous chunk
+    private final ByteBuffer carry = ByteBuffer.allocate(8);
+    private final IncrementalJsonTokenizer tokenizer;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private final JsonParserStream stream;
+    private boolean failed;
+    private boolean finished;
+
+    private JsonChunkParser(final JsonParserStream stream) {
+        this.stream = Preconditions.checkNotNull(stream);
+        this.tokenizer = new IncrementalJsonTokenizer(new Dispatcher());
+        frames.push(new DocumentFrame());
+    }
+
+    /**
+     * Create a new chunk parser, which uses codecs from the specified factory.
+     *
+     * @param writer NormalizedNodeStreamWriter to which the parsed data should be emitted
+     * @param codecFactory Codec factory, bound to the SchemaContext of the data
+     * @param parentNode Schema node of the parsed data's parent
+     * @return A new chunk parser
+     */
+    public static JsonChunkParser create(final NormalizedNodeStreamWriter writer, final JSONCodecFactory codecFactory,
+            final SchemaNode parentNode) {
+        return new JsonChunkParser(JsonParserStream.createStreaming(writer, codecFactory, parentNode));
+    }
+
+    /**
+     * Create a new chunk parser for data rooted at the SchemaContext of the specified codec factory.
+     *
+     * @param writer NormalizedNodeStreamWriter to which the parsed data should be emitted
+     * @param codecFactory Codec factory, bound to the SchemaContext of the data
+     * @return A new chunk parser
+     */
+    public static JsonChunkParser create(final NormalizedNodeStreamWriter writer,
+            final JSONCodecFactory codecFactory) {
+        return new JsonChunkParser(JsonParserStream.createStreaming(writer, codecFactory));
+    }
+
+    /**
+     * Feed a chunk of input. All remaining bytes of the chunk are consumed, an incomplete UTF-8 sequence at its end
+     * is retained until the next chunk arrives.
+     *
+     * @param chunk Input bytes
+     * @throws IllegalStateException if {@link #finish()} has been invoked or a previous invocation failed
+     * @throws JsonSyntaxException if the input is not well-formed
+     * @throws JsonIOException if the writer reports an I/O error
+     */
+    public void feed(final ByteBuffer chunk) {
+        checkUsable();
+        try {
+            while (carry.position() != 0 && chunk.hasRemaining()) {
+                carry.put(chunk.get());
+                carry.flip();
+                decode(carry, false);
+                carry.compact();
+            }
+
+            decode(chunk, false);
+            carry.put(chunk);
+        } catch (IOException e) {
+            failed = true;
+            throw new JsonIOException(e);
+        } catch (RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Signal end of input. This method verifies that the input contained a complete document and emits any data
+     * which has not been emitted yet. Input consisting only of whitespace is treated as no data.
+     *
+     * @throws IllegalStateException if {@link #finish()} has been invoked or a previous invocation failed
+     * @throws JsonSyntaxException if the input does not contain a complete document
+     * @throws JsonIOException if the writer reports an I/O error
+     */
+    public void finish() {
+        checkUsable();
+        finished = true;
+        try {
+            carry.flip();
+            decode(carry, true);
+            if (decoder.flush(chars).isOverflow()) {
+                throw new IllegalStateException("Decoder flush overflowed");
+            }
+            chars.flip();
+            tokenizer.process(chars);
+            chars.clear();
+            tokenizer.finish();
+        } catch (IOException e) {
+            failed = true;
+            throw new JsonIOException(e);
+        } catch (RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    private void checkUsable() {
+        Preconditions.checkState(!failed, "Parser has failed previously");
+        Preconditions.checkState(!finished, "Parser has already finished");
+    }
+
+    private void decode(final ByteBuffer bytes, final boolean endOfInput) throws IOException {
+        while (true) {
+            final CoderResult result = decoder.decode(bytes, chars, endOfInput);
+            chars.flip();
+            tokenizer.process(chars);
+            chars.clear();
+
+            if (result.isError()) {
+                throw new JsonSyntaxException("Input is not valid UTF-8");
+            }
+            if (result.isUnderflow()) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        stream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+
+    /**
+     * Routes tokens to the innermost frame.
+     */
+    private final class Dispatcher implements IncrementalJsonTokenizer.Listener {
+        @Override
+        public void beginObject() throws IOException {
+            frames.peek().beginObject();
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            frames.peek().endObject();
+        }
+
+        @Override
+        public void beginArray() throws IOException {
+            frames.peek().beginArray();
+        }
+
+        @Override
+        public void endArray() throws IOException {
+            frames.peek().endArray();
+        }
+
+        @Override
+        public void name(final String name) throws IOException {
+            frames.peek().name(name);
+        }
+
+        @Override
+        public void value(final JsonToken type, final String value) throws IOException {
+            frames.peek().value(type, value);
+        }
+    }
+
+    /**
+     * Parsing state of a single JSON value being read. The tokenizer guarantees input is well-formed, so each frame
+     * only overrides the events which can occur in it.
+     */
+    private abstract class Frame {
+        void beginObject() throws IOException {
+            throw new IllegalStateException("Unexpected start of object in " + this);
+        }
+
+        void endObject() throws IOException {
+            throw new IllegalStateException("Unexpected end of object in " + this);
+        }
+
+        void beginArray() throws IOException {
+            throw new IllegalStateException("Unexpected start of array in " + this);
+        }
+
+        void endArray() throws IOException {
+            throw new IllegalStateException("Unexpected end of array in " + this);
+        }
+
+        void name(final String name) throws IOException {
+            throw new IllegalStateException("Unexpected name in " + this);
+        }
+
+        void value(final JsonToken type, final String value) throws IOException {
+            throw new IllegalStateException("Unexpected value in " + this);
+        }
+
+        /**
+         * Invoked when a child value has been completely read and its frame has been removed.
+         */
+        void childDone() throws IOException {
+            // No-op by default
+        }
+
+        /**
+         * Capture a complete value, starting with the current token, and hand it to {@link #captured(JsonReader)}.
+         */
+        final CaptureFrame capture() throws IOException {
+            final CaptureFrame ret = new CaptureFrame(this);
+            frames.push(ret);
+            return ret;
+        }
+
+        void captured(final JsonReader in) throws IOException {
+            throw new IllegalStateException("Unexpected captured value in " + this);
+        }
+
+        final void pop() throws IOException {
+            frames.pop();
+            frames.peek().childDone();
+        }
+    }
+
+    /**
+     * Outermost frame, holding the document's root value.
+     */
+    private final class DocumentFrame extends Frame {
+        private final CompositeNodeDataWithSchema root = new CompositeNodeDataWithSchema(stream.getParentNode());
+
+        @Override
+        void beginObject() throws IOException {
+            frames.push(new ObjectFrame(root, null, 0));
+        }
+
+        @Override
+        void beginArray() throws IOException {
+            capture().beginArray();
+        }
+
+        @Override
+        void value(final JsonToken type, final String value) throws IOException {
+            capture().value(type, value);
+        }
+
+        @Override
+        void captured(final JsonReader in) throws IOException {
+            stream.read(in, root);
+            stream.write(root);
+        }
+    }
+
+    /**
+     * A JSON object whose direct children are emitted as they arrive.
+     */
+    private final class ObjectFrame extends Frame {
+        private final Set<String> namesakes = new HashSet<>();
+        private final CompositeNodeDataWithSchema buffer;
+        private final DataSchemaNode schema;
+        private final MapEntryStart entry;
+        private final int endNodes;
+
+        private List<DataSchemaNode> member;
+
+        /**
+         * Create a new frame.
+         *
+         * @param buffer Buffer for children which cannot be emitted immediately
+         * @param entry Keyed list entry being streamed, or null if the node has been started already
+         * @param endNodes Number of nodes to end once the object ends
+         */
+        ObjectFrame(final CompositeNodeDataWithSchema buffer, final MapEntryStart entry, final int endNodes) {
+            this.buffer = Preconditions.checkNotNull(buffer);
+            this.schema = JsonParserStream.dataSchemaOf(buffer.getSchema());
+            this.entry = entry;
+            this.endNodes = endNodes;
+        }
+
+        @Override
+        void name(final String name) {
+            member = stream.enterChild(name, schema, namesakes);
+        }
+
+        private boolean canStream() {
+            return (entry == null || entry.isStarted()) && JsonParserStream.isDirectChild(schema, member);
+        }
+
+        @Override
+        void value(final JsonToken type, final String value) throws IOException {
+            stream.readScalarMember(value, buffer, entry, member);
+            childDone();
+        }
+
+        @Override
+        void beginObject() throws IOException {
+            if (canStream()) {
+                final DataSchemaNode childSchema = member.get(0);
+                if (childSchema instanceof ContainerSchemaNode) {
+                    frames.push(new ObjectFrame(stream.startContainer((ContainerSchemaNode) childSchema), null, 1));
+                    return;
+                }
+                if (childSchema instanceof ListSchemaNode) {
+                    // List with one value serialized without wrapping array
+                    final ListSchemaNode listSchema = (ListSchemaNode) childSchema;
+                    stream.startList(listSchema);
+                    frames.push(new ObjectFrame(new CompositeNodeDataWithSchema(listSchema),
+                        stream.startListEntry(listSchema), 2));
+                    return;
+                }
+            }
+            capture().beginObject();
+        }
+
+        @Override
+        void beginArray() throws IOException {
+            if (canStream()) {
+                final DataSchemaNode childSchema = member.get(0);
+                if (childSchema instanceof ListSchemaNode) {
+                    stream.startList((ListSchemaNode) childSchema);
+                    frames.push(new ListFrame((ListSchemaNode) childSchema));
+                    return;
+                }
+                if (childSchema instanceof LeafListSchemaNode) {
+                    stream.startLeafList((LeafListSchemaNode) childSchema);
+                    frames.push(new LeafListFrame((LeafListSchemaNode) childSchema));
+                    return;
+                }
+            }
+            capture().beginArray();
+        }
+
+        @Override
+        void captured(final JsonReader in) throws IOException {
+            stream.readMember(in, buffer, entry, member);
+        }
+
+        @Override
+        void childDone() {
+            stream.removeNamespace();
+            member = null;
+        }
+
+        @Override
+        void endObject() throws IOException {
+            if (endNodes == 0) {
+                stream.write(buffer);
+            } else {
+                stream.endListEntry(buffer, entry);
+                for (int i = 1; i < endNodes; ++i) {
+                    stream.endNode();
+                }
+            }
+            pop();
+        }
+
+        @Override
+        public String toString() {
+            return "object " + schema.getQName();
+        }
+    }
+
+    /**
+     * Entries of a list.
+     */
+    private final class ListFrame extends Frame {
+        private final ListSchemaNode listSchema;
+
+        ListFrame(final ListSchemaNode listSchema) {
+            this.listSchema = Preconditions.checkNotNull(listSchema);
+        }
+
+        @Override
+        void beginObject() throws IOException {
+            frames.push(new ObjectFrame(new CompositeNodeDataWithSchema(listSchema),
+                stream.startListEntry(listSchema), 1));
+        }
+
+        @Override
+        void beginArray() throws IOException {
+            capture().beginArray();
+        }
+
+        @Override
+        void value(final JsonToken type, final String value) throws IOException {
+            capture().value(type, value);
+        }
+
+        @Override
+        void captured(final JsonReader in) throws IOException {
+            // Not a valid entry, let the buffering reader report it
+            stream.read(in, new ListEntryNodeDataWithSchema(listSchema));
+        }
+
+        @Override
+        void endArray() throws IOException {
+            stream.endNode();
+            pop();
+        }
+
+        @Override
+        public String toString() {
+            return "list " + listSchema.getQName();
+        }
+    }
+
+    /**
+     * Entries of a leaf-list.
+     */
+    private final class LeafListFrame extends Frame {
+        private final LeafListSchemaNode leafListSchema;
+
+        LeafListFrame(final LeafListSchemaNode leafListSchema) {
+            this.leafListSchema = Preconditions.checkNotNull(leafListSchema);
+        }
+
+        @Override
+        void value(final JsonToken type, final String value) throws IOException {
+            stream.writeLeafListEntry(leafListSchema, value);
+        }
+
+        @Override
+        void beginObject() throws IOException {
+            capture().beginObject();
+        }
+
+        @Override
+        void beginArray() throws IOException {
+            capture().beginArray();
+        }
+
+        @Override
+        void captured(final JsonReader in) throws IOException {
+            final LeafListEntryNodeDataWithSchema entry = new LeafListEntryNodeDataWithSchema(leafListSchema);
+            stream.read(in, entry);
+            stream.write(entry);
+        }
+
+        @Override
+        void endArray() throws IOException {
+            stream.endNode();
+            pop();
+        }
+
+        @Override
+        public String toString() {
+            return "leaf-list " + leafListSchema.getQName();
+        }
+    }
+
+    /**
+     * A value which needs to be processed by the pull-based parser. It is re-serialized as it is being read and
+     * handed over to the parent frame once complete.
+     */
+    private final class CaptureFrame extends Frame {
+        private final StringWriter text = new StringWriter();
+        private final JsonWriter writer = new JsonWriter(text);
+        private final Frame parent;
+        private int depth;
+
+        CaptureFrame(final Frame parent) {
+            this.parent = Preconditions.checkNotNull(parent);
+            writer.setLenient(true);
+        }
+
+        @Override
+        void beginObject() throws IOException {
+            writer.beginObject();
+            depth++;
+        }
+
+        @Override
+        void endObject() throws IOException {
+            writer.endObject();
+            valueDone();
+        }
+
+        @Override
+        void beginArray() throws IOException {
+            writer.beginArray();
+            depth++;
+        }
+
+        @Override
+        void endArray() throws IOException {
+            writer.endArray();
+            valueDone();
+        }
+
+        @Override
+        void name(final String name) throws IOException {
+            writer.name(name);
+        }
+
+        @Override
+        void value(final JsonToken type, final String value) throws IOException {
+            switch (type) {
+                case BOOLEAN:
+                    writer.value(Boolean.parseBoolean(value));
+                    break;
+                case NULL:
+                    writer.nullValue();
+                    break;
+                case NUMBER:
+                    writer.jsonValue(value);
+                    break;
+                default:
+                    writer.value(value);
+            }
+            depth++;
+            valueDone();
+        }
+
+        private void valueDone() throws IOException {
+            if (--depth == 0) {
+                writer.close();
+                frames.pop();
+
+                final JsonReader in = new JsonReader(new StringReader(text.toString()));
+                in.setLenient(true);
+                parent.captured(in);
+                parent.childDone();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "captured value in " + parent;
+        }
+    }
+}
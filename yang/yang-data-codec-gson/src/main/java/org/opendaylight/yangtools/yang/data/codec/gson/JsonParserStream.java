@@ -13,6 +13,7 @@ import com.google.gson.JsonIOException;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.MalformedJsonException;
 import java.io.Closeable;
 import java.io.EOFException;
@@ -20,28 +21,34 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayDeque;
-import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
 import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
 import org.opendaylight.yangtools.yang.data.util.AbstractNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.AnyXmlNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.CompositeNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaChildIndex;
 import org.opendaylight.yangtools.yang.data.util.LeafListEntryNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.LeafListNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.LeafNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.ListEntryNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.ListNodeDataWithSchema;
-import org.opendaylight.yangtools.yang.data.util.ParserStreamUtils;
 import org.opendaylight.yangtools.yang.data.util.RpcAsContainer;
 import org.opendaylight.yangtools.yang.data.util.SimpleNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.model.api.AnyXmlSchemaNode;
-import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
-import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
-import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
-import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.RpcDefinition;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.model.api.SchemaNode;
@@ -50,6 +57,15 @@ import org.opendaylight.yangtools.yang.model.api.YangModeledAnyXmlSchemaNode;
 /**
  * This class parses JSON elements from a GSON JsonReader. It disallows multiple elements of the same name unlike the
  * default GSON JsonParser.
+ *
+ * <p>
+ * By default the entire input is first read into an intermediate tree, which is emitted into the writer once parsing
+ * completes. Instances created via {@link #createStreaming(NormalizedNodeStreamWriter, JSONCodecFactory)} emit
+ * containers, lists and leaf-lists as soon as they are encountered in the input, so memory used by the parser is
+ * bounded by the depth of the input rather than by its size. Only data which cannot be emitted in input order is
+ * buffered: children of a keyed list entry seen before all of its keys, and nodes which need to be grouped under an
+ * augmentation or a choice. Note that a streaming parser may have emitted partial data into the writer by the time
+ * it reports a parse error.
  */
 @Beta
 public final class JsonParserStream implements Closeable, Flushable {
@@ -57,27 +73,89 @@ public final class JsonParserStream implements Closeable, Flushable {
     private final NormalizedNodeStreamWriter writer;
     private final JSONCodecFactory codecs;
     private final SchemaContext schema;
+    private final DataSchemaChildIndex childIndex;
     private final DataSchemaNode parentNode;
+    private final boolean streaming;
 
-    private JsonParserStream(final NormalizedNodeStreamWriter writer, final SchemaContext schemaContext,
-            final DataSchemaNode parentNode) {
-        this.schema = Preconditions.checkNotNull(schemaContext);
+    private JsonParserStream(final NormalizedNodeStreamWriter writer, final JSONCodecFactory codecFactory,
+            final DataSchemaNode parentNode, final boolean streaming) {
         this.writer = Preconditions.checkNotNull(writer);
-        this.codecs = JSONCodecFactory.create(schemaContext);
+        this.codecs = Preconditions.checkNotNull(codecFactory);
+        this.schema = codecFactory.getSchemaContext();
+        this.childIndex = DataSchemaChildIndex.getShared(schema);
         this.parentNode = parentNode;
+        this.streaming = streaming;
     }
 
     public static JsonParserStream create(final NormalizedNodeStreamWriter writer, final SchemaContext schemaContext,
             final SchemaNode parentNode ) {
-        if (parentNode instanceof RpcDefinition) {
-            return new JsonParserStream(writer, schemaContext, new RpcAsContainer((RpcDefinition) parentNode));
-        }
-        Preconditions.checkArgument(parentNode instanceof DataSchemaNode, "Instance of DataSchemaNode class awaited.");
-        return new JsonParserStream(writer, schemaContext, (DataSchemaNode) parentNode);
+        return create(writer, JSONCodecFactory.getShared(schemaContext), parentNode);
     }
 
     public static JsonParserStream create(final NormalizedNodeStreamWriter writer, final SchemaContext schemaContext) {
-        return new JsonParserStream(writer, schemaContext, schemaContext);
+        return create(writer, JSONCodecFactory.getShared(schemaContext));
+    }
+
+    /**
+     * Create a new parser stream, which uses codecs from the specified factory.
+     *
+     * @param writer NormalizedNodeStreamWriter to which the parsed data should be emitted
+     * @param codecFactory Codec factory, bound to the SchemaContext of the data
+     * @param parentNode Schema node of the parsed data's parent
+     * @return A new parser stream
+     */
+    public static JsonParserStream create(final NormalizedNodeStreamWriter writer,
+            final JSONCodecFactory codecFactory, final SchemaNode parentNode) {
+        return new JsonParserStream(writer, codecFactory, toDataSchemaNode(parentNode), false);
+    }
+
+    /**
+     * Create a new parser stream for data rooted at the SchemaContext of the specified codec factory.
+     *
+     * @param writer NormalizedNodeStreamWriter to which the parsed data should be emitted
+     * @param codecFactory Codec factory, bound to the SchemaContext of the data
+     * @return A new parser stream
+     */
+    public static JsonParserStream create(final NormalizedNodeStreamWriter writer,
+            final JSONCodecFactory codecFactory) {
+        return new JsonParserStream(writer, codecFactory, codecFactory.getSchemaContext(), false);
+    }
+
+    /**
+     * Create a new streaming parser stream, which uses codecs from the specified factory. See class documentation
+     * for differences from a parser created via {@link #create(NormalizedNodeStreamWriter, JSONCodecFactory,
+     * SchemaNode)}.
+     *
+     * @param writer NormalizedNodeStreamWriter to which the parsed data should be emitted
+     * @param codecFactory Codec factory, bound to the SchemaContext of the data
+     * @param parentNode Schema node of the parsed data's parent
+     * @return A new parser stream
+     */
+    public static JsonParserStream createStreaming(final NormalizedNodeStreamWriter writer,
+            final JSONCodecFactory codecFactory, final SchemaNode parentNode) {
+        return new JsonParserStream(writer, codecFactory, toDataSchemaNode(parentNode), true);
+    }
+
+    /**
+     * Create a new streaming parser stream for data rooted at the SchemaContext of the specified codec factory. See
+     * class documentation for differences from a parser created via
+     * {@link #create(NormalizedNodeStreamWriter, JSONCodecFactory)}.
+     *
+     * @param writer NormalizedNodeStreamWriter to which the parsed data should be emitted
+     * @param codecFactory Codec factory, bound to the SchemaContext of the data
+     * @return A new parser stream
+     */
+    public static JsonParserStream createStreaming(final NormalizedNodeStreamWriter writer,
+            final JSONCodecFactory codecFactory) {
+        return new JsonParserStream(writer, codecFactory, codecFactory.getSchemaContext(), true);
+    }
+
+    private static DataSchemaNode toDataSchemaNode(final SchemaNode parentNode) {
+        if (parentNode instanceof RpcDefinition) {
+            return new RpcAsContainer((RpcDefinition) parentNode);
+        }
+        Preconditions.checkArgument(parentNode instanceof DataSchemaNode, "Instance of DataSchemaNode class awaited.");
+        return (DataSchemaNode) parentNode;
     }
 
     public JsonParserStream parse(final JsonReader reader) {
@@ -87,10 +165,14 @@ public final class JsonParserStream implements Closeable, Flushable {
         reader.setLenient(true);
         boolean isEmpty = true;
         try {
-            reader.peek();
+            final JsonToken token = reader.peek();
             isEmpty = false;
             final CompositeNodeDataWithSchema compositeNodeDataWithSchema = new CompositeNodeDataWithSchema(parentNode);
-            read(reader, compositeNodeDataWithSchema);
+            if (streaming && token == JsonToken.BEGIN_OBJECT) {
+                streamChildren(reader, compositeNodeDataWithSchema, null);
+            } else {
+                read(reader, compositeNodeDataWithSchema);
+            }
             compositeNodeDataWithSchema.write(writer);
 
             return this;
@@ -111,7 +193,7 @@ public final class JsonParserStream implements Closeable, Flushable {
         }
     }
 
-    private void setValue(final AbstractNodeDataWithSchema parent, final String value) {
+    void setValue(final AbstractNodeDataWithSchema parent, final String value) {
         Preconditions.checkArgument(parent instanceof SimpleNodeDataWithSchema, "Node %s is not a simple type",
                 parent.getSchema().getQName());
         final SimpleNodeDataWithSchema parentSimpleNode = (SimpleNodeDataWithSchema) parent;
@@ -160,38 +242,10 @@ public final class JsonParserStream implements Closeable, Flushable {
             if (isArray(parent)) {
                 parent = newArrayEntry(parent);
             }
+            final DataSchemaNode parentSchema = dataSchemaOf(parent.getSchema());
             while (in.hasNext()) {
-                final String jsonElementName = in.nextName();
-                DataSchemaNode parentSchema = parent.getSchema();
-                if (parentSchema instanceof YangModeledAnyXmlSchemaNode) {
-                    parentSchema = ((YangModeledAnyXmlSchemaNode) parentSchema).getSchemaOfAnyXmlData();
-                }
-                final NamespaceAndName namespaceAndName = resolveNamespace(jsonElementName, parentSchema);
-                final String localName = namespaceAndName.getName();
-                addNamespace(namespaceAndName.getUri());
-                if (namesakes.contains(jsonElementName)) {
-                    throw new JsonSyntaxException("Duplicate name " + jsonElementName + " in JSON input.");
-                }
-                namesakes.add(jsonElementName);
-
-                final Deque<DataSchemaNode> childDataSchemaNodes =
-                        ParserStreamUtils.findSchemaNodeByNameAndNamespace(parentSchema, localName, getCurrentNamespace());
-                if (childDataSchemaNodes.isEmpty()) {
-                    throw new IllegalStateException("Schema for node with name " + localName + " and namespace "
-                            + getCurrentNamespace() + " doesn't exist.");
-                }
-
-                final AbstractNodeDataWithSchema newChild = ((CompositeNodeDataWithSchema) parent).addChild(childDataSchemaNodes);
-                /*
-                 * FIXME:anyxml data shouldn't be skipped but should be loaded somehow.
-                 * will be able to load anyxml which conforms to YANG data using these
-                 * parser, for other anyxml will be harder.
-                 */
-                if (newChild instanceof AnyXmlNodeDataWithSchema) {
-                    in.skipValue();
-                } else {
-                    read(in, newChild);
-                }
+                final List<DataSchemaNode> childDataSchemaNodes = enterChild(in.nextName(), parentSchema, namesakes);
+                readChild(in, (CompositeNodeDataWithSchema) parent, childDataSchemaNodes);
                 removeNamespace();
             }
             in.endObject();
@@ -204,6 +258,331 @@ public final class JsonParserStream implements Closeable, Flushable {
         }
     }
 
+    static DataSchemaNode dataSchemaOf(final DataSchemaNode schema) {
+        if (schema instanceof YangModeledAnyXmlSchemaNode) {
+            return ((YangModeledAnyXmlSchemaNode) schema).getSchemaOfAnyXmlData();
+        }
+        return schema;
+    }
+
+    /**
+     * Resolve a JSON member name to the schema nodes leading to it from the parent and enter its namespace. The
+     * caller is expected to leave the namespace once it has read the member's value.
+     */
+    List<DataSchemaNode> enterChild(final String jsonElementName, final DataSchemaNode parentSchema,
+            final Set<String> namesakes) {
+        final NamespaceAndName namespaceAndName = resolveNamespace(jsonElementName, parentSchema);
+        final String localName = namespaceAndName.getName();
+        addNamespace(namespaceAndName.getUri());
+        if (!namesakes.add(jsonElementName)) {
+            throw new JsonSyntaxException("Duplicate name " + jsonElementName + " in JSON input.");
+        }
+
+        final List<DataSchemaNode> childDataSchemaNodes =
+                childIndex.findChild(parentSchema, getCurrentNamespace(), localName);
+        if (childDataSchemaNodes.isEmpty()) {
+            throw new IllegalStateException("Schema for node with name " + localName + " and namespace "
+                    + getCurrentNamespace() + " doesn't exist.");
+        }
+        return childDataSchemaNodes;
+    }
+
+    private AbstractNodeDataWithSchema readChild(final JsonReader in, final CompositeNodeDataWithSchema parent,
+            final List<DataSchemaNode> childDataSchemaNodes) throws IOException {
+        final AbstractNodeDataWithSchema newChild = parent.addChild(new ArrayDeque<>(childDataSchemaNodes));
+        /*
+         * FIXME:anyxml data shouldn't be skipped but should be loaded somehow.
+         * will be able to load anyxml which conforms to YANG data using these
+         * parser, for other anyxml will be harder.
+         */
+        if (newChild instanceof AnyXmlNodeDataWithSchema) {
+            in.skipValue();
+        } else {
+            read(in, newChild);
+        }
+        return newChild;
+    }
+
+    /**
+     * Read members of a JSON object, emitting its direct children into the writer as they are encountered. Children
+     * which cannot be emitted right away are collected in the specified buffer, which the caller needs to write out
+     * before it ends the node which is being streamed.
+     *
+     * @param in JSON input, positioned at the beginning of the object
+     * @param buffer Buffer for children which need to be emitted later
+     * @param entry Keyed list entry being streamed, or null if the node has been started already
+     */
+    private void streamChildren(final JsonReader in, final CompositeNodeDataWithSchema buffer,
+            final MapEntryStart entry) throws IOException {
+        final DataSchemaNode parentSchema = dataSchemaOf(buffer.getSchema());
+        final Set<String> namesakes = new HashSet<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            final List<DataSchemaNode> childDataSchemaNodes = enterChild(in.nextName(), parentSchema, namesakes);
+            readMember(in, buffer, entry, childDataSchemaNodes);
+            removeNamespace();
+        }
+        in.endObject();
+    }
+
+    /**
+     * Read the value of a single object member, either emitting it directly or adding it to the buffer.
+     */
+    void readMember(final JsonReader in, final CompositeNodeDataWithSchema buffer, final MapEntryStart entry,
+            final List<DataSchemaNode> childDataSchemaNodes) throws IOException {
+        if (entry != null && !entry.isStarted()) {
+            entry.childRead(readChild(in, buffer, childDataSchemaNodes));
+        } else if (!streamChild(in, dataSchemaOf(buffer.getSchema()), childDataSchemaNodes)) {
+            readChild(in, buffer, childDataSchemaNodes);
+        }
+    }
+
+    /**
+     * Scalar counterpart of {@link #readMember(JsonReader, CompositeNodeDataWithSchema, MapEntryStart, List)},
+     * used when the value has already been tokenized.
+     */
+    void readScalarMember(final String value, final CompositeNodeDataWithSchema buffer, final MapEntryStart entry,
+            final List<DataSchemaNode> childDataSchemaNodes) throws IOException {
+        final boolean pending = entry != null && !entry.isStarted();
+        if (!pending && isDirectChild(dataSchemaOf(buffer.getSchema()), childDataSchemaNodes)) {
+            final DataSchemaNode childSchema = childDataSchemaNodes.get(0);
+            if (childSchema instanceof LeafSchemaNode) {
+                final LeafNodeDataWithSchema leaf = new LeafNodeDataWithSchema(childSchema);
+                setValue(leaf, value);
+                leaf.write(writer);
+                return;
+            }
+            if (isPlainAnyXml(childSchema)) {
+                new AnyXmlNodeDataWithSchema(childSchema).write(writer);
+                return;
+            }
+        }
+
+        final AbstractNodeDataWithSchema newChild = buffer.addChild(new ArrayDeque<>(childDataSchemaNodes));
+        if (!(newChild instanceof AnyXmlNodeDataWithSchema)) {
+            setValue(newChild, value);
+        }
+        if (pending) {
+            entry.childRead(newChild);
+        }
+    }
+
+    /**
+     * Check whether a child can be emitted as soon as it is read, i.e. whether it does not need to be grouped with
+     * its siblings under a choice or an augmentation.
+     */
+    static boolean isDirectChild(final DataSchemaNode parentSchema, final List<DataSchemaNode> childDataSchemaNodes) {
+        if (childDataSchemaNodes.size() != 1) {
+            // Choice content, needs to be grouped
+            return false;
+        }
+        final DataSchemaNode childSchema = childDataSchemaNodes.get(0);
+        return !childSchema.isAugmenting()
+                || CompositeNodeDataWithSchema.findCorrespondingAugment(parentSchema, childSchema) == null;
+    }
+
+    private static boolean isPlainAnyXml(final DataSchemaNode schema) {
+        return schema instanceof AnyXmlSchemaNode && !(schema instanceof YangModeledAnyXmlSchemaNode);
+    }
+
+    /**
+     * Attempt to emit a child directly into the writer.
+     *
+     * @return True if the child has been emitted, false if it needs to be buffered.
+     */
+    private boolean streamChild(final JsonReader in, final DataSchemaNode parentSchema,
+            final List<DataSchemaNode> childDataSchemaNodes) throws IOException {
+        if (!isDirectChild(parentSchema, childDataSchemaNodes)) {
+            return false;
+        }
+
+        final DataSchemaNode childSchema = childDataSchemaNodes.get(0);
+        final JsonToken token = in.peek();
+        if (childSchema instanceof LeafSchemaNode) {
+            final LeafNodeDataWithSchema leaf = new LeafNodeDataWithSchema(childSchema);
+            read(in, leaf);
+            leaf.write(writer);
+        } else if (isPlainAnyXml(childSchema)) {
+            in.skipValue();
+            new AnyXmlNodeDataWithSchema(childSchema).write(writer);
+        } else if (childSchema instanceof ContainerSchemaNode && token == JsonToken.BEGIN_OBJECT) {
+            final CompositeNodeDataWithSchema buffer = startContainer((ContainerSchemaNode) childSchema);
+            streamChildren(in, buffer, null);
+            endNode(buffer);
+        } else if (childSchema instanceof ListSchemaNode
+                && (token == JsonToken.BEGIN_ARRAY || token == JsonToken.BEGIN_OBJECT)) {
+            streamList(in, (ListSchemaNode) childSchema, token);
+        } else if (childSchema instanceof LeafListSchemaNode && token == JsonToken.BEGIN_ARRAY) {
+            streamLeafList(in, (LeafListSchemaNode) childSchema);
+        } else {
+            // Anything else is either invalid or rare enough to go through the buffering reader
+            return false;
+        }
+        return true;
+    }
+
+    private void streamList(final JsonReader in, final ListSchemaNode listSchema, final JsonToken token)
+            throws IOException {
+        startList(listSchema);
+
+        // Lists with one value are sometimes serialized without wrapping array, see read()
+        if (token == JsonToken.BEGIN_ARRAY) {
+            in.beginArray();
+            while (in.hasNext()) {
+                streamListEntry(in, listSchema);
+            }
+            in.endArray();
+        } else {
+            streamListEntry(in, listSchema);
+        }
+        endNode();
+    }
+
+    private void streamListEntry(final JsonReader in, final ListSchemaNode listSchema) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            // Not a valid entry, let the buffering reader report it
+            read(in, new ListEntryNodeDataWithSchema(listSchema));
+            return;
+        }
+
+        final CompositeNodeDataWithSchema buffer = new CompositeNodeDataWithSchema(listSchema);
+        final MapEntryStart entry = startListEntry(listSchema);
+        streamChildren(in, buffer, entry);
+        endListEntry(buffer, entry);
+    }
+
+    private void streamLeafList(final JsonReader in, final LeafListSchemaNode leafListSchema) throws IOException {
+        startLeafList(leafListSchema);
+        in.beginArray();
+        while (in.hasNext()) {
+            final LeafListEntryNodeDataWithSchema entry = new LeafListEntryNodeDataWithSchema(leafListSchema);
+            read(in, entry);
+            entry.write(writer);
+        }
+        in.endArray();
+        endNode();
+    }
+
+    CompositeNodeDataWithSchema startContainer(final ContainerSchemaNode containerSchema) throws IOException {
+        writer.nextDataSchemaNode(containerSchema);
+        writer.startContainerNode(NodeIdentifier.create(containerSchema.getQName()),
+            NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        return new CompositeNodeDataWithSchema(containerSchema);
+    }
+
+    void startList(final ListSchemaNode listSchema) throws IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(listSchema.getQName());
+        writer.nextDataSchemaNode(listSchema);
+        if (listSchema.getKeyDefinition().isEmpty()) {
+            writer.startUnkeyedList(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else if (listSchema.isUserOrdered()) {
+            writer.startOrderedMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        }
+    }
+
+    /**
+     * Start a list entry. Unkeyed entries are started immediately, keyed entries are started once all of their keys
+     * have been read.
+     *
+     * @return Tracker of entry keys, or null if the entry has been started
+     */
+    MapEntryStart startListEntry(final ListSchemaNode listSchema) throws IOException {
+        if (listSchema.getKeyDefinition().isEmpty()) {
+            writer.nextDataSchemaNode(listSchema);
+            writer.startUnkeyedListItem(NodeIdentifier.create(listSchema.getQName()),
+                NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            return null;
+        }
+        return new MapEntryStart(listSchema);
+    }
+
+    void endListEntry(final CompositeNodeDataWithSchema buffer, final MapEntryStart entry) throws IOException {
+        Preconditions.checkState(entry == null || entry.isStarted(), "Input is missing some of the keys of %s",
+            buffer.getSchema().getQName());
+        endNode(buffer);
+    }
+
+    void startLeafList(final LeafListSchemaNode leafListSchema) throws IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(leafListSchema.getQName());
+        writer.nextDataSchemaNode(leafListSchema);
+        if (leafListSchema.isUserOrdered()) {
+            writer.startOrderedLeafSet(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startLeafSet(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        }
+    }
+
+    void writeLeafListEntry(final LeafListSchemaNode leafListSchema, final String value) throws IOException {
+        final LeafListEntryNodeDataWithSchema entry = new LeafListEntryNodeDataWithSchema(leafListSchema);
+        setValue(entry, value);
+        entry.write(writer);
+    }
+
+    /**
+     * Write out buffered children of a node and end it.
+     */
+    void endNode(final CompositeNodeDataWithSchema buffer) throws IOException {
+        buffer.write(writer);
+        writer.endNode();
+    }
+
+    void endNode() throws IOException {
+        writer.endNode();
+    }
+
+    void write(final AbstractNodeDataWithSchema node) throws IOException {
+        node.write(writer);
+    }
+
+    DataSchemaNode getParentNode() {
+        return parentNode;
+    }
+
+    /**
+     * Tracks key values of a keyed list entry and starts the entry in the writer as soon as all of them have been
+     * read.
+     */
+    final class MapEntryStart {
+        private final Map<QName, Object> keyValues = new HashMap<>();
+        private final ListSchemaNode listSchema;
+        private boolean started;
+
+        MapEntryStart(final ListSchemaNode listSchema) {
+            this.listSchema = Preconditions.checkNotNull(listSchema);
+        }
+
+        boolean isStarted() {
+            return started;
+        }
+
+        void childRead(final AbstractNodeDataWithSchema child) throws IOException {
+            if (!(child instanceof LeafNodeDataWithSchema)) {
+                return;
+            }
+            final QName qname = child.getSchema().getQName();
+            final List<QName> keyDef = listSchema.getKeyDefinition();
+            if (!keyDef.contains(qname)) {
+                return;
+            }
+
+            keyValues.put(qname, ((LeafNodeDataWithSchema) child).getValue());
+            if (keyValues.size() == keyDef.size()) {
+                // Need to restore schema order...
+                final Map<QName, Object> predicates = new LinkedHashMap<>();
+                for (QName key : keyDef) {
+                    predicates.put(key, keyValues.get(key));
+                }
+
+                writer.nextDataSchemaNode(listSchema);
+                writer.startMapEntryNode(new NodeIdentifierWithPredicates(listSchema.getQName(), predicates),
+                    NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                started = true;
+            }
+        }
+    }
+
     private static boolean isArray(final AbstractNodeDataWithSchema parent) {
         return parent instanceof ListNodeDataWithSchema || parent instanceof LeafListNodeDataWithSchema;
     }
@@ -233,7 +612,7 @@ public final class JsonParserStream implements Closeable, Flushable {
         return codecs.codecFor(node).deserialize(value);
     }
 
-    private void removeNamespace() {
+    void removeNamespace() {
         namespaces.pop();
     }
 
@@ -250,15 +629,13 @@ public final class JsonParserStream implements Closeable, Flushable {
             moduleNamePart = childName.substring(0, lastIndexOfColon);
             nodeNamePart = childName.substring(lastIndexOfColon + 1);
 
-            final Module m = schema.findModuleByName(moduleNamePart, null);
-            namespace = m == null ? null : m.getNamespace();
+            namespace = childIndex.findModuleNamespace(moduleNamePart);
         } else {
             nodeNamePart = childName;
         }
 
         if (namespace == null) {
-            Set<URI> potentialUris = Collections.emptySet();
-            potentialUris = resolveAllPotentialNamespaces(nodeNamePart, dataSchemaNode);
+            final Set<URI> potentialUris = childIndex.findChildNamespaces(dataSchemaNode, nodeNamePart);
             if (potentialUris.contains(getCurrentNamespace())) {
                 namespace = getCurrentNamespace();
             } else if (potentialUris.size() == 1) {
@@ -283,27 +660,6 @@ public final class JsonParserStream implements Closeable, Flushable {
         return builder.toString();
     }
 
-    private Set<URI> resolveAllPotentialNamespaces(final String elementName, final DataSchemaNode dataSchemaNode) {
-        final Set<URI> potentialUris = new HashSet<>();
-        final Set<ChoiceSchemaNode> choices = new HashSet<>();
-        if (dataSchemaNode instanceof DataNodeContainer) {
-            for (final DataSchemaNode childSchemaNode : ((DataNodeContainer) dataSchemaNode).getChildNodes()) {
-                if (childSchemaNode instanceof ChoiceSchemaNode) {
-                    choices.add((ChoiceSchemaNode)childSchemaNode);
-                } else if (childSchemaNode.getQName().getLocalName().equals(elementName)) {
-                    potentialUris.add(childSchemaNode.getQName().getNamespace());
-                }
-            }
-
-            for (final ChoiceSchemaNode choiceNode : choices) {
-                for (final ChoiceCaseNode concreteCase : choiceNode.getCases()) {
-                    potentialUris.addAll(resolveAllPotentialNamespaces(elementName, concreteCase));
-                }
-            }
-        }
-        return potentialUris;
-    }
-
     private URI getCurrentNamespace() {
         return namespaces.peek();
     }
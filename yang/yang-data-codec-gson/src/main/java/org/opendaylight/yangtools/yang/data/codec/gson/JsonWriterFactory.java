@@ -10,6 +10,7 @@ package org.opendaylight.yangtools.yang.data.codec.gson;
 import com.google.common.annotations.Beta;
 import com.google.common.base.Strings;
 import com.google.gson.stream.JsonWriter;
+import java.io.OutputStream;
 import java.io.Writer;
 
 /**
@@ -44,4 +45,29 @@ public final class JsonWriterFactory {
         jsonWriter.setIndent(indent);
         return jsonWriter;
     }
+
+    /**
+     * Create a new JsonWriter, which writes UTF-8 encoded output to the specified output stream. The returned writer
+     * buffers output internally and encodes it without going through a {@link Writer}, hence it needs to be flushed
+     * or closed for the output to be written. It ignores {@link JsonWriter#setIndent(String)}.
+     *
+     * @param stream Output stream
+     * @return A JsonWriter instance
+     */
+    public static JsonWriter createJsonWriter(final OutputStream stream) {
+        return new Utf8JsonWriter(stream, null);
+    }
+
+    /**
+     * Create a new JsonWriter, which writes UTF-8 encoded output to the specified output stream. The returned writer
+     * buffers output internally and encodes it without going through a {@link Writer}, hence it needs to be flushed
+     * or closed for the output to be written. It ignores {@link JsonWriter#setIndent(String)}.
+     *
+     * @param stream Output stream
+     * @param indentSize size of the indent
+     * @return A JsonWriter instance
+     */
+    public static JsonWriter createJsonWriter(final OutputStream stream, final int indentSize) {
+        return new Utf8JsonWriter(stream, Strings.repeat(" ", indentSize));
+    }
 }
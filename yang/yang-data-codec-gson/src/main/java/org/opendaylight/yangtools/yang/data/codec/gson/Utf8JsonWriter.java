@@ -0,0 +1,517 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.common.QName;
+
+/**
+ * A {@link JsonWriter} which encodes its output as UTF-8 directly into an internal byte buffer, which is drained into
+ * an {@link OutputStream}. It produces the same output as a plain JsonWriter on top of an UTF-8 {@link Writer}, but
+ * does not go through a charset encoder, escapes strings without intermediate copies and formats integral numbers
+ * without allocating. It also caches encoded member names of data nodes, so each of them is escaped only once.
+ *
+ * <p>
+ * Indentation has to be specified at construction time, as {@link #setIndent(String)} cannot be intercepted and has
+ * no effect on this writer.
+ */
+final class Utf8JsonWriter extends JsonWriter {
+    private static final Writer UNUSED_WRITER = new Writer() {
+        @Override
+        public void write(final char[] cbuf, final int off, final int len) {
+            throw new UnsupportedOperationException("Output is written through the byte buffer");
+        }
+
+        @Override
+        public void flush() {
+            // No-op
+        }
+
+        @Override
+        public void close() {
+            // No-op
+        }
+    };
+
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+
+    private static final int BUFFER_SIZE = 8192;
+    // Longest encoding of a single char, which is an unicode escape
+    private static final int MAX_CHAR_BYTES = 6;
+
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[] MIN_LONG = ascii(Long.toString(Long.MIN_VALUE));
+    private static final byte[][] ESCAPES = new byte[128][];
+    private static final byte[][] HTML_SAFE_ESCAPES;
+
+    static {
+        for (int i = 0; i < 0x20; ++i) {
+            ESCAPES[i] = ascii(String.format("\\u%04x", i));
+        }
+        ESCAPES['"'] = ascii("\\\"");
+        ESCAPES['\\'] = ascii("\\\\");
+        ESCAPES['\t'] = ascii("\\t");
+        ESCAPES['\b'] = ascii("\\b");
+        ESCAPES['\n'] = ascii("\\n");
+        ESCAPES['\r'] = ascii("\\r");
+        ESCAPES['\f'] = ascii("\\f");
+
+        HTML_SAFE_ESCAPES = ESCAPES.clone();
+        HTML_SAFE_ESCAPES['<'] = ascii("\\u003c");
+        HTML_SAFE_ESCAPES['>'] = ascii("\\u003e");
+        HTML_SAFE_ESCAPES['&'] = ascii("\\u0026");
+        HTML_SAFE_ESCAPES['='] = ascii("\\u003d");
+        HTML_SAFE_ESCAPES['\''] = ascii("\\u0027");
+    }
+
+    private final Map<QName, byte[]> qualifiedNames = new HashMap<>();
+    private final Map<QName, byte[]> localNames = new HashMap<>();
+    private final byte[] digits = new byte[20];
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private final OutputStream out;
+    private final byte[] separator;
+    private final byte[] indent;
+
+    private int[] stack = new int[32];
+    private int stackSize = 0;
+    private int pos = 0;
+    private byte[] deferredName;
+
+    Utf8JsonWriter(final OutputStream out, @Nullable final String indent) {
+        super(UNUSED_WRITER);
+        this.out = Preconditions.checkNotNull(out);
+        if (indent == null || indent.isEmpty()) {
+            this.indent = null;
+            this.separator = ascii(":");
+        } else {
+            this.indent = indent.getBytes(StandardCharsets.UTF_8);
+            this.separator = ascii(": ");
+        }
+        push(EMPTY_DOCUMENT);
+    }
+
+    /**
+     * Look up the cached encoding of a data node name, as previously created by
+     * {@link #cacheName(QName, boolean, String)}.
+     *
+     * @param qname Data node name
+     * @param qualified True if the name is prefixed with a module name
+     * @return Encoded name, or null if it has not been cached yet
+     */
+    @Nullable byte[] cachedName(final QName qname, final boolean qualified) {
+        return (qualified ? qualifiedNames : localNames).get(qname);
+    }
+
+    /**
+     * Encode a data node name and cache it for future use.
+     *
+     * @param qname Data node name
+     * @param qualified True if the name is prefixed with a module name
+     * @param name JSON member name
+     * @return Encoded name
+     */
+    byte[] cacheName(final QName qname, final boolean qualified, final String name) throws IOException {
+        final byte[] ret = encodeString(name);
+        (qualified ? qualifiedNames : localNames).put(qname, ret);
+        return ret;
+    }
+
+    /**
+     * Emit a member name encoded by {@link #cacheName(QName, boolean, String)}.
+     *
+     * @param encodedName Encoded name
+     * @return This writer
+     */
+    JsonWriter name(final byte[] encodedName) {
+        Preconditions.checkNotNull(encodedName, "name == null");
+        if (deferredName != null) {
+            throw new IllegalStateException();
+        }
+        if (stackSize == 0) {
+            throw new IllegalStateException("JsonWriter is closed.");
+        }
+        deferredName = encodedName;
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(final String name) throws IOException {
+        Preconditions.checkNotNull(name, "name == null");
+        return name(encodeString(name));
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        writeDeferredName();
+        return open(EMPTY_ARRAY, '[');
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        writeDeferredName();
+        return open(EMPTY_OBJECT, '{');
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+    }
+
+    @Override
+    public JsonWriter value(final String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter jsonValue(final String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        beforeValue();
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (deferredName != null) {
+            if (!getSerializeNulls()) {
+                // Skip the name and the value
+                deferredName = null;
+                return this;
+            }
+            writeDeferredName();
+        }
+        beforeValue();
+        writeBytes(NULL);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(final boolean value) throws IOException {
+        writeDeferredName();
+        beforeValue();
+        writeBytes(value ? TRUE : FALSE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(final Boolean value) throws IOException {
+        return value == null ? nullValue() : value(value.booleanValue());
+    }
+
+    @Override
+    public JsonWriter value(final double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        writeDeferredName();
+        beforeValue();
+        writeAscii(Double.toString(value));
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(final long value) throws IOException {
+        writeDeferredName();
+        beforeValue();
+        writeLong(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(final Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return value(value.longValue());
+        }
+
+        final String string = value.toString();
+        if (!isLenient() && ("-Infinity".equals(string) || "Infinity".equals(string) || "NaN".equals(string))) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        writeDeferredName();
+        beforeValue();
+        writeAscii(string);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (stackSize == 0) {
+            throw new IllegalStateException("JsonWriter is closed.");
+        }
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        drain();
+        out.close();
+
+        final int size = stackSize;
+        if (size > 1 || size == 1 && stack[size - 1] != NONEMPTY_DOCUMENT) {
+            throw new IOException("Incomplete document");
+        }
+        stackSize = 0;
+    }
+
+    private JsonWriter open(final int empty, final char bracket) throws IOException {
+        beforeValue();
+        push(empty);
+        writeByte(bracket);
+        return this;
+    }
+
+    private JsonWriter close(final int empty, final int nonempty, final char bracket) throws IOException {
+        final int context = peek();
+        if (context != nonempty && context != empty) {
+            throw new IllegalStateException("Nesting problem.");
+        }
+        if (deferredName != null) {
+            throw new IllegalStateException("Dangling name: " + new String(deferredName, StandardCharsets.UTF_8));
+        }
+
+        stackSize--;
+        if (context == nonempty) {
+            newline();
+        }
+        writeByte(bracket);
+        return this;
+    }
+
+    private void push(final int newTop) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = newTop;
+    }
+
+    private int peek() {
+        if (stackSize == 0) {
+            throw new IllegalStateException("JsonWriter is closed.");
+        }
+        return stack[stackSize - 1];
+    }
+
+    private void replaceTop(final int topOfStack) {
+        stack[stackSize - 1] = topOfStack;
+    }
+
+    private void writeDeferredName() throws IOException {
+        if (deferredName != null) {
+            beforeName();
+            writeBytes(deferredName);
+            deferredName = null;
+        }
+    }
+
+    private void beforeName() throws IOException {
+        final int context = peek();
+        if (context == NONEMPTY_OBJECT) {
+            writeByte(',');
+        } else if (context != EMPTY_OBJECT) {
+            throw new IllegalStateException("Nesting problem.");
+        }
+        newline();
+        replaceTop(DANGLING_NAME);
+    }
+
+    private void beforeValue() throws IOException {
+        switch (peek()) {
+            case NONEMPTY_DOCUMENT:
+                if (!isLenient()) {
+                    throw new IllegalStateException("JSON must have only one top-level value.");
+                }
+                // fall-through
+            case EMPTY_DOCUMENT:
+                replaceTop(NONEMPTY_DOCUMENT);
+                break;
+            case EMPTY_ARRAY:
+                replaceTop(NONEMPTY_ARRAY);
+                newline();
+                break;
+            case NONEMPTY_ARRAY:
+                writeByte(',');
+                newline();
+                break;
+            case DANGLING_NAME:
+                writeBytes(separator);
+                replaceTop(NONEMPTY_OBJECT);
+                break;
+            default:
+                throw new IllegalStateException("Nesting problem.");
+        }
+    }
+
+    private void newline() throws IOException {
+        if (indent != null) {
+            writeByte('\n');
+            for (int i = 1; i < stackSize; ++i) {
+                writeBytes(indent);
+            }
+        }
+    }
+
+    private byte[] encodeString(final String value) throws IOException {
+        // Encode through the buffer, so we do not need a separate code path
+        drain();
+        string(value);
+        final byte[] ret = Arrays.copyOf(buf, pos);
+        pos = 0;
+        return ret;
+    }
+
+    private void string(final String value) throws IOException {
+        final byte[][] escapes = isHtmlSafe() ? HTML_SAFE_ESCAPES : ESCAPES;
+
+        writeByte('"');
+        final int length = value.length();
+        for (int i = 0; i < length; ++i) {
+            if (pos + MAX_CHAR_BYTES > buf.length) {
+                drain();
+            }
+
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                final byte[] escape = escapes[c];
+                if (escape == null) {
+                    buf[pos++] = (byte) c;
+                } else {
+                    System.arraycopy(escape, 0, buf, pos, escape.length);
+                    pos += escape.length;
+                }
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xc0 | c >> 6);
+                buf[pos++] = (byte) (0x80 | c & 0x3f);
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int cp = Character.toCodePoint(c, value.charAt(++i));
+                    buf[pos++] = (byte) (0xf0 | cp >> 18);
+                    buf[pos++] = (byte) (0x80 | cp >> 12 & 0x3f);
+                    buf[pos++] = (byte) (0x80 | cp >> 6 & 0x3f);
+                    buf[pos++] = (byte) (0x80 | cp & 0x3f);
+                } else {
+                    // Unpaired surrogate, replaced just like the UTF-8 encoder does
+                    buf[pos++] = '?';
+                }
+            } else if (c == '\u2028' || c == '\u2029') {
+                buf[pos++] = '\\';
+                buf[pos++] = 'u';
+                buf[pos++] = '2';
+                buf[pos++] = '0';
+                buf[pos++] = '2';
+                buf[pos++] = (byte) (c == '\u2028' ? '8' : '9');
+            } else {
+                buf[pos++] = (byte) (0xe0 | c >> 12);
+                buf[pos++] = (byte) (0x80 | c >> 6 & 0x3f);
+                buf[pos++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeLong(final long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            // Cannot be negated
+            writeBytes(MIN_LONG);
+            return;
+        }
+
+        long remaining = value < 0 ? -value : value;
+        int offset = digits.length;
+        do {
+            digits[--offset] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            digits[--offset] = '-';
+        }
+        writeBytes(digits, offset, digits.length - offset);
+    }
+
+    private void writeAscii(final String str) throws IOException {
+        final int length = str.length();
+        if (pos + length > buf.length) {
+            drain();
+            if (length > buf.length) {
+                out.write(str.getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+        }
+        for (int i = 0; i < length; ++i) {
+            buf[pos++] = (byte) str.charAt(i);
+        }
+    }
+
+    private void writeByte(final char c) throws IOException {
+        if (pos == buf.length) {
+            drain();
+        }
+        buf[pos++] = (byte) c;
+    }
+
+    private void writeBytes(final byte[] bytes) throws IOException {
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    private void writeBytes(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (pos + length > buf.length) {
+            drain();
+            if (length > buf.length) {
+                out.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buf, pos, length);
+        pos += length;
+    }
+
+    private void drain() throws IOException {
+        if (pos != 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+
+    private static byte[] ascii(final String str) {
+        return str.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadModules;
+
+import com.google.common.collect.ImmutableList;
+import java.net.URI;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaChildIndex;
+import org.opendaylight.yangtools.yang.data.util.ParserStreamUtils;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class DataSchemaChildIndexTest {
+    private int verified;
+
+    @Test
+    public void testSameAsParserStreamUtils() throws Exception {
+        final SchemaContext schemaContext = loadModules("/complexjson/yang");
+        final DataSchemaChildIndex index = DataSchemaChildIndex.create(schemaContext);
+        verifySubtree(index, schemaContext);
+        assertTrue(verified > 10);
+
+        final QName cont1 = QName.create("ns:complex:json", "2014-08-11", "cont1");
+        assertEquals(ImmutableList.of(schemaContext.getDataChildByName(cont1)),
+            index.findChild(schemaContext, cont1.getNamespace(), "cont1"));
+        assertTrue(index.findChild(schemaContext, cont1.getNamespace(), "nonexistent").isEmpty());
+        assertEquals(cont1.getNamespace(), index.findModuleNamespace("complexjson"));
+        assertNull(index.findModuleNamespace("nonexistent"));
+        assertSame(DataSchemaChildIndex.getShared(schemaContext), DataSchemaChildIndex.getShared(schemaContext));
+    }
+
+    private void verifySubtree(final DataSchemaChildIndex index, final DataSchemaNode parent) {
+        if (!(parent instanceof DataNodeContainer)) {
+            return;
+        }
+
+        for (DataSchemaNode child : ((DataNodeContainer) parent).getChildNodes()) {
+            if (child instanceof ChoiceSchemaNode) {
+                for (ChoiceCaseNode caseNode : ((ChoiceSchemaNode) child).getCases()) {
+                    for (DataSchemaNode caseChild : caseNode.getChildNodes()) {
+                        // Nested choices are verified relative to the case
+                        if (!(caseChild instanceof ChoiceSchemaNode)) {
+                            verifyChild(index, parent, caseChild);
+                        }
+                    }
+                    verifySubtree(index, caseNode);
+                }
+            } else {
+                verifyChild(index, parent, child);
+                verifySubtree(index, child);
+            }
+        }
+    }
+
+    private void verifyChild(final DataSchemaChildIndex index, final DataSchemaNode parent,
+            final DataSchemaNode child) {
+        final URI namespace = child.getQName().getNamespace();
+        final String localName = child.getQName().getLocalName();
+        assertEquals(ImmutableList.copyOf(ParserStreamUtils.findSchemaNodeByNameAndNamespace(parent, localName,
+            namespace)), index.findChild(parent, namespace, localName));
+        assertTrue(index.findChildNamespaces(parent, localName).contains(namespace));
+        verified++;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadModules;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadTextFile;
+
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.ref.WeakReference;
+import java.net.URISyntaxException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaChildIndex;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+
+public class JSONCodecFactoryTest {
+
+    private static SchemaContext schemaContext;
+
+    @BeforeClass
+    public static void initialization() throws IOException, URISyntaxException, ReactorException {
+        schemaContext = loadModules("/bug-4501/yang");
+    }
+
+    @Test
+    public void testSharedFactory() {
+        final JSONCodecFactory shared = JSONCodecFactory.getShared(schemaContext);
+        assertSame(shared, JSONCodecFactory.getShared(schemaContext));
+        assertNotSame(shared, JSONCodecFactory.create(schemaContext));
+        assertSame(schemaContext, shared.getSchemaContext());
+    }
+
+    @Test
+    public void testSharedFactoryDoesNotRetainContext() throws Exception {
+        final WeakReference<SchemaContext> ref = sharedContextReference();
+        for (int i = 0; i < 100 && ref.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+    }
+
+    private static WeakReference<SchemaContext> sharedContextReference() throws Exception {
+        final SchemaContext context = loadModules("/bug-4501/yang");
+        JSONCodecFactory.getShared(context);
+        DataSchemaChildIndex.getShared(context);
+        return new WeakReference<>(context);
+    }
+
+    @Test
+    public void testParseWithFactory() throws IOException, URISyntaxException {
+        final String inputJson = loadTextFile("/bug-4501/json/foo-correct.json");
+        final JSONCodecFactory factory = JSONCodecFactory.getShared(schemaContext);
+
+        final NormalizedNodeResult first = new NormalizedNodeResult();
+        JsonParserStream.create(ImmutableNormalizedNodeStreamWriter.from(first), factory)
+            .parse(new JsonReader(new StringReader(inputJson)));
+
+        final NormalizedNodeResult second = new NormalizedNodeResult();
+        JsonParserStream.create(ImmutableNormalizedNodeStreamWriter.from(second), schemaContext)
+            .parse(new JsonReader(new StringReader(inputJson)));
+
+        final NormalizedNode<?, ?> expected = first.getResult();
+        assertEquals(expected, second.getResult());
+    }
+}
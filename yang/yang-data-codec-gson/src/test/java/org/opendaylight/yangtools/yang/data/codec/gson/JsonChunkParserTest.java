@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadModules;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadTextFile;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+
+public class JsonChunkParserTest {
+    private static final String[] INPUTS = {
+        "/complexjson/leaf-node-in-container.json",
+        "/complexjson/leaf-node-via-augmentation-in-container.json",
+        "/complexjson/leaflist-node-in-container.json",
+        "/complexjson/keyed-list-node-in-container.json",
+        "/complexjson/unkeyed-node-in-container.json",
+        "/complexjson/choice-node-in-container.json",
+        "/complexjson/choice-node-augmentation-in-container.json",
+        "/complexjson/case-node-augmentation-in-choice-in-container.json",
+        "/complexjson/case-node-external-augmentation-in-choice-in-container.json",
+        "/complexjson/multiple-choice-augmentation-in-container.json",
+        "/complexjson/type-empty.json",
+        "/complexjson/complex-json.json",
+    };
+
+    private static SchemaContext schemaContext;
+
+    @BeforeClass
+    public static void initialization() throws IOException, URISyntaxException, ReactorException {
+        schemaContext = loadModules("/complexjson/yang");
+    }
+
+    private static NormalizedNode<?, ?> parse(final String input) {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        JsonParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result), schemaContext)
+            .parse(new JsonReader(new StringReader(input)));
+        return result.getResult();
+    }
+
+    private static NormalizedNode<?, ?> parseChunks(final String input, final int chunkSize) {
+        final byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final JsonChunkParser parser = JsonChunkParser.create(ImmutableNormalizedNodeStreamWriter.from(result),
+            JSONCodecFactory.getShared(schemaContext));
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            final ByteBuffer chunk = ByteBuffer.wrap(bytes, offset, Math.min(chunkSize, bytes.length - offset));
+            parser.feed(chunk);
+            assertEquals(0, chunk.remaining());
+        }
+        parser.finish();
+        return result.getResult();
+    }
+
+    @Test
+    public void testSameResult() throws IOException, URISyntaxException {
+        for (String input : INPUTS) {
+            final String inputJson = loadTextFile(input);
+            final NormalizedNode<?, ?> expected = parse(inputJson);
+            assertNotNull(expected);
+            assertEquals(input, expected, parseChunks(inputJson, 1));
+            assertEquals(input, expected, parseChunks(inputJson, 7));
+            assertEquals(input, expected, parseChunks(inputJson, Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void testSplitCharacters() {
+        final String input = "{\"complexjson:cont1\":{\"lflst11\":[\"\u017e\u20ac\ud834\udd1e\",\"a\\\"b\\u0041\\n\"],"
+                + "\"lf11\":-5,\"empty\":[null]}}";
+        final NormalizedNode<?, ?> expected = parse(input);
+        for (int chunkSize = 1; chunkSize < 5; ++chunkSize) {
+            assertEquals(expected, parseChunks(input, chunkSize));
+        }
+    }
+
+    @Test
+    public void testEmptyInput() {
+        assertNull(parseChunks(" \n ", 1));
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void testTruncatedInput() {
+        parseChunks("{\"complexjson:cont1\":{\"lf11\":5", 3);
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void testMalformedInput() {
+        parseChunks("{\"complexjson:cont1\":{\"lf11\" 5}}", 3);
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void testInvalidUtf8() {
+        final JsonChunkParser parser = JsonChunkParser.create(
+            ImmutableNormalizedNodeStreamWriter.from(new NormalizedNodeResult()),
+            JSONCodecFactory.getShared(schemaContext));
+        parser.feed(ByteBuffer.wrap(new byte[] { '"', (byte) 0xc3 }));
+        parser.finish();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadModules;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadTextFile;
+
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.ForwardingNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+
+public class StreamingJsonParserTest {
+    private static final String[] INPUTS = {
+        "/complexjson/leaf-node-in-container.json",
+        "/complexjson/leaf-node-via-augmentation-in-container.json",
+        "/complexjson/leaflist-node-in-container.json",
+        "/complexjson/keyed-list-node-in-container.json",
+        "/complexjson/unkeyed-node-in-container.json",
+        "/complexjson/choice-node-in-container.json",
+        "/complexjson/choice-node-augmentation-in-container.json",
+        "/complexjson/case-node-augmentation-in-choice-in-container.json",
+        "/complexjson/case-node-external-augmentation-in-choice-in-container.json",
+        "/complexjson/multiple-choice-augmentation-in-container.json",
+        "/complexjson/type-empty.json",
+        "/complexjson/complex-json.json",
+    };
+
+    private static SchemaContext schemaContext;
+
+    @BeforeClass
+    public static void initialization() throws IOException, URISyntaxException, ReactorException {
+        schemaContext = loadModules("/complexjson/yang");
+    }
+
+    /**
+     * Reader which keeps track of how much of the input has been consumed.
+     */
+    private static final class CountingReader extends StringReader {
+        private int consumed;
+
+        CountingReader(final String input) {
+            super(input);
+        }
+
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            final int ret = super.read(cbuf, off, len);
+            if (ret > 0) {
+                consumed += ret;
+            }
+            return ret;
+        }
+    }
+
+    private static NormalizedNode<?, ?> parse(final Reader input, final NormalizedNodeStreamWriter delegate,
+            final NormalizedNodeResult result, final boolean streaming) {
+        final JSONCodecFactory codecs = JSONCodecFactory.getShared(schemaContext);
+        final JsonParserStream parser = streaming ? JsonParserStream.createStreaming(delegate, codecs)
+                : JsonParserStream.create(delegate, codecs);
+        parser.parse(new JsonReader(input));
+        return result.getResult();
+    }
+
+    private static NormalizedNode<?, ?> parse(final String input, final boolean streaming) {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        return parse(new StringReader(input), ImmutableNormalizedNodeStreamWriter.from(result), result, streaming);
+    }
+
+    @Test
+    public void testSameResult() throws IOException, URISyntaxException {
+        for (String input : INPUTS) {
+            final String inputJson = loadTextFile(input);
+            final NormalizedNode<?, ?> expected = parse(inputJson, false);
+            assertNotNull(expected);
+            assertEquals(input, expected, parse(inputJson, true));
+        }
+    }
+
+    @Test
+    public void testListEntriesEmittedEarly() {
+        final StringBuilder sb = new StringBuilder("{\"complexjson:cont1\":{\"lst11\":[");
+        for (int i = 0; i < 1000; ++i) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            // Put one of the keys last, so the entry has to wait for it
+            sb.append("{\"key111\":\"").append(i).append("\",\"lf113\":\"x\",\"lf111\":\"y\"}");
+        }
+        final String input = sb.append("]}}").toString();
+
+        final CountingReader reader = new CountingReader(input);
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final NormalizedNodeStreamWriter immutable = ImmutableNormalizedNodeStreamWriter.from(result);
+        final int[] firstEntry = { -1 };
+        final NormalizedNodeStreamWriter writer = new ForwardingNormalizedNodeStreamWriter() {
+            @Override
+            protected NormalizedNodeStreamWriter delegate() {
+                return immutable;
+            }
+
+            @Override
+            public void startMapEntryNode(final NodeIdentifierWithPredicates identifier, final int childSizeHint)
+                    throws IOException {
+                if (firstEntry[0] == -1) {
+                    firstEntry[0] = reader.consumed;
+                }
+                super.startMapEntryNode(identifier, childSizeHint);
+            }
+        };
+
+        final NormalizedNode<?, ?> streamed = parse(reader, writer, result, true);
+        assertTrue("First entry emitted at " + firstEntry[0], firstEntry[0] > 0 && firstEntry[0] < input.length() / 2);
+        assertEquals(parse(input, false), streamed);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMissingKey() {
+        parse("{\"complexjson:cont1\":{\"lst11\":[{\"key111\":\"a\",\"lf113\":\"x\"}]}}", true);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadModules;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadTextFile;
+
+import com.google.common.base.Strings;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+
+public class Utf8JsonWriterTest {
+    private static final String[] INPUTS = {
+        "/complexjson/leaf-node-in-container.json",
+        "/complexjson/leaf-node-via-augmentation-in-container.json",
+        "/complexjson/leaflist-node-in-container.json",
+        "/complexjson/keyed-list-node-in-container.json",
+        "/complexjson/unkeyed-node-in-container.json",
+        "/complexjson/choice-node-in-container.json",
+        "/complexjson/choice-node-augmentation-in-container.json",
+        "/complexjson/case-node-augmentation-in-choice-in-container.json",
+        "/complexjson/case-node-external-augmentation-in-choice-in-container.json",
+        "/complexjson/multiple-choice-augmentation-in-container.json",
+        "/complexjson/type-empty.json",
+        "/complexjson/complex-json.json",
+    };
+
+    private static SchemaContext schemaContext;
+
+    @BeforeClass
+    public static void initialization() throws IOException, URISyntaxException, ReactorException {
+        schemaContext = loadModules("/complexjson/yang");
+    }
+
+    @Test
+    public void testSameNormalizedNodeOutput() throws IOException, URISyntaxException {
+        for (String input : INPUTS) {
+            final NormalizedNodeResult result = new NormalizedNodeResult();
+            JsonParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result), schemaContext)
+                .parse(new JsonReader(new StringReader(loadTextFile(input))));
+            final NormalizedNode<?, ?> data = result.getResult();
+
+            for (int indentSize : new int[] { 0, 2 }) {
+                final StringWriter expected = new StringWriter();
+                writeNormalizedNode(JsonWriterFactory.createJsonWriter(expected, indentSize), data);
+                final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                writeNormalizedNode(JsonWriterFactory.createJsonWriter(actual, indentSize), data);
+                assertEquals(input, expected.toString(), new String(actual.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    public void testSameScalarOutput() throws IOException {
+        final StringWriter expected = new StringWriter();
+        writeScalars(new JsonWriter(expected));
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        writeScalars(JsonWriterFactory.createJsonWriter(actual));
+        assertEquals(expected.toString(), new String(actual.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDanglingName() throws IOException {
+        final JsonWriter writer = JsonWriterFactory.createJsonWriter(new ByteArrayOutputStream());
+        writer.beginObject();
+        writer.name("a");
+        writer.endObject();
+    }
+
+    private static void writeNormalizedNode(final JsonWriter writer, final NormalizedNode<?, ?> data)
+            throws IOException {
+        final NormalizedNodeStreamWriter jsonStream = JSONNormalizedNodeStreamWriter.createExclusiveWriter(
+            JSONCodecFactory.getShared(schemaContext), SchemaPath.ROOT, null, writer);
+        try (final NormalizedNodeWriter nodeWriter = NormalizedNodeWriter.forStreamWriter(jsonStream)) {
+            nodeWriter.write(data);
+        }
+    }
+
+    private static void writeScalars(final JsonWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("strings").beginArray();
+        writer.value("");
+        writer.value("a\"b\\c\t\n\r\b\f\u0000\u001f/<>&='");
+        writer.value("\u00e9\u017e\u20ac\u2028\u2029\ud834\udd1e");
+        writer.value(Strings.repeat("\u20ac", 5000));
+        writer.endArray();
+        writer.name("numbers").beginArray();
+        writer.value(0).value(-1).value(Long.MAX_VALUE).value(Long.MIN_VALUE);
+        writer.value(Integer.valueOf(42)).value(Short.valueOf((short) -7)).value(Byte.valueOf((byte) 3));
+        writer.value(new BigInteger("18446744073709551615")).value(new BigDecimal("-1.25")).value(0.5);
+        writer.endArray();
+        writer.name("\u00e9\"name").value(true);
+        writer.name("null").nullValue();
+        writer.name("empty").beginObject().endObject();
+        writer.endObject();
+        writer.close();
+    }
+}
@@ -21,13 +21,14 @@ import org.opendaylight.yangtools.yang.data.api.codec.Uint32Codec;
 import org.opendaylight.yangtools.yang.data.api.codec.Uint64Codec;
 import org.opendaylight.yangtools.yang.data.api.codec.Uint8Codec;
 import org.opendaylight.yangtools.yang.data.impl.codec.TypeDefinitionAwareCodec;
+import org.opendaylight.yangtools.yang.data.util.TryDeserializingCodec;
 
 /**
  * Abstract base implementation of {@link XmlCodec}, which wraps a {@link TypeDefinitionAwareCodec}.
  *
  * @param <T> Deserialized object type
  */
-abstract class AbstractXmlCodec<T> implements XmlCodec<T> {
+abstract class AbstractXmlCodec<T> implements XmlCodec<T>, TryDeserializingCodec<T> {
 
     private final Codec<String, T> codec;
 
@@ -59,6 +60,19 @@ abstract class AbstractXmlCodec<T> implements XmlCodec<T> {
         return codec.deserialize(input);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public final T tryDeserialize(final String input) {
+        if (codec instanceof TryDeserializingCodec) {
+            return ((TryDeserializingCodec<T>) codec).tryDeserialize(input);
+        }
+        try {
+            return codec.deserialize(input);
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     @Override
     public final String serialize(final T input) {
         return codec.serialize(input);
@@ -0,0 +1,547 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * An XML tokenizer which is fed characters in arbitrary pieces. Unlike {@link javax.xml.stream.XMLStreamReader} it
+ * does not pull data from a source, but retains incomplete markup and text between invocations of
+ * {@link #process(CharBuffer)} and reports elements to a {@link Listener} as soon as they are complete. It resolves
+ * namespace prefixes and verifies that the input is well-formed, except that it does not check character classes
+ * of names.
+ *
+ * <p>
+ * Only the predefined entities and character references are recognized. Document type declarations are rejected,
+ * hence no external entities are ever resolved.
+ */
+final class IncrementalXmlTokenizer {
+    /**
+     * Receiver of elements and their content. Events are reported in document order and are guaranteed to be
+     * properly nested.
+     */
+    interface Listener {
+        void startElement(String namespace, String localName, NamespaceContext namespaceContext, Location location)
+                throws XMLStreamException;
+
+        void characters(String text) throws XMLStreamException;
+
+        void endElement() throws XMLStreamException;
+    }
+
+    private enum State {
+        TEXT,
+        // After '<', type of markup is not known yet
+        MARKUP,
+        TAG,
+        COMMENT,
+        CDATA,
+        PROCESSING_INSTRUCTION,
+    }
+
+    private static final String COMMENT_START = "<!--";
+    private static final String CDATA_START = "<![CDATA[";
+    private static final String DOCTYPE_START = "<!DOCTYPE";
+    private static final Pattern UTF8_ENCODING = Pattern.compile("encoding\\s*=\\s*[\"'](?i:utf-8)[\"']");
+
+    private final StringBuilder token = new StringBuilder();
+    private final Listener listener;
+    private State state = State.TEXT;
+    private char quote;
+    private Scope scope;
+    private boolean rootClosed;
+    private long offset;
+    private long tokenOffset;
+    private int line = 1;
+    private int column;
+    private int tokenLine = 1;
+    private int tokenColumn;
+
+    IncrementalXmlTokenizer(final Listener listener) {
+        this.listener = Preconditions.checkNotNull(listener);
+    }
+
+    /**
+     * Process all remaining characters in a buffer.
+     *
+     * @param chars Input characters
+     * @throws XMLStreamException if the input is not well-formed or the listener throws it
+     */
+    void process(final CharBuffer chars) throws XMLStreamException {
+        while (chars.hasRemaining()) {
+            final char c = chars.get();
+            if (offset == 0 && c == '\uFEFF') {
+                // Byte order mark
+                continue;
+            }
+            offset++;
+            if (c == '\n') {
+                line++;
+                column = 0;
+            } else {
+                column++;
+            }
+
+            switch (state) {
+                case TEXT:
+                    if (c == '<') {
+                        flushText();
+                        tokenOffset = offset - 1;
+                        tokenLine = line;
+                        tokenColumn = column;
+                        state = State.MARKUP;
+                    }
+                    token.append(c);
+                    break;
+                case MARKUP:
+                    token.append(c);
+                    classifyMarkup();
+                    break;
+                case TAG:
+                    token.append(c);
+                    if (quote != 0) {
+                        if (c == quote) {
+                            quote = 0;
+                        }
+                    } else if (c == '"' || c == '\'') {
+                        quote = c;
+                    } else if (c == '>') {
+                        tag();
+                    }
+                    break;
+                case COMMENT:
+                    token.append(c);
+                    if (c == '>' && endsWith("-->", COMMENT_START.length())) {
+                        if (token.indexOf("--", COMMENT_START.length()) != token.length() - 3) {
+                            throw error("'--' is not allowed in comments");
+                        }
+                        reset();
+                    }
+                    break;
+                case CDATA:
+                    token.append(c);
+                    if (c == '>' && endsWith("]]>", CDATA_START.length())) {
+                        if (scope == null) {
+                            throw error("CDATA section outside of root element");
+                        }
+                        listener.characters(normalizeLineEnds(token.substring(CDATA_START.length(),
+                            token.length() - 3)));
+                        reset();
+                    }
+                    break;
+                case PROCESSING_INSTRUCTION:
+                    token.append(c);
+                    if (c == '>' && endsWith("?>", 2)) {
+                        processingInstruction();
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unhandled state " + state);
+            }
+        }
+    }
+
+    /**
+     * Signal end of input.
+     *
+     * @throws XMLStreamException if the input does not contain a complete document
+     */
+    void finish() throws XMLStreamException {
+        if (state != State.TEXT) {
+            throw error("Unexpected end of input inside markup");
+        }
+        flushText();
+        if (scope != null) {
+            throw error("Unexpected end of input, element " + scope.name + " is not closed");
+        }
+        if (!rootClosed) {
+            throw error("Document does not contain a root element");
+        }
+    }
+
+    private void reset() {
+        token.setLength(0);
+        state = State.TEXT;
+    }
+
+    private boolean endsWith(final String suffix, final int minStart) {
+        final int start = token.length() - suffix.length();
+        if (start < minStart) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); ++i) {
+            if (token.charAt(start + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void classifyMarkup() throws XMLStreamException {
+        final char second = token.charAt(1);
+        if (second == '?') {
+            state = State.PROCESSING_INSTRUCTION;
+        } else if (second != '!') {
+            state = State.TAG;
+            if (second == '>') {
+                tag();
+            }
+        } else if (token.length() == COMMENT_START.length() && COMMENT_START.contentEquals(token)) {
+            state = State.COMMENT;
+        } else if (token.length() == CDATA_START.length() && CDATA_START.contentEquals(token)) {
+            state = State.CDATA;
+        } else if (token.length() == DOCTYPE_START.length() && DOCTYPE_START.contentEquals(token)) {
+            throw error("Document type declarations are not supported");
+        } else if (!isPrefix(COMMENT_START) && !isPrefix(CDATA_START) && !isPrefix(DOCTYPE_START)) {
+            throw error("Unsupported markup " + token);
+        }
+    }
+
+    private boolean isPrefix(final String markup) {
+        return token.length() <= markup.length() && markup.startsWith(token.toString());
+    }
+
+    private void flushText() throws XMLStreamException {
+        if (token.length() == 0) {
+            return;
+        }
+        if (scope == null) {
+            for (int i = 0; i < token.length(); ++i) {
+                if (!isWhitespace(token.charAt(i))) {
+                    throw error(rootClosed ? "Content is not allowed after the root element"
+                            : "Content is not allowed before the root element");
+                }
+            }
+        } else {
+            listener.characters(decode(normalizeLineEnds(token.toString())));
+        }
+        token.setLength(0);
+    }
+
+    private void processingInstruction() throws XMLStreamException {
+        final String content = token.substring(2, token.length() - 2);
+        final int nameEnd = nameEnd(content, 0);
+        if (nameEnd == 0) {
+            throw error("Processing instruction target is missing");
+        }
+        if ("xml".equalsIgnoreCase(content.substring(0, nameEnd))) {
+            if (tokenOffset != 0) {
+                throw error("XML declaration is allowed only at the start of the document");
+            }
+            final int encoding = content.indexOf("encoding");
+            if (encoding != -1 && !UTF8_ENCODING.matcher(content.substring(encoding)).lookingAt()) {
+                throw error("Only UTF-8 encoding is supported");
+            }
+        }
+        reset();
+    }
+
+    private void tag() throws XMLStreamException {
+        final String content = token.substring(1, token.length() - 1);
+        reset();
+
+        if (content.startsWith("/")) {
+            final int nameEnd = nameEnd(content, 1);
+            if (nameEnd == 1 || skipWhitespace(content, nameEnd) != content.length()) {
+                throw error("Malformed end tag");
+            }
+            endElement(content.substring(1, nameEnd));
+            return;
+        }
+
+        final boolean empty = content.endsWith("/");
+        final String body = empty ? content.substring(0, content.length() - 1) : content;
+        final int nameEnd = nameEnd(body, 0);
+        if (nameEnd == 0) {
+            throw error("Element name is missing");
+        }
+        if (scope == null && rootClosed) {
+            throw error("Document contains more than one root element");
+        }
+
+        final String name = body.substring(0, nameEnd);
+        final Scope newScope = new Scope(scope, name, parseNamespaces(body, nameEnd));
+        final int colon = name.indexOf(':');
+        final String namespace;
+        final String localName;
+        if (colon == -1) {
+            namespace = newScope.getNamespaceURI(XMLConstants.DEFAULT_NS_PREFIX);
+            localName = name;
+        } else {
+            final String prefix = name.substring(0, colon);
+            namespace = newScope.getNamespaceURI(prefix);
+            if (XMLConstants.NULL_NS_URI.equals(namespace)) {
+                throw error("Namespace prefix " + prefix + " is not bound");
+            }
+            localName = name.substring(colon + 1);
+        }
+
+        scope = newScope;
+        listener.startElement(namespace, localName, newScope, new TokenLocation(tokenLine, tokenColumn));
+        if (empty) {
+            endElement(name);
+        }
+    }
+
+    private void endElement(final String name) throws XMLStreamException {
+        if (scope == null || !scope.name.equals(name)) {
+            throw error("End tag " + name + " does not match the start tag "
+                    + (scope == null ? null : scope.name));
+        }
+        scope = scope.parent;
+        if (scope == null) {
+            rootClosed = true;
+        }
+        listener.endElement();
+    }
+
+    private Map<String, String> parseNamespaces(final String body, final int offset) throws XMLStreamException {
+        Map<String, String> declarations = ImmutableMap.of();
+        final List<String> names = new ArrayList<>();
+        int i = offset;
+        while (true) {
+            final int start = skipWhitespace(body, i);
+            if (start == body.length()) {
+                return declarations;
+            }
+            if (start == i) {
+                throw error("Whitespace is required between attributes");
+            }
+
+            final int nameEnd = nameEnd(body, start);
+            final int eq = skipWhitespace(body, nameEnd);
+            if (nameEnd == start || eq == body.length() || body.charAt(eq) != '=') {
+                throw error("Malformed attribute");
+            }
+            final int valueStart = skipWhitespace(body, eq + 1);
+            if (valueStart == body.length() || body.charAt(valueStart) != '"' && body.charAt(valueStart) != '\'') {
+                throw error("Attribute value is not quoted");
+            }
+            final int valueEnd = body.indexOf(body.charAt(valueStart), valueStart + 1);
+            final String name = body.substring(start, nameEnd);
+            final String value = body.substring(valueStart + 1, valueEnd);
+            if (value.indexOf('<') != -1) {
+                throw error("Attribute value must not contain '<'");
+            }
+            if (names.contains(name)) {
+                throw error("Duplicate attribute " + name);
+            }
+            names.add(name);
+
+            if (XMLConstants.XMLNS_ATTRIBUTE.equals(name) || name.startsWith("xmlns:")) {
+                if (declarations.isEmpty()) {
+                    declarations = new HashMap<>(4);
+                }
+                declarations.put(name.length() == 5 ? XMLConstants.DEFAULT_NS_PREFIX : name.substring(6),
+                    decode(value));
+            }
+            i = valueEnd + 1;
+        }
+    }
+
+    private static int nameEnd(final String str, final int offset) {
+        int i = offset;
+        while (i < str.length()) {
+            final char c = str.charAt(i);
+            if (isWhitespace(c) || c == '=' || c == '/' || c == '>' || c == '"' || c == '\'') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipWhitespace(final String str, final int offset) {
+        int i = offset;
+        while (i < str.length() && isWhitespace(str.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static String normalizeLineEnds(final String str) {
+        return str.indexOf('\r') == -1 ? str : str.replace("\r\n", "\n").replace('\r', '\n');
+    }
+
+    private String decode(final String str) throws XMLStreamException {
+        int amp = str.indexOf('&');
+        if (amp == -1) {
+            return str;
+        }
+
+        final StringBuilder sb = new StringBuilder(str.length());
+        int start = 0;
+        while (amp != -1) {
+            final int semicolon = str.indexOf(';', amp);
+            if (semicolon == -1) {
+                throw error("Unterminated entity reference");
+            }
+            sb.append(str, start, amp);
+
+            final String name = str.substring(amp + 1, semicolon);
+            switch (name) {
+                case "lt":
+                    sb.append('<');
+                    break;
+                case "gt":
+                    sb.append('>');
+                    break;
+                case "amp":
+                    sb.append('&');
+                    break;
+                case "quot":
+                    sb.append('"');
+                    break;
+                case "apos":
+                    sb.append('\'');
+                    break;
+                default:
+                    sb.appendCodePoint(characterReference(name));
+            }
+
+            start = semicolon + 1;
+            amp = str.indexOf('&', start);
+        }
+        return sb.append(str, start, str.length()).toString();
+    }
+
+    private int characterReference(final String name) throws XMLStreamException {
+        if (name.length() > 1 && name.charAt(0) == '#') {
+            final boolean hex = name.charAt(1) == 'x';
+            try {
+                final int codePoint = Integer.parseInt(name.substring(hex ? 2 : 1), hex ? 16 : 10);
+                if (codePoint > 0 && Character.isValidCodePoint(codePoint)) {
+                    return codePoint;
+                }
+            } catch (NumberFormatException e) {
+                throw error("Invalid character reference &" + name + ";");
+            }
+        }
+        throw error("Undeclared entity &" + name + ";");
+    }
+
+    private XMLStreamException error(final String message) {
+        return new XMLStreamException(message, new TokenLocation(line, column));
+    }
+
+    /**
+     * Namespace declarations of an open element. Scopes are immutable, hence they can be retained by values whose
+     * interpretation requires a namespace context.
+     */
+    private static final class Scope implements NamespaceContext {
+        final Scope parent;
+        final String name;
+        private final Map<String, String> declarations;
+
+        Scope(final Scope parent, final String name, final Map<String, String> declarations) {
+            this.parent = parent;
+            this.name = name;
+            this.declarations = declarations;
+        }
+
+        @Override
+        public String getNamespaceURI(final String prefix) {
+            Preconditions.checkArgument(prefix != null, "Prefix must not be null");
+            if (XMLConstants.XML_NS_PREFIX.equals(prefix)) {
+                return XMLConstants.XML_NS_URI;
+            }
+            if (XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+                return XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+            }
+            for (Scope s = this; s != null; s = s.parent) {
+                final String namespace = s.declarations.get(prefix);
+                if (namespace != null) {
+                    return namespace;
+                }
+            }
+            return XMLConstants.NULL_NS_URI;
+        }
+
+        @Override
+        public String getPrefix(final String namespaceURI) {
+            final Iterator<String> it = getPrefixes(namespaceURI);
+            return it.hasNext() ? it.next() : null;
+        }
+
+        @Override
+        public Iterator<String> getPrefixes(final String namespaceURI) {
+            Preconditions.checkArgument(namespaceURI != null, "Namespace must not be null");
+            if (XMLConstants.XML_NS_URI.equals(namespaceURI)) {
+                return Collections.singleton(XMLConstants.XML_NS_PREFIX).iterator();
+            }
+            if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(namespaceURI)) {
+                return Collections.singleton(XMLConstants.XMLNS_ATTRIBUTE).iterator();
+            }
+
+            final List<String> prefixes = new ArrayList<>(1);
+            for (Scope s = this; s != null; s = s.parent) {
+                for (Entry<String, String> e : s.declarations.entrySet()) {
+                    // Skip prefixes rebound by an inner scope
+                    if (e.getValue().equals(namespaceURI) && !prefixes.contains(e.getKey())
+                            && namespaceURI.equals(getNamespaceURI(e.getKey()))) {
+                        prefixes.add(e.getKey());
+                    }
+                }
+            }
+            return Collections.unmodifiableList(prefixes).iterator();
+        }
+    }
+
+    private static final class TokenLocation implements Location {
+        private final int lineNumber;
+        private final int columnNumber;
+
+        TokenLocation(final int lineNumber, final int columnNumber) {
+            this.lineNumber = lineNumber;
+            this.columnNumber = columnNumber;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return columnNumber;
+        }
+
+        @Override
+        public int getCharacterOffset() {
+            return -1;
+        }
+
+        @Override
+        public String getPublicId() {
+            return null;
+        }
+
+        @Override
+        public String getSystemId() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,549 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.codec.xml.XmlParserStream.MapEntryStart;
+import org.opendaylight.yangtools.yang.data.util.AbstractNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.AnyXmlNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.CompositeNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.LeafListEntryNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.LeafListNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.LeafNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.ListNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaNode;
+import org.xml.sax.SAXException;
+
+/**
+ * An XML parser which is fed UTF-8 encoded input in chunks, as it becomes available, rather than pulling it from
+ * a blocking {@link javax.xml.stream.XMLStreamReader}. It retains its state between invocations of
+ * {@link #feed(ByteBuffer)}, including incomplete markup and incomplete UTF-8 sequences at the end of a chunk, hence
+ * it can be driven directly by a non-blocking I/O thread without buffering the entire input.
+ *
+ * <p>
+ * Data is interpreted and emitted into the {@link NormalizedNodeStreamWriter} as it arrives: containers, lists and
+ * leaf-lists are started as soon as their elements start, so memory used by the parser is bounded by the depth of
+ * the input rather than by its size. Only data which cannot be emitted in input order is buffered: children of a keyed
+ * list entry seen before all of its keys, and nodes which need to be grouped under an augmentation or a choice. The
+ * resulting data is the same as emitted by {@link XmlParserStream}. Note that the parser may have emitted partial
+ * data into the writer by the time it reports an error.
+ *
+ * <p>
+ * Document type declarations are not supported. Once an invocation throws an exception, the parser cannot be used
+ * anymore.
+ */
+@Beta
+@NotThreadSafe
+public final class XmlChunkParser implements Closeable, Flushable {
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final CharBuffer chars = CharBuffer.allocate(4096);
+    // Incomplete UTF-8 sequence at the end of the previous chunk
+    private final ByteBuffer carry = ByteBuffer.allocate(8);
+    private final IncrementalXmlTokenizer tokenizer;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private final XmlParserStream stream;
+    private boolean failed;
+    private boolean finished;
+
+    private XmlChunkParser(final XmlParserStream stream) {
+        this.stream = Preconditions.checkNotNull(stream);
+        this.tokenizer = new IncrementalXmlTokenizer(new Dispatcher());
+        frames.push(new DocumentFrame());
+    }
+
+    /**
+     * Create a new chunk parser, which uses codecs from the specified factory.
+     *
+     * @param writer NormalizedNodeStreamWriter to which the parsed data should be emitted
+     * @param codecFactory Codec factory, bound to the SchemaContext of the data
+     * @param parentNode Schema node of the parsed data's parent
+     * @return A new chunk parser
+     */
+    public static XmlChunkParser create(final NormalizedNodeStreamWriter writer, final XmlCodecFactory codecFactory,
+            final SchemaNode parentNode) {
+        return new XmlChunkParser(XmlParserStream.create(writer, codecFactory, parentNode));
+    }
+
+    /**
+     * Create a new chunk parser for data rooted at the SchemaContext of the specified codec factory.
+     *
+     * @param writer NormalizedNodeStreamWriter to which the parsed data should be emitted
+     * @param codecFactory Codec factory, bound to the SchemaContext of the data
+     * @return A new chunk parser
+     */
+    public static XmlChunkParser create(final NormalizedNodeStreamWriter writer, final XmlCodecFactory codecFactory) {
+        return new XmlChunkParser(XmlParserStream.create(writer, codecFactory));
+    }
+
+    /**
+     * Feed a chunk of input. All remaining bytes of the chunk are consumed, an incomplete UTF-8 sequence at its end
+     * is retained until the next chunk arrives.
+     *
+     * @param chunk Input bytes
+     * @throws IllegalStateException if {@link #finish()} has been invoked or a previous invocation failed
+     * @throws XMLStreamException if the input is not well-formed, or it cannot be interpreted
+     */
+    public void feed(final ByteBuffer chunk) throws XMLStreamException {
+        checkUsable();
+        try {
+            while (carry.position() != 0 && chunk.hasRemaining()) {
+                carry.put(chunk.get());
+                carry.flip();
+                decode(carry, false);
+                carry.compact();
+            }
+
+            decode(chunk, false);
+            carry.put(chunk);
+        } catch (XMLStreamException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Signal end of input. This method verifies that the input contained a complete document and emits the data.
+     *
+     * @throws IllegalStateException if {@link #finish()} has been invoked or a previous invocation failed
+     * @throws XMLStreamException if the input does not contain a complete document
+     */
+    public void finish() throws XMLStreamException {
+        checkUsable();
+        finished = true;
+        try {
+            carry.flip();
+            decode(carry, true);
+            if (decoder.flush(chars).isOverflow()) {
+                throw new IllegalStateException("Decoder flush overflowed");
+            }
+            chars.flip();
+            tokenizer.process(chars);
+            chars.clear();
+            tokenizer.finish();
+        } catch (XMLStreamException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    private void checkUsable() {
+        Preconditions.checkState(!failed, "Parser has failed previously");
+        Preconditions.checkState(!finished, "Parser has already finished");
+    }
+
+    private void decode(final ByteBuffer bytes, final boolean endOfInput) throws XMLStreamException {
+        while (true) {
+            final CoderResult result = decoder.decode(bytes, chars, endOfInput);
+            chars.flip();
+            tokenizer.process(chars);
+            chars.clear();
+
+            if (result.isError()) {
+                throw new XMLStreamException("Input is not valid UTF-8");
+            }
+            if (result.isUnderflow()) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        stream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+
+    private static boolean isWhitespace(final String text) {
+        for (int i = 0; i < text.length(); ++i) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static XMLStreamException translate(final Exception cause) {
+        return new XMLStreamException(cause.getMessage(), cause);
+    }
+
+    /**
+     * Routes events to the innermost frame.
+     */
+    private final class Dispatcher implements IncrementalXmlTokenizer.Listener {
+        @Override
+        public void startElement(final String namespace, final String localName,
+                final NamespaceContext namespaceContext, final Location location) throws XMLStreamException {
+            try {
+                frames.push(frames.peek().startElement(namespace, localName, namespaceContext, location));
+            } catch (URISyntaxException | IOException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public void characters(final String text) throws XMLStreamException {
+            frames.peek().characters(text);
+        }
+
+        @Override
+        public void endElement() throws XMLStreamException {
+            try {
+                frames.pop().endElement();
+            } catch (IOException | SAXException | ParserConfigurationException e) {
+                throw translate(e);
+            }
+        }
+    }
+
+    /**
+     * State of an open element, or of the document itself.
+     */
+    private abstract class Frame {
+        abstract Frame startElement(String namespace, String localName, NamespaceContext namespaceContext,
+                Location location) throws XMLStreamException, URISyntaxException, IOException;
+
+        abstract void characters(String text) throws XMLStreamException;
+
+        abstract void endElement() throws IOException, SAXException, ParserConfigurationException;
+
+        final Frame frameFor(final AbstractNodeDataWithSchema node, final String namespace, final String localName,
+                final NamespaceContext namespaceContext) {
+            if (node instanceof LeafNodeDataWithSchema || node instanceof LeafListEntryNodeDataWithSchema) {
+                return new ValueFrame(node, namespaceContext, false, null);
+            }
+            if (node instanceof AnyXmlNodeDataWithSchema) {
+                return anyXmlFrame(node, namespace, localName, namespaceContext, false);
+            }
+            return new CompositeFrame((CompositeNodeDataWithSchema) node);
+        }
+
+        final Frame anyXmlFrame(final AbstractNodeDataWithSchema node, final String namespace,
+                final String localName, final NamespaceContext namespaceContext, final boolean emit) {
+            final StringBuilder sb = new StringBuilder();
+            sb.append('<').append(localName).append(" xmlns=\"").append(namespace).append("\">");
+            return new AnyXmlFrame(node, namespaceContext, sb, localName, emit);
+        }
+
+        final void checkWhitespace(final String text, final DataSchemaNode schema) throws XMLStreamException {
+            if (!isWhitespace(text)) {
+                throw new XMLStreamException("Unexpected text in element " + schema.getQName());
+            }
+        }
+    }
+
+    private final class DocumentFrame extends Frame {
+        @Override
+        Frame startElement(final String namespace, final String localName, final NamespaceContext namespaceContext,
+                final Location location) {
+            return new RootFrame(new CompositeNodeDataWithSchema(stream.getParentNode()));
+        }
+
+        @Override
+        void characters(final String text) {
+            throw new IllegalStateException("Unexpected content outside of root element");
+        }
+
+        @Override
+        void endElement() {
+            throw new IllegalStateException("Unexpected end of document element");
+        }
+    }
+
+    /**
+     * An element whose children are emitted as they arrive. Children which cannot be emitted right away are collected
+     * in a buffer, which is written out when the element ends.
+     */
+    private class StreamingFrame extends Frame {
+        final CompositeNodeDataWithSchema buffer;
+        // Keyed list entry being streamed, null if the node has been started already
+        private final MapEntryStart entry;
+        private final Set<String> namesakes = new HashSet<>();
+        // Name of the list or leaf-list whose entries are currently being read
+        private String listName;
+        // Schema of that list if it is being emitted, otherwise its node in the buffer
+        private DataSchemaNode streamedList;
+        private AbstractNodeDataWithSchema bufferedList;
+
+        StreamingFrame(final CompositeNodeDataWithSchema buffer, final MapEntryStart entry) {
+            this.buffer = Preconditions.checkNotNull(buffer);
+            this.entry = entry;
+        }
+
+        @Override
+        final Frame startElement(final String namespace, final String localName,
+                final NamespaceContext namespaceContext, final Location location)
+                        throws URISyntaxException, IOException {
+            if (localName.equals(listName)) {
+                return streamedList != null ? streamEntry(streamedList, namespaceContext)
+                        : frameFor(XmlParserStream.newEntryNode(bufferedList), namespace, localName, namespaceContext);
+            }
+
+            endList();
+            if (!namesakes.add(localName)) {
+                throw XmlParserStream.duplicateElement(localName, location);
+            }
+
+            final DataSchemaNode schema = buffer.getSchema();
+            final List<DataSchemaNode> childSchemas = stream.findChildSchemas(schema, namespace, localName);
+            final boolean pending = entry != null && !entry.isStarted();
+            if (!pending && XmlParserStream.isDirectChild(schema, childSchemas)) {
+                final DataSchemaNode childSchema = childSchemas.get(0);
+                if (childSchema instanceof LeafSchemaNode) {
+                    return new ValueFrame(new LeafNodeDataWithSchema(childSchema), namespaceContext, true, null);
+                }
+                if (XmlParserStream.isPlainAnyXml(childSchema)) {
+                    return anyXmlFrame(new AnyXmlNodeDataWithSchema(childSchema), namespace, localName,
+                        namespaceContext, true);
+                }
+                if (childSchema instanceof ContainerSchemaNode) {
+                    stream.startContainer((ContainerSchemaNode) childSchema);
+                    return new StreamingFrame(new CompositeNodeDataWithSchema(childSchema), null);
+                }
+                if (childSchema instanceof ListSchemaNode) {
+                    stream.startList((ListSchemaNode) childSchema);
+                    listName = localName;
+                    streamedList = childSchema;
+                    return streamEntry(childSchema, namespaceContext);
+                }
+                if (childSchema instanceof LeafListSchemaNode) {
+                    stream.startLeafList((LeafListSchemaNode) childSchema);
+                    listName = localName;
+                    streamedList = childSchema;
+                    return streamEntry(childSchema, namespaceContext);
+                }
+            }
+
+            final AbstractNodeDataWithSchema child = buffer.addChild(new ArrayDeque<>(childSchemas));
+            if (child instanceof ListNodeDataWithSchema || child instanceof LeafListNodeDataWithSchema) {
+                listName = localName;
+                bufferedList = child;
+                return frameFor(XmlParserStream.newEntryNode(child), namespace, localName, namespaceContext);
+            }
+            if (pending && child instanceof LeafNodeDataWithSchema) {
+                // May be one of the keys of the entry
+                return new ValueFrame(child, namespaceContext, false, entry);
+            }
+            return frameFor(child, namespace, localName, namespaceContext);
+        }
+
+        private Frame streamEntry(final DataSchemaNode listSchema, final NamespaceContext namespaceContext)
+                throws IOException {
+            if (listSchema instanceof ListSchemaNode) {
+                return new StreamingFrame(new CompositeNodeDataWithSchema(listSchema),
+                    stream.startListEntry((ListSchemaNode) listSchema));
+            }
+            return new ValueFrame(new LeafListEntryNodeDataWithSchema(listSchema), namespaceContext, true, null);
+        }
+
+        private void endList() throws IOException {
+            if (streamedList != null) {
+                stream.endNode();
+            }
+            listName = null;
+            streamedList = null;
+            bufferedList = null;
+        }
+
+        @Override
+        final void characters(final String text) throws XMLStreamException {
+            checkWhitespace(text, buffer.getSchema());
+        }
+
+        @Override
+        final void endElement() throws IOException {
+            endList();
+            endNode();
+        }
+
+        void endNode() throws IOException {
+            stream.endListEntry(buffer, entry);
+        }
+    }
+
+    private final class RootFrame extends StreamingFrame {
+        RootFrame(final CompositeNodeDataWithSchema buffer) {
+            super(buffer, null);
+        }
+
+        @Override
+        void endNode() throws IOException {
+            // The root element itself is not emitted, only its children
+            stream.write(buffer);
+        }
+    }
+
+    /**
+     * An element inside data which is being buffered, for example because it is part of a choice.
+     */
+    private final class CompositeFrame extends Frame {
+        private final CompositeNodeDataWithSchema node;
+        private final Set<String> namesakes = new HashSet<>();
+        // List or leaf-list whose entries are currently being read
+        private AbstractNodeDataWithSchema list;
+
+        CompositeFrame(final CompositeNodeDataWithSchema node) {
+            this.node = Preconditions.checkNotNull(node);
+        }
+
+        @Override
+        Frame startElement(final String namespace, final String localName, final NamespaceContext namespaceContext,
+                final Location location) throws URISyntaxException {
+            if (list != null && localName.equals(list.getSchema().getQName().getLocalName())) {
+                return frameFor(XmlParserStream.newEntryNode(list), namespace, localName, namespaceContext);
+            }
+
+            list = null;
+            if (!namesakes.add(localName)) {
+                throw XmlParserStream.duplicateElement(localName, location);
+            }
+
+            final AbstractNodeDataWithSchema child = node.addChild(
+                new ArrayDeque<>(stream.findChildSchemas(node.getSchema(), namespace, localName)));
+            if (child instanceof ListNodeDataWithSchema || child instanceof LeafListNodeDataWithSchema) {
+                list = child;
+                return frameFor(XmlParserStream.newEntryNode(child), namespace, localName, namespaceContext);
+            }
+            return frameFor(child, namespace, localName, namespaceContext);
+        }
+
+        @Override
+        void characters(final String text) throws XMLStreamException {
+            checkWhitespace(text, node.getSchema());
+        }
+
+        @Override
+        void endElement() {
+            // Nothing to do
+        }
+    }
+
+    private final class ValueFrame extends Frame {
+        private final StringBuilder text = new StringBuilder();
+        private final AbstractNodeDataWithSchema node;
+        private final NamespaceContext namespaceContext;
+        // Whether the node is emitted once its value is known, rather than being buffered
+        private final boolean emit;
+        // Keyed list entry which waits for the node if it is one of its keys, may be null
+        private final MapEntryStart entry;
+
+        ValueFrame(final AbstractNodeDataWithSchema node, final NamespaceContext namespaceContext,
+                final boolean emit, final MapEntryStart entry) {
+            this.node = Preconditions.checkNotNull(node);
+            this.namespaceContext = namespaceContext;
+            this.emit = emit;
+            this.entry = entry;
+        }
+
+        @Override
+        Frame startElement(final String namespace, final String localName, final NamespaceContext namespaceContext,
+                final Location location) throws XMLStreamException {
+            throw new XMLStreamException("Element " + node.getSchema().getQName()
+                    + " must contain text only, found element " + localName, location);
+        }
+
+        @Override
+        void characters(final String str) {
+            text.append(str);
+        }
+
+        @Override
+        void endElement() throws IOException, SAXException, ParserConfigurationException {
+            stream.setValue(node, text.toString().trim(), namespaceContext);
+            if (emit) {
+                stream.write(node);
+            } else if (entry != null) {
+                entry.childRead(node);
+            }
+        }
+    }
+
+    /**
+     * An element inside anyxml content. All elements of the same anyxml node share the same text representation,
+     * which is interpreted once the outermost element ends.
+     */
+    private final class AnyXmlFrame extends Frame {
+        private final AbstractNodeDataWithSchema node;
+        private final NamespaceContext namespaceContext;
+        private final StringBuilder content;
+        private final String localName;
+        private final boolean emit;
+
+        AnyXmlFrame(final AbstractNodeDataWithSchema node, final NamespaceContext namespaceContext,
+                final StringBuilder content, final String localName, final boolean emit) {
+            this.node = node;
+            this.namespaceContext = namespaceContext;
+            this.content = content;
+            this.localName = localName;
+            this.emit = emit;
+        }
+
+        @Override
+        Frame startElement(final String namespace, final String localName, final NamespaceContext namespaceContext,
+                final Location location) {
+            content.append('<').append(localName).append('>');
+            return new AnyXmlFrame(null, null, content, localName, false);
+        }
+
+        @Override
+        void characters(final String text) {
+            for (int i = 0; i < text.length(); ++i) {
+                final char c = text.charAt(i);
+                if (c == '<') {
+                    content.append("&lt;");
+                } else if (c == '&') {
+                    content.append("&amp;");
+                } else {
+                    content.append(c);
+                }
+            }
+        }
+
+        @Override
+        void endElement() throws IOException, SAXException, ParserConfigurationException {
+            content.append("</").append(localName).append('>');
+            if (node != null) {
+                stream.setValue(node, content.toString(), namespaceContext);
+                if (emit) {
+                    stream.write(node);
+                }
+            }
+        }
+    }
+}
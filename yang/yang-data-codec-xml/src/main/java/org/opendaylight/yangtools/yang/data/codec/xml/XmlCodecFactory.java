@@ -61,22 +61,66 @@ public final class XmlCodecFactory {
         }
     };
 
-    private final LoadingCache<Entry<DataSchemaNode, NamespaceContext>, XmlCodec<?>> codecs =
+    private static final XmlCodec<Object> NAMESPACE_SENSITIVE = new XmlCodec<Object>() {
+        @Override
+        public Object deserialize(final String input) {
+            throw new UnsupportedOperationException("Placeholder codec");
+        }
+
+        @Override
+        public String serialize(final Object input) {
+            throw new UnsupportedOperationException("Placeholder codec");
+        }
+
+        @Override
+        public void serializeToWriter(final XMLStreamWriter writer, final Object value) {
+            throw new UnsupportedOperationException("Placeholder codec");
+        }
+    };
+
+    /*
+     * Factories shared among users of the same SchemaContext. A factory references its SchemaContext, hence it is
+     * held weakly: it is shared for as long as some user holds it, after which both the factory and the SchemaContext
+     * can be collected.
+     */
+    private static final LoadingCache<SchemaContext, XmlCodecFactory> SHARED_FACTORIES = CacheBuilder.newBuilder()
+            .weakKeys().weakValues().build(new CacheLoader<SchemaContext, XmlCodecFactory>() {
+                @Override
+                public XmlCodecFactory load(final SchemaContext key) {
+                    return new XmlCodecFactory(key);
+                }
+            });
+
+    /*
+     * Most codecs do not need to interpret prefixes and therefore do not depend on the NamespaceContext. These are
+     * cached based on the schema node alone, so they are reused across documents. Namespace-sensitive codecs are
+     * marked with NAMESPACE_SENSITIVE and instantiated for each NamespaceContext, without being cached: a context is
+     * specific to a particular document, hence caching codecs bound to it would retain every document's context
+     * without ever being hit by another document.
+     */
+    private final LoadingCache<DataSchemaNode, XmlCodec<?>> codecs =
+            CacheBuilder.newBuilder().softValues().build(new CacheLoader<DataSchemaNode, XmlCodec<?>>() {
+                @Override
+                public XmlCodec<?> load(final DataSchemaNode schemaNode) {
+                    final TypeDefinition<?> type = getType(schemaNode);
+                    return isNamespaceSensitive(schemaNode, type) ? NAMESPACE_SENSITIVE
+                            : createCodec(schemaNode, type, null);
+                }
+            });
+
+    /*
+     * Codecs for union member types, so that a union codec which has to be instantiated for each NamespaceContext
+     * reuses the codecs of its members which do not depend on it.
+     */
+    private final LoadingCache<Entry<DataSchemaNode, TypeDefinition<?>>, XmlCodec<?>> unionMemberCodecs =
             CacheBuilder.newBuilder().softValues().build(
-                    new CacheLoader<Entry<DataSchemaNode, NamespaceContext>, XmlCodec<?>>() {
+                    new CacheLoader<Entry<DataSchemaNode, TypeDefinition<?>>, XmlCodec<?>>() {
                 @Override
-                public XmlCodec<?> load(final Entry<DataSchemaNode, NamespaceContext> schemaNodeAndNamespaceCtxPair)
-                        throws Exception {
-                    final DataSchemaNode schemaNode = schemaNodeAndNamespaceCtxPair.getKey();
-                    final TypeDefinition<?> type;
-                    if (schemaNode instanceof LeafSchemaNode) {
-                        type = ((LeafSchemaNode) schemaNode).getType();
-                    } else if (schemaNode instanceof LeafListSchemaNode) {
-                        type = ((LeafListSchemaNode) schemaNode).getType();
-                    } else {
-                        throw new IllegalArgumentException("Not supported node type " + schemaNode.getClass().getName());
-                    }
-                    return createCodec(schemaNode,type, schemaNodeAndNamespaceCtxPair.getValue());
+                public XmlCodec<?> load(final Entry<DataSchemaNode, TypeDefinition<?>> schemaNodeAndType) {
+                    final DataSchemaNode schemaNode = schemaNodeAndType.getKey();
+                    final TypeDefinition<?> type = schemaNodeAndType.getValue();
+                    return isNamespaceSensitive(schemaNode, type) ? NAMESPACE_SENSITIVE
+                            : createCodec(schemaNode, type, null);
                 }
             });
 
@@ -96,6 +140,50 @@ public final class XmlCodecFactory {
         return new XmlCodecFactory(context);
     }
 
+    /**
+     * Get a codec factory attached to a particular context, shared with other users of the same context. Since codecs
+     * are created on demand and cached, using a shared factory means that they are instantiated once for each
+     * SchemaContext, rather than once for each user.
+     *
+     * @param context SchemaContext to which the factory should be bound
+     * @return A shared codec factory instance.
+     */
+    public static XmlCodecFactory getShared(final SchemaContext context) {
+        return SHARED_FACTORIES.getUnchecked(context);
+    }
+
+    private static TypeDefinition<?> getType(final DataSchemaNode schemaNode) {
+        if (schemaNode instanceof LeafSchemaNode) {
+            return ((LeafSchemaNode) schemaNode).getType();
+        } else if (schemaNode instanceof LeafListSchemaNode) {
+            return ((LeafListSchemaNode) schemaNode).getType();
+        } else {
+            throw new IllegalArgumentException("Not supported node type " + schemaNode.getClass().getName());
+        }
+    }
+
+    /**
+     * Check whether a codec for specified type needs to resolve prefixes, e.g. it depends on the NamespaceContext.
+     */
+    private boolean isNamespaceSensitive(final DataSchemaNode schema, final TypeDefinition<?> type) {
+        if (type instanceof IdentityrefTypeDefinition || type instanceof InstanceIdentifierTypeDefinition) {
+            return true;
+        }
+        if (type instanceof LeafrefTypeDefinition) {
+            final TypeDefinition<?> referencedType =
+                    SchemaContextUtil.getBaseTypeForLeafRef((LeafrefTypeDefinition) type, getSchemaContext(), schema);
+            return referencedType == null || isNamespaceSensitive(schema, referencedType);
+        }
+        if (type instanceof UnionTypeDefinition) {
+            for (final TypeDefinition<?> subtype : ((UnionTypeDefinition) type).getTypes()) {
+                if (isNamespaceSensitive(schema, subtype)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private XmlCodec<?> createCodec(final DataSchemaNode key, final TypeDefinition<?> type,
                                     final NamespaceContext namespaceContext) {
         if (type instanceof LeafrefTypeDefinition) {
@@ -155,11 +243,20 @@ public final class XmlCodecFactory {
     }
 
     XmlCodec<?> codecFor(final DataSchemaNode schema, final NamespaceContext namespaceContext) {
-        return codecs.getUnchecked(new SimpleImmutableEntry<>(schema, namespaceContext));
+        final XmlCodec<?> codec = codecs.getUnchecked(schema);
+        if (codec != NAMESPACE_SENSITIVE) {
+            return codec;
+        }
+        return createCodec(schema, getType(schema), namespaceContext);
     }
 
     XmlCodec<?> codecFor(final DataSchemaNode schema, final TypeDefinition<?> unionSubType,
                          final NamespaceContext namespaceContext) {
+        final XmlCodec<?> codec = unionMemberCodecs.getUnchecked(
+            new SimpleImmutableEntry<DataSchemaNode, TypeDefinition<?>>(schema, unionSubType));
+        if (codec != NAMESPACE_SENSITIVE) {
+            return codec;
+        }
         return createCodec(schema, unionSubType, namespaceContext);
     }
 }
@@ -16,8 +16,12 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.Deque;
+import java.util.ArrayDeque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.xml.namespace.NamespaceContext;
@@ -28,20 +32,26 @@ import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.dom.DOMSource;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
 import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
 import org.opendaylight.yangtools.yang.data.util.AbstractNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.AnyXmlNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.CompositeNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaChildIndex;
 import org.opendaylight.yangtools.yang.data.util.LeafListEntryNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.LeafListNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.LeafNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.ListEntryNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.ListNodeDataWithSchema;
-import org.opendaylight.yangtools.yang.data.util.ParserStreamUtils;
 import org.opendaylight.yangtools.yang.data.util.RpcAsContainer;
 import org.opendaylight.yangtools.yang.data.util.SimpleNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.model.api.AnyXmlSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.RpcDefinition;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.model.api.SchemaNode;
@@ -67,28 +77,56 @@ public final class XmlParserStream implements Closeable, Flushable {
         FACTORY = f;
     }
 
+    // Element namespaces seen so far, so we do not need to parse them over and over
+    private final Map<String, URI> namespaces = new HashMap<>();
     private final NormalizedNodeStreamWriter writer;
     private final XmlCodecFactory codecs;
+    private final DataSchemaChildIndex childIndex;
     private final DataSchemaNode parentNode;
 
-    private XmlParserStream(final NormalizedNodeStreamWriter writer, final SchemaContext schemaContext,
+    private XmlParserStream(final NormalizedNodeStreamWriter writer, final XmlCodecFactory codecFactory,
                              final DataSchemaNode parentNode) {
         this.writer = Preconditions.checkNotNull(writer);
-        this.codecs = XmlCodecFactory.create(schemaContext);
+        this.codecs = Preconditions.checkNotNull(codecFactory);
+        this.childIndex = DataSchemaChildIndex.getShared(codecFactory.getSchemaContext());
         this.parentNode = parentNode;
     }
 
     public static XmlParserStream create(final NormalizedNodeStreamWriter writer, final SchemaContext schemaContext,
             final SchemaNode parentNode ) {
+        return create(writer, XmlCodecFactory.getShared(schemaContext), parentNode);
+    }
+
+    public static XmlParserStream create(final NormalizedNodeStreamWriter writer, final SchemaContext schemaContext) {
+        return create(writer, XmlCodecFactory.getShared(schemaContext));
+    }
+
+    /**
+     * Create a new parser stream, which uses codecs from the specified factory.
+     *
+     * @param writer NormalizedNodeStreamWriter to which the parsed data should be emitted
+     * @param codecFactory Codec factory, bound to the SchemaContext of the data
+     * @param parentNode Schema node of the parsed data's parent
+     * @return A new parser stream
+     */
+    public static XmlParserStream create(final NormalizedNodeStreamWriter writer, final XmlCodecFactory codecFactory,
+            final SchemaNode parentNode) {
         if (parentNode instanceof RpcDefinition) {
-            return new XmlParserStream(writer, schemaContext, new RpcAsContainer((RpcDefinition) parentNode));
+            return new XmlParserStream(writer, codecFactory, new RpcAsContainer((RpcDefinition) parentNode));
         }
         Preconditions.checkArgument(parentNode instanceof DataSchemaNode, "Instance of DataSchemaNode class awaited.");
-        return new XmlParserStream(writer, schemaContext, (DataSchemaNode) parentNode);
+        return new XmlParserStream(writer, codecFactory, (DataSchemaNode) parentNode);
     }
 
-    public static XmlParserStream create(final NormalizedNodeStreamWriter writer, final SchemaContext schemaContext) {
-        return new XmlParserStream(writer, schemaContext, schemaContext);
+    /**
+     * Create a new parser stream for data rooted at the SchemaContext of the specified codec factory.
+     *
+     * @param writer NormalizedNodeStreamWriter to which the parsed data should be emitted
+     * @param codecFactory Codec factory, bound to the SchemaContext of the data
+     * @return A new parser stream
+     */
+    public static XmlParserStream create(final NormalizedNodeStreamWriter writer, final XmlCodecFactory codecFactory) {
+        return new XmlParserStream(writer, codecFactory, codecFactory.getSchemaContext());
     }
 
     /**
@@ -184,7 +222,7 @@ public final class XmlParserStream implements Closeable, Flushable {
                         break;
                     }
 
-                    DataSchemaNode parentSchema = parent.getSchema();
+                    final DataSchemaNode parentSchema = parent.getSchema();
 
                     final String parentSchemaName = parentSchema.getQName().getLocalName();
                     if (parentSchemaName.equals(xmlElementName) && in.getEventType() == XMLStreamConstants.END_ELEMENT) {
@@ -192,27 +230,14 @@ public final class XmlParserStream implements Closeable, Flushable {
                         break;
                     }
 
-                    if (parentSchema instanceof YangModeledAnyXmlSchemaNode) {
-                        parentSchema = ((YangModeledAnyXmlSchemaNode) parentSchema).getSchemaOfAnyXmlData();
-                    }
-
                     if (!namesakes.add(xmlElementName)) {
-                        final Location loc = in.getLocation();
-                        throw new IllegalStateException(String.format(
-                                "Duplicate element \"%s\" in XML input at: line %s column %s", xmlElementName,
-                                loc.getLineNumber(), loc.getColumnNumber()));
+                        throw duplicateElement(xmlElementName, in.getLocation());
                     }
 
-                    final String xmlElementNamespace = in.getNamespaceURI();
-                    final Deque<DataSchemaNode> childDataSchemaNodes =
-                            ParserStreamUtils.findSchemaNodeByNameAndNamespace(parentSchema, xmlElementName,
-                                    new URI(xmlElementNamespace));
-
-                    Preconditions.checkState(!childDataSchemaNodes.isEmpty(),
-                            "Schema for node with name %s and namespace %s doesn't exist.",
-                            xmlElementName, xmlElementNamespace);
-
-                    read(in, ((CompositeNodeDataWithSchema) parent).addChild(childDataSchemaNodes), rootElement);
+                    final List<DataSchemaNode> childDataSchemaNodes = findChildSchemas(parentSchema,
+                            in.getNamespaceURI(), xmlElementName);
+                    read(in, ((CompositeNodeDataWithSchema) parent).addChild(new ArrayDeque<>(childDataSchemaNodes)),
+                            rootElement);
                 }
                 break;
             case XMLStreamConstants.END_ELEMENT:
@@ -221,7 +246,129 @@ public final class XmlParserStream implements Closeable, Flushable {
         }
     }
 
-    private void setValue(final AbstractNodeDataWithSchema parent, final String value, final NamespaceContext nsContext)
+    static IllegalStateException duplicateElement(final String xmlElementName, final Location loc) {
+        return new IllegalStateException(String.format("Duplicate element \"%s\" in XML input at: line %s column %s",
+                xmlElementName, loc.getLineNumber(), loc.getColumnNumber()));
+    }
+
+    /*
+     * Find the schema nodes leading from a parent to the child an XML element corresponds to.
+     */
+    List<DataSchemaNode> findChildSchemas(final DataSchemaNode parent, final String xmlElementNamespace,
+            final String xmlElementName) throws URISyntaxException {
+        final DataSchemaNode parentSchema = parent instanceof YangModeledAnyXmlSchemaNode
+                ? ((YangModeledAnyXmlSchemaNode) parent).getSchemaOfAnyXmlData() : parent;
+        final List<DataSchemaNode> childDataSchemaNodes = childIndex.findChild(parentSchema,
+                toNamespace(xmlElementNamespace), xmlElementName);
+
+        Preconditions.checkState(!childDataSchemaNodes.isEmpty(),
+                "Schema for node with name %s and namespace %s doesn't exist.",
+                xmlElementName, xmlElementNamespace);
+        return childDataSchemaNodes;
+    }
+
+    /**
+     * Check whether a child can be emitted as soon as it is read, i.e. whether it does not need to be grouped with
+     * its siblings under a choice or an augmentation.
+     */
+    static boolean isDirectChild(final DataSchemaNode parentSchema, final List<DataSchemaNode> childDataSchemaNodes) {
+        if (childDataSchemaNodes.size() != 1) {
+            // Choice content, needs to be grouped
+            return false;
+        }
+        final DataSchemaNode childSchema = childDataSchemaNodes.get(0);
+        return !childSchema.isAugmenting()
+                || CompositeNodeDataWithSchema.findCorrespondingAugment(parentSchema, childSchema) == null;
+    }
+
+    static boolean isPlainAnyXml(final DataSchemaNode schema) {
+        return schema instanceof AnyXmlSchemaNode && !(schema instanceof YangModeledAnyXmlSchemaNode);
+    }
+
+    void startContainer(final ContainerSchemaNode containerSchema) throws IOException {
+        writer.nextDataSchemaNode(containerSchema);
+        writer.startContainerNode(NodeIdentifier.create(containerSchema.getQName()),
+            NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+    }
+
+    void startList(final ListSchemaNode listSchema) throws IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(listSchema.getQName());
+        writer.nextDataSchemaNode(listSchema);
+        if (listSchema.getKeyDefinition().isEmpty()) {
+            writer.startUnkeyedList(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else if (listSchema.isUserOrdered()) {
+            writer.startOrderedMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        }
+    }
+
+    /**
+     * Start a list entry. Unkeyed entries are started immediately, keyed entries are started once all of their keys
+     * have been read.
+     *
+     * @return Tracker of entry keys, or null if the entry has been started
+     */
+    MapEntryStart startListEntry(final ListSchemaNode listSchema) throws IOException {
+        if (listSchema.getKeyDefinition().isEmpty()) {
+            writer.nextDataSchemaNode(listSchema);
+            writer.startUnkeyedListItem(NodeIdentifier.create(listSchema.getQName()),
+                NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            return null;
+        }
+        return new MapEntryStart(listSchema);
+    }
+
+    void endListEntry(final CompositeNodeDataWithSchema buffer, final MapEntryStart entry) throws IOException {
+        Preconditions.checkState(entry == null || entry.isStarted(), "Input is missing some of the keys of %s",
+            buffer.getSchema().getQName());
+        endNode(buffer);
+    }
+
+    void startLeafList(final LeafListSchemaNode leafListSchema) throws IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(leafListSchema.getQName());
+        writer.nextDataSchemaNode(leafListSchema);
+        if (leafListSchema.isUserOrdered()) {
+            writer.startOrderedLeafSet(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startLeafSet(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        }
+    }
+
+    /**
+     * Write out buffered children of a node and end it.
+     */
+    void endNode(final CompositeNodeDataWithSchema buffer) throws IOException {
+        buffer.write(writer);
+        writer.endNode();
+    }
+
+    void endNode() throws IOException {
+        writer.endNode();
+    }
+
+    void write(final AbstractNodeDataWithSchema node) throws IOException {
+        node.write(writer);
+    }
+
+    DataSchemaNode getParentNode() {
+        return parentNode;
+    }
+
+    NormalizedNodeStreamWriter getWriter() {
+        return writer;
+    }
+
+    private URI toNamespace(final String namespace) throws URISyntaxException {
+        URI ret = namespaces.get(namespace);
+        if (ret == null) {
+            ret = new URI(namespace);
+            namespaces.put(namespace, ret);
+        }
+        return ret;
+    }
+
+    void setValue(final AbstractNodeDataWithSchema parent, final String value, final NamespaceContext nsContext)
             throws ParserConfigurationException, SAXException, IOException {
         Preconditions.checkArgument(parent instanceof SimpleNodeDataWithSchema, "Node %s is not a simple type",
                 parent.getSchema().getQName());
@@ -249,7 +396,7 @@ public final class XmlParserStream implements Closeable, Flushable {
         }
     }
 
-    private static AbstractNodeDataWithSchema newEntryNode(final AbstractNodeDataWithSchema parent) {
+    static AbstractNodeDataWithSchema newEntryNode(final AbstractNodeDataWithSchema parent) {
         final AbstractNodeDataWithSchema newChild;
         if (parent instanceof ListNodeDataWithSchema) {
             newChild = new ListEntryNodeDataWithSchema(parent.getSchema());
@@ -260,6 +407,49 @@ public final class XmlParserStream implements Closeable, Flushable {
         return newChild;
     }
 
+    /**
+     * Tracks key values of a keyed list entry and starts the entry in the writer as soon as all of them have been
+     * read.
+     */
+    final class MapEntryStart {
+        private final Map<QName, Object> keyValues = new HashMap<>();
+        private final ListSchemaNode listSchema;
+        private boolean started;
+
+        MapEntryStart(final ListSchemaNode listSchema) {
+            this.listSchema = Preconditions.checkNotNull(listSchema);
+        }
+
+        boolean isStarted() {
+            return started;
+        }
+
+        void childRead(final AbstractNodeDataWithSchema child) throws IOException {
+            if (!(child instanceof LeafNodeDataWithSchema)) {
+                return;
+            }
+            final QName qname = child.getSchema().getQName();
+            final List<QName> keyDef = listSchema.getKeyDefinition();
+            if (!keyDef.contains(qname)) {
+                return;
+            }
+
+            keyValues.put(qname, ((LeafNodeDataWithSchema) child).getValue());
+            if (keyValues.size() == keyDef.size()) {
+                // Predicates need to follow the order of the key definition
+                final Map<QName, Object> predicates = new LinkedHashMap<>();
+                for (QName key : keyDef) {
+                    predicates.put(key, keyValues.get(key));
+                }
+
+                writer.nextDataSchemaNode(listSchema);
+                writer.startMapEntryNode(new NodeIdentifierWithPredicates(listSchema.getQName(), predicates),
+                    NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                started = true;
+            }
+        }
+    }
+
     @Override
     public void close() throws IOException {
         writer.flush();
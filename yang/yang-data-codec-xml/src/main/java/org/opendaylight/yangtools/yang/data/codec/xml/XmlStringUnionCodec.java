@@ -31,7 +31,8 @@ final class XmlStringUnionCodec extends AbstractStringUnionCodec implements XmlC
                         final XmlCodecFactory xmlCodecFactory, final NamespaceContext namespaceContext) {
         super(schema, typeDefinition);
         this.codecFactory = Preconditions.checkNotNull(xmlCodecFactory);
-        this.namespaceContext = Preconditions.checkNotNull(namespaceContext);
+        // May be null if none of the member types is namespace-sensitive
+        this.namespaceContext = namespaceContext;
     }
 
     @Override
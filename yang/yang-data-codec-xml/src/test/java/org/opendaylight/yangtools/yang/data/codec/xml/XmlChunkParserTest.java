@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.dom.DOMSource;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.stmt.reactor.CrossSourceStatementReactor;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangStatementSourceImpl;
+
+public class XmlChunkParserTest {
+    private static final int[] CHUNK_SIZES = { 1, 2, 3, 7, 64, Integer.MAX_VALUE };
+
+    private static SchemaContext schemaContext;
+
+    @BeforeClass
+    public static void initialization() throws Exception {
+        final CrossSourceStatementReactor.BuildAction reactor = YangInferencePipeline.RFC6020_REACTOR.newBuild();
+        reactor.addSource(new YangStatementSourceImpl("/foo.yang", false));
+        reactor.addSource(new YangStatementSourceImpl("/baz.yang", false));
+        schemaContext = reactor.buildEffective();
+    }
+
+    private static NormalizedNode<?, ?> parse(final byte[] input) throws Exception {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        XmlParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result), schemaContext)
+            .parse(XMLInputFactory.newInstance().createXMLStreamReader(new ByteArrayInputStream(input)));
+        return result.getResult();
+    }
+
+    private static NormalizedNode<?, ?> parseChunks(final byte[] input, final int chunkSize)
+            throws XMLStreamException {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final XmlChunkParser parser = XmlChunkParser.create(ImmutableNormalizedNodeStreamWriter.from(result),
+            XmlCodecFactory.getShared(schemaContext));
+        for (int offset = 0; offset < input.length; offset += chunkSize) {
+            final ByteBuffer chunk = ByteBuffer.wrap(input, offset, Math.min(chunkSize, input.length - offset));
+            parser.feed(chunk);
+            assertEquals(0, chunk.remaining());
+        }
+        parser.finish();
+        return result.getResult();
+    }
+
+    private static byte[] load(final String resource) throws Exception {
+        try (InputStream is = XmlChunkParserTest.class.getResourceAsStream(resource)) {
+            return ByteStreams.toByteArray(is);
+        }
+    }
+
+    @Test
+    public void testSameResult() throws Exception {
+        for (String resource : new String[] { "/foo.xml", "/baz.xml" }) {
+            final byte[] input = load(resource);
+            final NormalizedNode<?, ?> expected = parse(input);
+            assertNotNull(expected);
+            for (int chunkSize : CHUNK_SIZES) {
+                assertSameData(resource + " in chunks of " + chunkSize, expected, parseChunks(input, chunkSize));
+            }
+        }
+    }
+
+    @Test
+    public void testMarkupAndMultibyteCharacters() throws Exception {
+        // Every chunk size splits some markup, entity reference or UTF-8 sequence
+        final byte[] input = ("\uFEFF<?xml version=\"1.0\" encoding='utf-8'?>\n<!-- leading comment -->\n"
+                + "<root xmlns=\"foo-namespace\"><parent-container><leaf-container>"
+                + "<string-leaf><![CDATA[<\u00e9>]]> &amp; \u20ac\ud834\udd1e &#x41;&#66;<!-- ignored --></string-leaf>"
+                + "<f:union-identityref-leaf xmlns:f='foo-namespace' xmlns:x=\"foo-namespace\">x:ident-one"
+                + "</f:union-identityref-leaf><empty-leaf/>"
+                + "</leaf-container></parent-container></root>\n<?trailing instruction?>")
+                .getBytes(StandardCharsets.UTF_8);
+
+        final NormalizedNode<?, ?> reference = parseChunks(input, Integer.MAX_VALUE);
+        assertTrue(reference.toString(), reference.toString().contains("<\u00e9> & \u20ac\ud834\udd1e AB"));
+        assertTrue(reference.toString(), reference.toString().contains("ident-one"));
+        for (int chunkSize : CHUNK_SIZES) {
+            assertEquals("Chunks of " + chunkSize, reference, parseChunks(input, chunkSize));
+        }
+    }
+
+    @Test
+    public void testIncrementalEmission() throws Exception {
+        final List<String> events = new ArrayList<>();
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final NormalizedNodeStreamWriter delegate = ImmutableNormalizedNodeStreamWriter.from(result);
+        final NormalizedNodeStreamWriter writer = (NormalizedNodeStreamWriter) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] { NormalizedNodeStreamWriter.class },
+            (proxy, method, args) -> {
+                events.add(method.getName());
+                return method.invoke(delegate, args);
+            });
+
+        final XmlChunkParser parser = XmlChunkParser.create(writer, XmlCodecFactory.getShared(schemaContext));
+        parser.feed(ByteBuffer.wrap(("<root xmlns=\"baz-namespace\"><outer-container><my-container-1><my-keyed-list>"
+                + "<my-leaf-in-list-1>value</my-leaf-in-list-1>").getBytes(StandardCharsets.UTF_8)));
+        assertEquals(ImmutableList.of("nextDataSchemaNode", "startContainerNode", "nextDataSchemaNode",
+            "startContainerNode", "nextDataSchemaNode", "startMapNode"), events);
+
+        // The entry starts once its key is known, the leaf seen before the key is emitted when the entry ends
+        parser.feed(ByteBuffer.wrap("<my-key-leaf>key</my-key-leaf><my-leaf-in-list-2>value</my-leaf-in-list-2>"
+                .getBytes(StandardCharsets.UTF_8)));
+        assertEquals(ImmutableList.of("nextDataSchemaNode", "startMapEntryNode", "nextDataSchemaNode", "leafNode"),
+            events.subList(6, events.size()));
+
+        parser.feed(ByteBuffer.wrap("</my-keyed-list><my-leaf-list>a</my-leaf-list></my-container-1>"
+                .getBytes(StandardCharsets.UTF_8)));
+        assertTrue(events.toString(), events.contains("leafSetEntryNode"));
+        parser.feed(ByteBuffer.wrap("</outer-container></root>".getBytes(StandardCharsets.UTF_8)));
+        parser.finish();
+
+        final NormalizedNode<?, ?> expected = parse(("<root xmlns=\"baz-namespace\"><outer-container>"
+                + "<my-container-1><my-keyed-list><my-key-leaf>key</my-key-leaf>"
+                + "<my-leaf-in-list-1>value</my-leaf-in-list-1><my-leaf-in-list-2>value</my-leaf-in-list-2>"
+                + "</my-keyed-list><my-leaf-list>a</my-leaf-list></my-container-1></outer-container></root>")
+                .getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected, result.getResult());
+    }
+
+    @Test
+    public void testDuplicateElement() throws Exception {
+        try {
+            parseChunks(load("/invalid-foo.xml"), 5);
+            fail("Duplicate leaf should have been rejected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("Duplicate element \"decimal64-leaf\" in XML input"));
+        }
+    }
+
+    @Test
+    public void testMalformedInput() {
+        assertMalformed("<root xmlns=\"foo-namespace\"><parent-container></root>");
+        assertMalformed("<root xmlns=\"foo-namespace\"><parent-container></parent-container>");
+        assertMalformed("<root xmlns=\"foo-namespace\"></root><root xmlns=\"foo-namespace\"></root>");
+        assertMalformed("<root xmlns=\"foo-namespace\"><p:parent-container/></root>");
+        assertMalformed("<root xmlns=\"foo-namespace\">&undeclared;</root>");
+        assertMalformed("");
+    }
+
+    @Test
+    public void testDoctypeRejected() {
+        assertMalformed("<!DOCTYPE root [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]>"
+                + "<root xmlns=\"foo-namespace\">&xxe;</root>");
+    }
+
+    @Test
+    public void testInvalidUtf8() {
+        final byte[] input = "<root xmlns=\"foo-namespace\">\u00e9</root>".getBytes(StandardCharsets.UTF_8);
+        // Truncate the two-byte sequence
+        final byte[] truncated = new byte[input.length - 1];
+        System.arraycopy(input, 0, truncated, 0, 28);
+        System.arraycopy(input, 29, truncated, 28, truncated.length - 28);
+        try {
+            parseChunks(truncated, 1);
+            fail("Invalid UTF-8 should have been rejected");
+        } catch (XMLStreamException e) {
+            // Expected
+        }
+    }
+
+    // DOMSource does not implement equals(), compare the anyxml content it holds instead
+    private static void assertSameData(final String message, final NormalizedNode<?, ?> expected,
+            final NormalizedNode<?, ?> actual) {
+        assertEquals(message, expected.getIdentifier(), actual.getIdentifier());
+        final Object expectedValue = expected.getValue();
+        final Object actualValue = actual.getValue();
+        if (expectedValue instanceof DOMSource) {
+            assertTrue(message,
+                ((DOMSource) expectedValue).getNode().isEqualNode(((DOMSource) actualValue).getNode()));
+        } else if (expected instanceof NormalizedNodeContainer) {
+            final NormalizedNodeContainer<?, ?, ?> actualContainer = (NormalizedNodeContainer<?, ?, ?>) actual;
+            assertEquals(message, ((Collection<?>) expectedValue).size(), ((Collection<?>) actualValue).size());
+            for (NormalizedNode<?, ?> child : ((NormalizedNodeContainer<?, ?, ?>) expected).getValue()) {
+                assertSameData(message, child, getChild(actualContainer, child.getIdentifier()));
+            }
+        } else {
+            assertEquals(message, expected, actual);
+        }
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static NormalizedNode<?, ?> getChild(final NormalizedNodeContainer container, final PathArgument id) {
+        final Optional<NormalizedNode<?, ?>> child = container.getChild(id);
+        assertTrue(id.toString(), child.isPresent());
+        return child.get();
+    }
+
+    private static void assertMalformed(final String input) {
+        try {
+            parseChunks(input.getBytes(StandardCharsets.UTF_8), 3);
+            fail("Malformed input should have been rejected: " + input);
+        } catch (XMLStreamException e) {
+            // Expected
+        }
+    }
+}
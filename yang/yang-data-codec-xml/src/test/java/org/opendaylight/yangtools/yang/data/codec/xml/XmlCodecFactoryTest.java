@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Iterator;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.stmt.reactor.CrossSourceStatementReactor;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangStatementSourceImpl;
+
+public class XmlCodecFactoryTest {
+    private static SchemaContext schemaContext;
+    private static QNameModule fooModule;
+    private static ContainerSchemaNode leafContainer;
+
+    @BeforeClass
+    public static void initialization() throws Exception {
+        final CrossSourceStatementReactor.BuildAction reactor = YangInferencePipeline.RFC6020_REACTOR.newBuild();
+        reactor.addSource(new YangStatementSourceImpl("/foo.yang", false));
+        schemaContext = reactor.buildEffective();
+
+        final Module module = schemaContext.getModules().iterator().next();
+        fooModule = module.getQNameModule();
+        final ContainerSchemaNode parentContainer = (ContainerSchemaNode) module.getDataChildByName(
+            QName.create(fooModule, "parent-container"));
+        leafContainer = (ContainerSchemaNode) parentContainer.getDataChildByName(
+            QName.create(fooModule, "leaf-container"));
+    }
+
+    @Test
+    public void testSharedFactory() {
+        assertSame(XmlCodecFactory.getShared(schemaContext), XmlCodecFactory.getShared(schemaContext));
+        assertNotSame(XmlCodecFactory.create(schemaContext), XmlCodecFactory.getShared(schemaContext));
+    }
+
+    @Test
+    public void testNamespaceInsensitiveCodecsAreShared() {
+        final XmlCodecFactory factory = XmlCodecFactory.getShared(schemaContext);
+        final DataSchemaNode int32Leaf = leafContainer.getDataChildByName(QName.create(fooModule, "int32-leaf"));
+
+        assertSame(factory.codecFor(int32Leaf, new TestNamespaceContext("a")),
+            factory.codecFor(int32Leaf, new TestNamespaceContext("b")));
+    }
+
+    @Test
+    public void testNamespaceSensitiveCodecsAreNotRetained() {
+        final XmlCodecFactory factory = XmlCodecFactory.getShared(schemaContext);
+        final DataSchemaNode unionLeaf = leafContainer.getDataChildByName(
+            QName.create(fooModule, "union-identityref-leaf"));
+
+        final NamespaceContext context = new TestNamespaceContext("a");
+        final XmlCodec<?> first = factory.codecFor(unionLeaf, context);
+        assertNotSame(first, factory.codecFor(unionLeaf, context));
+        assertEquals(QName.create(fooModule, "ident-one"), first.deserialize("a:ident-one"));
+        assertEquals((short) 7, factory.codecFor(unionLeaf, context).deserialize("7"));
+    }
+
+    @Test
+    public void testPrefixesAreResolvedPerDocument() throws Exception {
+        final QName expected = QName.create(fooModule, "ident-one");
+        assertEquals(expected, parseUnionLeaf("first"));
+        assertEquals(expected, parseUnionLeaf("second"));
+    }
+
+    private static Object parseUnionLeaf(final String prefix) throws Exception {
+        final String xml = "<leaf-container xmlns=\"foo-namespace\"><union-identityref-leaf xmlns:" + prefix
+                + "=\"foo-namespace\">" + prefix + ":ident-one</union-identityref-leaf></leaf-container>";
+        final XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        XmlParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result),
+            XmlCodecFactory.getShared(schemaContext), leafContainer).parse(reader);
+        return result.getResult().getValue();
+    }
+
+    private static final class TestNamespaceContext implements NamespaceContext {
+        private final String prefix;
+
+        TestNamespaceContext(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public String getNamespaceURI(final String prefix) {
+            return this.prefix.equals(prefix) ? "foo-namespace" : XMLConstants.NULL_NS_URI;
+        }
+
+        @Override
+        public String getPrefix(final String namespaceURI) {
+            return "foo-namespace".equals(namespaceURI) ? prefix : null;
+        }
+
+        @Override
+        public Iterator<String> getPrefixes(final String namespaceURI) {
+            return "foo-namespace".equals(namespaceURI) ? Collections.singleton(prefix).iterator()
+                    : Collections.<String>emptyIterator();
+        }
+    }
+}
@@ -125,16 +125,40 @@ abstract class AbstractIntegerStringCodec<N extends Number & Comparable<N>, T ex
     }
 
 
+    @Override
+    public final N tryDeserialize(final String stringRepresentation) {
+        final int base = lexicalBase(stringRepresentation);
+        if (base == 0) {
+            return null;
+        }
+
+        final N deserialized;
+        try {
+            deserialized = deserialize(base == 16 ? normalizeHexadecimal(stringRepresentation) : stringRepresentation,
+                base);
+        } catch (final NumberFormatException e) {
+            // Lexically valid, but does not fit the Java type
+            return null;
+        }
+        return isInRange(deserialized) ? deserialized : null;
+    }
+
     private void validate(final N value) {
+        if (!isInRange(value)) {
+            throw new IllegalArgumentException("Value '" + value + "'  is not in required range " + rangeConstraints);
+        }
+    }
+
+    private boolean isInRange(final N value) {
         if (rangeConstraints.isEmpty()) {
-            return;
+            return true;
         }
         for (final Range<N> constraint : rangeConstraints) {
             if (constraint.contains(value)) {
-                return;
+                return true;
             }
         }
-        throw new IllegalArgumentException("Value '" + value + "'  is not in required range " + rangeConstraints);
+        return false;
     }
 
     /**
@@ -170,6 +194,20 @@ abstract class AbstractIntegerStringCodec<N extends Number & Comparable<N>, T ex
     private static int provideBase(final String integer) {
         Preconditions.checkArgument(integer != null, "String representing integer number cannot be NULL");
 
+        final int base = lexicalBase(integer);
+        if (base == 0) {
+            throw new NumberFormatException(String.format(INCORRECT_LEXICAL_REPRESENTATION, integer));
+        }
+        return base;
+    }
+
+    /**
+     * Determine the numeric base of an integer string.
+     *
+     * @param integer String representing an integer number
+     * @return Numeric base, or 0 if the string is not a valid integer number.
+     */
+    private static int lexicalBase(final String integer) {
         if (integer.length() == 1 && integer.charAt(0) == '0') {
             return 10;
         } else if (INT_PATTERN.matcher(integer).matches()) {
@@ -179,7 +217,7 @@ abstract class AbstractIntegerStringCodec<N extends Number & Comparable<N>, T ex
         } else if (OCT_PATTERN.matcher(integer).matches()) {
             return 8;
         } else {
-            throw new NumberFormatException(String.format(INCORRECT_LEXICAL_REPRESENTATION, integer));
+            return 0;
         }
     }
 
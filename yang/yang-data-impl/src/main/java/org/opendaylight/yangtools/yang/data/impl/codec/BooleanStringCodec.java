@@ -34,6 +34,17 @@ final class BooleanStringCodec extends TypeDefinitionAwareCodec<Boolean, Boolean
         return Boolean.valueOf(stringRepresentation);
     }
 
+    @Override
+    public Boolean tryDeserialize(final String stringRepresentation) {
+        if ("true".equalsIgnoreCase(stringRepresentation)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(stringRepresentation)) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
     private static void validate(final String string) {
         Preconditions.checkArgument("true".equalsIgnoreCase(string) || "false".equalsIgnoreCase(string),
                 "Invalid value '%s' for boolean type. Allowed values are true and false", string);
@@ -27,6 +27,10 @@ class CompiledPatternContext {
         }
     }
 
+    boolean matches(final String s) {
+        return pattern.matcher(s).matches();
+    }
+
     public void validate(final String s) {
         Preconditions.checkArgument(pattern.matcher(s).matches(), errorMessage, s);
     }
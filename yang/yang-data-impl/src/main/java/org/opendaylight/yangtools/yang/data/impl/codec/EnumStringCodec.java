@@ -53,6 +53,11 @@ final class EnumStringCodec extends TypeDefinitionAwareCodec<String, EnumTypeDef
         }
     }
 
+    @Override
+    public String tryDeserialize(final String s) {
+        return values != null ? values.get(s) : s;
+    }
+
     @Override
     public String serialize(final String data) {
         return Objects.toString(data, "");
@@ -32,6 +32,16 @@ final class StringPatternCheckingCodec extends StringStringCodec {
         }
     }
 
+    @Override
+    protected boolean matches(final String s) {
+        for (final CompiledPatternContext pattern : patterns) {
+            if (!pattern.matches(s)) {
+                return false;
+            }
+        }
+        return super.matches(s);
+    }
+
     @Override
     protected void validate(final String s) {
         super.validate(s);
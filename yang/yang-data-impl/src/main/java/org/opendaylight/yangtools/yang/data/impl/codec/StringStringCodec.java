@@ -38,6 +38,11 @@ class StringStringCodec extends TypeDefinitionAwareCodec<String, StringTypeDefin
         return stringRepresentation;
     }
 
+    @Override
+    public final String tryDeserialize(final String stringRepresentation) {
+        return matches(stringRepresentation) ? stringRepresentation : null;
+    }
+
     @Override
     public final String serialize(final String data) {
         return Objects.toString(data, "");
@@ -46,4 +51,14 @@ class StringStringCodec extends TypeDefinitionAwareCodec<String, StringTypeDefin
     protected void validate(final String s) {
 
     }
+
+    /**
+     * Check whether a string is valid for this type, without throwing an exception.
+     *
+     * @param s String to check
+     * @return True if the string passes {@link #validate(String)}
+     */
+    protected boolean matches(final String s) {
+        return true;
+    }
 }
@@ -9,6 +9,7 @@ package org.opendaylight.yangtools.yang.data.impl.codec;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import org.opendaylight.yangtools.yang.data.util.TryDeserializingCodec;
 import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
 import org.opendaylight.yangtools.yang.model.api.type.BinaryTypeDefinition;
 import org.opendaylight.yangtools.yang.model.api.type.BitsTypeDefinition;
@@ -20,8 +21,13 @@ import org.opendaylight.yangtools.yang.model.api.type.IntegerTypeDefinition;
 import org.opendaylight.yangtools.yang.model.api.type.StringTypeDefinition;
 import org.opendaylight.yangtools.yang.model.api.type.UnionTypeDefinition;
 import org.opendaylight.yangtools.yang.model.api.type.UnsignedIntegerTypeDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public abstract class TypeDefinitionAwareCodec<J, T extends TypeDefinition<T>> implements DataStringCodec<J>,
+        TryDeserializingCodec<J> {
+    private static final Logger LOG = LoggerFactory.getLogger(TypeDefinitionAwareCodec.class);
 
-public abstract class TypeDefinitionAwareCodec<J, T extends TypeDefinition<T>> implements DataStringCodec<J> {
     private final Optional<T> typeDefinition;
     private final Class<J> inputClass;
 
@@ -40,6 +46,23 @@ public abstract class TypeDefinitionAwareCodec<J, T extends TypeDefinition<T>> i
         return typeDefinition;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Default implementation invokes {@link #deserialize(Object)} and translates an {@link IllegalArgumentException}
+     * to a null return. Subclasses should override it to reject invalid input without throwing.
+     */
+    @Override
+    public J tryDeserialize(final String stringRepresentation) {
+        try {
+            return deserialize(stringRepresentation);
+        } catch (final IllegalArgumentException e) {
+            LOG.debug("Value {} does not match {}", stringRepresentation, typeDefinition, e);
+            return null;
+        }
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public static TypeDefinitionAwareCodec<Object, ? extends TypeDefinition<?>> from(final TypeDefinition typeDefinition) {
         return (TypeDefinitionAwareCodec)fromType(typeDefinition);
@@ -10,16 +10,38 @@ package org.opendaylight.yangtools.yang.data.impl.codec;
 
 import com.google.common.base.Optional;
 import com.google.common.io.BaseEncoding;
+import java.util.List;
 import java.util.Objects;
 import org.opendaylight.yangtools.yang.data.api.codec.UnionCodec;
+import org.opendaylight.yangtools.yang.data.util.LexicalClassifier;
 import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
 import org.opendaylight.yangtools.yang.model.api.type.UnionTypeDefinition;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+/**
+ * Codec for union types. Member type codecs are instantiated when the first string is deserialized, so that codecs
+ * which are only used for serialization do not pay for them. A string is classified lexically once and only the
+ * members which can accept its lexical class are probed, using their non-throwing {@link #tryDeserialize(String)}
+ * method.
+ */
 final class UnionStringCodec extends TypeDefinitionAwareCodec<Object, UnionTypeDefinition> implements UnionCodec<String> {
+    /**
+     * Member codecs in order of declaration, null for types which have no codec, and their lexical classes.
+     */
+    private static final class Members {
+        final TypeDefinitionAwareCodec<?, ?>[] codecs;
+        final int[] lexicalClasses;
+
+        Members(final List<TypeDefinition<?>> types) {
+            codecs = new TypeDefinitionAwareCodec<?, ?>[types.size()];
+            lexicalClasses = new int[types.size()];
+            for (int i = 0; i < codecs.length; ++i) {
+                codecs[i] = from(types.get(i));
+                lexicalClasses[i] = LexicalClassifier.requiredClasses(types.get(i));
+            }
+        }
+    }
 
-    private final static Logger LOG = LoggerFactory.getLogger(UnionStringCodec.class);
+    private volatile Members members;
 
     private UnionStringCodec(final Optional<UnionTypeDefinition> typeDef) {
         super(typeDef, Object.class);
@@ -40,30 +62,51 @@ final class UnionStringCodec extends TypeDefinitionAwareCodec<Object, UnionTypeD
 
     @Override
     public Object deserialize(final String stringRepresentation) {
+        if (stringRepresentation == null) {
+            return null;
+        }
 
-        if (!getTypeDefinition().isPresent()) {
+        final Object ret = tryDeserialize(stringRepresentation);
+        if (ret == null) {
+            throw new IllegalArgumentException("Invalid value \"" + stringRepresentation + "\" for union type.");
+        }
+        return ret;
+    }
+
+    @Override
+    public Object tryDeserialize(final String stringRepresentation) {
+        final Optional<UnionTypeDefinition> typeDef = getTypeDefinition();
+        if (!typeDef.isPresent()) {
             return stringRepresentation;
         }
 
-        for (final TypeDefinition<?> type : getTypeDefinition().get().getTypes()) {
-            final TypeDefinitionAwareCodec<Object, ? extends TypeDefinition<?>> typeAwareCodec = from(type);
-            if (typeAwareCodec == null) {
+        Members m = members;
+        if (m == null) {
+            // Benign race: concurrent callers create equivalent members
+            m = new Members(typeDef.get().getTypes());
+            members = m;
+        }
+
+        final TypeDefinitionAwareCodec<?, ?>[] codecs = m.codecs;
+        final int[] lexicalClasses = m.lexicalClasses;
+        final int classes = LexicalClassifier.classify(stringRepresentation);
+        for (int i = 0; i < codecs.length; ++i) {
+            final TypeDefinitionAwareCodec<?, ?> codec = codecs[i];
+            if (codec == null) {
                 /*
                  * This is a type for which we have no codec (eg identity ref) so we'll say it's
                  * valid
                  */
                 return stringRepresentation;
             }
-
-            try {
-                typeAwareCodec.deserialize(stringRepresentation);
+            if (!LexicalClassifier.mayMatch(classes, lexicalClasses[i])) {
+                continue;
+            }
+            // Empty type deserializes to null, its lexical class guarantees validity
+            if (codec instanceof EmptyStringCodec || codec.tryDeserialize(stringRepresentation) != null) {
                 return stringRepresentation;
-            } catch (final Exception e) {
-                LOG.debug("Value {} did not matched representation for {}",stringRepresentation,type,e);
-                // invalid - try the next union type.
             }
         }
-
-        throw new IllegalArgumentException("Invalid value \"" + stringRepresentation + "\" for union type.");
+        return null;
     }
 }
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.leafref;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.opendaylight.yangtools.util.MapAdaptor;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.CandidatePathWalker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent index of values taking part in leafref constraints, which allows a {@link DataTreeCandidate} to be
+ * validated in time proportional to the size of the change rather than the size of the data. For each leafref node
+ * and each leafref target the index counts how many times a particular value occurs in the data tree. Validating
+ * a candidate computes which values it adds and removes at these locations and checks only those.
+ *
+ * <p>
+ * Instances are immutable. {@link #validate(DataTreeCandidate)} returns a new index reflecting the state after the
+ * candidate, which should replace the old one once the candidate is committed. If the candidate is not committed,
+ * the old index remains valid.
+ *
+ * <p>
+ * Leafrefs whose target path contains predicates are not indexed, as the set of values they may take depends on
+ * the referencing node. Candidates touching such leafrefs or their targets are validated using
+ * {@link LeafRefValidatation#validate(DataTreeCandidate, LeafRefContext)}. Same as that method, the index considers
+ * any instance of the target leaf to be a valid target.
+ */
+@Beta
+public final class LeafRefIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(LeafRefIndex.class);
+
+    private final Layout layout;
+    private final Map<List<QName>, Map<Object, Integer>> values;
+
+    private LeafRefIndex(final Layout layout, final Map<List<QName>, Map<Object, Integer>> values) {
+        this.layout = Preconditions.checkNotNull(layout);
+        this.values = Preconditions.checkNotNull(values);
+    }
+
+    /**
+     * Create an index for an empty data tree.
+     *
+     * @param rootLeafRefCtx Root leafref context
+     * @return An empty index
+     */
+    public static LeafRefIndex create(final LeafRefContext rootLeafRefCtx) {
+        final Layout layout = new Layout(rootLeafRefCtx);
+        final Map<List<QName>, Map<Object, Integer>> values = new HashMap<>();
+        for (List<QName> path : layout.indexedPaths) {
+            values.put(path, ImmutableMap.<Object, Integer>of());
+        }
+        return new LeafRefIndex(layout, ImmutableMap.copyOf(values));
+    }
+
+    /**
+     * Create an index of existing data. This requires a full walk of the indexed leaves, during which indexed
+     * leafrefs are checked, too.
+     *
+     * @param rootLeafRefCtx Root leafref context
+     * @param root Data tree root node
+     * @return An index of the data
+     * @throws LeafRefDataValidationFailedException if the data violate an indexed leafref constraint
+     */
+    public static LeafRefIndex create(final LeafRefContext rootLeafRefCtx, final NormalizedNode<?, ?> root)
+            throws LeafRefDataValidationFailedException {
+        final Layout layout = new Layout(rootLeafRefCtx);
+        final Map<List<QName>, Map<Object, Integer>> values = new HashMap<>();
+        for (List<QName> path : layout.indexedPaths) {
+            final ValueCollector collector = new ValueCollector(path);
+            collector.walk(root, 0, YangInstanceIdentifier.EMPTY, true);
+            values.put(path, MapAdaptor.getDefaultInstance().optimize(collector.values));
+        }
+
+        final List<String> errors = new ArrayList<>();
+        for (Reference ref : layout.references) {
+            ref.validate(values.get(ref.path), null, values, errors);
+        }
+        throwErrors(errors);
+        return new LeafRefIndex(layout, ImmutableMap.copyOf(values));
+    }
+
+    /**
+     * Validate a candidate against this index and return an index updated with the candidate's changes.
+     *
+     * @param candidate Data tree candidate, rooted at the root of the data tree
+     * @return Updated index, may be this object if the candidate does not affect indexed values
+     * @throws LeafRefDataValidationFailedException if the candidate violates a leafref constraint
+     */
+    public LeafRefIndex validate(final DataTreeCandidate candidate) throws LeafRefDataValidationFailedException {
+        Preconditions.checkArgument(candidate.getRootPath().isEmpty(), "Candidate %s is not rooted at data root",
+            candidate);
+        final DataTreeCandidateNode root = candidate.getRootNode();
+
+        boolean fullValidation = false;
+        for (List<QName> path : layout.unindexedPaths) {
+            final ValueCollector collector = new ValueCollector(path);
+            collector.walk(root, 0, YangInstanceIdentifier.EMPTY);
+            if (!collector.values.isEmpty()) {
+                LOG.debug("Candidate {} affects unindexed path {}, performing full validation", candidate, path);
+                fullValidation = true;
+                break;
+            }
+        }
+
+        final Map<List<QName>, Map<Object, Integer>> deltas = new HashMap<>();
+        for (List<QName> path : layout.indexedPaths) {
+            final ValueCollector collector = new ValueCollector(path);
+            collector.walk(root, 0, YangInstanceIdentifier.EMPTY);
+            if (!collector.values.isEmpty()) {
+                deltas.put(path, collector.values);
+            }
+        }
+
+        if (fullValidation) {
+            LeafRefValidatation.validate(candidate, layout.rootContext);
+        }
+        if (deltas.isEmpty()) {
+            return this;
+        }
+
+        final Map<List<QName>, Map<Object, Integer>> newValues = new HashMap<>(values);
+        for (Entry<List<QName>, Map<Object, Integer>> e : deltas.entrySet()) {
+            newValues.put(e.getKey(), applyDelta(values.get(e.getKey()), e.getValue()));
+        }
+
+        if (!fullValidation) {
+            final List<String> errors = new ArrayList<>();
+            for (Reference ref : layout.references) {
+                ref.validate(deltas.get(ref.path), deltas.get(ref.targetPath), newValues, errors);
+            }
+            throwErrors(errors);
+        }
+
+        return new LeafRefIndex(layout, ImmutableMap.copyOf(newValues));
+    }
+
+    private static void throwErrors(final List<String> errors) throws LeafRefDataValidationFailedException {
+        if (!errors.isEmpty()) {
+            final StringBuilder message = new StringBuilder();
+            for (String error : errors) {
+                message.append(error);
+            }
+            throw new LeafRefDataValidationFailedException(message.toString(), errors.size());
+        }
+    }
+
+    private static Map<Object, Integer> applyDelta(final Map<Object, Integer> counts,
+            final Map<Object, Integer> delta) {
+        final Map<Object, Integer> ret = MapAdaptor.getDefaultInstance().takeSnapshot(counts);
+        for (Entry<Object, Integer> e : delta.entrySet()) {
+            final Integer prev = ret.get(e.getKey());
+            final int count = (prev == null ? 0 : prev) + e.getValue();
+            Preconditions.checkState(count >= 0, "Negative count of value %s", e.getKey());
+            if (count == 0) {
+                ret.remove(e.getKey());
+            } else {
+                ret.put(e.getKey(), count);
+            }
+        }
+        return MapAdaptor.getDefaultInstance().optimize(ret);
+    }
+
+    private static void adjust(final Map<Object, Integer> delta, final Object value, final int increment) {
+        final Integer prev = delta.get(value);
+        final int count = (prev == null ? 0 : prev) + increment;
+        if (count == 0) {
+            delta.remove(value);
+        } else {
+            delta.put(value, count);
+        }
+    }
+
+    /**
+     * Collects the values added and removed at a path.
+     */
+    private static final class ValueCollector extends CandidatePathWalker {
+        final Map<Object, Integer> values = new HashMap<>();
+
+        ValueCollector(final List<QName> path) {
+            super(path, false);
+        }
+
+        @Override
+        protected void onMatch(final NormalizedNode<?, ?> node, final YangInstanceIdentifier nodePath,
+                final boolean added) {
+            if (node instanceof LeafNode || node instanceof LeafSetEntryNode) {
+                adjust(values, node.getValue(), added ? 1 : -1);
+            }
+        }
+    }
+
+    private static List<QName> toQNames(final Iterable<QNameWithPredicate> path) {
+        final ImmutableList.Builder<QName> builder = ImmutableList.builder();
+        for (QNameWithPredicate element : path) {
+            builder.add(element.getQName());
+        }
+        return builder.build();
+    }
+
+    private static boolean hasPredicates(final Iterable<QNameWithPredicate> path) {
+        for (QNameWithPredicate element : path) {
+            if (!element.getQNamePredicates().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indexed leafrefs and paths, derived from a {@link LeafRefContext}. Shared by all generations of an index.
+     */
+    private static final class Layout {
+        final LeafRefContext rootContext;
+        final List<Reference> references;
+        final Set<List<QName>> indexedPaths;
+        final Set<List<QName>> unindexedPaths;
+
+        Layout(final LeafRefContext rootContext) {
+            this.rootContext = Preconditions.checkNotNull(rootContext);
+
+            final List<LeafRefContext> contexts = new ArrayList<>();
+            findReferencing(rootContext, contexts);
+
+            final ImmutableList.Builder<Reference> refs = ImmutableList.builder();
+            final Set<List<QName>> indexed = new LinkedHashSet<>();
+            final Set<List<QName>> unindexed = new LinkedHashSet<>();
+            for (LeafRefContext ctx : contexts) {
+                final List<QName> path = toQNames(LeafRefUtils.schemaPathToLeafRefPath(ctx.getCurrentNodePath(),
+                    ctx.getLeafRefContextModule()).getPathFromRoot());
+                final Iterable<QNameWithPredicate> target = ctx.getAbsoluteLeafRefTargetPath().getPathFromRoot();
+                final List<QName> targetPath = toQNames(target);
+
+                if (hasPredicates(target)) {
+                    unindexed.add(path);
+                    unindexed.add(targetPath);
+                } else {
+                    refs.add(new Reference(ctx, path, targetPath));
+                    indexed.add(path);
+                    indexed.add(targetPath);
+                }
+            }
+
+            references = refs.build();
+            indexedPaths = ImmutableSet.copyOf(indexed);
+            unindexedPaths = ImmutableSet.copyOf(unindexed);
+        }
+
+        private static void findReferencing(final LeafRefContext ctx, final List<LeafRefContext> found) {
+            if (ctx.isReferencing()) {
+                found.add(ctx);
+            }
+            for (LeafRefContext child : ctx.getReferencingChilds().values()) {
+                findReferencing(child, found);
+            }
+        }
+    }
+
+    /**
+     * A single indexed leafref, with paths to its values and to the values of its target.
+     */
+    private static final class Reference {
+        final LeafRefContext context;
+        final List<QName> path;
+        final List<QName> targetPath;
+
+        Reference(final LeafRefContext context, final List<QName> path, final List<QName> targetPath) {
+            this.context = context;
+            this.path = path;
+            this.targetPath = targetPath;
+        }
+
+        void validate(final Map<Object, Integer> delta, final Map<Object, Integer> targetDelta,
+                final Map<List<QName>, Map<Object, Integer>> values, final List<String> errors) {
+            final Map<Object, Integer> targets = values.get(targetPath);
+
+            // Newly-introduced references need to point to an existing target
+            if (delta != null) {
+                for (Entry<Object, Integer> e : delta.entrySet()) {
+                    if (e.getValue() > 0 && !targets.containsKey(e.getKey())) {
+                        LOG.debug("Invalid leafref value [{}] of LEAFREF node: {} leafRef target path: {}",
+                            e.getKey(), context.getCurrentNodePath(), context.getAbsoluteLeafRefTargetPath());
+                        errors.add(String.format("Invalid leafref value [%s] of LEAFREF node: %s leafRef target "
+                                + "path: %s ", e.getKey(), context.getNodeName(),
+                                context.getAbsoluteLeafRefTargetPath()));
+                    }
+                }
+            }
+
+            // Targets which have disappeared must not be referenced anymore
+            if (targetDelta != null) {
+                final Map<Object, Integer> current = values.get(path);
+                for (Entry<Object, Integer> e : targetDelta.entrySet()) {
+                    final Object value = e.getKey();
+                    if (e.getValue() < 0 && !targets.containsKey(value) && current.containsKey(value)
+                            && (delta == null || !delta.containsKey(value) || delta.get(value) < 0)) {
+                        LOG.debug("Removal of leafref TARGET value [{}] at {} leaves LEAFREF node {} dangling",
+                            value, targetPath, context.getCurrentNodePath());
+                        errors.add(String.format("Invalid leafref value [%s] by validation of leafref TARGET node: "
+                                + "%s path of invalid LEAFREF node: %s leafRef target path: %s ", value,
+                                targetPath.get(targetPath.size() - 1), context.getCurrentNodePath(),
+                                context.getAbsoluteLeafRefTargetPath()));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+
+/**
+ * Walker locating the data nodes at a path made of data node names. Choice, augmentation and list nodes are
+ * transparent, same as they are in normalized data, hence every instance of a list entry, leaf-list entry or their
+ * descendants matches. Subclasses are notified of each matching node which has appeared or disappeared.
+ *
+ * <p>
+ * Walking a {@link DataTreeCandidateNode} visits only modified nodes, so its cost is proportional to the size of
+ * the change. A matching node which has been modified is reported as removed with its old data and added with its
+ * new data.
+ */
+@Beta
+public abstract class CandidatePathWalker {
+    private final List<QName> path;
+    private final boolean trackPaths;
+
+    /**
+     * Create a new walker.
+     *
+     * @param path Names of data nodes leading to the matching nodes
+     * @param trackPaths True if matching nodes should be reported with their instance identifiers. If false,
+     *                   null is reported instead.
+     */
+    protected CandidatePathWalker(final List<QName> path, final boolean trackPaths) {
+        this.path = ImmutableList.copyOf(path);
+        this.trackPaths = trackPaths;
+    }
+
+    /**
+     * Invoked for each matching node.
+     *
+     * @param node Matching data node
+     * @param nodePath Path of the node, null if paths are not tracked
+     * @param added True if the node is present after the change, false if it was present before the change
+     */
+    protected abstract void onMatch(NormalizedNode<?, ?> node, @Nullable YangInstanceIdentifier nodePath,
+            boolean added);
+
+    /**
+     * Walk the nodes modified by a candidate node, reporting matching nodes which have appeared and disappeared.
+     *
+     * @param node Candidate node matched to the first offset elements of the path
+     * @param offset Number of path elements already matched
+     * @param nodePath Path of the candidate node, ignored if paths are not tracked
+     */
+    public final void walk(final DataTreeCandidateNode node, final int offset,
+            final YangInstanceIdentifier nodePath) {
+        switch (node.getModificationType()) {
+            case UNMODIFIED:
+                return;
+            case SUBTREE_MODIFIED:
+                final NormalizedNode<?, ?> data = node.getDataAfter().get();
+                if (isList(data)) {
+                    for (DataTreeCandidateNode child : node.getChildNodes()) {
+                        walk(child, offset, childPath(nodePath, child.getIdentifier()));
+                    }
+                } else if (offset < path.size()) {
+                    final QName next = path.get(offset);
+                    for (DataTreeCandidateNode child : node.getChildNodes()) {
+                        final PathArgument id = child.getIdentifier();
+                        if (id instanceof NodeIdentifier && next.equals(id.getNodeType())) {
+                            walk(child, offset + 1, childPath(nodePath, id));
+                        } else if (isTransparent(id, child, next)) {
+                            walk(child, offset, childPath(nodePath, id));
+                        }
+                    }
+                } else {
+                    onMatch(node.getDataBefore().get(), trackedPath(nodePath), false);
+                    onMatch(data, trackedPath(nodePath), true);
+                }
+                return;
+            default:
+                // The node has been replaced, compare the data it held before and after
+                final Optional<NormalizedNode<?, ?>> before = node.getDataBefore();
+                if (before.isPresent()) {
+                    walk(before.get(), offset, nodePath, false);
+                }
+                final Optional<NormalizedNode<?, ?>> after = node.getDataAfter();
+                if (after.isPresent()) {
+                    walk(after.get(), offset, nodePath, true);
+                }
+        }
+    }
+
+    /**
+     * Walk a data node, reporting all matching nodes.
+     *
+     * @param node Data node matched to the first offset elements of the path
+     * @param offset Number of path elements already matched
+     * @param nodePath Path of the data node, ignored if paths are not tracked
+     * @param added Value reported to {@link #onMatch(NormalizedNode, YangInstanceIdentifier, boolean)}
+     */
+    public final void walk(final NormalizedNode<?, ?> node, final int offset, final YangInstanceIdentifier nodePath,
+            final boolean added) {
+        if (isList(node)) {
+            for (Object child : (Iterable<?>) node.getValue()) {
+                final NormalizedNode<?, ?> c = (NormalizedNode<?, ?>) child;
+                walk(c, offset, childPath(nodePath, c.getIdentifier()), added);
+            }
+        } else if (offset == path.size()) {
+            onMatch(node, trackedPath(nodePath), added);
+        } else if (node instanceof DataContainerNode) {
+            final DataContainerNode<?> container = (DataContainerNode<?>) node;
+            final QName next = path.get(offset);
+            final NodeIdentifier nextId = new NodeIdentifier(next);
+            final Optional<DataContainerChild<? extends PathArgument, ?>> child = container.getChild(nextId);
+            if (child.isPresent()) {
+                walk(child.get(), offset + 1, childPath(nodePath, nextId), added);
+                return;
+            }
+
+            for (DataContainerChild<? extends PathArgument, ?> c : container.getValue()) {
+                if (c instanceof ChoiceNode || c instanceof AugmentationNode
+                        && ((AugmentationNode) c).getIdentifier().getPossibleChildNames().contains(next)) {
+                    walk(c, offset, childPath(nodePath, c.getIdentifier()), added);
+                }
+            }
+        }
+    }
+
+    private static boolean isList(final NormalizedNode<?, ?> node) {
+        return node instanceof MapNode || node instanceof LeafSetNode || node instanceof UnkeyedListNode;
+    }
+
+    private static boolean isTransparent(final PathArgument id, final DataTreeCandidateNode child, final QName next) {
+        if (id instanceof AugmentationIdentifier) {
+            return ((AugmentationIdentifier) id).getPossibleChildNames().contains(next);
+        }
+
+        final Optional<NormalizedNode<?, ?>> data = child.getDataAfter().or(child.getDataBefore());
+        return data.isPresent() && data.get() instanceof ChoiceNode;
+    }
+
+    private YangInstanceIdentifier childPath(final YangInstanceIdentifier nodePath, final PathArgument id) {
+        return trackPaths ? Preconditions.checkNotNull(nodePath).node(id) : null;
+    }
+
+    private YangInstanceIdentifier trackedPath(final YangInstanceIdentifier nodePath) {
+        return trackPaths ? nodePath : null;
+    }
+}
@@ -122,11 +122,20 @@ public class ImmutableLeafSetNodeBuilder<T> implements ListNodeBuilder<T, LeafSe
             this.children = children;
         }
 
+        Map<NodeWithValue, LeafSetEntryNode<T>> children() {
+            return children;
+        }
+
         @Override
         public Optional<LeafSetEntryNode<T>> getChild(final NodeWithValue child) {
             return Optional.fromNullable(children.get(child));
         }
 
+        @Override
+        public LeafSetEntryNode<T> getChildOrNull(final NodeWithValue child) {
+            return children.get(child);
+        }
+
         @Override
         protected int valueHashCode() {
             return children.hashCode();
@@ -119,11 +119,20 @@ public class ImmutableMapNodeBuilder implements CollectionNodeBuilder<MapEntryNo
             this.children = children;
         }
 
+        Map<NodeIdentifierWithPredicates, MapEntryNode> children() {
+            return children;
+        }
+
         @Override
         public Optional<MapEntryNode> getChild(final YangInstanceIdentifier.NodeIdentifierWithPredicates child) {
             return Optional.fromNullable(children.get(child));
         }
 
+        @Override
+        public MapEntryNode getChildOrNull(final YangInstanceIdentifier.NodeIdentifierWithPredicates child) {
+            return children.get(child);
+        }
+
         @Override
         public Collection<MapEntryNode> getValue() {
             return UnmodifiableCollection.create(children.values());
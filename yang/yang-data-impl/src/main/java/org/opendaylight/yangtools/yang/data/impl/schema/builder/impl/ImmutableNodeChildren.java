@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.builder.impl;
+
+import com.google.common.annotations.Beta;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.nodes.AbstractImmutableDataContainerNode;
+
+/**
+ * DO NOT USE THIS CLASS.
+ *
+ * This is an implementation-internal API, which gives the data tree access to the maps holding children of
+ * unordered immutable nodes, so it can take advantage of how they share structure between versions. No outside
+ * users should use it, as the returned maps are not guaranteed to conform to java.util.Map interface.
+ */
+@Beta
+public final class ImmutableNodeChildren {
+    private ImmutableNodeChildren() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Return the map holding children of a node.
+     *
+     * @param node Normalized node
+     * @return An unmodifiable view of the node's children, or null if the node is not an unordered immutable
+     *         container
+     */
+    @Nullable public static Map<? extends PathArgument, ? extends NormalizedNode<?, ?>> childrenOf(
+            final NormalizedNode<?, ?> node) {
+        if (node instanceof ImmutableMapNodeBuilder.ImmutableMapNode) {
+            return ((ImmutableMapNodeBuilder.ImmutableMapNode) node).children();
+        }
+        if (node instanceof ImmutableLeafSetNodeBuilder.ImmutableLeafSetNode) {
+            return ((ImmutableLeafSetNodeBuilder.ImmutableLeafSetNode<?>) node).children();
+        }
+        if (node instanceof AbstractImmutableDataContainerNode) {
+            return ((AbstractImmutableDataContainerNode<?>) node).getChildren();
+        }
+        return null;
+    }
+}
@@ -128,6 +128,11 @@ public class ImmutableOrderedLeafSetNodeBuilder<T> implements ListNodeBuilder<T,
             return Optional.fromNullable(children.get(child));
         }
 
+        @Override
+        public LeafSetEntryNode<T> getChildOrNull(final NodeWithValue child) {
+            return children.get(child);
+        }
+
         @Override
         protected int valueHashCode() {
             return children.hashCode();
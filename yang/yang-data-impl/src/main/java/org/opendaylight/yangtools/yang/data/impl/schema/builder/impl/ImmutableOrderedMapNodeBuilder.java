@@ -8,7 +8,6 @@
 package org.opendaylight.yangtools.yang.data.impl.schema.builder.impl;
 
 import com.google.common.base.Optional;
-import com.google.common.collect.Iterables;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -126,6 +125,9 @@ public class ImmutableOrderedMapNodeBuilder implements CollectionNodeBuilder<Map
 
         private final Map<NodeIdentifierWithPredicates, MapEntryNode> children;
 
+        // Lazily-created positional index, so that access by position does not need to walk the map
+        private volatile MapEntryNode[] positions;
+
         ImmutableOrderedMapNode(final NodeIdentifier nodeIdentifier,
                          final Map<NodeIdentifierWithPredicates, MapEntryNode> children) {
             super(nodeIdentifier);
@@ -137,6 +139,11 @@ public class ImmutableOrderedMapNodeBuilder implements CollectionNodeBuilder<Map
             return Optional.fromNullable(children.get(child));
         }
 
+        @Override
+        public MapEntryNode getChildOrNull(final NodeIdentifierWithPredicates child) {
+            return children.get(child);
+        }
+
         @Override
         protected int valueHashCode() {
             return children.hashCode();
@@ -149,7 +156,12 @@ public class ImmutableOrderedMapNodeBuilder implements CollectionNodeBuilder<Map
 
         @Override
         public MapEntryNode getChild(final int position) {
-            return Iterables.get(children.values(), position);
+            MapEntryNode[] local = positions;
+            if (local == null) {
+                local = children.values().toArray(new MapEntryNode[children.size()]);
+                positions = local;
+            }
+            return local[position];
         }
 
         @Override
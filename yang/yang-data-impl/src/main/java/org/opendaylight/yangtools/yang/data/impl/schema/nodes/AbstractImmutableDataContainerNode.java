@@ -33,6 +33,11 @@ public abstract class AbstractImmutableDataContainerNode<K extends PathArgument>
         return Optional.fromNullable(children.get(child));
     }
 
+    @Override
+    public final DataContainerChild<? extends PathArgument, ?> getChildOrNull(final PathArgument child) {
+        return children.get(child);
+    }
+
     @Override
     public final Collection<DataContainerChild<? extends PathArgument, ?>> getValue() {
         return children.values();
@@ -30,29 +30,37 @@ abstract class AbstractDataTreeTip implements DataTreeTip {
 
     @Override
     public final void validate(final DataTreeModification modification) throws DataValidationFailedException {
-        Preconditions.checkArgument(modification instanceof InMemoryDataTreeModification, "Invalid modification class %s", modification.getClass());
-        final InMemoryDataTreeModification m = (InMemoryDataTreeModification)modification;
-        Preconditions.checkArgument(m.isSealed(), "Attempted to verify unsealed modification %s", m);
-
-        m.getStrategy().checkApplicable(PUBLIC_ROOT_PATH, m.getRootModification(), Optional.of(getTipRoot()), m.getVersion());
+        validate(checkedModification(modification, "verify"), getTipRoot());
     }
 
     @Override
     public final DataTreeCandidateTip prepare(final DataTreeModification modification) {
+        return prepare(checkedModification(modification, "prepare"), getTipRoot());
+    }
+
+    static InMemoryDataTreeModification checkedModification(final DataTreeModification modification,
+            final String action) {
         Preconditions.checkArgument(modification instanceof InMemoryDataTreeModification, "Invalid modification class %s", modification.getClass());
         final InMemoryDataTreeModification m = (InMemoryDataTreeModification)modification;
-        Preconditions.checkArgument(m.isSealed(), "Attempted to prepare unsealed modification %s", m);
+        Preconditions.checkArgument(m.isSealed(), "Attempted to %s unsealed modification %s", action, m);
+        return m;
+    }
 
-        final ModifiedNode root = m.getRootModification();
+    static void validate(final InMemoryDataTreeModification m, final TreeNode currentRoot)
+            throws DataValidationFailedException {
+        m.getStrategy().checkApplicable(PUBLIC_ROOT_PATH, m.getRootModification(), Optional.of(currentRoot), m.getVersion());
+    }
 
-        final TreeNode currentRoot = getTipRoot();
+    static AbstractDataTreeCandidate prepare(final InMemoryDataTreeModification m, final TreeNode currentRoot) {
+        final ModifiedNode root = m.getRootModification();
         if (root.getOperation() == LogicalOperation.NONE) {
             return new NoopDataTreeCandidate(PUBLIC_ROOT_PATH, root, currentRoot);
         }
 
         final Optional<TreeNode> newRoot = m.getStrategy().apply(m.getRootModification(),
             Optional.of(currentRoot), m.getVersion());
-        Preconditions.checkState(newRoot.isPresent(), "Apply strategy failed to produce root node for modification %s", modification);
-        return new InMemoryDataTreeCandidate(PUBLIC_ROOT_PATH, root, currentRoot, newRoot.get());
+        Preconditions.checkState(newRoot.isPresent(), "Apply strategy failed to produce root node for modification %s", m);
+        return new InMemoryDataTreeCandidate(PUBLIC_ROOT_PATH, root, currentRoot, newRoot.get(), m.getStrategy(),
+            m.getVersion());
     }
 }
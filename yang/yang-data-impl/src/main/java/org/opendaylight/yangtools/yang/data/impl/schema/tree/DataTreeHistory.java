@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+
+/**
+ * Bounded record of past {@link DataTreeState}s, ordered by their generation. Each state is recorded together with
+ * the time at which it became current. The newest state is always retained. Older states are evicted once there are
+ * more than the configured number of them, or once they have been superseded for longer than the configured age.
+ *
+ * <p>
+ * Commits record their states after they have been installed, hence concurrent commits may record them out of
+ * order. Ordering by generation takes care of that.
+ */
+final class DataTreeHistory {
+    private static final class Entry {
+        final DataTreeState state;
+        final long timestamp;
+
+        Entry(final DataTreeState state, final long timestamp) {
+            this.state = state;
+            this.timestamp = timestamp;
+        }
+
+        Version getVersion() {
+            return state.getRoot().getSubtreeVersion();
+        }
+    }
+
+    private final NavigableMap<Long, Entry> entries = new TreeMap<>();
+    private final Map<Version, Entry> versions = new HashMap<>();
+    private final LongSupplier clock;
+    private final int maxSize;
+    private final long maxAge;
+
+    DataTreeHistory(final int maxPastStates, final long maxAge, final LongSupplier clock) {
+        Preconditions.checkArgument(maxPastStates >= 0);
+        Preconditions.checkArgument(maxAge >= 0);
+        this.maxSize = maxPastStates + 1;
+        this.maxAge = maxAge;
+        this.clock = Preconditions.checkNotNull(clock);
+    }
+
+    synchronized void record(final DataTreeState state) {
+        final Entry entry = new Entry(state, clock.getAsLong());
+        entries.put(state.getGeneration(), entry);
+        versions.put(entry.getVersion(), entry);
+
+        while (entries.size() > maxSize) {
+            evictOldest();
+        }
+        expire(entry.timestamp);
+    }
+
+    synchronized Optional<DataTreeState> lookup(final Version version) {
+        expire(clock.getAsLong());
+        final Entry entry = versions.get(version);
+        return entry == null ? Optional.absent() : Optional.of(entry.state);
+    }
+
+    synchronized Optional<DataTreeState> lookupAt(final long timestamp) {
+        expire(clock.getAsLong());
+        for (Entry entry : entries.descendingMap().values()) {
+            if (entry.timestamp <= timestamp) {
+                return Optional.of(entry.state);
+            }
+        }
+        return Optional.absent();
+    }
+
+    synchronized List<Version> getVersions() {
+        expire(clock.getAsLong());
+        final List<Version> ret = new ArrayList<>(entries.size());
+        for (Entry entry : entries.descendingMap().values()) {
+            ret.add(entry.getVersion());
+        }
+        return ret;
+    }
+
+    private void evictOldest() {
+        versions.remove(entries.pollFirstEntry().getValue().getVersion());
+    }
+
+    /*
+     * A state is expired when its successor has been current for longer than the maximum age.
+     */
+    private void expire(final long now) {
+        if (maxAge == 0) {
+            return;
+        }
+
+        while (entries.size() > 1) {
+            final Entry successor = entries.higherEntry(entries.firstKey()).getValue();
+            if (now - successor.timestamp <= maxAge) {
+                break;
+            }
+            evictOldest();
+        }
+    }
+}
@@ -10,6 +10,7 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreePageIndices;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 
@@ -22,18 +23,36 @@ final class DataTreeState {
     private final LatestOperationHolder holder;
     private final SchemaContext schemaContext;
     private final TreeNode root;
+    private final long generation;
+
+    /**
+     * Secondary indexes describing the root, null if no indexes are maintained.
+     */
+    private final SecondaryIndexes indexes;
+
+    /**
+     * Paging indices of lists of the tree, shared by all its states.
+     */
+    private final DataTreePageIndices pageIndices;
 
     private DataTreeState(final TreeNode root) {
         this.root = Preconditions.checkNotNull(root);
         holder = new LatestOperationHolder();
+        pageIndices = DataTreePageIndices.create();
         schemaContext = null;
+        generation = 0;
+        indexes = null;
     }
 
-    private DataTreeState(final TreeNode root, final LatestOperationHolder holder, final SchemaContext schemaContext) {
+    private DataTreeState(final TreeNode root, final LatestOperationHolder holder, final SchemaContext schemaContext,
+            final long generation, final SecondaryIndexes indexes, final DataTreePageIndices pageIndices) {
         // It should be impossible to instantiate a new root without a SchemaContext
         this.schemaContext = Preconditions.checkNotNull(schemaContext);
         this.holder = Preconditions.checkNotNull(holder);
         this.root = Preconditions.checkNotNull(root);
+        this.generation = generation;
+        this.indexes = indexes;
+        this.pageIndices = Preconditions.checkNotNull(pageIndices);
     }
 
     static DataTreeState createInitial(final TreeNode root) {
@@ -44,17 +63,44 @@ final class DataTreeState {
         return root;
     }
 
+    /**
+     * Return the number of root changes which led to this state. It orders states which are recorded concurrently.
+     *
+     * @return State generation
+     */
+    long getGeneration() {
+        return generation;
+    }
+
+    SecondaryIndexes getIndexes() {
+        return indexes;
+    }
+
+    DataTreePageIndices getPageIndices() {
+        return pageIndices;
+    }
+
     InMemoryDataTreeSnapshot newSnapshot() {
-        return new InMemoryDataTreeSnapshot(schemaContext, root, holder.newSnapshot());
+        return new InMemoryDataTreeSnapshot(schemaContext, root, holder.newSnapshot(), indexes, pageIndices);
     }
 
     DataTreeState withSchemaContext(final SchemaContext newSchemaContext, final ModificationApplyOperation operation) {
         holder.setCurrent(operation);
-        return new DataTreeState(root, holder, newSchemaContext);
+        return new DataTreeState(root, holder, newSchemaContext, generation, indexes, pageIndices);
+    }
+
+    DataTreeState withSchemaContext(final SchemaContext newSchemaContext, final ModificationApplyOperation operation,
+            final SecondaryIndexes newIndexes) {
+        holder.setCurrent(operation);
+        return new DataTreeState(root, holder, newSchemaContext, generation, newIndexes, pageIndices);
     }
 
     DataTreeState withRoot(final TreeNode newRoot) {
-        return new DataTreeState(newRoot, holder, schemaContext);
+        return withRoot(newRoot, indexes);
+    }
+
+    DataTreeState withRoot(final TreeNode newRoot, final SecondaryIndexes newIndexes) {
+        return new DataTreeState(newRoot, holder, schemaContext, generation + 1, newIndexes, pageIndices);
     }
 
     @Override
@@ -7,8 +7,13 @@
  */
 package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
+import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import javax.annotation.Nonnull;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
@@ -16,8 +21,13 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.TipProducingDataTree;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.HistoricalDataTree;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
 import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
 import org.opendaylight.yangtools.yang.data.util.DataSchemaContextTree;
 import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
@@ -30,14 +40,26 @@ import org.slf4j.LoggerFactory;
 /**
  * Read-only snapshot of the data tree.
  */
-final class InMemoryDataTree extends AbstractDataTreeTip implements TipProducingDataTree {
+final class InMemoryDataTree extends AbstractDataTreeTip implements TipProducingDataTree, HistoricalDataTree {
     private static final AtomicReferenceFieldUpdater<InMemoryDataTree, DataTreeState> STATE_UPDATER =
             AtomicReferenceFieldUpdater.newUpdater(InMemoryDataTree.class, DataTreeState.class, "state");
     private static final Logger LOG = LoggerFactory.getLogger(InMemoryDataTree.class);
+    private static final Function<DataTreeState, DataTreeSnapshot> NEW_SNAPSHOT =
+            new Function<DataTreeState, DataTreeSnapshot>() {
+                @Override
+                public DataTreeSnapshot apply(final DataTreeState input) {
+                    return input.newSnapshot();
+                }
+            };
 
     private final YangInstanceIdentifier rootPath;
     private final DataTreeConfiguration treeConfig;
 
+    /**
+     * Past states retained for historical reads, null if history is not enabled.
+     */
+    private final DataTreeHistory history;
+
     /**
      * Current data store state generation.
      */
@@ -51,6 +73,13 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements TipProducing
         this.treeConfig = Preconditions.checkNotNull(treeConfig, "treeConfig");
         this.rootPath = Preconditions.checkNotNull(rootPath, "rootPath");
         state = DataTreeState.createInitial(rootNode);
+        if (treeConfig.getHistorySize() > 0) {
+            history = new DataTreeHistory(treeConfig.getHistorySize(), treeConfig.getHistoryMaxAge(),
+                System::currentTimeMillis);
+            history.record(state);
+        } else {
+            history = null;
+        }
         if (schemaContext != null) {
             setSchemaContext(schemaContext);
         }
@@ -82,7 +111,12 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements TipProducing
         final ModificationApplyOperation rootNode;
         if (rootSchemaNode instanceof ContainerSchemaNode) {
             // FIXME: real root needs to enfore presence, but that require pre-population
-            rootNode = new ContainerModificationStrategy((ContainerSchemaNode) rootSchemaNode, treeConfig);
+            final SchemaAwareApplyOperation containerNode = new ContainerModificationStrategy(
+                (ContainerSchemaNode) rootSchemaNode, treeConfig);
+
+            // must/when expressions are written against the whole data tree, we can only enforce them at its root
+            rootNode = rootPath.isEmpty() ? XPathConstraintValidation.from(containerNode, newSchemaContext, treeConfig)
+                    : containerNode;
         } else {
             rootNode = SchemaAwareApplyOperation.from(rootSchemaNode, treeConfig);
         }
@@ -90,7 +124,13 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements TipProducing
         DataTreeState currentState, newState;
         do {
             currentState = state;
-            newState = currentState.withSchemaContext(newSchemaContext, rootNode);
+            if (treeConfig.getSecondaryIndexes().isEmpty()) {
+                newState = currentState.withSchemaContext(newSchemaContext, rootNode);
+            } else {
+                // Indexes are resolved against the new schema and rebuilt from the current data
+                newState = currentState.withSchemaContext(newSchemaContext, rootNode, SecondaryIndexes.create(
+                    treeConfig.getSecondaryIndexes(), newSchemaContext, rootPath, currentState.getRoot().getData()));
+            }
         } while (!STATE_UPDATER.compareAndSet(this, currentState, newState));
     }
 
@@ -111,23 +151,122 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements TipProducing
             LOG.trace("Data Tree is {}", NormalizedNodes.toStringTree(c.getTipRoot().getData()));
         }
 
-        final TreeNode newRoot = c.getTipRoot();
         DataTreeState currentState, newState;
         do {
             currentState = state;
             final TreeNode currentRoot = currentState.getRoot();
-            LOG.debug("Updating datastore from {} to {}", currentRoot, newRoot);
 
             final TreeNode oldRoot = c.getBeforeRoot();
             if (oldRoot != currentRoot) {
                 final String oldStr = simpleToString(oldRoot);
                 final String currentStr = simpleToString(currentRoot);
-                throw new IllegalStateException("Store tree " + currentStr + " and candidate base " + oldStr + " differ.");
+                if (!treeConfig.isCommitRebaseEnabled()) {
+                    throw new IllegalStateException("Store tree " + currentStr + " and candidate base " + oldStr + " differ.");
+                }
+
+                LOG.debug("Rebasing candidate from {} to {}", oldStr, currentStr);
+                try {
+                    c.rebase(currentRoot);
+                } catch (DataValidationFailedException e) {
+                    throw new IllegalStateException("Candidate based on " + oldStr
+                        + " conflicts with changes in store tree " + currentStr, e);
+                }
             }
 
-            newState = currentState.withRoot(newRoot);
+            final TreeNode newRoot = c.getTipRoot();
+            LOG.debug("Updating datastore from {} to {}", currentRoot, newRoot);
+            newState = currentState.withRoot(newRoot, updateIndexes(currentState.getIndexes(), c));
             LOG.trace("Updated state from {} to {}", currentState, newState);
         } while (!STATE_UPDATER.compareAndSet(this, currentState, newState));
+
+        recordHistory(currentState, newState);
+        newState.getPageIndices().update(c);
+    }
+
+    /*
+     * Modifications are validated and applied on top of each other against the state current at the time the batch
+     * starts and the result is installed with a single state swap. If the swap loses a race with a concurrent
+     * commit, the whole batch is re-evaluated against the new state.
+     */
+    @Override
+    public List<DataTreeCandidate> commitBatch(final List<? extends DataTreeModification> modifications)
+            throws DataValidationFailedException {
+        final List<InMemoryDataTreeModification> checked = new ArrayList<>(modifications.size());
+        for (DataTreeModification modification : modifications) {
+            checked.add(checkedModification(modification, "commit"));
+        }
+
+        List<DataTreeCandidate> ret;
+        DataTreeState currentState, newState;
+        do {
+            currentState = state;
+            ret = new ArrayList<>(checked.size());
+
+            TreeNode root = currentState.getRoot();
+            SecondaryIndexes indexes = currentState.getIndexes();
+            for (InMemoryDataTreeModification m : checked) {
+                validate(m, root);
+                final AbstractDataTreeCandidate candidate = prepare(m, root);
+                ret.add(candidate);
+                root = candidate.getTipRoot();
+                indexes = updateIndexes(indexes, candidate);
+            }
+
+            LOG.debug("Updating datastore from {} to {} with {} modifications", currentState.getRoot(), root,
+                checked.size());
+            newState = currentState.withRoot(root, indexes);
+        } while (!STATE_UPDATER.compareAndSet(this, currentState, newState));
+
+        recordHistory(currentState, newState);
+        for (DataTreeCandidate candidate : ret) {
+            newState.getPageIndices().update(candidate);
+        }
+        return ret;
+    }
+
+    private static SecondaryIndexes updateIndexes(final SecondaryIndexes indexes, final DataTreeCandidate candidate) {
+        return indexes == null || candidate instanceof NoopDataTreeCandidate ? indexes : indexes.apply(candidate);
+    }
+
+    private void recordHistory(final DataTreeState oldState, final DataTreeState newState) {
+        if (history != null && oldState.getRoot() != newState.getRoot()) {
+            history.record(newState);
+        }
+    }
+
+    @Override
+    public List<Version> getRetainedVersions() {
+        if (history == null) {
+            return Collections.singletonList(state.getRoot().getSubtreeVersion());
+        }
+        return history.getVersions();
+    }
+
+    @Override
+    public Optional<DataTreeSnapshot> takeSnapshot(final Version version) {
+        // The current state may carry a newer SchemaContext than its recorded counterpart, hence check it first
+        final DataTreeState current = state;
+        if (version == current.getRoot().getSubtreeVersion()) {
+            return Optional.<DataTreeSnapshot>of(current.newSnapshot());
+        }
+        if (history == null) {
+            return Optional.absent();
+        }
+        return history.lookup(version).transform(NEW_SNAPSHOT);
+    }
+
+    @Override
+    public Optional<DataTreeSnapshot> takeSnapshotAt(final long timestamp) {
+        if (history == null) {
+            return Optional.absent();
+        }
+
+        final Optional<DataTreeState> found = history.lookupAt(timestamp);
+        final DataTreeState current = state;
+        if (found.isPresent() && found.get().getRoot() == current.getRoot()) {
+            return Optional.<DataTreeSnapshot>of(current.newSnapshot());
+        }
+        return found.transform(NEW_SNAPSHOT);
     }
 
     private static String simpleToString(final Object o) {
@@ -8,11 +8,15 @@
 package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
 import javax.annotation.Nonnull;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
 
 final class InMemoryDataTreeCandidate extends AbstractDataTreeCandidate {
 
@@ -28,12 +32,19 @@ final class InMemoryDataTreeCandidate extends AbstractDataTreeCandidate {
         }
     }
 
-    private final RootNode root;
+    private final ModificationApplyOperation strategy;
+    private final Version version;
+
+    // Replaced only when the candidate is rebased by the committing thread
+    private volatile RootNode root;
 
     InMemoryDataTreeCandidate(final YangInstanceIdentifier rootPath, final ModifiedNode modificationRoot,
-            final TreeNode beforeRoot, final TreeNode afterRoot) {
+            final TreeNode beforeRoot, final TreeNode afterRoot, final ModificationApplyOperation strategy,
+            final Version version) {
         super(rootPath);
         this.root = new RootNode(modificationRoot, beforeRoot, afterRoot);
+        this.strategy = Preconditions.checkNotNull(strategy);
+        this.version = Preconditions.checkNotNull(version);
     }
 
     @Override
@@ -46,6 +57,24 @@ final class InMemoryDataTreeCandidate extends AbstractDataTreeCandidate {
         return root.getOldMeta();
     }
 
+    /**
+     * Re-apply this candidate's modification on top of a different root. This succeeds only if none of the subtrees
+     * touched by the modification were changed between the original base and the new one, in which case the new tip
+     * differs from the original one only in subtrees untouched by this candidate.
+     *
+     * @param newBase Root to apply the modification to
+     * @throws DataValidationFailedException if the modification conflicts with changes made in the new base
+     */
+    void rebase(final TreeNode newBase) throws DataValidationFailedException {
+        final ModifiedNode mod = root.getMod();
+        strategy.checkApplicable(getRootPath(), mod, Optional.of(newBase), version);
+
+        final Optional<TreeNode> newRoot = strategy.apply(mod, Optional.of(newBase), version);
+        Preconditions.checkState(newRoot.isPresent(), "Apply strategy failed to produce root node for modification %s",
+            mod);
+        root = new RootNode(mod, newBase, newRoot.get());
+    }
+
     @Override
     public DataTreeCandidateNode getRootNode() {
         return root;
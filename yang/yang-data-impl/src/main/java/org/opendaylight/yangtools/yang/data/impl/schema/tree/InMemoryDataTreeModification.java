@@ -10,6 +10,7 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import javax.annotation.Nonnull;
@@ -107,6 +108,15 @@ final class InMemoryDataTreeModification extends AbstractCursorAware implements
         }
     }
 
+    @Override
+    public Map<YangInstanceIdentifier, NormalizedNode<?, ?>> readNodes(final Collection<YangInstanceIdentifier> paths) {
+        // Nothing has been modified yet, hence we can read from the snapshot, which shares common prefixes
+        if (rootNode.getOperation() == LogicalOperation.NONE) {
+            return snapshot.readNodes(paths);
+        }
+        return CursorAwareDataTreeModification.super.readNodes(paths);
+    }
+
     private Optional<TreeNode> resolveSnapshot(final YangInstanceIdentifier path, final ModifiedNode modification) {
         final Optional<TreeNode> potentialSnapshot = modification.getSnapshot();
         if (potentialSnapshot != null) {
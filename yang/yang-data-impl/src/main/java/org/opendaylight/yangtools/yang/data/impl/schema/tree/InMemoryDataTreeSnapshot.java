@@ -7,28 +7,56 @@
  */
 package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
-import javax.annotation.Nonnull;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.hash.HashCode;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.CursorAwareDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreePage;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreePageIndices;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreePageToken;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreePages;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshotCursor;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DiffingDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DigestingDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.IndexedDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.SecondaryIndexDefinition;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeDigests;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 
-final class InMemoryDataTreeSnapshot extends AbstractCursorAware implements CursorAwareDataTreeSnapshot {
+final class InMemoryDataTreeSnapshot extends AbstractCursorAware implements CursorAwareDataTreeSnapshot,
+        DiffingDataTreeSnapshot, DigestingDataTreeSnapshot, IndexedDataTreeSnapshot {
     private final RootModificationApplyOperation applyOper;
     private final SchemaContext schemaContext;
     private final TreeNode rootNode;
+    private final SecondaryIndexes indexes;
+    // Paging indices of the tree this snapshot comes from, null if it is not a snapshot of a tree
+    private final DataTreePageIndices pageIndices;
 
     InMemoryDataTreeSnapshot(final SchemaContext schemaContext, final TreeNode rootNode,
             final RootModificationApplyOperation applyOper) {
+        this(schemaContext, rootNode, applyOper, null, null);
+    }
+
+    InMemoryDataTreeSnapshot(final SchemaContext schemaContext, final TreeNode rootNode,
+            final RootModificationApplyOperation applyOper, final SecondaryIndexes indexes,
+            final DataTreePageIndices pageIndices) {
         this.schemaContext = Preconditions.checkNotNull(schemaContext);
         this.rootNode = Preconditions.checkNotNull(rootNode);
         this.applyOper = Preconditions.checkNotNull(applyOper);
+        this.indexes = indexes;
+        this.pageIndices = pageIndices;
     }
 
     TreeNode getRootNode() {
@@ -39,11 +67,60 @@ final class InMemoryDataTreeSnapshot extends AbstractCursorAware implements Curs
         return schemaContext;
     }
 
+    DataTreePageIndices getPageIndices() {
+        return pageIndices;
+    }
+
     @Override
     public Optional<NormalizedNode<?, ?>> readNode(final YangInstanceIdentifier path) {
         return NormalizedNodes.findNode(rootNode.getData(), path);
     }
 
+    @Override
+    public Map<YangInstanceIdentifier, NormalizedNode<?, ?>> readNodes(final Collection<YangInstanceIdentifier> paths) {
+        return NormalizedNodes.findNodes(rootNode.getData(), paths);
+    }
+
+    @Override
+    public Optional<DataTreePage> readPage(final YangInstanceIdentifier path, @Nullable final DataTreePageToken token,
+            final int limit) {
+        final Optional<NormalizedNode<?, ?>> list = readNode(path);
+        return list.isPresent() ? Optional.of(readPage(list.get(), token, limit)) : Optional.<DataTreePage>absent();
+    }
+
+    @Override
+    public Optional<DataTreePage> readPage(final YangInstanceIdentifier path, final int offset, final int limit) {
+        final Optional<NormalizedNode<?, ?>> list = readNode(path);
+        if (!list.isPresent()) {
+            return Optional.absent();
+        }
+        return Optional.of(pageIndices != null ? pageIndices.readPage(list.get(), offset, limit)
+                : DataTreePages.readPage(list.get(), offset, limit));
+    }
+
+    DataTreePage readPage(final NormalizedNode<?, ?> list, final DataTreePageToken token, final int limit) {
+        return pageIndices != null ? pageIndices.readPage(list, token, limit)
+                : DataTreePages.readPage(list, token, limit);
+    }
+
+    @Override
+    public DataTreeCandidateNode diff(final PathArgument identifier, final NormalizedNode<?, ?> before,
+            final NormalizedNode<?, ?> after) {
+        return new InMemoryDiffCandidateNode(identifier, before, after);
+    }
+
+    @Override
+    public Optional<HashCode> readDigest(final YangInstanceIdentifier path) {
+        final Optional<NormalizedNode<?, ?>> node = readNode(path);
+        return node.isPresent() ? Optional.of(TreeNodeDigests.digest(node.get())) : Optional.<HashCode>absent();
+    }
+
+    @Override
+    public Set<YangInstanceIdentifier> findEntries(final SecondaryIndexDefinition index, final Object value) {
+        Preconditions.checkArgument(indexes != null, "Secondary index %s is not configured", index);
+        return indexes.findEntries(index, value);
+    }
+
     @Override
     public InMemoryDataTreeModification newModification() {
         return new InMemoryDataTreeModification(this, applyOper);
@@ -10,13 +10,19 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import java.util.ArrayDeque;
+import java.util.Collection;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreePage;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreePageToken;
 
 final class InMemoryDataTreeSnapshotCursor extends AbstractCursor<InMemoryDataTreeSnapshot> {
     private final Deque<NormalizedNodeContainer<?, ?, ?>> stack = new ArrayDeque<>();
@@ -73,4 +79,25 @@ final class InMemoryDataTreeSnapshotCursor extends AbstractCursor<InMemoryDataTr
     public Optional<NormalizedNode<?, ?>> readNode(@Nonnull final PathArgument child) {
         return NormalizedNodes.findNode(stack.peek(), child);
     }
+
+    @Override
+    public Map<PathArgument, NormalizedNode<?, ?>> readNodes(@Nonnull final Collection<PathArgument> children) {
+        final NormalizedNodeContainer<?, ?, ?> current = stack.peek();
+        final Map<PathArgument, NormalizedNode<?, ?>> ret = new HashMap<>(children.size() * 4 / 3 + 1);
+        for (PathArgument child : children) {
+            final NormalizedNode<?, ?> node = NormalizedNodes.getDirectChildOrNull(current, child);
+            if (node != null) {
+                ret.put(child, node);
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    public Optional<DataTreePage> readPage(@Nonnull final PathArgument child,
+            @Nullable final DataTreePageToken token, final int limit) {
+        final Optional<NormalizedNode<?, ?>> list = readNode(child);
+        return list.isPresent() ? Optional.of(getParent().readPage(list.get(), token, limit))
+                : Optional.<DataTreePage>absent();
+    }
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.util.ImmutableChampMap;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableNodeChildren;
+
+/**
+ * A {@link DataTreeCandidateNode} describing the difference between two versions of a node held by snapshots of
+ * an {@link InMemoryDataTree}. Modification types are derived the same way as for snapshots of other data trees,
+ * but modified children are found through the storage of the immutable nodes: large unordered lists and leaf-lists
+ * keep their children in an {@link ImmutableChampMap}, whose versions share all parts of the trie which have not
+ * been modified. Such parts are skipped without being examined, hence finding the entries modified in a list costs
+ * O(m log32 n) for m modified entries, rather than O(n). Other containers are small, or their children are bounded
+ * by their schema, and are compared child by child. Ordered lists are compared child by child, too.
+ */
+final class InMemoryDiffCandidateNode implements DataTreeCandidateNode {
+    private final PathArgument identifier;
+    private final NormalizedNode<?, ?> before;
+    private final NormalizedNode<?, ?> after;
+
+    // Lazily computed when both before and after are containers, the list is immutable and safe to publish
+    private volatile List<DataTreeCandidateNode> modifiedChildren;
+
+    InMemoryDiffCandidateNode(@Nonnull final PathArgument identifier, @Nullable final NormalizedNode<?, ?> before,
+            @Nullable final NormalizedNode<?, ?> after) {
+        this.identifier = Preconditions.checkNotNull(identifier);
+        this.before = before;
+        this.after = after;
+    }
+
+    private static boolean isContainer(final NormalizedNode<?, ?> data) {
+        // Unkeyed list entries cannot be addressed individually, hence we treat unkeyed lists as opaque values
+        return data instanceof NormalizedNodeContainer && !(data instanceof UnkeyedListNode);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> container(
+            final NormalizedNode<?, ?> data) {
+        return (NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>>) data;
+    }
+
+    private boolean isComparedByChildren() {
+        return isContainer(before) && isContainer(after);
+    }
+
+    // Both versions are present, containers are not examined any further
+    private static boolean isModified(final NormalizedNode<?, ?> oldData, final NormalizedNode<?, ?> newData) {
+        if (oldData == newData) {
+            return false;
+        }
+        return isContainer(oldData) && isContainer(newData) || !oldData.equals(newData);
+    }
+
+    private void addChild(final List<DataTreeCandidateNode> children, final PathArgument childId,
+            final NormalizedNode<?, ?> oldChild, final NormalizedNode<?, ?> newChild) {
+        if (oldChild == null || newChild == null || isModified(oldChild, newChild)) {
+            children.add(new InMemoryDiffCandidateNode(childId, oldChild, newChild));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<DataTreeCandidateNode> modifiedChildren() {
+        List<DataTreeCandidateNode> ret = modifiedChildren;
+        if (ret == null) {
+            final List<DataTreeCandidateNode> children = new ArrayList<>();
+
+            final Map<?, ?> oldChildren = ImmutableNodeChildren.childrenOf(before);
+            final Map<?, ?> newChildren = ImmutableNodeChildren.childrenOf(after);
+            if (oldChildren instanceof ImmutableChampMap && newChildren instanceof ImmutableChampMap) {
+                ((ImmutableChampMap<PathArgument, NormalizedNode<?, ?>>) oldChildren).diff(
+                    (ImmutableChampMap<PathArgument, NormalizedNode<?, ?>>) newChildren,
+                    new ImmutableChampMap.DiffConsumer<PathArgument, NormalizedNode<?, ?>>() {
+                        @Override
+                        public void difference(final PathArgument key, final NormalizedNode<?, ?> oldChild,
+                                final NormalizedNode<?, ?> newChild) {
+                            addChild(children, key, oldChild, newChild);
+                        }
+                    });
+            } else {
+                final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> oldData = container(before);
+                final NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> newData = container(after);
+                for (NormalizedNode<?, ?> child : newData.getValue()) {
+                    addChild(children, child.getIdentifier(), oldData.getChild(child.getIdentifier()).orNull(),
+                        child);
+                }
+                for (NormalizedNode<?, ?> child : oldData.getValue()) {
+                    if (!newData.getChild(child.getIdentifier()).isPresent()) {
+                        children.add(new InMemoryDiffCandidateNode(child.getIdentifier(), child, null));
+                    }
+                }
+            }
+
+            ret = Collections.unmodifiableList(children);
+            modifiedChildren = ret;
+        }
+        return ret;
+    }
+
+    private static List<DataTreeCandidateNode> allChildren(final NormalizedNode<?, ?> data, final boolean deleted) {
+        if (!isContainer(data)) {
+            return Collections.emptyList();
+        }
+
+        final Collection<NormalizedNode<?, ?>> children = container(data).getValue();
+        final List<DataTreeCandidateNode> ret = new ArrayList<>(children.size());
+        for (NormalizedNode<?, ?> child : children) {
+            ret.add(deleted ? new InMemoryDiffCandidateNode(child.getIdentifier(), child, null)
+                    : new InMemoryDiffCandidateNode(child.getIdentifier(), null, child));
+        }
+        return ret;
+    }
+
+    @Override
+    @Nonnull
+    public PathArgument getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    @Nonnull
+    public ModificationType getModificationType() {
+        if (before == after) {
+            return ModificationType.UNMODIFIED;
+        }
+        if (before == null) {
+            return ModificationType.WRITE;
+        }
+        if (after == null) {
+            return ModificationType.DELETE;
+        }
+        if (isComparedByChildren()) {
+            return ModificationType.SUBTREE_MODIFIED;
+        }
+        return before.equals(after) ? ModificationType.UNMODIFIED : ModificationType.WRITE;
+    }
+
+    @Override
+    @Nonnull
+    public Collection<DataTreeCandidateNode> getChildNodes() {
+        if (before == after) {
+            return Collections.emptyList();
+        }
+        if (before == null) {
+            return allChildren(after, false);
+        }
+        if (after == null) {
+            return allChildren(before, true);
+        }
+        if (isComparedByChildren()) {
+            return modifiedChildren();
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public DataTreeCandidateNode getModifiedChild(final PathArgument childId) {
+        final NormalizedNode<?, ?> oldChild = isContainer(before) ? container(before).getChild(childId).orNull()
+                : null;
+        final NormalizedNode<?, ?> newChild = isContainer(after) ? container(after).getChild(childId).orNull()
+                : null;
+        if (oldChild == newChild) {
+            return null;
+        }
+
+        final DataTreeCandidateNode ret = new InMemoryDiffCandidateNode(childId, oldChild, newChild);
+        return ret.getModificationType() == ModificationType.UNMODIFIED ? null : ret;
+    }
+
+    @Override
+    @Nonnull
+    public Optional<NormalizedNode<?, ?>> getDataAfter() {
+        return Optional.<NormalizedNode<?, ?>>fromNullable(after);
+    }
+
+    @Override
+    @Nonnull
+    public Optional<NormalizedNode<?, ?>> getDataBefore() {
+        return Optional.<NormalizedNode<?, ?>>fromNullable(before);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{identifier = " + identifier + ", type = " + getModificationType() + "}";
+    }
+}
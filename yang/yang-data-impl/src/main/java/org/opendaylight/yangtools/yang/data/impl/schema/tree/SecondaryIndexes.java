@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.opendaylight.yangtools.concepts.Immutable;
+import org.opendaylight.yangtools.util.MapAdaptor;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.SecondaryIndexDefinition;
+import org.opendaylight.yangtools.yang.data.impl.schema.CandidatePathWalker;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent secondary indexes of a data tree, mapping values of list leaves to the paths of list entries holding
+ * them. Instances are immutable and each {@link DataTreeState} carries the indexes describing its root, so they are
+ * updated together with the root at commit time. Updates are computed from the committed {@link DataTreeCandidate},
+ * hence their cost is proportional to the size of the change rather than the size of the indexed lists.
+ *
+ * <p>
+ * Choice, case and augmentation nodes are transparent in the same way as they are in normalized data, hence a list
+ * schema path is matched to data using only the names of the other nodes on it.
+ */
+final class SecondaryIndexes implements Immutable {
+    private static final Logger LOG = LoggerFactory.getLogger(SecondaryIndexes.class);
+
+    private final Map<SecondaryIndexDefinition, Layout> layouts;
+    private final Map<SecondaryIndexDefinition, Map<Object, Map<YangInstanceIdentifier, Boolean>>> values;
+
+    private SecondaryIndexes(final Map<SecondaryIndexDefinition, Layout> layouts,
+            final Map<SecondaryIndexDefinition, Map<Object, Map<YangInstanceIdentifier, Boolean>>> values) {
+        this.layouts = Preconditions.checkNotNull(layouts);
+        this.values = Preconditions.checkNotNull(values);
+    }
+
+    /**
+     * Create indexes of existing data. This requires a full walk of the indexed lists. Indexes which cannot be
+     * resolved in the schema context are not available.
+     *
+     * @param definitions Index definitions
+     * @param schemaContext Schema context of the data
+     * @param rootPath Path of the data tree root
+     * @param root Data tree root node
+     * @return Indexes of the data
+     */
+    static SecondaryIndexes create(final Set<SecondaryIndexDefinition> definitions,
+            final SchemaContext schemaContext, final YangInstanceIdentifier rootPath, final NormalizedNode<?, ?> root) {
+        if (!rootPath.isEmpty()) {
+            LOG.warn("Secondary indexes are supported only on trees rooted at the schema root, not at {}", rootPath);
+            return new SecondaryIndexes(ImmutableMap.<SecondaryIndexDefinition, Layout>of(),
+                ImmutableMap.<SecondaryIndexDefinition, Map<Object, Map<YangInstanceIdentifier, Boolean>>>of());
+        }
+
+        final ImmutableMap.Builder<SecondaryIndexDefinition, Layout> layouts = ImmutableMap.builder();
+        final ImmutableMap.Builder<SecondaryIndexDefinition, Map<Object, Map<YangInstanceIdentifier, Boolean>>> values =
+                ImmutableMap.builder();
+        for (SecondaryIndexDefinition def : definitions) {
+            final Optional<Layout> layout = Layout.resolve(schemaContext, def);
+            if (!layout.isPresent()) {
+                LOG.warn("Secondary index {} does not refer to a leaf of a keyed list, ignoring it", def);
+                continue;
+            }
+
+            final Delta delta = new Delta();
+            new EntryCollector(layout.get(), delta).walk(root, 0, YangInstanceIdentifier.EMPTY, true);
+            layouts.put(def, layout.get());
+            values.put(def, delta.applyTo(ImmutableMap.<Object, Map<YangInstanceIdentifier, Boolean>>of()));
+        }
+        return new SecondaryIndexes(layouts.build(), values.build());
+    }
+
+    /**
+     * Return indexes updated with a candidate's changes.
+     *
+     * @param candidate Data tree candidate, rooted at the root of the data tree
+     * @return Updated indexes, may be this object if the candidate does not affect indexed values
+     */
+    SecondaryIndexes apply(final DataTreeCandidate candidate) {
+        if (layouts.isEmpty()) {
+            return this;
+        }
+
+        Map<SecondaryIndexDefinition, Map<Object, Map<YangInstanceIdentifier, Boolean>>> newValues = null;
+        for (Entry<SecondaryIndexDefinition, Layout> e : layouts.entrySet()) {
+            final Delta delta = new Delta();
+            new EntryCollector(e.getValue(), delta).walk(candidate.getRootNode(), 0,
+                YangInstanceIdentifier.EMPTY);
+            if (!delta.isEmpty()) {
+                if (newValues == null) {
+                    newValues = new HashMap<>(values);
+                }
+                newValues.put(e.getKey(), delta.applyTo(values.get(e.getKey())));
+            }
+        }
+
+        return newValues == null ? this : new SecondaryIndexes(layouts, ImmutableMap.copyOf(newValues));
+    }
+
+    Set<YangInstanceIdentifier> findEntries(final SecondaryIndexDefinition definition, final Object value) {
+        final Map<Object, Map<YangInstanceIdentifier, Boolean>> index = values.get(definition);
+        Preconditions.checkArgument(index != null, "Secondary index %s is not available", definition);
+        final Map<YangInstanceIdentifier, Boolean> entries = index.get(Preconditions.checkNotNull(value));
+        return entries == null ? Collections.<YangInstanceIdentifier>emptySet()
+                : Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Entries removed from and added to an index by a candidate. An entry removed and then added with the same value
+     * cancels out.
+     */
+    private static final class Delta {
+        final Map<Object, Set<YangInstanceIdentifier>> removed = new HashMap<>();
+        final Map<Object, Set<YangInstanceIdentifier>> added = new HashMap<>();
+
+        boolean isEmpty() {
+            return removed.isEmpty() && added.isEmpty();
+        }
+
+        void remove(final Object value, final YangInstanceIdentifier path) {
+            put(removed, value, path);
+        }
+
+        void add(final Object value, final YangInstanceIdentifier path) {
+            final Set<YangInstanceIdentifier> paths = removed.get(value);
+            if (paths != null && paths.remove(path)) {
+                if (paths.isEmpty()) {
+                    removed.remove(value);
+                }
+                return;
+            }
+            put(added, value, path);
+        }
+
+        private static void put(final Map<Object, Set<YangInstanceIdentifier>> map, final Object value,
+                final YangInstanceIdentifier path) {
+            Set<YangInstanceIdentifier> paths = map.get(value);
+            if (paths == null) {
+                paths = new HashSet<>();
+                map.put(value, paths);
+            }
+            paths.add(path);
+        }
+
+        Map<Object, Map<YangInstanceIdentifier, Boolean>> applyTo(
+                final Map<Object, Map<YangInstanceIdentifier, Boolean>> index) {
+            final MapAdaptor adaptor = MapAdaptor.getDefaultInstance();
+            final Map<Object, Map<YangInstanceIdentifier, Boolean>> ret = adaptor.takeSnapshot(index);
+            for (Entry<Object, Set<YangInstanceIdentifier>> e : removed.entrySet()) {
+                final Map<YangInstanceIdentifier, Boolean> prev = ret.get(e.getKey());
+                Preconditions.checkState(prev != null, "Removing unindexed value %s", e.getKey());
+                final Map<YangInstanceIdentifier, Boolean> entries = adaptor.takeSnapshot(prev);
+                entries.keySet().removeAll(e.getValue());
+                if (entries.isEmpty()) {
+                    ret.remove(e.getKey());
+                } else {
+                    ret.put(e.getKey(), adaptor.optimize(entries));
+                }
+            }
+            for (Entry<Object, Set<YangInstanceIdentifier>> e : added.entrySet()) {
+                final Map<YangInstanceIdentifier, Boolean> prev = ret.get(e.getKey());
+                final Map<YangInstanceIdentifier, Boolean> entries = prev == null ? new HashMap<>()
+                        : adaptor.takeSnapshot(prev);
+                for (YangInstanceIdentifier path : e.getValue()) {
+                    entries.put(path, Boolean.TRUE);
+                }
+                ret.put(e.getKey(), adaptor.optimize(entries));
+            }
+            return adaptor.optimize(ret);
+        }
+    }
+
+    /**
+     * Location of an index in data: names of data nodes leading to the list and the name of the indexed leaf.
+     */
+    private static final class Layout {
+        private final List<QName> path;
+        private final QName leaf;
+
+        private Layout(final List<QName> path, final QName leaf) {
+            this.path = path;
+            this.leaf = leaf;
+        }
+
+        static Optional<Layout> resolve(final SchemaContext schemaContext, final SecondaryIndexDefinition def) {
+            final ImmutableList.Builder<QName> builder = ImmutableList.builder();
+            SchemaNode current = schemaContext;
+            for (QName qname : def.getListPath().getPathFromRoot()) {
+                final SchemaNode child;
+                if (current instanceof ChoiceSchemaNode) {
+                    child = ((ChoiceSchemaNode) current).getCaseNodeByName(qname);
+                } else if (current instanceof DataNodeContainer) {
+                    child = ((DataNodeContainer) current).getDataChildByName(qname);
+                } else {
+                    child = null;
+                }
+                if (child == null) {
+                    return Optional.absent();
+                }
+                if (!(child instanceof ChoiceSchemaNode || child instanceof ChoiceCaseNode)) {
+                    builder.add(qname);
+                }
+                current = child;
+            }
+
+            if (!(current instanceof ListSchemaNode) || ((ListSchemaNode) current).getKeyDefinition().isEmpty()
+                    || !(((ListSchemaNode) current).getDataChildByName(def.getLeaf()) instanceof LeafSchemaNode)) {
+                return Optional.absent();
+            }
+            return Optional.of(new Layout(builder.build(), def.getLeaf()));
+        }
+
+        private Object leafValue(final NormalizedNode<?, ?> entry) {
+            if (!(entry instanceof MapEntryNode)) {
+                return null;
+            }
+
+            final MapEntryNode container = (MapEntryNode) entry;
+            final Optional<DataContainerChild<? extends PathArgument, ?>> child =
+                    container.getChild(new NodeIdentifier(leaf));
+            if (child.isPresent()) {
+                return child.get().getValue();
+            }
+            for (DataContainerChild<? extends PathArgument, ?> c : container.getValue()) {
+                if (c instanceof AugmentationNode
+                        && ((AugmentationNode) c).getIdentifier().getPossibleChildNames().contains(leaf)) {
+                    final Optional<DataContainerChild<? extends PathArgument, ?>> augmented =
+                            ((AugmentationNode) c).getChild(new NodeIdentifier(leaf));
+                    return augmented.isPresent() ? augmented.get().getValue() : null;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Collects the entries added to and removed from an index.
+     */
+    private static final class EntryCollector extends CandidatePathWalker {
+        private final Layout layout;
+        private final Delta delta;
+
+        EntryCollector(final Layout layout, final Delta delta) {
+            super(layout.path, true);
+            this.layout = layout;
+            this.delta = delta;
+        }
+
+        @Override
+        protected void onMatch(final NormalizedNode<?, ?> node, final YangInstanceIdentifier nodePath,
+                final boolean added) {
+            final Object value = layout.leafValue(node);
+            if (value != null) {
+                if (added) {
+                    delta.add(value, nodePath);
+                } else {
+                    delta.remove(value, nodePath);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Verify;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.opendaylight.yangtools.util.MapAdaptor;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+import org.opendaylight.yangtools.yang.data.impl.schema.SchemaUtils;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.UniqueConstraint;
+import org.opendaylight.yangtools.yang.model.api.stmt.SchemaNodeIdentifier.Relative;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enforcement of YANG 'unique' constraints on keyed lists. For each list instance we maintain an index from
+ * the combined values of a constraint's leaves to the key of the entry holding them. The index is attached to the
+ * {@link TreeNode} it describes, so a modification touching a few entries only needs to update the index with
+ * the entries which have actually changed, rather than scanning the entire list.
+ *
+ * Entries which do not have all of the referenced leaves present do not participate in the constraint.
+ */
+final class UniqueValidation extends SchemaAwareApplyOperation {
+    private static final Logger LOG = LoggerFactory.getLogger(UniqueValidation.class);
+
+    private final SchemaAwareApplyOperation delegate;
+    private final List<UniqueValidator> validators;
+
+    /*
+     * Indexes of list instances we have seen, keyed by the identity of the TreeNode they describe. TreeNodes are
+     * immutable, hence an index never goes stale. Indexes of nodes which did not make it into a committed tree
+     * are reclaimed together with the nodes.
+     */
+    private final Cache<TreeNode, Map<UniqueValues, NodeIdentifierWithPredicates>> indexes =
+            CacheBuilder.newBuilder().weakKeys().build();
+
+    private UniqueValidation(final SchemaAwareApplyOperation delegate, final List<UniqueValidator> validators) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+        this.validators = Preconditions.checkNotNull(validators);
+    }
+
+    static SchemaAwareApplyOperation from(final SchemaAwareApplyOperation delegate, final ListSchemaNode schema,
+            final DataTreeConfiguration treeConfig) {
+        if (!treeConfig.isUniqueIndexEnabled() || treeConfig.getTreeType() != TreeType.CONFIGURATION) {
+            return delegate;
+        }
+
+        final Collection<UniqueConstraint> constraints = schema.getUniqueConstraints();
+        if (constraints.isEmpty()) {
+            return delegate;
+        }
+
+        final ImmutableList.Builder<UniqueValidator> builder = ImmutableList.builder();
+        for (final UniqueConstraint constraint : constraints) {
+            builder.add(UniqueValidator.create(schema, constraint));
+        }
+        return new UniqueValidation(delegate, builder.build());
+    }
+
+    private Map<UniqueValues, NodeIdentifierWithPredicates> getIndex(final YangInstanceIdentifier path,
+            final TreeNode node) throws DataValidationFailedException {
+        final Map<UniqueValues, NodeIdentifierWithPredicates> existing = indexes.getIfPresent(node);
+        if (existing != null) {
+            return existing;
+        }
+
+        LOG.debug("Building unique index for {}", path);
+        final Map<UniqueValues, NodeIdentifierWithPredicates> ret = buildIndex(path, (MapNode) node.getData());
+        indexes.put(node, ret);
+        return ret;
+    }
+
+    private Map<UniqueValues, NodeIdentifierWithPredicates> buildIndex(final YangInstanceIdentifier path,
+            final MapNode data) throws DataValidationFailedException {
+        final Collection<MapEntryNode> entries = data.getValue();
+        final Map<UniqueValues, NodeIdentifierWithPredicates> index = MapAdaptor.getDefaultInstance()
+                .initialSnapshot(entries.size() * validators.size());
+        for (final MapEntryNode entry : entries) {
+            indexEntry(path, index, entry);
+        }
+        return MapAdaptor.getDefaultInstance().optimize(index);
+    }
+
+    private void indexEntry(final YangInstanceIdentifier path, final Map<UniqueValues, NodeIdentifierWithPredicates> index,
+            final MapEntryNode entry) throws DataValidationFailedException {
+        final NodeIdentifierWithPredicates id = entry.getIdentifier();
+        for (final UniqueValidator validator : validators) {
+            final UniqueValues values = validator.extractValues(entry);
+            if (values != null) {
+                final NodeIdentifierWithPredicates prev = index.put(values, id);
+                if (prev != null && !id.equals(prev)) {
+                    throw new DataValidationFailedException(path, String.format(
+                        "%s violates unique constraint on %s, values %s are already used by %s", id, validator,
+                        values, prev));
+                }
+            }
+        }
+    }
+
+    private void unindexEntry(final Map<UniqueValues, NodeIdentifierWithPredicates> index, final MapEntryNode entry) {
+        final NodeIdentifierWithPredicates id = entry.getIdentifier();
+        for (final UniqueValidator validator : validators) {
+            final UniqueValues values = validator.extractValues(entry);
+            if (values != null) {
+                index.remove(values, id);
+            }
+        }
+    }
+
+    private void checkUnique(final YangInstanceIdentifier path, final NodeModification nodeMod,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        if (!(nodeMod instanceof ModifiedNode)) {
+            LOG.debug("Could not validate {}, does not implement expected class {}", nodeMod, ModifiedNode.class);
+            return;
+        }
+
+        final ModifiedNode modification = (ModifiedNode) nodeMod;
+
+        // We need to perform the operation to deal with merges, as does MinMaxElementsValidation
+        final Optional<TreeNode> maybeApplied = delegate.apply(modification, current, version);
+        Verify.verify(maybeApplied.isPresent());
+        final TreeNode applied = maybeApplied.get();
+        if (!(applied.getData() instanceof MapNode)) {
+            // Data tree rooted at a list entry, there is nothing to index
+            return;
+        }
+
+        final Map<UniqueValues, NodeIdentifierWithPredicates> index;
+        if (current.isPresent() && modification.getOperation() != LogicalOperation.WRITE) {
+            // Start from the index of the current node and update it with entries which have changed. Removals are
+            // processed first, so entries can exchange their values within a single modification.
+            final TreeNode currentNode = current.get();
+            final Map<UniqueValues, NodeIdentifierWithPredicates> mutable = MapAdaptor.getDefaultInstance()
+                    .takeSnapshot(getIndex(path, currentNode));
+            final List<MapEntryNode> added = new ArrayList<>();
+            for (final ModifiedNode child : modification.getChildren()) {
+                if (child.getModificationType() == ModificationType.UNMODIFIED) {
+                    continue;
+                }
+
+                final PathArgument childId = child.getIdentifier();
+                final Optional<TreeNode> before = currentNode.getChild(childId);
+                if (before.isPresent()) {
+                    unindexEntry(mutable, (MapEntryNode) before.get().getData());
+                }
+                final Optional<TreeNode> after = applied.getChild(childId);
+                if (after.isPresent()) {
+                    added.add((MapEntryNode) after.get().getData());
+                }
+            }
+            for (final MapEntryNode entry : added) {
+                indexEntry(path, mutable, entry);
+            }
+
+            index = MapAdaptor.getDefaultInstance().optimize(mutable);
+        } else {
+            index = buildIndex(path, (MapNode) applied.getData());
+        }
+
+        indexes.put(applied, index);
+
+        // Stash the result so the apply operation can pick it up, exactly as MinMaxElementsValidation does
+        modification.setValidatedNode(this, current, applied);
+    }
+
+    @Override
+    protected void checkTouchApplicable(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        delegate.checkTouchApplicable(path, modification, current, version);
+        checkUnique(path, modification, current, version);
+    }
+
+    @Override
+    protected void checkMergeApplicable(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        delegate.checkMergeApplicable(path, modification, current, version);
+        checkUnique(path, modification, current, version);
+    }
+
+    @Override
+    protected void checkWriteApplicable(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        delegate.checkWriteApplicable(path, modification, current, version);
+        checkUnique(path, modification, current, version);
+    }
+
+    @Override
+    public Optional<ModificationApplyOperation> getChild(final PathArgument child) {
+        return delegate.getChild(child);
+    }
+
+    @Override
+    protected void verifyStructure(final NormalizedNode<?, ?> modification, final boolean verifyChildren) {
+        delegate.verifyStructure(modification, verifyChildren);
+
+        // Lists written as part of their parent are not visited by checkApplicable(), catch them here
+        if (verifyChildren && modification instanceof MapNode) {
+            try {
+                buildIndex(YangInstanceIdentifier.EMPTY, (MapNode) modification);
+            } catch (DataValidationFailedException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    protected TreeNode applyMerge(final ModifiedNode modification, final TreeNode currentMeta, final Version version) {
+        final TreeNode validated = modification.getValidatedNode(this, Optional.of(currentMeta));
+        if (validated != null) {
+            return validated;
+        }
+
+        // FIXME: the result moved, make sure we enforce again
+        return delegate.applyMerge(modification, currentMeta, version);
+    }
+
+    @Override
+    protected TreeNode applyTouch(final ModifiedNode modification, final TreeNode currentMeta, final Version version) {
+        final TreeNode validated = modification.getValidatedNode(this, Optional.of(currentMeta));
+        if (validated != null) {
+            return validated;
+        }
+
+        // FIXME: the result moved, make sure we enforce again
+        return delegate.applyTouch(modification, currentMeta, version);
+    }
+
+    @Override
+    protected TreeNode applyWrite(final ModifiedNode modification, final Optional<TreeNode> currentMeta,
+            final Version version) {
+        final TreeNode validated = modification.getValidatedNode(this, currentMeta);
+        if (validated != null) {
+            return validated;
+        }
+
+        // FIXME: the result moved, make sure we enforce again
+        return delegate.applyWrite(modification, currentMeta, version);
+    }
+
+    @Override
+    protected ChildTrackingPolicy getChildPolicy() {
+        return delegate.getChildPolicy();
+    }
+
+    @Override
+    void mergeIntoModifiedNode(final ModifiedNode node, final NormalizedNode<?, ?> value, final Version version) {
+        delegate.mergeIntoModifiedNode(node, value, version);
+    }
+
+    @Override
+    void recursivelyVerifyStructure(final NormalizedNode<?, ?> value) {
+        delegate.recursivelyVerifyStructure(value);
+    }
+
+    /**
+     * A single 'unique' statement, holding data paths to the referenced leaves relative to the list entry.
+     */
+    private static final class UniqueValidator {
+        private final List<YangInstanceIdentifier> paths;
+        private final Collection<Relative> tag;
+
+        private UniqueValidator(final List<YangInstanceIdentifier> paths, final Collection<Relative> tag) {
+            this.paths = Preconditions.checkNotNull(paths);
+            this.tag = Preconditions.checkNotNull(tag);
+        }
+
+        static UniqueValidator create(final ListSchemaNode schema, final UniqueConstraint constraint) {
+            final Collection<Relative> tag = constraint.getTag();
+            final ImmutableList.Builder<YangInstanceIdentifier> builder = ImmutableList.builder();
+            for (final Relative descendant : tag) {
+                builder.add(toDataPath(schema, descendant));
+            }
+            return new UniqueValidator(builder.build(), tag);
+        }
+
+        private static YangInstanceIdentifier toDataPath(final ListSchemaNode schema, final Relative descendant) {
+            final List<PathArgument> path = new ArrayList<>();
+            DataSchemaNode parent = schema;
+            for (final QName qname : descendant.getPathFromRoot()) {
+                if (parent instanceof ChoiceSchemaNode) {
+                    // Cases do not have a data representation, just descend into them
+                    final ChoiceCaseNode caseNode = ((ChoiceSchemaNode) parent).getCaseNodeByName(qname);
+                    Preconditions.checkArgument(caseNode != null, "Unique constraint %s in %s: case %s not found",
+                        descendant, schema.getQName(), qname);
+                    parent = caseNode;
+                    continue;
+                }
+
+                final DataSchemaNode child = ((DataNodeContainer) parent).getDataChildByName(qname);
+                Preconditions.checkArgument(child instanceof ContainerSchemaNode || child instanceof ChoiceSchemaNode
+                    || child instanceof LeafSchemaNode, "Unique constraint %s in %s: unsupported child %s",
+                    descendant, schema.getQName(), qname);
+
+                final AugmentationSchema augment = SchemaUtils.findCorrespondingAugment(parent, child);
+                if (augment != null) {
+                    path.add(SchemaUtils.getNodeIdentifierForAugmentation(augment));
+                }
+                path.add(NodeIdentifier.create(qname));
+                parent = child;
+            }
+
+            Preconditions.checkArgument(parent instanceof LeafSchemaNode,
+                "Unique constraint %s in %s does not reference a leaf", descendant, schema.getQName());
+            return YangInstanceIdentifier.create(path);
+        }
+
+        /**
+         * Extract the values of referenced leaves from an entry.
+         *
+         * @param entry List entry
+         * @return Combined values, or null if some of the leaves are not present.
+         */
+        UniqueValues extractValues(final MapEntryNode entry) {
+            final Object[] values = new Object[paths.size()];
+            int i = 0;
+            for (final YangInstanceIdentifier path : paths) {
+                final Optional<NormalizedNode<?, ?>> leaf = NormalizedNodes.findNode(entry, path);
+                if (!leaf.isPresent()) {
+                    return null;
+                }
+                values[i++] = leaf.get().getValue();
+            }
+            return new UniqueValues(this, values);
+        }
+
+        @Override
+        public String toString() {
+            return tag.toString();
+        }
+    }
+
+    /**
+     * Combined values of a single 'unique' constraint's leaves in a list entry. Values of different constraints are
+     * never equal.
+     */
+    private static final class UniqueValues {
+        private final UniqueValidator validator;
+        private final Object[] values;
+        private final int hashCode;
+
+        UniqueValues(final UniqueValidator validator, final Object[] values) {
+            this.validator = Preconditions.checkNotNull(validator);
+            this.values = Preconditions.checkNotNull(values);
+            this.hashCode = 31 * System.identityHashCode(validator) + Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof UniqueValues)) {
+                return false;
+            }
+            final UniqueValues other = (UniqueValues) obj;
+            return validator == other.validator && hashCode == other.hashCode
+                    && Arrays.deepEquals(values, other.values);
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(values);
+        }
+    }
+}
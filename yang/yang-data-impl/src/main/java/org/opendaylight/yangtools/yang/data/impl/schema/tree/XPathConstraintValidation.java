@@ -0,0 +1,630 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.base.Converter;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Verify;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+import javax.xml.xpath.XPathExpressionException;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.PrefixConverters;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathExpression;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContext;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory;
+import org.opendaylight.yangtools.yang.data.impl.schema.SchemaUtils;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ConstraintDefinition;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.MustDefinition;
+import org.opendaylight.yangtools.yang.model.api.RevisionAwareXPath;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enforcement of YANG 'must' and 'when' constraints. This operation wraps the root of the data tree, as the XPath
+ * expressions can reference any part of it. Expressions are compiled once, when the schema context is installed.
+ *
+ * <p>
+ * Each expression has a conservative set of node QNames it depends on, extracted from the expression text and
+ * resolved against the imports of the module defining it. When a modification is validated, we collect the QNames
+ * of nodes it changes, including all schema descendants of written and deleted nodes, and evaluate only those
+ * expressions whose dependencies intersect that set. An expression which only looks at the constrained node and its
+ * descendants is evaluated on instances which are on or below modified paths, other expressions are evaluated on
+ * every instance of the node which defines them.
+ *
+ * <p>
+ * Constraints are enforced when a modification is validated. If it is later applied to different data, for example
+ * because the tree has moved between validation and preparation, they are enforced again on the result.
+ *
+ * <p>
+ * Conditions attached to 'augment' and 'uses' statements, as well as those on choice cases, are not enforced.
+ */
+final class XPathConstraintValidation extends SchemaAwareApplyOperation {
+    private static final Logger LOG = LoggerFactory.getLogger(XPathConstraintValidation.class);
+
+    private final SchemaAwareApplyOperation delegate;
+    private final XPathSchemaContext xpathContext;
+    private final List<Constraint> constraints;
+    private final Map<QName, Set<QName>> descendantNames;
+
+    private XPathConstraintValidation(final SchemaAwareApplyOperation delegate, final XPathSchemaContext xpathContext,
+            final List<Constraint> constraints, final Map<QName, Set<QName>> descendantNames) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+        this.xpathContext = Preconditions.checkNotNull(xpathContext);
+        this.constraints = Preconditions.checkNotNull(constraints);
+        this.descendantNames = Preconditions.checkNotNull(descendantNames);
+    }
+
+    static SchemaAwareApplyOperation from(final SchemaAwareApplyOperation delegate, final SchemaContext schemaContext,
+            final DataTreeConfiguration treeConfig) {
+        final Optional<XPathSchemaContextFactory> factory = treeConfig.getXPathSchemaContextFactory();
+        if (!factory.isPresent()) {
+            return delegate;
+        }
+
+        final XPathSchemaContext xpathContext = factory.get().createContext(schemaContext);
+        final ConstraintCollector collector = new ConstraintCollector(schemaContext, xpathContext,
+            treeConfig.getTreeType());
+        collector.collectChildren(schemaContext, ImmutableList.<Step>of());
+        if (collector.constraints.isEmpty()) {
+            return delegate;
+        }
+
+        LOG.debug("Enforcing {} must/when constraints", collector.constraints.size());
+        return new XPathConstraintValidation(delegate, xpathContext, ImmutableList.copyOf(collector.constraints),
+            collector.buildDescendantNames());
+    }
+
+    private void checkConstraints(final NodeModification nodeMod, final Optional<TreeNode> current,
+            final Version version) throws DataValidationFailedException {
+        if (!(nodeMod instanceof ModifiedNode)) {
+            LOG.debug("Could not validate {}, does not implement expected class {}", nodeMod, ModifiedNode.class);
+            return;
+        }
+
+        final ModifiedNode modification = (ModifiedNode) nodeMod;
+
+        // We need the resulting tree to evaluate the expressions, exactly as MinMaxElementsValidation does
+        final Optional<TreeNode> maybeApplied = delegate.apply(modification, current, version);
+        Verify.verify(maybeApplied.isPresent());
+        final TreeNode applied = maybeApplied.get();
+
+        enforceConstraints(modification, applied);
+        modification.setValidatedNode(this, current, applied);
+    }
+
+    private void enforceConstraints(final ModifiedNode modification, final TreeNode applied)
+            throws DataValidationFailedException {
+        // A write or merge of the root can change anything, otherwise look at what has been changed
+        final Set<QName> changed;
+        if (modification.getOperation() == LogicalOperation.TOUCH) {
+            changed = new HashSet<>();
+            collectChanges(modification, changed);
+        } else {
+            changed = null;
+        }
+
+        XPathDocument document = null;
+        for (final Constraint constraint : constraints) {
+            if (changed == null || constraint.isAffectedBy(changed)) {
+                if (document == null) {
+                    document = xpathContext.createDocument(applied.getData());
+                }
+                constraint.enforce(document, applied.getData(), changed == null ? null : modification);
+            }
+        }
+    }
+
+    /*
+     * The modification is being applied to different data than it has been validated against, hence the result has
+     * not been checked. The apply contract does not allow for a checked exception, but it covers inapplicable
+     * modifications.
+     */
+    private TreeNode enforceMoved(final ModifiedNode modification, final TreeNode applied) {
+        try {
+            enforceConstraints(modification, applied);
+        } catch (DataValidationFailedException e) {
+            throw new IllegalArgumentException("Modification violates constraints when applied to current data", e);
+        }
+        return applied;
+    }
+
+    private void collectChanges(final ModifiedNode node, final Set<QName> changed) {
+        for (final ModifiedNode child : node.getChildren()) {
+            switch (child.getOperation()) {
+                case NONE:
+                    break;
+                case TOUCH:
+                    addChangedNames(child.getIdentifier(), false, changed);
+                    collectChanges(child, changed);
+                    break;
+                default:
+                    addChangedNames(child.getIdentifier(), true, changed);
+                    collectChanges(child, changed);
+                    break;
+            }
+        }
+    }
+
+    private void addChangedNames(final PathArgument id, final boolean subtree, final Set<QName> changed) {
+        if (id instanceof AugmentationIdentifier) {
+            if (subtree) {
+                for (final QName qname : ((AugmentationIdentifier) id).getPossibleChildNames()) {
+                    addChangedName(qname, true, changed);
+                }
+            }
+        } else {
+            addChangedName(id.getNodeType(), subtree, changed);
+        }
+    }
+
+    private void addChangedName(final QName name, final boolean subtree, final Set<QName> changed) {
+        changed.add(name);
+        if (subtree) {
+            final Set<QName> descendants = descendantNames.get(name);
+            if (descendants != null) {
+                changed.addAll(descendants);
+            }
+        }
+    }
+
+    @Override
+    protected void checkTouchApplicable(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        delegate.checkTouchApplicable(path, modification, current, version);
+        checkConstraints(modification, current, version);
+    }
+
+    @Override
+    protected void checkMergeApplicable(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        delegate.checkMergeApplicable(path, modification, current, version);
+        checkConstraints(modification, current, version);
+    }
+
+    @Override
+    protected void checkWriteApplicable(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        delegate.checkWriteApplicable(path, modification, current, version);
+        checkConstraints(modification, current, version);
+    }
+
+    @Override
+    public Optional<ModificationApplyOperation> getChild(final PathArgument child) {
+        return delegate.getChild(child);
+    }
+
+    @Override
+    protected void verifyStructure(final NormalizedNode<?, ?> modification, final boolean verifyChildren) {
+        delegate.verifyStructure(modification, verifyChildren);
+    }
+
+    @Override
+    protected TreeNode applyMerge(final ModifiedNode modification, final TreeNode currentMeta, final Version version) {
+        final TreeNode validated = modification.getValidatedNode(this, Optional.of(currentMeta));
+        if (validated != null) {
+            return validated;
+        }
+
+        return enforceMoved(modification, delegate.applyMerge(modification, currentMeta, version));
+    }
+
+    @Override
+    protected TreeNode applyTouch(final ModifiedNode modification, final TreeNode currentMeta, final Version version) {
+        final TreeNode validated = modification.getValidatedNode(this, Optional.of(currentMeta));
+        if (validated != null) {
+            return validated;
+        }
+
+        return enforceMoved(modification, delegate.applyTouch(modification, currentMeta, version));
+    }
+
+    @Override
+    protected TreeNode applyWrite(final ModifiedNode modification, final Optional<TreeNode> currentMeta,
+            final Version version) {
+        final TreeNode validated = modification.getValidatedNode(this, currentMeta);
+        if (validated != null) {
+            return validated;
+        }
+
+        return enforceMoved(modification, delegate.applyWrite(modification, currentMeta, version));
+    }
+
+    @Override
+    protected ChildTrackingPolicy getChildPolicy() {
+        return delegate.getChildPolicy();
+    }
+
+    @Override
+    void mergeIntoModifiedNode(final ModifiedNode node, final NormalizedNode<?, ?> value, final Version version) {
+        delegate.mergeIntoModifiedNode(node, value, version);
+    }
+
+    @Override
+    void recursivelyVerifyStructure(final NormalizedNode<?, ?> value) {
+        delegate.recursivelyVerifyStructure(value);
+    }
+
+    private static boolean toBoolean(final Optional<? extends XPathResult<?>> result) {
+        if (!result.isPresent()) {
+            return false;
+        }
+
+        // Conversion rules of the XPath boolean() function
+        final Object value = result.get().getValue();
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            final double number = ((Number) value).doubleValue();
+            return number != 0 && !Double.isNaN(number);
+        }
+        if (value instanceof String) {
+            return !((String) value).isEmpty();
+        }
+        if (value instanceof Collection) {
+            return !((Collection<?>) value).isEmpty();
+        }
+        return value != null;
+    }
+
+    /**
+     * A single step in the data path of a constrained node. If {@link #entries} is set, the step refers to a list or
+     * leaf-list and the path continues with each of its entries.
+     */
+    private static final class Step {
+        final PathArgument id;
+        final boolean entries;
+
+        Step(final PathArgument id, final boolean entries) {
+            this.id = Preconditions.checkNotNull(id);
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * A compiled 'must' or 'when' expression together with the location of the node it is attached to.
+     */
+    private static final class Constraint {
+        private final List<Step> path;
+        private final XPathExpression expression;
+        private final Set<QName> dependencies;
+        private final boolean local;
+        private final String xpath;
+        private final boolean when;
+        private final String errorMessage;
+
+        Constraint(final List<Step> path, final XPathExpression expression, final Set<QName> dependencies,
+                final boolean local, final String xpath, final boolean when, final String errorMessage) {
+            this.path = Preconditions.checkNotNull(path);
+            this.expression = Preconditions.checkNotNull(expression);
+            this.dependencies = dependencies;
+            this.local = local;
+            this.xpath = Preconditions.checkNotNull(xpath);
+            this.when = when;
+            this.errorMessage = errorMessage;
+        }
+
+        boolean isAffectedBy(final Set<QName> changed) {
+            if (dependencies == null) {
+                return true;
+            }
+            for (final QName name : dependencies) {
+                if (changed.contains(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Evaluate the expression on instances of the constrained node.
+         *
+         * @param modification Modification of the root, or null if the entire tree may have changed
+         */
+        void enforce(final XPathDocument document, final NormalizedNode<?, ?> root,
+                @Nullable final ModifiedNode modification) throws DataValidationFailedException {
+            // A local expression can change its value only if the instance's subtree has been modified
+            enforce(document, root, YangInstanceIdentifier.EMPTY, 0, local ? modification : null);
+        }
+
+        /*
+         * A null modification indicates that the node's entire subtree may have changed, otherwise we descend only
+         * into children which have been modified.
+         */
+        private void enforce(final XPathDocument document, final NormalizedNode<?, ?> node,
+                final YangInstanceIdentifier nodePath, final int offset, @Nullable final ModifiedNode modification)
+                throws DataValidationFailedException {
+            if (offset == path.size()) {
+                evaluate(document, nodePath);
+                return;
+            }
+
+            final Step step = path.get(offset);
+            if (!isModified(modification, step.id)) {
+                return;
+            }
+            final Optional<NormalizedNode<?, ?>> child = NormalizedNodes.getDirectChild(node, step.id);
+            if (!child.isPresent()) {
+                return;
+            }
+
+            final YangInstanceIdentifier childPath = nodePath.node(step.id);
+            final ModifiedNode childModification = childModification(modification, step.id);
+            if (step.entries) {
+                @SuppressWarnings("unchecked")
+                final Iterable<NormalizedNode<?, ?>> entries = (Iterable<NormalizedNode<?, ?>>) child.get().getValue();
+                for (final NormalizedNode<?, ?> entry : entries) {
+                    final PathArgument entryId = entry.getIdentifier();
+                    if (isModified(childModification, entryId)) {
+                        enforce(document, entry, childPath.node(entryId), offset + 1,
+                            childModification(childModification, entryId));
+                    }
+                }
+            } else {
+                enforce(document, child.get(), childPath, offset + 1, childModification);
+            }
+        }
+
+        private static boolean isModified(@Nullable final ModifiedNode modification, final PathArgument child) {
+            if (modification == null) {
+                return true;
+            }
+            final Optional<ModifiedNode> childMod = modification.getChild(child);
+            return childMod.isPresent() && childMod.get().getOperation() != LogicalOperation.NONE;
+        }
+
+        @Nullable
+        private static ModifiedNode childModification(@Nullable final ModifiedNode modification,
+                final PathArgument child) {
+            if (modification == null) {
+                return null;
+            }
+            // Only touched nodes are tracked further, any other operation may have changed the entire subtree
+            final Optional<ModifiedNode> childMod = modification.getChild(child);
+            return childMod.isPresent() && childMod.get().getOperation() == LogicalOperation.TOUCH ? childMod.get()
+                    : null;
+        }
+
+        private void evaluate(final XPathDocument document, final YangInstanceIdentifier nodePath)
+                throws DataValidationFailedException {
+            final Optional<? extends XPathResult<?>> result;
+            try {
+                result = expression.evaluate(document, nodePath);
+            } catch (XPathExpressionException e) {
+                throw new DataValidationFailedException(nodePath, String.format("Failed to evaluate %s", this), e);
+            }
+
+            if (!toBoolean(result)) {
+                final String message;
+                if (when) {
+                    message = String.format("Node is present, but its when condition \"%s\" is not satisfied", xpath);
+                } else if (errorMessage != null) {
+                    message = errorMessage;
+                } else {
+                    message = String.format("Must condition \"%s\" is not satisfied", xpath);
+                }
+                throw new DataValidationFailedException(nodePath, message);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return (when ? "when " : "must ") + xpath;
+        }
+    }
+
+    /**
+     * Walks the schema, compiling all constraints and recording which node names appear below each node.
+     */
+    private static final class ConstraintCollector {
+        // Strings are stripped first, so names inside literals do not count as dependencies
+        private static final Pattern LITERAL = Pattern.compile("'[^']*'|\"[^\"]*\"");
+        // Optionally prefixed name, not followed by an opening parenthesis (function) or double colon (axis)
+        private static final Pattern NAME = Pattern.compile(
+            "(?:([A-Za-z_][\\w.-]*):)?([A-Za-z_][\\w.-]*)(?![\\w.-]|\\s*\\(|\\s*::)");
+        private static final Pattern WILDCARD = Pattern.compile("\\*|\\bnode\\s*\\(");
+        /*
+         * Anything which can leave the subtree of the context node: parent steps, absolute paths, which start with
+         * a slash not preceded by a step, reverse and sibling axes, and functions following references.
+         */
+        private static final Pattern NON_LOCAL = Pattern.compile("\\.\\.|(?:^|[^\\w.\\])*\\s])\\s*/"
+            + "|\\b(?:ancestor|ancestor-or-self|parent|preceding|preceding-sibling|following|following-sibling)\\s*::"
+            + "|\\b(?:deref|id)\\s*\\(");
+
+        private final List<Constraint> constraints = new ArrayList<>();
+        private final Map<QName, Set<QName>> descendantNames = new HashMap<>();
+        private final SchemaContext schemaContext;
+        private final XPathSchemaContext xpathContext;
+        private final TreeType treeType;
+
+        ConstraintCollector(final SchemaContext schemaContext, final XPathSchemaContext xpathContext,
+                final TreeType treeType) {
+            this.schemaContext = Preconditions.checkNotNull(schemaContext);
+            this.xpathContext = Preconditions.checkNotNull(xpathContext);
+            this.treeType = Preconditions.checkNotNull(treeType);
+        }
+
+        Map<QName, Set<QName>> buildDescendantNames() {
+            final ImmutableMap.Builder<QName, Set<QName>> builder = ImmutableMap.builder();
+            for (final Map.Entry<QName, Set<QName>> e : descendantNames.entrySet()) {
+                builder.put(e.getKey(), ImmutableSet.copyOf(e.getValue()));
+            }
+            return builder.build();
+        }
+
+        /**
+         * Collect constraints of children of a node.
+         *
+         * @return Names of all descendants
+         */
+        Set<QName> collectChildren(final DataSchemaNode parent, final List<Step> parentPath) {
+            final Set<QName> names = new HashSet<>();
+            for (final DataSchemaNode child : ((DataNodeContainer) parent).getChildNodes()) {
+                names.addAll(collectNode(parent, child, parentPath));
+            }
+            return names;
+        }
+
+        private Set<QName> collectNode(final DataSchemaNode parent, final DataSchemaNode child,
+                final List<Step> parentPath) {
+            if (treeType == TreeType.CONFIGURATION && !child.isConfiguration()) {
+                return ImmutableSet.of();
+            }
+
+            final List<Step> path = new ArrayList<>(parentPath.size() + 2);
+            path.addAll(parentPath);
+            final AugmentationSchema augment = SchemaUtils.findCorrespondingAugment(parent, child);
+            if (augment != null) {
+                path.add(new Step(SchemaUtils.getNodeIdentifierForAugmentation(augment), false));
+            }
+            path.add(new Step(NodeIdentifier.create(child.getQName()),
+                child instanceof ListSchemaNode || child instanceof LeafListSchemaNode));
+
+            addConstraints(child, path);
+
+            final Set<QName> below;
+            if (child instanceof ChoiceSchemaNode) {
+                // Cases do not have a data representation, their children appear directly in the choice
+                below = new HashSet<>();
+                for (final ChoiceCaseNode caseNode : ((ChoiceSchemaNode) child).getCases()) {
+                    below.addAll(collectChildren(caseNode, path));
+                }
+            } else if (child instanceof DataNodeContainer) {
+                below = collectChildren(child, path);
+            } else {
+                below = ImmutableSet.of();
+            }
+
+            final QName name = child.getQName();
+            Set<QName> known = descendantNames.get(name);
+            if (known == null) {
+                known = new HashSet<>();
+                descendantNames.put(name, known);
+            }
+            known.addAll(below);
+
+            final Set<QName> ret = new HashSet<>(below);
+            ret.add(name);
+            return ret;
+        }
+
+        private void addConstraints(final DataSchemaNode node, final List<Step> path) {
+            final ConstraintDefinition definition = node.getConstraints();
+            if (definition == null) {
+                return;
+            }
+
+            final RevisionAwareXPath when = definition.getWhenCondition();
+            if (when != null) {
+                addConstraint(node, path, when.toString(), true, null);
+            }
+            final Set<MustDefinition> musts = definition.getMustConstraints();
+            if (musts != null) {
+                for (final MustDefinition must : musts) {
+                    addConstraint(node, path, must.getXpath().toString(), false, must.getErrorMessage());
+                }
+            }
+        }
+
+        private void addConstraint(final DataSchemaNode node, final List<Step> path, final String xpath,
+                final boolean when, final String errorMessage) {
+            final QName qname = node.getQName();
+            final Module module = schemaContext.findModuleByNamespaceAndRevision(qname.getNamespace(),
+                qname.getRevision());
+            if (module == null) {
+                LOG.warn("Cannot find module defining {}, constraint {} will not be enforced", qname, xpath);
+                return;
+            }
+
+            final Converter<String, QNameModule> prefixes = PrefixConverters.create(schemaContext, module);
+            final XPathExpression expression;
+            try {
+                expression = xpathContext.compileExpression(node.getPath(), prefixes, xpath);
+            } catch (XPathExpressionException | IllegalArgumentException e) {
+                LOG.warn("Failed to compile constraint {} of {}, it will not be enforced", xpath, node.getPath(), e);
+                return;
+            }
+
+            final String stripped = LITERAL.matcher(xpath).replaceAll("''");
+            constraints.add(new Constraint(ImmutableList.copyOf(path), expression,
+                extractDependencies(qname, prefixes, stripped), !NON_LOCAL.matcher(stripped).find(), xpath, when,
+                errorMessage));
+        }
+
+        /**
+         * Extract QNames of nodes referenced by an expression. Unprefixed names belong to the module of the
+         * constrained node.
+         *
+         * @param stripped Expression text with literals stripped
+         * @return QNames of referenced nodes, including the constrained node itself, or null if the expression
+         *         uses a wildcard or an unknown prefix and can reference any node.
+         */
+        private static Set<QName> extractDependencies(final QName self, final Converter<String, QNameModule> prefixes,
+                final String stripped) {
+            if (WILDCARD.matcher(stripped).find()) {
+                return null;
+            }
+
+            final Set<QName> ret = new HashSet<>();
+            ret.add(self);
+            final Matcher matcher = NAME.matcher(stripped);
+            while (matcher.find()) {
+                final String prefix = matcher.group(1);
+                final QNameModule module;
+                if (prefix == null) {
+                    module = self.getModule();
+                } else {
+                    try {
+                        module = prefixes.convert(prefix);
+                    } catch (IllegalArgumentException e) {
+                        LOG.debug("Unknown prefix {} in {}, assuming any node can be referenced", prefix, stripped, e);
+                        return null;
+                    }
+                }
+                ret.add(QName.create(module, matcher.group(2)));
+            }
+            return ImmutableSet.copyOf(ret);
+        }
+    }
+}
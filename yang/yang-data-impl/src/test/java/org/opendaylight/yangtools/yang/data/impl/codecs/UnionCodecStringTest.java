@@ -9,12 +9,14 @@
 package org.opendaylight.yangtools.yang.data.impl.codecs;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.opendaylight.yangtools.yang.data.impl.codecs.TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx;
 import static org.opendaylight.yangtools.yang.data.impl.codecs.TypeDefinitionAwareCodecTestHelper.getCodec;
 import static org.opendaylight.yangtools.yang.data.impl.codecs.TypeDefinitionAwareCodecTestHelper.toEnumTypeDefinition;
 import org.junit.Test;
 import org.opendaylight.yangtools.yang.data.api.codec.UnionCodec;
+import org.opendaylight.yangtools.yang.data.util.TryDeserializingCodec;
 import org.opendaylight.yangtools.yang.model.api.SchemaPath;
 import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
 import org.opendaylight.yangtools.yang.model.api.type.UnionTypeDefinition;
@@ -69,4 +71,21 @@ public class UnionCodecStringTest {
         deserializeWithExpectedIllegalArgEx(codec, "123o");
         deserializeWithExpectedIllegalArgEx(codec, "true");
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testTryDeserialize() {
+        TryDeserializingCodec<Object> codec = getCodec(toUnionTypeDefinition(BaseTypes.int8Type(),
+                BaseTypes.booleanType(), toEnumTypeDefinition("enum1", "enum2"), BaseTypes.emptyType()),
+                TryDeserializingCodec.class);
+
+        assertEquals("tryDeserialize", "-0x10", codec.tryDeserialize("-0x10"));
+        assertEquals("tryDeserialize", "TRUE", codec.tryDeserialize("TRUE"));
+        assertEquals("tryDeserialize", "enum2", codec.tryDeserialize("enum2"));
+        assertEquals("tryDeserialize", "", codec.tryDeserialize(""));
+
+        assertNull("tryDeserialize", codec.tryDeserialize("128"));
+        assertNull("tryDeserialize", codec.tryDeserialize("1.5"));
+        assertNull("tryDeserialize", codec.tryDeserialize("enum3"));
+    }
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.leafref.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TipProducingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.TestUtils;
+import org.opendaylight.yangtools.yang.data.impl.leafref.LeafRefContext;
+import org.opendaylight.yangtools.yang.data.impl.leafref.LeafRefDataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.leafref.LeafRefIndex;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.ListNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class LeafRefIndexTest {
+    private static final QName TOPOLOGY = QName.create("leafref.index", "2016-10-01", "topology");
+    private static final QName NODE = QName.create(TOPOLOGY, "node");
+    private static final QName NODE_ID = QName.create(TOPOLOGY, "node-id");
+    private static final QName DESCRIPTION = QName.create(TOPOLOGY, "description");
+    private static final QName LINK = QName.create(TOPOLOGY, "link");
+    private static final QName LINK_ID = QName.create(TOPOLOGY, "link-id");
+    private static final QName SOURCE = QName.create(TOPOLOGY, "source");
+    private static final QName HOPS = QName.create(TOPOLOGY, "hops");
+
+    private static final YangInstanceIdentifier TOPOLOGY_PATH = YangInstanceIdentifier.of(TOPOLOGY);
+
+    private TipProducingDataTree dataTree;
+    private LeafRefContext leafRefContext;
+    private LeafRefIndex index;
+
+    @Before
+    public void setup() throws Exception {
+        final SchemaContext context = TestUtils.parseYangSources(new File(getClass().getResource(
+            "/leafref-index/leafref-index.yang").toURI()));
+        leafRefContext = LeafRefContext.create(context);
+
+        dataTree = InMemoryDataTreeFactory.getInstance().create(TreeType.CONFIGURATION);
+        dataTree.setSchemaContext(context);
+        index = LeafRefIndex.create(leafRefContext);
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(TOPOLOGY_PATH, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TOPOLOGY))
+            .withChild(ImmutableNodes.mapNodeBuilder(NODE).withChild(node("a")).withChild(node("b"))
+                .withChild(node("c")).build())
+            .withChild(ImmutableNodes.mapNodeBuilder(LINK).withChild(link("ab", "a", "b")).build())
+            .build());
+        commit(mod);
+    }
+
+    private static MapEntryNode node(final String id) {
+        return ImmutableNodes.mapEntry(NODE, NODE_ID, id);
+    }
+
+    private static MapEntryNode link(final String id, final String source, final String... hops) {
+        final ListNodeBuilder<Object, LeafSetEntryNode<Object>> hopsBuilder = Builders.leafSetBuilder()
+                .withNodeIdentifier(new NodeIdentifier(HOPS));
+        for (String hop : hops) {
+            hopsBuilder.withChildValue(hop);
+        }
+
+        return ImmutableNodes.mapEntryBuilder(LINK, LINK_ID, id)
+                .withChild(ImmutableNodes.leafNode(SOURCE, source))
+                .withChild(hopsBuilder.build())
+                .build();
+    }
+
+    private static YangInstanceIdentifier nodePath(final String id) {
+        return TOPOLOGY_PATH.node(NODE).node(new NodeIdentifierWithPredicates(NODE, NODE_ID, id));
+    }
+
+    private static YangInstanceIdentifier linkPath(final String id) {
+        return TOPOLOGY_PATH.node(LINK).node(new NodeIdentifierWithPredicates(LINK, LINK_ID, id));
+    }
+
+    private DataTreeCandidate prepare(final DataTreeModification mod) {
+        mod.ready();
+        return dataTree.prepare(mod);
+    }
+
+    private void commit(final DataTreeModification mod) throws LeafRefDataValidationFailedException {
+        final DataTreeCandidate candidate = prepare(mod);
+        index = index.validate(candidate);
+        dataTree.commit(candidate);
+    }
+
+    private void assertFails(final DataTreeModification mod, final int errors) {
+        final DataTreeCandidate candidate = prepare(mod);
+        try {
+            index.validate(candidate);
+            fail("Candidate should have failed validation");
+        } catch (LeafRefDataValidationFailedException e) {
+            assertEquals(errors, e.getValidationsErrorsCount());
+        }
+    }
+
+    @Test
+    public void testValidReferences() throws LeafRefDataValidationFailedException {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(linkPath("bc"), link("bc", "b", "c", "a"));
+        commit(mod);
+    }
+
+    @Test
+    public void testMissingTarget() {
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(linkPath("bx"), link("bx", "x", "y", "a"));
+        assertFails(mod, 2);
+    }
+
+    @Test
+    public void testRemovedTarget() throws LeafRefDataValidationFailedException {
+        // 'a' is a source, 'b' is a hop
+        DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.delete(nodePath("a"));
+        assertFails(mod, 1);
+
+        mod = dataTree.takeSnapshot().newModification();
+        mod.delete(nodePath("b"));
+        assertFails(mod, 1);
+
+        // 'c' is not referenced
+        mod = dataTree.takeSnapshot().newModification();
+        mod.delete(nodePath("c"));
+        commit(mod);
+
+        // Removing the reference together with its target is fine
+        mod = dataTree.takeSnapshot().newModification();
+        mod.delete(nodePath("a"));
+        mod.delete(nodePath("b"));
+        mod.delete(linkPath("ab"));
+        commit(mod);
+    }
+
+    @Test
+    public void testChangedReference() throws LeafRefDataValidationFailedException {
+        DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(linkPath("ab").node(SOURCE), ImmutableNodes.leafNode(SOURCE, "c"));
+        mod.delete(linkPath("ab").node(HOPS).node(new NodeWithValue<>(HOPS, "b")));
+        commit(mod);
+
+        // Neither 'a' nor 'b' is referenced anymore
+        mod = dataTree.takeSnapshot().newModification();
+        mod.delete(nodePath("a"));
+        mod.delete(nodePath("b"));
+        commit(mod);
+
+        mod = dataTree.takeSnapshot().newModification();
+        mod.delete(nodePath("c"));
+        assertFails(mod, 1);
+    }
+
+    @Test
+    public void testUnrelatedModification() throws LeafRefDataValidationFailedException {
+        final LeafRefIndex before = index;
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.write(nodePath("a").node(DESCRIPTION), ImmutableNodes.leafNode(DESCRIPTION, "node a"));
+        commit(mod);
+        assertSame(before, index);
+    }
+
+    @Test
+    public void testFailedCandidateKeepsIndex() throws LeafRefDataValidationFailedException {
+        final LeafRefIndex before = index;
+        DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.delete(nodePath("a"));
+        assertFails(mod, 1);
+        assertSame(before, index);
+
+        mod = dataTree.takeSnapshot().newModification();
+        mod.write(nodePath("d"), node("d"));
+        commit(mod);
+        assertNotSame(before, index);
+    }
+
+    @Test
+    public void testCreateFromData() throws LeafRefDataValidationFailedException {
+        index = LeafRefIndex.create(leafRefContext, dataTree.takeSnapshot().readNode(
+            YangInstanceIdentifier.EMPTY).get());
+
+        final DataTreeModification mod = dataTree.takeSnapshot().newModification();
+        mod.delete(nodePath("b"));
+        assertFails(mod, 1);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TipProducingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+
+public class BatchCommitTest {
+    private TipProducingDataTree tree;
+
+    @Before
+    public void setup() throws Exception {
+        tree = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        tree.setSchemaContext(TestModel.createTestContext());
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build()).build());
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(new YangInstanceIdentifier.NodeIdentifierWithPredicates(
+            TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id));
+    }
+
+    private DataTreeModification writeEntry(final int id) {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(entryPath(id), mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id));
+        mod.ready();
+        return mod;
+    }
+
+    private int entryCount() {
+        final NormalizedNode<?, ?> list = tree.takeSnapshot().readNode(TestModel.OUTER_LIST_PATH).get();
+        return ((MapNode) list).getValue().size();
+    }
+
+    @Test
+    public void testBatchCommit() throws DataValidationFailedException {
+        final DataTreeModification empty = tree.takeSnapshot().newModification();
+        empty.ready();
+
+        final List<DataTreeCandidate> candidates = tree.commitBatch(ImmutableList.of(writeEntry(1), empty,
+            writeEntry(2), writeEntry(3)));
+        assertEquals(4, candidates.size());
+        assertEquals(3, entryCount());
+
+        // Each candidate observes the state produced by its predecessor
+        final NormalizedNode<?, ?> firstAfter = candidates.get(0).getRootNode().getDataAfter().get();
+        assertEquals(firstAfter, candidates.get(2).getRootNode().getDataBefore().get());
+        assertEquals(tree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY).get(),
+            candidates.get(3).getRootNode().getDataAfter().get());
+    }
+
+    @Test
+    public void testFailedBatchLeavesTreeUntouched() {
+        final DataTreeSnapshot before = tree.takeSnapshot();
+
+        final DataTreeModification delete = tree.takeSnapshot().newModification();
+        delete.delete(TestModel.TEST_PATH);
+        delete.ready();
+
+        try {
+            tree.commitBatch(ImmutableList.of(writeEntry(1), delete, writeEntry(2)));
+            fail("Batch should have failed validation");
+        } catch (DataValidationFailedException e) {
+            // Expected
+        }
+
+        assertEquals(before.readNode(YangInstanceIdentifier.EMPTY), tree.takeSnapshot()
+            .readNode(YangInstanceIdentifier.EMPTY));
+        assertEquals(0, entryCount());
+    }
+
+    @Test
+    public void testEmptyBatch() throws DataValidationFailedException {
+        final NormalizedNode<?, ?> before = tree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY).get();
+        assertFalse(tree.commitBatch(ImmutableList.of()).iterator().hasNext());
+        assertSame(before, tree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY).get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsealedModification() throws DataValidationFailedException {
+        tree.commitBatch(ImmutableList.of(tree.takeSnapshot().newModification()));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+
+public class CommitRebaseTest {
+    private SchemaContext schemaContext;
+
+    @Before
+    public void setup() throws ReactorException {
+        schemaContext = TestModel.createTestContext();
+    }
+
+    private DataTree createTree(final boolean rebase) throws DataValidationFailedException {
+        final DataTree tree = InMemoryDataTreeFactory.getInstance().create(
+            new DataTreeConfiguration.Builder(TreeType.OPERATIONAL).setCommitRebase(rebase).build());
+        tree.setSchemaContext(schemaContext);
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build()).build());
+        commit(tree, mod);
+        return tree;
+    }
+
+    private static DataTreeCandidate prepare(final DataTree tree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        return tree.prepare(mod);
+    }
+
+    private static void commit(final DataTree tree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        tree.commit(prepare(tree, mod));
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(new YangInstanceIdentifier.NodeIdentifierWithPredicates(
+            TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id));
+    }
+
+    private static DataTreeModification writeEntry(final DataTree tree, final int id) {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(entryPath(id), mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id));
+        return mod;
+    }
+
+    private static int entryCount(final DataTree tree) {
+        final NormalizedNode<?, ?> list = tree.takeSnapshot().readNode(TestModel.OUTER_LIST_PATH).get();
+        return ((MapNode) list).getValue().size();
+    }
+
+    @Test
+    public void testDisjointCommits() throws DataValidationFailedException {
+        final DataTree tree = createTree(true);
+        final DataTreeCandidate first = prepare(tree, writeEntry(tree, 1));
+        final DataTreeCandidate second = prepare(tree, writeEntry(tree, 2));
+
+        tree.commit(first);
+        tree.commit(second);
+        assertEquals(2, entryCount(tree));
+
+        // The second candidate has been updated to reflect the state it was actually applied to
+        final NormalizedNode<?, ?> after = second.getRootNode().getDataAfter().get();
+        assertEquals(tree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY).get(), after);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDisabledRebase() throws DataValidationFailedException {
+        final DataTree tree = createTree(false);
+        final DataTreeCandidate first = prepare(tree, writeEntry(tree, 1));
+        final DataTreeCandidate second = prepare(tree, writeEntry(tree, 2));
+
+        tree.commit(first);
+        tree.commit(second);
+    }
+
+    @Test
+    public void testConflictingCommits() throws DataValidationFailedException {
+        final DataTree tree = createTree(true);
+        final DataTreeCandidate first = prepare(tree, writeEntry(tree, 1));
+        final DataTreeCandidate second = prepare(tree, writeEntry(tree, 1));
+
+        tree.commit(first);
+        try {
+            tree.commit(second);
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof DataValidationFailedException);
+            return;
+        }
+        throw new AssertionError("Conflicting candidate should have been rejected");
+    }
+
+    @Test
+    public void testConcurrentCommits() throws Exception {
+        final DataTree tree = createTree(true);
+        final int threads = 4;
+        final int perThread = 50;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                final int base = i * perThread;
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    for (int j = 0; j < perThread; ++j) {
+                        commit(tree, writeEntry(tree, base + j));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * perThread, entryCount(tree));
+    }
+}
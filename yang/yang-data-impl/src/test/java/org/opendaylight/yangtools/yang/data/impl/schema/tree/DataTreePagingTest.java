@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+
+import com.google.common.base.Optional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.CursorAwareDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreePage;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreePageToken;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreePages;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshotCursor;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+
+public class DataTreePagingTest {
+    private static final int SIZE = 100;
+
+    private DataTree tree;
+
+    @Before
+    public void setup() throws Exception {
+        tree = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        tree.setSchemaContext(TestModel.createTestContext());
+
+        final CollectionNodeBuilder<MapEntryNode, MapNode> list = mapNodeBuilder(TestModel.OUTER_LIST_QNAME);
+        for (int i = 0; i < SIZE; ++i) {
+            list.withChild(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i));
+        }
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME)).withChild(list.build()).build());
+        commit(mod);
+    }
+
+    private void commit(final DataTreeModification mod) throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(new NodeIdentifierWithPredicates(TestModel.OUTER_LIST_QNAME,
+            TestModel.ID_QNAME, id));
+    }
+
+    private static Object id(final MapEntryNode entry) {
+        return entry.getIdentifier().getKeyValues().get(TestModel.ID_QNAME);
+    }
+
+    @Test
+    public void testUnorderedPaging() {
+        final Set<Object> seen = new HashSet<>();
+        DataTreePageToken token = null;
+        int pages = 0;
+        do {
+            final DataTreePage page = tree.takeSnapshot().readPage(TestModel.OUTER_LIST_PATH, token, 7).get();
+            assertEquals(SIZE, page.getListSize());
+            for (MapEntryNode entry : page.getEntries()) {
+                assertTrue(seen.add(id(entry)));
+            }
+            token = page.getNextToken().orNull();
+            ++pages;
+        } while (token != null);
+
+        assertEquals(SIZE, seen.size());
+        assertEquals(15, pages);
+        assertFalse(tree.takeSnapshot().readPage(TestModel.OUTER_LIST_PATH.node(TestModel.OUTER_LIST_QNAME), null,
+            1).isPresent());
+    }
+
+    @Test
+    public void testUnorderedPagingAcrossModification() throws DataValidationFailedException {
+        final DataTreePage first = tree.takeSnapshot().readPage(TestModel.OUTER_LIST_PATH, null, 50).get();
+        final Set<Object> seen = new HashSet<>();
+        for (MapEntryNode entry : first.getEntries()) {
+            seen.add(id(entry));
+        }
+
+        // Remove an entry which has already been seen and one which has not
+        int notSeen = 0;
+        while (seen.contains(notSeen)) {
+            ++notSeen;
+        }
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.delete(entryPath((Integer) id(first.getEntries().get(10))));
+        mod.delete(entryPath(notSeen));
+        commit(mod);
+
+        final DataTreePage second = tree.takeSnapshot().readPage(TestModel.OUTER_LIST_PATH,
+            first.getNextToken().get(), SIZE).get();
+        assertFalse(second.getNextToken().isPresent());
+        assertEquals(SIZE - 2, second.getListSize());
+        for (MapEntryNode entry : second.getEntries()) {
+            assertTrue(seen.add(id(entry)));
+        }
+        assertEquals(SIZE - 1, seen.size());
+    }
+
+    @Test
+    public void testIndexUpdatedOnCommit() throws DataValidationFailedException {
+        // Enough entries to be indexed in multiple chunks
+        final int size = 1000;
+        final CollectionNodeBuilder<MapEntryNode, MapNode> list = mapNodeBuilder(TestModel.OUTER_LIST_QNAME);
+        for (int i = 0; i < size; ++i) {
+            list.withChild(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i));
+        }
+        DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.OUTER_LIST_PATH, list.build());
+        commit(mod);
+        assertEquals(size, tree.takeSnapshot().readPage(TestModel.OUTER_LIST_PATH, null, 10).get().getListSize());
+
+        final MapEntryNode modified = ImmutableNodes.mapEntryBuilder(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 5)
+                .withChild(mapNodeBuilder(TestModel.INNER_LIST_QNAME).build()).build();
+        mod = tree.takeSnapshot().newModification();
+        for (int i = 0; i < size; i += 3) {
+            mod.delete(entryPath(i));
+        }
+        for (int i = size; i < size + 200; ++i) {
+            mod.write(entryPath(i), mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i));
+        }
+        mod.write(entryPath(5), modified);
+        commit(mod);
+
+        // A copy of the list has not been paged before, hence it is indexed from scratch
+        final MapNode current = (MapNode) tree.takeSnapshot().readNode(TestModel.OUTER_LIST_PATH).get();
+        final MapNode copy = mapNodeBuilder(TestModel.OUTER_LIST_QNAME).withValue(
+            new ArrayList<>(current.getValue())).build();
+        final List<MapEntryNode> expected = DataTreePages.readPage(copy, 0, Integer.MAX_VALUE).getEntries();
+        assertEquals(size + 200 - 334, expected.size());
+
+        final List<MapEntryNode> actual = new ArrayList<>();
+        DataTreePageToken token = null;
+        do {
+            final DataTreePage page = tree.takeSnapshot().readPage(TestModel.OUTER_LIST_PATH, token, 97).get();
+            assertEquals(expected.size(), page.getListSize());
+            actual.addAll(page.getEntries());
+            token = page.getNextToken().orNull();
+        } while (token != null);
+
+        assertEquals(expected, actual);
+        assertTrue(actual.contains(modified));
+    }
+
+    @Test
+    public void testIndicesHeldByTree() throws Exception {
+        final DataTree other = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        other.setSchemaContext(TestModel.createTestContext());
+
+        final InMemoryDataTreeSnapshot first = (InMemoryDataTreeSnapshot) tree.takeSnapshot();
+        assertNotNull(first.getPageIndices());
+        assertSame(first.getPageIndices(), ((InMemoryDataTreeSnapshot) tree.takeSnapshot()).getPageIndices());
+        assertNotSame(first.getPageIndices(), ((InMemoryDataTreeSnapshot) other.takeSnapshot()).getPageIndices());
+    }
+
+    @Test
+    public void testOffsetPaging() {
+        final DataTreePage page = tree.takeSnapshot().readPage(TestModel.OUTER_LIST_PATH, 95, 10).get();
+        assertEquals(5, page.getEntries().size());
+        assertFalse(page.getNextToken().isPresent());
+        assertEquals(0, tree.takeSnapshot().readPage(TestModel.OUTER_LIST_PATH, 200, 10).get().getEntries().size());
+    }
+
+    @Test
+    public void testOrderedPaging() {
+        final CollectionNodeBuilder<MapEntryNode, OrderedMapNode> builder = Builders.orderedMapBuilder()
+                .withNodeIdentifier(new NodeIdentifier(TestModel.OUTER_LIST_QNAME));
+        for (int i = SIZE - 1; i >= 0; --i) {
+            builder.withChild(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i));
+        }
+        final OrderedMapNode list = builder.build();
+
+        final DataTreePage page = DataTreePages.readPage(list, 10, 5);
+        assertEquals(5, page.getEntries().size());
+        assertEquals(89, id(page.getEntries().get(0)));
+        assertEquals(85, id(page.getEntries().get(4)));
+
+        final DataTreePage next = DataTreePages.readPage(list, page.getNextToken().get(), 5);
+        assertEquals(84, id(next.getEntries().get(0)));
+        assertEquals(list.getChild(15), next.getEntries().get(0));
+    }
+
+    @Test
+    public void testCursorPaging() {
+        final CursorAwareDataTreeSnapshot snapshot = (CursorAwareDataTreeSnapshot) tree.takeSnapshot();
+        try (DataTreeSnapshotCursor cursor = snapshot.createCursor(TestModel.TEST_PATH)) {
+            final Optional<DataTreePage> page = cursor.readPage(TestModel.OUTER_LIST_PATH.getLastPathArgument(),
+                null, 30);
+            assertEquals(30, page.get().getEntries().size());
+            assertEquals(snapshot.readPage(TestModel.OUTER_LIST_PATH, 0, 30).get().getEntries(),
+                page.get().getEntries());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+
+import com.google.common.base.Optional;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.HistoricalDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeFactory;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+
+public class HistoricalDataTreeTest {
+    private HistoricalDataTree tree;
+
+    @Before
+    public void setup() throws Exception {
+        tree = (HistoricalDataTree) InMemoryDataTreeFactory.getInstance().create(
+            new DataTreeConfiguration.Builder(TreeType.OPERATIONAL).setHistorySize(3).build());
+        tree.setSchemaContext(TestModel.createTestContext());
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build()).build());
+        commit(mod);
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(new YangInstanceIdentifier.NodeIdentifierWithPredicates(
+            TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id));
+    }
+
+    private void commit(final DataTreeModification mod) throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private void writeEntry(final int id) throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(entryPath(id), mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id));
+        commit(mod);
+    }
+
+    @Test
+    public void testRetainedVersions() throws DataValidationFailedException {
+        // Initial empty state and the state with an empty list
+        assertEquals(2, tree.getRetainedVersions().size());
+
+        writeEntry(1);
+        final Version afterFirst = tree.getRetainedVersions().get(0);
+        writeEntry(2);
+        writeEntry(3);
+
+        // Three past states and the current one
+        final List<Version> versions = tree.getRetainedVersions();
+        assertEquals(4, versions.size());
+        assertEquals(afterFirst, versions.get(2));
+
+        final DataTreeSnapshot past = tree.takeSnapshot(afterFirst).get();
+        assertTrue(past.readNode(entryPath(1)).isPresent());
+        assertFalse(past.readNode(entryPath(2)).isPresent());
+
+        final DataTreeSnapshot current = tree.takeSnapshot(versions.get(0)).get();
+        assertTrue(current.readNode(entryPath(3)).isPresent());
+
+        writeEntry(4);
+        writeEntry(5);
+        assertEquals(4, tree.getRetainedVersions().size());
+        assertFalse(tree.takeSnapshot(afterFirst).isPresent());
+    }
+
+    @Test
+    public void testNoopCommitNotRecorded() throws DataValidationFailedException {
+        final List<Version> before = tree.getRetainedVersions();
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        commit(mod);
+        assertEquals(before, tree.getRetainedVersions());
+    }
+
+    @Test
+    public void testSnapshotAt() throws DataValidationFailedException {
+        writeEntry(1);
+        final long now = System.currentTimeMillis();
+        final Optional<DataTreeSnapshot> snapshot = tree.takeSnapshotAt(now);
+        assertTrue(snapshot.isPresent());
+        assertTrue(snapshot.get().readNode(entryPath(1)).isPresent());
+        assertFalse(tree.takeSnapshotAt(0).isPresent());
+    }
+
+    @Test
+    public void testHistoryDisabled() throws Exception {
+        final InMemoryDataTree plain = (InMemoryDataTree) InMemoryDataTreeFactory.getInstance().create(
+            TreeType.OPERATIONAL);
+        plain.setSchemaContext(TestModel.createTestContext());
+        final List<Version> versions = plain.getRetainedVersions();
+        assertEquals(1, versions.size());
+        assertTrue(plain.takeSnapshot(versions.get(0)).isPresent());
+        assertFalse(plain.takeSnapshot(Version.initial()).isPresent());
+    }
+
+    @Test
+    public void testAgeEviction() throws Exception {
+        final long[] clock = new long[1];
+        final DataTreeHistory history = new DataTreeHistory(10, TimeUnit.SECONDS.toMillis(5), () -> clock[0]);
+
+        DataTreeState state = DataTreeState.createInitial(TreeNodeFactory.createTreeNode(
+            ImmutableContainerNodeBuilder.create().withNodeIdentifier(
+                new YangInstanceIdentifier.NodeIdentifier(TestModel.TEST_QNAME)).build(), Version.initial()))
+            .withSchemaContext(TestModel.createTestContext(), AlwaysFailOperation.INSTANCE);
+        final DataTreeState first = state;
+        history.record(first);
+
+        clock[0] = 1000;
+        state = state.withRoot(TreeNodeFactory.createTreeNode(first.getRoot().getData(),
+            first.getRoot().getSubtreeVersion().next()));
+        history.record(state);
+        assertEquals(2, history.getVersions().size());
+        assertSame(first, history.lookupAt(999).get());
+        assertSame(state, history.lookupAt(1000).get());
+
+        // The first state was superseded at 1000 and expires 5 seconds later, the current state never expires
+        clock[0] = 6000;
+        assertEquals(2, history.getVersions().size());
+        clock[0] = 6001;
+        assertEquals(1, history.getVersions().size());
+        assertFalse(history.lookup(first.getRoot().getSubtreeVersion()).isPresent());
+        clock[0] = 100000;
+        assertSame(state, history.lookupAt(100000).get());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.CursorAwareDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshotCursor;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+
+public class ReadNodesTest {
+    private DataTree tree;
+
+    @Before
+    public void setup() throws Exception {
+        tree = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        tree.setSchemaContext(TestModel.createTestContext());
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(mapNodeBuilder(TestModel.OUTER_LIST_QNAME)
+                .withChild(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 1))
+                .withChild(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 2))
+                .withChild(mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 3))
+                .build()).build());
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private static NodeIdentifierWithPredicates entryId(final int id) {
+        return new NodeIdentifierWithPredicates(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id);
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(entryId(id));
+    }
+
+    private static List<YangInstanceIdentifier> paths() {
+        return ImmutableList.of(entryPath(3), TestModel.TEST_PATH, entryPath(4), entryPath(1),
+            entryPath(1).node(TestModel.ID_QNAME), TestModel.INNER_CONTAINER_PATH, YangInstanceIdentifier.EMPTY,
+            entryPath(3));
+    }
+
+    private static void assertNodes(final DataTreeSnapshot snapshot,
+            final Map<YangInstanceIdentifier, NormalizedNode<?, ?>> nodes) {
+        assertEquals(5, nodes.size());
+        for (YangInstanceIdentifier path : paths()) {
+            assertEquals(snapshot.readNode(path).orNull(), nodes.get(path));
+        }
+        assertFalse(nodes.containsKey(entryPath(4)));
+        assertFalse(nodes.containsKey(TestModel.INNER_CONTAINER_PATH));
+    }
+
+    @Test
+    public void testDirectChildOrNull() {
+        final NormalizedNode<?, ?> test = tree.takeSnapshot().readNode(TestModel.TEST_PATH).get();
+        final NormalizedNode<?, ?> list = NormalizedNodes.getDirectChildOrNull(test,
+            TestModel.OUTER_LIST_PATH.getLastPathArgument());
+        assertEquals(NormalizedNodes.getDirectChild(test, TestModel.OUTER_LIST_PATH.getLastPathArgument()).get(),
+            list);
+        assertEquals(entryId(2), NormalizedNodes.getDirectChildOrNull(list, entryId(2)).getIdentifier());
+        assertNull(NormalizedNodes.getDirectChildOrNull(list, entryId(4)));
+        assertNull(NormalizedNodes.getDirectChildOrNull(test, new NodeIdentifier(TestModel.NAME_QNAME)));
+    }
+
+    @Test
+    public void testSnapshotReadNodes() {
+        final DataTreeSnapshot snapshot = tree.takeSnapshot();
+        assertNodes(snapshot, snapshot.readNodes(paths()));
+    }
+
+    @Test
+    public void testModificationReadNodes() {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        assertNodes(mod, mod.readNodes(paths()));
+
+        mod.delete(entryPath(1));
+        mod.write(entryPath(4), mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 4));
+        final Map<YangInstanceIdentifier, NormalizedNode<?, ?>> nodes = mod.readNodes(paths());
+        assertEquals(4, nodes.size());
+        assertTrue(nodes.containsKey(entryPath(4)));
+        assertFalse(nodes.containsKey(entryPath(1)));
+        assertFalse(nodes.containsKey(entryPath(1).node(TestModel.ID_QNAME)));
+    }
+
+    @Test
+    public void testCursorReadNodes() {
+        final CursorAwareDataTreeSnapshot snapshot = (CursorAwareDataTreeSnapshot) tree.takeSnapshot();
+        try (DataTreeSnapshotCursor cursor = snapshot.createCursor(TestModel.OUTER_LIST_PATH)) {
+            final Map<PathArgument, NormalizedNode<?, ?>> nodes = cursor.readNodes(ImmutableList.<PathArgument>of(
+                entryId(1), entryId(2), entryId(5)));
+            assertEquals(2, nodes.size());
+            assertEquals(snapshot.readNode(entryPath(2)).get(), nodes.get(entryId(2)));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntryBuilder;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.IndexedDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.SecondaryIndexDefinition;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TipProducingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+
+public class SecondaryIndexTest {
+    private static final SecondaryIndexDefinition VALUE_INDEX = SecondaryIndexDefinition.create(
+        SchemaPath.create(true, TestModel.TEST_QNAME, TestModel.OUTER_LIST_QNAME, TestModel.INNER_LIST_QNAME),
+        TestModel.VALUE_QNAME);
+    private static final SecondaryIndexDefinition TWO_INDEX = SecondaryIndexDefinition.create(
+        SchemaPath.create(true, TestModel.TEST_QNAME, TestModel.OUTER_LIST_QNAME), TestModel.TWO_QNAME);
+
+    private TipProducingDataTree tree;
+
+    @Before
+    public void setup() throws Exception {
+        tree = InMemoryDataTreeFactory.getInstance().create(new DataTreeConfiguration.Builder(TreeType.OPERATIONAL)
+            .addSecondaryIndex(VALUE_INDEX.getListPath(), VALUE_INDEX.getLeaf()).build());
+        tree.setSchemaContext(TestModel.createTestContext());
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(mapNodeBuilder(TestModel.OUTER_LIST_QNAME)
+                .withChild(outerEntry(1, "a", "x", "b", "y"))
+                .withChild(outerEntry(2, "a", "x"))
+                .build()).build());
+        commit(mod);
+    }
+
+    private static MapEntryNode outerEntry(final int id, final String... namesAndValues) {
+        final ImmutableList.Builder<MapEntryNode> inner = ImmutableList.builder();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            inner.add(innerEntry(namesAndValues[i], namesAndValues[i + 1]));
+        }
+        return mapEntryBuilder(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id)
+                .withChild(mapNodeBuilder(TestModel.INNER_LIST_QNAME).withValue(inner.build()).build()).build();
+    }
+
+    private static MapEntryNode innerEntry(final String name, final String value) {
+        return mapEntryBuilder(TestModel.INNER_LIST_QNAME, TestModel.NAME_QNAME, name)
+                .withChild(leafNode(TestModel.VALUE_QNAME, value)).build();
+    }
+
+    private static YangInstanceIdentifier outerPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(new NodeIdentifierWithPredicates(TestModel.OUTER_LIST_QNAME,
+            TestModel.ID_QNAME, id));
+    }
+
+    private static YangInstanceIdentifier innerPath(final int id, final String name) {
+        return outerPath(id).node(TestModel.INNER_LIST_QNAME).node(new NodeIdentifierWithPredicates(
+            TestModel.INNER_LIST_QNAME, TestModel.NAME_QNAME, name));
+    }
+
+    private void commit(final DataTreeModification mod) throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private IndexedDataTreeSnapshot snapshot() {
+        return (IndexedDataTreeSnapshot) tree.takeSnapshot();
+    }
+
+    @Test
+    public void testInitialContent() {
+        assertEquals(ImmutableSet.of(innerPath(1, "a"), innerPath(2, "a")), snapshot().findEntries(VALUE_INDEX, "x"));
+        assertEquals(ImmutableSet.of(innerPath(1, "b")), snapshot().findEntries(VALUE_INDEX, "y"));
+        assertTrue(snapshot().findEntries(VALUE_INDEX, "z").isEmpty());
+    }
+
+    @Test
+    public void testIncrementalUpdates() throws DataValidationFailedException {
+        final IndexedDataTreeSnapshot before = snapshot();
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(innerPath(1, "a").node(TestModel.VALUE_QNAME), leafNode(TestModel.VALUE_QNAME, "z"));
+        mod.delete(outerPath(2));
+        mod.write(outerPath(3), outerEntry(3, "c", "y"));
+        commit(mod);
+
+        final IndexedDataTreeSnapshot after = snapshot();
+        assertTrue(after.findEntries(VALUE_INDEX, "x").isEmpty());
+        assertEquals(ImmutableSet.of(innerPath(1, "b"), innerPath(3, "c")), after.findEntries(VALUE_INDEX, "y"));
+        assertEquals(ImmutableSet.of(innerPath(1, "a")), after.findEntries(VALUE_INDEX, "z"));
+
+        // Older snapshots keep their view
+        assertEquals(2, before.findEntries(VALUE_INDEX, "x").size());
+        assertTrue(before.findEntries(VALUE_INDEX, "z").isEmpty());
+    }
+
+    @Test
+    public void testBatchCommit() throws DataValidationFailedException {
+        final DataTreeModification first = tree.takeSnapshot().newModification();
+        first.write(outerPath(1), outerEntry(1, "a", "y"));
+        first.ready();
+        final DataTreeModification second = tree.takeSnapshot().newModification();
+        second.write(innerPath(2, "b"), innerEntry("b", "y"));
+        second.ready();
+        tree.commitBatch(ImmutableList.of(first, second));
+
+        assertEquals(ImmutableSet.of(innerPath(2, "a")), snapshot().findEntries(VALUE_INDEX, "x"));
+        assertEquals(ImmutableSet.of(innerPath(1, "a"), innerPath(2, "b")), snapshot().findEntries(VALUE_INDEX, "y"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnconfiguredIndex() {
+        snapshot().findEntries(TWO_INDEX, "x");
+    }
+}
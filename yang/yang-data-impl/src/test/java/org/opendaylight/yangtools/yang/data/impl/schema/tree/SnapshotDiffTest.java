@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.util.ImmutableChampMap;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TipProducingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableNodeChildren;
+
+public class SnapshotDiffTest {
+    private TipProducingDataTree tree;
+
+    @Before
+    public void setup() throws Exception {
+        tree = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        tree.setSchemaContext(TestModel.createTestContext());
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build()).build());
+        commit(mod);
+
+        for (int i = 1; i <= 3; ++i) {
+            writeEntry(i);
+        }
+    }
+
+    private static NodeIdentifierWithPredicates entryId(final int id) {
+        return new NodeIdentifierWithPredicates(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id);
+    }
+
+    private void commit(final DataTreeModification mod) throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private void writeEntry(final int id) throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.OUTER_LIST_PATH.node(entryId(id)),
+            mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id));
+        commit(mod);
+    }
+
+    private static DataTreeCandidateNode outerList(final DataTreeCandidate candidate) {
+        return candidate.getRootNode().getModifiedChild(TestModel.TEST_PATH.getLastPathArgument())
+                .getModifiedChild(TestModel.OUTER_LIST_PATH.getLastPathArgument());
+    }
+
+    @Test
+    public void testSameSnapshot() {
+        final DataTreeSnapshot snapshot = tree.takeSnapshot();
+        final DataTreeCandidate candidate = DataTreeCandidates.diff(snapshot, snapshot);
+        assertEquals(ModificationType.UNMODIFIED, candidate.getRootNode().getModificationType());
+        assertEquals(0, candidate.getRootNode().getChildNodes().size());
+    }
+
+    @Test
+    public void testModifiedEntries() throws DataValidationFailedException {
+        final DataTreeSnapshot before = tree.takeSnapshot();
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.delete(TestModel.OUTER_LIST_PATH.node(entryId(1)));
+        mod.write(TestModel.OUTER_LIST_PATH.node(entryId(4)),
+            mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, 4));
+        commit(mod);
+        // Replaced with equal data, hence without any modified children
+        writeEntry(3);
+
+        final DataTreeSnapshot after = tree.takeSnapshot();
+        final DataTreeCandidate candidate = DataTreeCandidates.diff(before, after);
+        assertEquals(ModificationType.SUBTREE_MODIFIED, candidate.getRootNode().getModificationType());
+
+        final DataTreeCandidateNode list = outerList(candidate);
+        assertEquals(ModificationType.SUBTREE_MODIFIED, list.getModificationType());
+
+        final Map<PathArgument, ModificationType> changes = new HashMap<>();
+        for (DataTreeCandidateNode child : list.getChildNodes()) {
+            changes.put(child.getIdentifier(), child.getModificationType());
+        }
+        assertEquals(3, changes.size());
+        assertEquals(ModificationType.DELETE, changes.get(entryId(1)));
+        assertEquals(ModificationType.WRITE, changes.get(entryId(4)));
+        assertEquals(ModificationType.SUBTREE_MODIFIED, changes.get(entryId(3)));
+        assertEquals(0, list.getModifiedChild(entryId(3)).getChildNodes().size());
+        assertNull(list.getModifiedChild(entryId(2)));
+
+        // The reverse difference undoes the changes
+        final DataTreeModification undo = after.newModification();
+        DataTreeCandidates.applyToModification(undo, DataTreeCandidates.diff(after, before));
+        undo.ready();
+        assertEquals(before.readNode(YangInstanceIdentifier.EMPTY).get(),
+            undo.readNode(YangInstanceIdentifier.EMPTY).get());
+    }
+
+    @Test
+    public void testLargeList() throws DataValidationFailedException {
+        final DataTreeModification fill = tree.takeSnapshot().newModification();
+        for (int i = 4; i <= 1000; ++i) {
+            fill.write(TestModel.OUTER_LIST_PATH.node(entryId(i)),
+                mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i));
+        }
+        commit(fill);
+        final DataTreeSnapshot before = tree.takeSnapshot();
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.delete(TestModel.OUTER_LIST_PATH.node(entryId(500)));
+        commit(mod);
+        writeEntry(1001);
+        final DataTreeSnapshot after = tree.takeSnapshot();
+
+        // Both versions of the list share the trie holding their entries
+        final NormalizedNode<?, ?> oldList = before.readNode(TestModel.OUTER_LIST_PATH).get();
+        final NormalizedNode<?, ?> newList = after.readNode(TestModel.OUTER_LIST_PATH).get();
+        assertTrue(ImmutableNodeChildren.childrenOf(oldList) instanceof ImmutableChampMap);
+        assertTrue(ImmutableNodeChildren.childrenOf(newList) instanceof ImmutableChampMap);
+
+        final Map<PathArgument, ModificationType> changes = new HashMap<>();
+        for (DataTreeCandidateNode child : outerList(DataTreeCandidates.diff(before, after)).getChildNodes()) {
+            changes.put(child.getIdentifier(), child.getModificationType());
+        }
+        assertEquals(2, changes.size());
+        assertEquals(ModificationType.DELETE, changes.get(entryId(500)));
+        assertEquals(ModificationType.WRITE, changes.get(entryId(1001)));
+    }
+
+    @Test
+    public void testDiffAtPath() throws DataValidationFailedException {
+        final DataTreeSnapshot before = tree.takeSnapshot();
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.delete(TestModel.TEST_PATH);
+        commit(mod);
+
+        final DataTreeCandidate candidate = DataTreeCandidates.diff(TestModel.TEST_PATH, before, tree.takeSnapshot());
+        assertEquals(TestModel.TEST_PATH, candidate.getRootPath());
+        assertEquals(ModificationType.DELETE, candidate.getRootNode().getModificationType());
+        assertEquals(1, candidate.getRootNode().getChildNodes().size());
+    }
+}
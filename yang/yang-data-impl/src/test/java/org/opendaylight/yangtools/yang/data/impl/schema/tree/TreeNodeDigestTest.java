@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapEntry;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.mapNodeBuilder;
+
+import com.google.common.hash.HashCode;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.dom.DOMSource;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DigestingDataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNodeDigests;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.xml.sax.InputSource;
+
+public class TreeNodeDigestTest {
+    private static DataTree createTree() throws ReactorException, DataValidationFailedException {
+        final DataTree tree = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        tree.setSchemaContext(TestModel.createTestContext());
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableContainerNodeBuilder.create()
+            .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build()).build());
+        commit(tree, mod);
+        return tree;
+    }
+
+    private static void commit(final DataTree tree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return TestModel.OUTER_LIST_PATH.node(new NodeIdentifierWithPredicates(TestModel.OUTER_LIST_QNAME,
+            TestModel.ID_QNAME, id));
+    }
+
+    private static void writeEntries(final DataTree tree, final int... ids) throws DataValidationFailedException {
+        for (int id : ids) {
+            final DataTreeModification mod = tree.takeSnapshot().newModification();
+            mod.write(entryPath(id), mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id));
+            commit(tree, mod);
+        }
+    }
+
+    private static HashCode digest(final DataTree tree, final YangInstanceIdentifier path) {
+        return ((DigestingDataTreeSnapshot) tree.takeSnapshot()).readDigest(path).get();
+    }
+
+    @Test
+    public void testEqualContent() throws Exception {
+        final DataTree first = createTree();
+        final DataTree second = createTree();
+        writeEntries(first, 1, 2, 3);
+        writeEntries(second, 3, 1, 2);
+
+        assertEquals(digest(first, YangInstanceIdentifier.EMPTY), digest(second, YangInstanceIdentifier.EMPTY));
+        assertFalse(((DigestingDataTreeSnapshot) first.takeSnapshot()).readDigest(entryPath(4)).isPresent());
+    }
+
+    @Test
+    public void testModifiedContent() throws Exception {
+        final DataTree first = createTree();
+        final DataTree second = createTree();
+        writeEntries(first, 1, 2, 3);
+        writeEntries(second, 1, 2, 4);
+
+        assertNotEquals(digest(first, YangInstanceIdentifier.EMPTY), digest(second, YangInstanceIdentifier.EMPTY));
+        assertNotEquals(digest(first, TestModel.OUTER_LIST_PATH), digest(second, TestModel.OUTER_LIST_PATH));
+        assertEquals(digest(first, entryPath(1)), digest(second, entryPath(1)));
+        assertNotEquals(digest(first, entryPath(1)), digest(first, entryPath(2)));
+    }
+
+    @Test
+    public void testCachedAcrossVersions() throws Exception {
+        final DataTree tree = createTree();
+        writeEntries(tree, 1, 2);
+        final HashCode before = digest(tree, entryPath(1));
+        final HashCode rootBefore = digest(tree, YangInstanceIdentifier.EMPTY);
+
+        writeEntries(tree, 3);
+        assertSame(before, digest(tree, entryPath(1)));
+        assertNotEquals(rootBefore, digest(tree, YangInstanceIdentifier.EMPTY));
+    }
+
+    private static DOMSource parseXml(final String xml) throws Exception {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return new DOMSource(factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)))
+            .getDocumentElement());
+    }
+
+    private static HashCode anyXmlDigest(final String xml) throws Exception {
+        return TreeNodeDigests.digest(Builders.anyXmlBuilder().withNodeIdentifier(new NodeIdentifier(
+            TestModel.NAME_QNAME)).withValue(parseXml(xml)).build());
+    }
+
+    private static HashCode leafDigest(final Object value) {
+        return TreeNodeDigests.digest(ImmutableNodes.leafNode(TestModel.NAME_QNAME, value));
+    }
+
+    @Test
+    public void testAnyXmlContent() throws Exception {
+        final HashCode digest = anyXmlDigest("<a:foo xmlns:a=\"urn:foo\" x=\"1\" y=\"2\"><a:bar>text</a:bar></a:foo>");
+        assertEquals(digest, anyXmlDigest(
+            "<foo xmlns=\"urn:foo\" y=\"2\" x=\"1\"><!-- comment --><bar>te<![CDATA[xt]]></bar></foo>"));
+        assertNotEquals(digest, anyXmlDigest("<foo xmlns=\"urn:foo\" x=\"1\" y=\"2\"><bar>other</bar></foo>"));
+        assertNotEquals(digest, anyXmlDigest("<foo xmlns=\"urn:bar\" x=\"1\" y=\"2\"><bar>text</bar></foo>"));
+    }
+
+    @Test
+    public void testLeafValues() {
+        assertEquals(leafDigest(new byte[] { 1, 2, 3 }), leafDigest(new byte[] { 1, 2, 3 }));
+        assertNotEquals(leafDigest(new byte[] { 1, 2, 3 }), leafDigest(new byte[] { 1, 2, 4 }));
+        assertEquals(leafDigest(new BigDecimal("1.50")), leafDigest(new BigDecimal("1.5")));
+        assertNotEquals(leafDigest(1), leafDigest("1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValueWithoutCanonicalForm() {
+        leafDigest(new Object());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNestedValueWithoutCanonicalForm() {
+        TreeNodeDigests.digest(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME))
+            .withChild(Builders.containerBuilder()
+                .withNodeIdentifier(new NodeIdentifier(TestModel.INNER_CONTAINER_QNAME))
+                .withChild(ImmutableNodes.leafNode(TestModel.NAME_QNAME, new Object())).build())
+            .build());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+
+public class UniqueConstraintTest {
+    private static final QName SERVERS = QName.create("urn:opendaylight:params:xml:ns:yang:unique-constraint-test",
+        "2016-11-01", "servers");
+    private static final QName SERVER = QName.create(SERVERS, "server");
+    private static final QName NAME = QName.create(SERVERS, "name");
+    private static final QName IP = QName.create(SERVERS, "ip");
+    private static final QName PORT = QName.create(SERVERS, "port");
+    private static final QName CONFIG = QName.create(SERVERS, "config");
+    private static final QName LABEL = QName.create(SERVERS, "label");
+
+    private static final YangInstanceIdentifier SERVERS_PATH = YangInstanceIdentifier.of(SERVERS);
+    private static final YangInstanceIdentifier SERVER_PATH = SERVERS_PATH.node(SERVER);
+
+    private SchemaContext schemaContext;
+
+    @Before
+    public void prepare() throws ReactorException {
+        schemaContext = TestModel.createTestContext("/unique-constraint-test.yang");
+        assertNotNull("Schema context must not be null.", schemaContext);
+    }
+
+    private InMemoryDataTree initDataTree(final boolean uniqueIndexes) throws DataValidationFailedException {
+        final InMemoryDataTree inMemoryDataTree = (InMemoryDataTree) InMemoryDataTreeFactory.getInstance().create(
+                new DataTreeConfiguration.Builder(TreeType.CONFIGURATION).setUniqueIndexes(uniqueIndexes).build());
+        inMemoryDataTree.setSchemaContext(schemaContext);
+
+        final MapNode servers = ImmutableNodes.mapNodeBuilder(SERVER)
+                .withChild(server("one", "10.0.0.1", 80, "first"))
+                .withChild(server("two", "10.0.0.2", 80, "second"))
+                .build();
+        final DataTreeModification mod = inMemoryDataTree.takeSnapshot().newModification();
+        mod.write(SERVERS_PATH, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(SERVERS))
+            .withChild(servers).build());
+        commit(inMemoryDataTree, mod);
+        return inMemoryDataTree;
+    }
+
+    private static NodeIdentifierWithPredicates serverId(final String name) {
+        return new NodeIdentifierWithPredicates(SERVER, NAME, name);
+    }
+
+    private static MapEntryNode server(final String name, final String ip, final int port, final String label) {
+        return Builders.mapEntryBuilder().withNodeIdentifier(serverId(name))
+                .withChild(leafNode(NAME, name))
+                .withChild(leafNode(IP, ip))
+                .withChild(leafNode(PORT, port))
+                .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(CONFIG))
+                    .withChild(leafNode(LABEL, label)).build())
+                .build();
+    }
+
+    private static void commit(final InMemoryDataTree tree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    @Test
+    public void testNonConflictingEntry() throws DataValidationFailedException {
+        final InMemoryDataTree tree = initDataTree(true);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(serverId("three")), server("three", "10.0.0.1", 8080, "third"));
+        commit(tree, mod);
+
+        assertTrue(tree.takeSnapshot().readNode(SERVER_PATH.node(serverId("three"))).isPresent());
+    }
+
+    @Test
+    public void testConflictingEntry() throws DataValidationFailedException {
+        final InMemoryDataTree tree = initDataTree(true);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(serverId("three")), server("three", "10.0.0.2", 80, "third"));
+        mod.ready();
+
+        try {
+            tree.validate(mod);
+            fail("Unique constraint violation should have been detected");
+        } catch (DataValidationFailedException e) {
+            assertTrue(e.getMessage().contains("unique"));
+        }
+    }
+
+    @Test(expected = DataValidationFailedException.class)
+    public void testConflictingNestedLeaf() throws DataValidationFailedException {
+        final InMemoryDataTree tree = initDataTree(true);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(serverId("three")), server("three", "10.0.0.3", 80, "first"));
+        commit(tree, mod);
+    }
+
+    @Test(expected = DataValidationFailedException.class)
+    public void testConflictingLeafUpdate() throws DataValidationFailedException {
+        final InMemoryDataTree tree = initDataTree(true);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(serverId("two")).node(IP), leafNode(IP, "10.0.0.1"));
+        commit(tree, mod);
+    }
+
+    @Test
+    public void testSwappedValues() throws DataValidationFailedException {
+        final InMemoryDataTree tree = initDataTree(true);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(serverId("one")), server("one", "10.0.0.2", 80, "second"));
+        mod.write(SERVER_PATH.node(serverId("two")), server("two", "10.0.0.1", 80, "first"));
+        commit(tree, mod);
+
+        // Previously-used values are available again
+        final DataTreeModification mod2 = tree.takeSnapshot().newModification();
+        mod2.delete(SERVER_PATH.node(serverId("one")));
+        mod2.merge(SERVER_PATH.node(serverId("three")), server("three", "10.0.0.2", 80, "second"));
+        commit(tree, mod2);
+    }
+
+    @Test
+    public void testIncompleteEntries() throws DataValidationFailedException {
+        final InMemoryDataTree tree = initDataTree(true);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(serverId("three")), Builders.mapEntryBuilder()
+            .withNodeIdentifier(serverId("three")).withChild(leafNode(NAME, "three"))
+            .withChild(leafNode(PORT, 80)).build());
+        mod.write(SERVER_PATH.node(serverId("four")), Builders.mapEntryBuilder()
+            .withNodeIdentifier(serverId("four")).withChild(leafNode(NAME, "four"))
+            .withChild(leafNode(PORT, 80)).build());
+        commit(tree, mod);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConflictingWrittenList() throws DataValidationFailedException {
+        final InMemoryDataTree tree = initDataTree(true);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH, ImmutableNodes.mapNodeBuilder(SERVER)
+            .withChild(server("one", "10.0.0.1", 80, "first"))
+            .withChild(server("two", "10.0.0.1", 80, "second"))
+            .build());
+        mod.ready();
+    }
+
+    @Test
+    public void testDisabledIndexes() throws DataValidationFailedException {
+        final InMemoryDataTree tree = initDataTree(false);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(SERVER_PATH.node(serverId("three")), server("three", "10.0.0.2", 80, "second"));
+        commit(tree, mod);
+    }
+}
@@ -15,6 +15,8 @@ import org.jaxen.SimpleVariableContext;
 import org.opendaylight.yangtools.yang.common.QNameModule;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 
@@ -37,10 +39,17 @@ final class NormalizedNodeContextSupport extends ContextSupport {
 
     NormalizedNodeContext createContext(final YangInstanceIdentifier path) {
         NormalizedNodeContext result = root;
+        NormalizedNode<?, ?> current = root.getNode();
         for (PathArgument arg : path.getPathArguments()) {
-            final Optional<NormalizedNode<?, ?>> node = NormalizedNodes.getDirectChild(result.getNode(), arg);
-            Preconditions.checkArgument(node.isPresent(), "Node %s has no child %s", result.getNode(), arg);
-            result = new NormalizedNodeContext(this, node.get(), result);
+            final Optional<NormalizedNode<?, ?>> node = NormalizedNodes.getDirectChild(current, arg);
+            Preconditions.checkArgument(node.isPresent(), "Node %s has no child %s", current, arg);
+            current = node.get();
+
+            // Lists and leaf-lists are not visible in XPath, their entries are children of the enclosing node. This
+            // mirrors what the navigator does on the child axis.
+            if (!(current instanceof MapNode) && !(current instanceof LeafSetNode)) {
+                result = new NormalizedNodeContext(this, current, result);
+            }
         }
 
         return result;
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.jaxen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.opendaylight.yangtools.yang.parser.stmt.reactor.CrossSourceStatementReactor;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangStatementSourceImpl;
+
+public class MustWhenValidationTest {
+    private static final QName TOP = QName.create("urn:opendaylight:params:xml:ns:yang:must-when-test", "2016-10-01",
+        "top");
+    private static final QName ENABLED = QName.create(TOP, "enabled");
+    private static final QName LIMIT = QName.create(TOP, "limit");
+    private static final QName ITEM = QName.create(TOP, "item");
+    private static final QName ID = QName.create(TOP, "id");
+    private static final QName VALUE = QName.create(TOP, "value");
+    private static final QName EXTRA = QName.create(TOP, "extra");
+    private static final QName OTHER = QName.create(TOP, "other");
+    private static final QName NAME = QName.create(TOP, "name");
+    private static final QName LABEL = QName.create(TOP, "label");
+    private static final QName FOREIGN = QName.create("urn:opendaylight:params:xml:ns:yang:must-when-other",
+        "2016-10-01", "foreign");
+    private static final QName FOREIGN_LIMIT = QName.create(FOREIGN, "limit");
+
+    private static final YangInstanceIdentifier TOP_PATH = YangInstanceIdentifier.of(TOP);
+    private static final YangInstanceIdentifier OTHER_PATH = YangInstanceIdentifier.of(OTHER);
+
+    private SchemaContext schemaContext;
+    private SchemaContext relaxedContext;
+    private DataTree tree;
+
+    @Before
+    public void setup() throws ReactorException, DataValidationFailedException {
+        schemaContext = buildContext("/must-when/must-when-test.yang");
+        // The same module without any constraints, used to bring the tree into an invalid state
+        relaxedContext = buildContext("/must-when/relaxed/must-when-test.yang");
+
+        tree = InMemoryDataTreeFactory.getInstance().create(new DataTreeConfiguration.Builder(TreeType.CONFIGURATION)
+            .setXPathSchemaContextFactory(new JaxenSchemaContextFactory()).build());
+        tree.setSchemaContext(schemaContext);
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TOP_PATH, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TOP))
+            .withChild(ImmutableNodes.leafNode(ENABLED, Boolean.TRUE))
+            .withChild(ImmutableNodes.leafNode(LIMIT, 10L))
+            .withChild(ImmutableNodes.mapNodeBuilder(ITEM).withChild(item(1, 5)).build())
+            .withChild(ImmutableNodes.leafNode(EXTRA, "extra"))
+            .build());
+        commit(mod);
+    }
+
+    private static SchemaContext buildContext(final String resource) throws ReactorException {
+        final CrossSourceStatementReactor.BuildAction reactor = YangInferencePipeline.RFC6020_REACTOR.newBuild();
+        reactor.addSource(new YangStatementSourceImpl(resource, false));
+        reactor.addSource(new YangStatementSourceImpl("/must-when/must-when-other.yang", false));
+        return reactor.buildEffective();
+    }
+
+    private static MapEntryNode item(final long id, final long value) {
+        return ImmutableNodes.mapEntryBuilder(ITEM, ID, id).withChild(ImmutableNodes.leafNode(VALUE, value)).build();
+    }
+
+    private static YangInstanceIdentifier itemPath(final long id) {
+        return TOP_PATH.node(ITEM).node(new NodeIdentifierWithPredicates(ITEM, ID, id));
+    }
+
+    private static MapEntryNode item(final long id, final long value, final String label) {
+        return ImmutableNodes.mapEntryBuilder(ITEM, ID, id).withChild(ImmutableNodes.leafNode(VALUE, value))
+            .withChild(ImmutableNodes.leafNode(LABEL, label)).build();
+    }
+
+    private void commit(final DataTreeModification mod) throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private void writeUnchecked(final YangInstanceIdentifier path, final MapEntryNode data)
+            throws DataValidationFailedException {
+        // Modifications are validated against the schema of the snapshot they are created from
+        tree.setSchemaContext(relaxedContext);
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(path, data);
+        commit(mod);
+        tree.setSchemaContext(schemaContext);
+    }
+
+    private void assertFails(final DataTreeModification mod, final YangInstanceIdentifier path,
+            final String message) {
+        try {
+            commit(mod);
+            fail("Modification should have failed validation");
+        } catch (DataValidationFailedException e) {
+            assertEquals(path, e.getPath());
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSatisfiedConstraints() throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(itemPath(2), item(2, 10));
+        commit(mod);
+    }
+
+    @Test
+    public void testMustViolatedByNewEntry() {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(itemPath(2), item(2, 11));
+        assertFails(mod, itemPath(2), "Item value exceeds limit");
+    }
+
+    @Test
+    public void testMustViolatedByDependency() {
+        // Lowering the limit invalidates an existing entry
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TOP_PATH.node(LIMIT), ImmutableNodes.leafNode(LIMIT, 3L));
+        assertFails(mod, itemPath(1), "Item value exceeds limit");
+    }
+
+    @Test
+    public void testWhenViolated() {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TOP_PATH.node(ENABLED), ImmutableNodes.leafNode(ENABLED, Boolean.FALSE));
+        assertFails(mod, TOP_PATH.node(EXTRA),
+            "Node is present, but its when condition \"../enabled = 'true'\" is not satisfied");
+    }
+
+    @Test
+    public void testWhenSatisfiedByRemoval() throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TOP_PATH.node(ENABLED), ImmutableNodes.leafNode(ENABLED, Boolean.FALSE));
+        mod.delete(TOP_PATH.node(EXTRA));
+        commit(mod);
+    }
+
+    @Test
+    public void testUnrelatedModification() throws DataValidationFailedException {
+        writeUnchecked(itemPath(3), item(3, 100));
+
+        // Modifications which do not touch anything the constraint depends on do not evaluate it
+        final DataTreeModification unrelated = tree.takeSnapshot().newModification();
+        unrelated.write(OTHER_PATH, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(OTHER))
+            .withChild(ImmutableNodes.leafNode(NAME, "name")).build());
+        commit(unrelated);
+
+        // A node with the same local name in another module is not a dependency either
+        final DataTreeModification foreign = tree.takeSnapshot().newModification();
+        foreign.write(YangInstanceIdentifier.of(FOREIGN), Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(FOREIGN))
+            .withChild(ImmutableNodes.leafNode(FOREIGN_LIMIT, 1L)).build());
+        commit(foreign);
+
+        final DataTreeModification related = tree.takeSnapshot().newModification();
+        related.write(TOP_PATH.node(LIMIT), ImmutableNodes.leafNode(LIMIT, 50L));
+        assertFails(related, itemPath(3), "Item value exceeds limit");
+    }
+
+    @Test
+    public void testLocalConstraintOnModifiedInstances() throws DataValidationFailedException {
+        writeUnchecked(itemPath(4), item(4, 1, "invalid"));
+
+        // The label constraint only looks at the label itself, hence it is not evaluated on other entries
+        final DataTreeModification other = tree.takeSnapshot().newModification();
+        other.write(itemPath(5), item(5, 1, "valid"));
+        commit(other);
+
+        final DataTreeModification same = tree.takeSnapshot().newModification();
+        same.write(itemPath(4), item(4, 2, "invalid"));
+        assertFails(same, itemPath(4).node(LABEL), "Invalid label");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrepareWithoutValidation() {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(itemPath(2), item(2, 11));
+        mod.ready();
+        tree.prepare(mod);
+    }
+}
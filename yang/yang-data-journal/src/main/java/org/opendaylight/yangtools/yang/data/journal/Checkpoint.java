@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.journal;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.NormalizedNodeDataInput;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.NormalizedNodeDataOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A copy of the data tree root, taken after a particular journal entry has been applied. A checkpoint file holds
+ * a magic number, the sequence number, the root node in binary format and a CRC32 checksum of the preceding
+ * content. Checkpoints are written to a temporary file, which is synced and then moved in place, hence a partially
+ * written checkpoint is never observed.
+ */
+final class Checkpoint {
+    private static final Logger LOG = LoggerFactory.getLogger(Checkpoint.class);
+    private static final int MAGIC = 0x5943484b;
+    private static final String PREFIX = "checkpoint-";
+    private static final String SUFFIX = ".bin";
+
+    private final File file;
+    private final long sequence;
+
+    private Checkpoint(final File file, final long sequence) {
+        this.file = Preconditions.checkNotNull(file);
+        this.sequence = sequence;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * List checkpoints present in a directory, newest first.
+     *
+     * @param directory Directory to search
+     * @return Checkpoints in the directory
+     */
+    static List<Checkpoint> list(final File directory) {
+        final List<Checkpoint> ret = new ArrayList<>();
+        for (File file : directory.listFiles()) {
+            final String name = file.getName();
+            if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                try {
+                    ret.add(new Checkpoint(file, Long.parseUnsignedLong(
+                        name.substring(PREFIX.length(), name.length() - SUFFIX.length()), 16)));
+                } catch (NumberFormatException e) {
+                    LOG.debug("Ignoring file {}", file, e);
+                }
+            }
+        }
+
+        Collections.sort(ret, (o1, o2) -> Long.compare(o2.sequence, o1.sequence));
+        return ret;
+    }
+
+    static Checkpoint write(final File directory, final long sequence, final NormalizedNode<?, ?> root)
+            throws IOException {
+        final File file = new File(directory, String.format("%s%016x%s", PREFIX, sequence, SUFFIX));
+        final File tmp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (FileOutputStream fos = new FileOutputStream(tmp)) {
+                final CheckedOutputStream cos = new CheckedOutputStream(new BufferedOutputStream(fos), new CRC32());
+                final DataOutputStream out = new DataOutputStream(cos);
+                out.writeInt(MAGIC);
+                out.writeLong(sequence);
+                new NormalizedNodeDataOutput(out).writeNormalizedNode(root);
+                out.writeLong(cos.getChecksum().getValue());
+                out.flush();
+                fos.getFD().sync();
+            }
+
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                LOG.debug("Atomic move not supported, falling back to replace", e);
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+
+        return new Checkpoint(file, sequence);
+    }
+
+    /**
+     * Read the root node stored in this checkpoint.
+     *
+     * @return Root node
+     * @throws IOException if the checkpoint cannot be read or is corrupted
+     */
+    NormalizedNode<?, ?> read() throws IOException {
+        try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+            final CheckedInputStream cis = new CheckedInputStream(is, new CRC32());
+            final DataInputStream in = new DataInputStream(cis);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Checkpoint " + file + " has invalid header");
+            }
+            if (in.readLong() != sequence) {
+                throw new IOException("Checkpoint " + file + " does not match its sequence " + sequence);
+            }
+
+            final NormalizedNode<?, ?> root = new NormalizedNodeDataInput(in).readNormalizedNode();
+            final long expected = cis.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Checkpoint " + file + " failed checksum verification");
+            }
+            return root;
+        }
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+}
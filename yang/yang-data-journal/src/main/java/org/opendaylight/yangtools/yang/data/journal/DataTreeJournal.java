@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.journal;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.DataTreeCandidateInputOutput;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.NormalizedNodeDataInput;
+import org.opendaylight.yangtools.yang.data.codec.binfmt.NormalizedNodeDataOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistence of a {@link DataTree} through a write-ahead journal of committed {@link DataTreeCandidate}s and
+ * periodic checkpoints of the data tree root. The journal is kept in memory-mapped segment files, each candidate
+ * being stored in the format provided by {@link DataTreeCandidateInputOutput}. Every
+ * {@link Builder#setCheckpointInterval(int)} entries the root of the tree is written out into a checkpoint, after
+ * which older checkpoints and journal segments are removed.
+ *
+ * <p>
+ * A tree is recovered by loading the newest readable checkpoint and replaying the journal entries which follow
+ * it via {@link DataTreeCandidates#applyToModification(DataTreeModification, DataTreeCandidate)}, so the time
+ * needed to recover is bounded by the checkpoint interval rather than the number of commits.
+ *
+ * <p>
+ * Users are expected to invoke {@link #append(DataTreeCandidate)} with each candidate right after it has been
+ * committed, from the thread performing commits, so that the state of the tree matches the journal whenever
+ * a checkpoint is taken. This class is not thread-safe.
+ *
+ * <p>
+ * By default a checkpoint is written by the append which reaches the checkpoint interval, hence that append takes
+ * as long as serializing the entire tree. If this latency is not acceptable, {@link Builder#setCheckpointExecutor(
+ * Executor)} moves writing of checkpoints off the committing thread.
+ */
+@Beta
+public final class DataTreeJournal implements AutoCloseable {
+    public static final class Builder {
+        private final File directory;
+        private int segmentSize = DEFAULT_SEGMENT_SIZE;
+        private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+        private boolean syncOnAppend = false;
+        private Executor checkpointExecutor;
+
+        Builder(final File directory) {
+            this.directory = Preconditions.checkNotNull(directory);
+        }
+
+        /**
+         * Set the size of journal segment files. Entries larger than this size get a segment of their own.
+         *
+         * @param segmentSize Segment size in bytes
+         * @return This builder
+         */
+        public Builder setSegmentSize(final int segmentSize) {
+            Preconditions.checkArgument(segmentSize >= MIN_SEGMENT_SIZE, "Segment size %s is below %s", segmentSize,
+                MIN_SEGMENT_SIZE);
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Set the number of journal entries after which a checkpoint is taken.
+         *
+         * @param checkpointInterval Number of entries
+         * @return This builder
+         */
+        public Builder setCheckpointInterval(final int checkpointInterval) {
+            Preconditions.checkArgument(checkpointInterval > 0, "Checkpoint interval %s is not positive",
+                checkpointInterval);
+            this.checkpointInterval = checkpointInterval;
+            return this;
+        }
+
+        /**
+         * Set whether each appended entry should be forced to storage before {@link #append(DataTreeCandidate)}
+         * returns. If disabled, the operating system writes journal pages back at its own pace, hence entries
+         * appended shortly before a system crash may be lost, but not corrupted.
+         *
+         * @param syncOnAppend True if appends should be synchronous
+         * @return This builder
+         */
+        public Builder setSyncOnAppend(final boolean syncOnAppend) {
+            this.syncOnAppend = syncOnAppend;
+            return this;
+        }
+
+        /**
+         * Set the executor on which checkpoints triggered by {@link #append(DataTreeCandidate)} are written. The
+         * state of the tree is captured by the append, only its serialization runs on the executor. Checkpoints
+         * which have been written are then completed by a subsequent append, which removes older checkpoints and
+         * journal segments. By default checkpoints are written by the append itself.
+         *
+         * @param checkpointExecutor Executor, or null to write checkpoints synchronously
+         * @return This builder
+         */
+        public Builder setCheckpointExecutor(final Executor checkpointExecutor) {
+            this.checkpointExecutor = checkpointExecutor;
+            return this;
+        }
+
+        /**
+         * Recover persisted state into a data tree and open the journal for appending. The tree should not
+         * contain any data and needs to have its schema context set.
+         *
+         * @param tree Data tree to recover into
+         * @return A journal attached to the tree
+         * @throws IOException if persisted state cannot be read
+         * @throws DataValidationFailedException if persisted state cannot be applied to the tree
+         */
+        public DataTreeJournal recover(final DataTree tree) throws IOException, DataValidationFailedException {
+            if (!directory.exists()) {
+                Preconditions.checkArgument(directory.mkdirs(), "Unable to create journal directory at %s",
+                    directory);
+            }
+            Preconditions.checkArgument(directory.isDirectory(), "%s is not a directory", directory);
+
+            final DataTreeJournal ret = new DataTreeJournal(this, tree);
+            try {
+                ret.recover();
+            } catch (IOException | DataValidationFailedException | RuntimeException e) {
+                ret.close();
+                throw e;
+            }
+            return ret;
+        }
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(DataTreeJournal.class);
+    private static final int MIN_SEGMENT_SIZE = 4096;
+    private static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 10000;
+
+    private final DataTree tree;
+    private final File directory;
+    private final int checkpointInterval;
+    private final SegmentedJournal journal;
+    private final Executor checkpointExecutor;
+    // Checkpoint being written on checkpointExecutor, completes with its sequence number
+    private CompletableFuture<Long> pendingCheckpoint;
+    private long checkpointSequence;
+
+    private DataTreeJournal(final Builder builder, final DataTree tree) throws IOException {
+        this.tree = Preconditions.checkNotNull(tree);
+        this.directory = builder.directory;
+        this.checkpointInterval = builder.checkpointInterval;
+        this.checkpointExecutor = builder.checkpointExecutor;
+        this.journal = new SegmentedJournal(directory, builder.segmentSize, builder.syncOnAppend);
+    }
+
+    public static Builder builder(final File directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Return the sequence number of the last journal entry.
+     *
+     * @return Last sequence number, 0 if nothing has been persisted yet
+     */
+    public long getLastSequence() {
+        return journal.getLastSequence();
+    }
+
+    /**
+     * Return the sequence number of the last journal entry covered by the newest checkpoint.
+     *
+     * @return Checkpoint sequence number, 0 if no checkpoint has been taken yet
+     */
+    public long getCheckpointSequence() {
+        return checkpointSequence;
+    }
+
+    /**
+     * Append a committed candidate to the journal. If the checkpoint interval has been reached, a checkpoint is
+     * taken as well, which unless a checkpoint executor has been set means serializing the entire tree.
+     *
+     * @param candidate Committed candidate
+     * @return Sequence number of the journal entry
+     * @throws IOException if an I/O error occurs
+     */
+    public long append(final DataTreeCandidate candidate) throws IOException {
+        finishCheckpoint(false);
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final DataOutputStream dos = new DataOutputStream(bos);
+        DataTreeCandidateInputOutput.writeDataTreeCandidate(new NormalizedNodeDataOutput(dos), candidate);
+        dos.flush();
+
+        final long sequence = journal.append(bos.toByteArray());
+        if (pendingCheckpoint == null && sequence - checkpointSequence >= checkpointInterval) {
+            if (checkpointExecutor != null) {
+                startCheckpoint();
+            } else {
+                checkpoint();
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Write a checkpoint of the current state of the tree, which is assumed to reflect all entries appended so far,
+     * and remove journal segments and checkpoints which are no longer needed.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void checkpoint() throws IOException {
+        finishCheckpoint(true);
+
+        final long sequence = journal.getLastSequence();
+        final Checkpoint checkpoint = Checkpoint.write(directory, sequence, readRoot());
+        LOG.debug("Checkpoint {} written", checkpoint.getFile());
+        checkpointWritten(sequence);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finishCheckpoint(true);
+        } finally {
+            journal.close();
+        }
+    }
+
+    private NormalizedNode<?, ?> readRoot() {
+        final Optional<NormalizedNode<?, ?>> root = tree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY);
+        Preconditions.checkState(root.isPresent(), "Tree %s does not have a root node", tree);
+        return root.get();
+    }
+
+    private void startCheckpoint() {
+        // Snapshots are immutable, hence the tree can be serialized while commits continue
+        final long sequence = journal.getLastSequence();
+        final NormalizedNode<?, ?> root = readRoot();
+        pendingCheckpoint = CompletableFuture.supplyAsync(() -> {
+            try {
+                final Checkpoint checkpoint = Checkpoint.write(directory, sequence, root);
+                LOG.debug("Checkpoint {} written", checkpoint.getFile());
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            return sequence;
+        }, checkpointExecutor);
+    }
+
+    /*
+     * Complete a checkpoint written on the checkpoint executor, if there is one. Removal of obsolete state happens
+     * here, on the appending thread, as the journal is not thread-safe.
+     */
+    private void finishCheckpoint(final boolean wait) throws IOException {
+        final CompletableFuture<Long> future = pendingCheckpoint;
+        if (future == null || !wait && !future.isDone()) {
+            return;
+        }
+
+        pendingCheckpoint = null;
+        final long sequence;
+        try {
+            sequence = future.join();
+        } catch (CompletionException | CancellationException e) {
+            // The journal still holds all entries since the previous checkpoint, the next append retries
+            LOG.warn("Failed to write checkpoint in {}", directory, e.getCause() != null ? e.getCause() : e);
+            return;
+        }
+        checkpointWritten(sequence);
+    }
+
+    private void checkpointWritten(final long sequence) throws IOException {
+        checkpointSequence = sequence;
+        for (Checkpoint old : Checkpoint.list(directory)) {
+            if (old.getSequence() < sequence) {
+                old.delete();
+            }
+        }
+        journal.compact(sequence);
+    }
+
+    private void recover() throws IOException, DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+
+        final List<Checkpoint> checkpoints = Checkpoint.list(directory);
+        boolean restored = checkpoints.isEmpty();
+        for (Checkpoint checkpoint : checkpoints) {
+            final NormalizedNode<?, ?> root;
+            try {
+                root = checkpoint.read();
+            } catch (IOException e) {
+                LOG.warn("Failed to read checkpoint {}, trying an older one", checkpoint.getFile(), e);
+                continue;
+            }
+
+            mod.write(YangInstanceIdentifier.EMPTY, root);
+            checkpointSequence = checkpoint.getSequence();
+            restored = true;
+            break;
+        }
+        if (!restored) {
+            throw new IOException("No readable checkpoint found in " + directory);
+        }
+
+        final long first = journal.getFirstSequence();
+        if (first > checkpointSequence + 1 && first <= journal.getLastSequence()) {
+            throw new IOException("Journal in " + directory + " starts at " + first + ", entries following "
+                    + checkpointSequence + " are missing");
+        }
+        if (journal.getLastSequence() < checkpointSequence) {
+            LOG.info("Journal in {} ends before checkpoint {}, resetting it", directory, checkpointSequence);
+            journal.reset(checkpointSequence);
+        }
+
+        final long[] replayed = new long[1];
+        journal.replay(checkpointSequence + 1, (sequence, data) -> {
+            final NormalizedNodeDataInput in = new NormalizedNodeDataInput(new DataInputStream(
+                new ByteArrayInputStream(data)));
+            DataTreeCandidates.applyToModification(mod, DataTreeCandidateInputOutput.readDataTreeCandidate(in));
+            replayed[0]++;
+        });
+
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+        LOG.info("Recovered data tree from checkpoint {} and {} journal entries up to {}", checkpointSequence,
+            replayed[0], journal.getLastSequence());
+    }
+}
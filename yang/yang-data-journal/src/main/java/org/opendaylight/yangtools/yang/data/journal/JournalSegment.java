@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.journal;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single memory-mapped journal file. The file starts with a header holding a magic number and the sequence number
+ * of the first entry, followed by entries. Each entry consists of its length, a CRC32 checksum of its payload, its
+ * sequence number and the payload itself. A zero length terminates the list of entries. Since the file is
+ * preallocated, its unused part reads as zeroes.
+ *
+ * <p>
+ * When an existing segment is opened, entries are accepted up to the first one which is truncated, fails its
+ * checksum or is out of sequence. Such an entry is the result of an interrupted write and is overwritten by
+ * the next append.
+ */
+final class JournalSegment implements AutoCloseable {
+    interface EntryConsumer {
+        void accept(long sequence, byte[] data) throws IOException;
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(JournalSegment.class);
+    private static final int MAGIC = 0x594a524e;
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_HEADER_SIZE = 16;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final MappedByteBuffer buffer;
+    private final long firstSequence;
+    private long lastSequence;
+    private int position;
+
+    private JournalSegment(final File file, final RandomAccessFile raf, final MappedByteBuffer buffer,
+            final long firstSequence) {
+        this.file = Preconditions.checkNotNull(file);
+        this.raf = Preconditions.checkNotNull(raf);
+        this.buffer = Preconditions.checkNotNull(buffer);
+        this.firstSequence = firstSequence;
+        this.lastSequence = firstSequence - 1;
+        this.position = HEADER_SIZE;
+    }
+
+    static JournalSegment create(final File file, final long firstSequence, final int size) throws IOException {
+        Preconditions.checkArgument(size > HEADER_SIZE, "Segment size %s is too small", size);
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(size);
+            final MappedByteBuffer buffer = raf.getChannel().map(MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(4, firstSequence);
+            buffer.putInt(HEADER_SIZE, 0);
+            return new JournalSegment(file, raf, buffer, firstSequence);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    static JournalSegment open(final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            final long length = raf.length();
+            if (length <= HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Journal segment " + file + " has invalid length " + length);
+            }
+
+            final MappedByteBuffer buffer = raf.getChannel().map(MapMode.READ_WRITE, 0, length);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Journal segment " + file + " has invalid header");
+            }
+
+            final JournalSegment ret = new JournalSegment(file, raf, buffer, buffer.getLong(4));
+            ret.scan();
+            return ret;
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    long getFirstSequence() {
+        return firstSequence;
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    boolean isEmpty() {
+        return lastSequence < firstSequence;
+    }
+
+    /**
+     * Append an entry, unless it does not fit into this segment.
+     *
+     * @param data Entry payload
+     * @return True if the entry was appended, false if the segment does not have sufficient space
+     */
+    boolean append(final byte[] data) {
+        final int end = position + ENTRY_HEADER_SIZE + data.length;
+        if (end > buffer.capacity() || end < 0) {
+            return false;
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+
+        // Terminate the list first, so a partial write is never followed by stale data
+        if (end + 4 <= buffer.capacity()) {
+            buffer.putInt(end, 0);
+        }
+        final ByteBuffer payload = buffer.duplicate();
+        payload.position(position + ENTRY_HEADER_SIZE);
+        payload.put(data);
+        buffer.putLong(position + 8, lastSequence + 1);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, data.length);
+
+        position = end;
+        lastSequence++;
+        return true;
+    }
+
+    void replay(final long fromSequence, final EntryConsumer consumer) throws IOException {
+        int offset = HEADER_SIZE;
+        for (long seq = firstSequence; seq <= lastSequence; ++seq) {
+            final int length = buffer.getInt(offset);
+            if (seq >= fromSequence) {
+                final byte[] data = new byte[length];
+                final ByteBuffer payload = buffer.duplicate();
+                payload.position(offset + ENTRY_HEADER_SIZE);
+                payload.get(data);
+                consumer.accept(seq, data);
+            }
+            offset += ENTRY_HEADER_SIZE + length;
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        raf.close();
+    }
+
+    private void scan() {
+        final int capacity = buffer.capacity();
+        while (position + ENTRY_HEADER_SIZE <= capacity) {
+            final int length = buffer.getInt(position);
+            if (length == 0) {
+                return;
+            }
+            if (length < 0 || length > capacity - position - ENTRY_HEADER_SIZE) {
+                LOG.warn("Journal segment {} has a truncated entry at offset {}", file, position);
+                return;
+            }
+            if (buffer.getLong(position + 8) != lastSequence + 1) {
+                LOG.warn("Journal segment {} has an out-of-sequence entry at offset {}", file, position);
+                return;
+            }
+
+            final ByteBuffer payload = buffer.duplicate();
+            payload.position(position + ENTRY_HEADER_SIZE).limit(position + ENTRY_HEADER_SIZE + length);
+            final CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                LOG.warn("Journal segment {} has a corrupted entry at offset {}", file, position);
+                return;
+            }
+
+            position += ENTRY_HEADER_SIZE + length;
+            lastSequence++;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.journal;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.opendaylight.yangtools.yang.data.journal.JournalSegment.EntryConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only log of opaque entries, identified by consecutive sequence numbers and stored in a number of
+ * {@link JournalSegment}s. Segments which contain only entries older than a certain sequence number can be removed
+ * via {@link #compact(long)}.
+ *
+ * <p>This class is not thread-safe.
+ */
+final class SegmentedJournal implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentedJournal.class);
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    private final NavigableMap<Long, JournalSegment> segments = new TreeMap<>();
+    private final File directory;
+    private final int segmentSize;
+    private final boolean sync;
+    private long lastSequence;
+
+    SegmentedJournal(final File directory, final int segmentSize, final boolean sync) throws IOException {
+        this.directory = Preconditions.checkNotNull(directory);
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+
+        final NavigableMap<Long, File> files = new TreeMap<>();
+        for (File file : directory.listFiles()) {
+            final Long first = parseFileName(file.getName());
+            if (first != null) {
+                files.put(first, file);
+            }
+        }
+
+        try {
+            for (File file : files.values()) {
+                final JournalSegment segment = JournalSegment.open(file);
+                if (!segments.isEmpty() && segment.getFirstSequence() != lastSequence + 1) {
+                    /*
+                     * Entries are missing, for example because an earlier segment holds a corrupted entry. Later
+                     * segments may still hold valid committed data, hence we leave all files in place and let
+                     * the user decide what to do with them.
+                     */
+                    segment.close();
+                    throw new IOException("Journal segment " + file + " starts at sequence "
+                            + segment.getFirstSequence() + ", but preceding segments end at " + lastSequence);
+                }
+
+                segments.put(segment.getFirstSequence(), segment);
+                lastSequence = segment.getLastSequence();
+            }
+        } catch (IOException e) {
+            for (JournalSegment segment : segments.values()) {
+                segment.close();
+            }
+            throw e;
+        }
+
+        LOG.debug("Journal in {} opened with {} segments, last sequence {}", directory, segments.size(),
+            lastSequence);
+    }
+
+    long getFirstSequence() {
+        return segments.isEmpty() ? lastSequence + 1 : segments.firstKey();
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Append an entry.
+     *
+     * @param data Entry payload
+     * @return Sequence number of the entry
+     * @throws IOException if an I/O error occurs
+     */
+    long append(final byte[] data) throws IOException {
+        JournalSegment segment = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (segment == null || !segment.append(data)) {
+            segment = JournalSegment.create(new File(directory, fileName(lastSequence + 1)), lastSequence + 1,
+                Math.max(segmentSize, data.length + 64));
+            segments.put(segment.getFirstSequence(), segment);
+            Preconditions.checkState(segment.append(data));
+        }
+        if (sync) {
+            segment.force();
+        }
+
+        return ++lastSequence;
+    }
+
+    /**
+     * Feed all entries starting with a particular sequence number to a consumer.
+     *
+     * @param fromSequence First sequence number
+     * @param consumer Entry consumer
+     * @throws IOException if an I/O error occurs or the consumer fails
+     */
+    void replay(final long fromSequence, final EntryConsumer consumer) throws IOException {
+        for (JournalSegment segment : segments.values()) {
+            if (segment.getLastSequence() >= fromSequence) {
+                segment.replay(fromSequence, consumer);
+            }
+        }
+    }
+
+    /**
+     * Remove segments which hold only entries up to a particular sequence number. The last segment is retained.
+     *
+     * @param upToSequence Last sequence number which is not needed anymore
+     * @throws IOException if an I/O error occurs
+     */
+    void compact(final long upToSequence) throws IOException {
+        final Iterator<Entry<Long, JournalSegment>> it = segments.entrySet().iterator();
+        while (it.hasNext()) {
+            final JournalSegment segment = it.next().getValue();
+            if (segment == segments.lastEntry().getValue() || segment.getLastSequence() > upToSequence) {
+                break;
+            }
+
+            it.remove();
+            segment.close();
+            delete(segment.getFile());
+            LOG.debug("Removed journal segment {}", segment.getFile());
+        }
+    }
+
+    /**
+     * Remove all segments and continue with a particular sequence number.
+     *
+     * @param sequence Sequence number of the last entry which is considered to be present
+     * @throws IOException if an I/O error occurs
+     */
+    void reset(final long sequence) throws IOException {
+        for (JournalSegment segment : segments.values()) {
+            segment.close();
+            delete(segment.getFile());
+        }
+        segments.clear();
+        lastSequence = sequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (JournalSegment segment : segments.values()) {
+            segment.force();
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    private static String fileName(final long firstSequence) {
+        return String.format("%s%016x%s", PREFIX, firstSequence, SUFFIX);
+    }
+
+    private static Long parseFileName(final String name) {
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseUnsignedLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()), 16);
+        } catch (NumberFormatException e) {
+            LOG.debug("Ignoring file {}", name, e);
+            return null;
+        }
+    }
+
+    private static void delete(final File file) throws IOException {
+        if (!file.delete() && file.exists()) {
+            throw new IOException("Failed to delete " + file);
+        }
+    }
+}
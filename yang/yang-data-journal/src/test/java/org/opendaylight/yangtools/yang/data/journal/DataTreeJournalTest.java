@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.opendaylight.yangtools.yang.parser.stmt.reactor.CrossSourceStatementReactor;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangStatementSourceImpl;
+
+public class DataTreeJournalTest {
+    private static final QName TOP = QName.create("urn:opendaylight:params:xml:ns:yang:journal-test", "2016-10-01",
+        "top");
+    private static final QName FLAG = QName.create(TOP, "flag");
+    private static final QName ENTRY = QName.create(TOP, "entry");
+    private static final QName ID = QName.create(TOP, "id");
+    private static final QName NAME = QName.create(TOP, "name");
+    private static final YangInstanceIdentifier TOP_PATH = YangInstanceIdentifier.of(TOP);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private SchemaContext schemaContext;
+    private File directory;
+
+    @Before
+    public void setup() throws ReactorException, IOException {
+        final CrossSourceStatementReactor.BuildAction reactor = YangInferencePipeline.RFC6020_REACTOR.newBuild();
+        reactor.addSource(new YangStatementSourceImpl("/journal-test.yang", false));
+        schemaContext = reactor.buildEffective();
+        directory = folder.newFolder();
+    }
+
+    private DataTree createTree() {
+        final DataTree tree = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        tree.setSchemaContext(schemaContext);
+        return tree;
+    }
+
+    private static MapEntryNode entry(final int id, final String name) {
+        return ImmutableNodes.mapEntryBuilder(ENTRY, ID, id).withChild(ImmutableNodes.leafNode(NAME, name)).build();
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return TOP_PATH.node(ENTRY).node(new NodeIdentifierWithPredicates(ENTRY, ID, id));
+    }
+
+    private static void commit(final DataTree tree, final DataTreeJournal journal, final DataTreeModification mod)
+            throws DataValidationFailedException, IOException {
+        mod.ready();
+        tree.validate(mod);
+        final DataTreeCandidate candidate = tree.prepare(mod);
+        tree.commit(candidate);
+        journal.append(candidate);
+    }
+
+    private static NormalizedNode<?, ?> root(final DataTree tree) {
+        return tree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY).get();
+    }
+
+    private void populate(final DataTree tree, final DataTreeJournal journal, final int count)
+            throws DataValidationFailedException, IOException {
+        DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TOP_PATH, Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TOP))
+            .withChild(ImmutableNodes.leafNode(FLAG, Boolean.FALSE))
+            .withChild(ImmutableNodes.mapNodeBuilder(ENTRY).build())
+            .build());
+        commit(tree, journal, mod);
+
+        for (int i = 0; i < count; ++i) {
+            mod = tree.takeSnapshot().newModification();
+            mod.write(entryPath(i), entry(i, "entry-" + i));
+            if (i % 3 == 2) {
+                mod.delete(entryPath(i - 1));
+            }
+            commit(tree, journal, mod);
+        }
+    }
+
+    private List<String> files(final String prefix) {
+        final List<String> ret = new ArrayList<>();
+        for (String name : directory.list()) {
+            if (name.startsWith(prefix)) {
+                ret.add(name);
+            }
+        }
+        return ret;
+    }
+
+    @Test
+    public void testRecoveryFromJournal() throws Exception {
+        final DataTree tree = createTree();
+        try (DataTreeJournal journal = DataTreeJournal.builder(directory).setSegmentSize(4096).recover(tree)) {
+            populate(tree, journal, 100);
+            assertEquals(101, journal.getLastSequence());
+            assertEquals(0, journal.getCheckpointSequence());
+        }
+        assertTrue(files("journal-").size() > 1);
+
+        final DataTree recovered = createTree();
+        try (DataTreeJournal journal = DataTreeJournal.builder(directory).recover(recovered)) {
+            assertEquals(101, journal.getLastSequence());
+        }
+        assertEquals(root(tree), root(recovered));
+    }
+
+    @Test
+    public void testRecoveryFromCheckpoint() throws Exception {
+        final DataTree tree = createTree();
+        try (DataTreeJournal journal = DataTreeJournal.builder(directory).setSegmentSize(4096)
+                .setCheckpointInterval(40).recover(tree)) {
+            populate(tree, journal, 100);
+            assertEquals(80, journal.getCheckpointSequence());
+        }
+        assertEquals(1, files("checkpoint-").size());
+
+        final DataTree recovered = createTree();
+        try (DataTreeJournal journal = DataTreeJournal.builder(directory).setSegmentSize(4096)
+                .setCheckpointInterval(40).recover(recovered)) {
+            assertEquals(80, journal.getCheckpointSequence());
+            assertEquals(101, journal.getLastSequence());
+
+            // Continue appending after recovery
+            final DataTreeModification mod = recovered.takeSnapshot().newModification();
+            mod.write(TOP_PATH.node(FLAG), ImmutableNodes.leafNode(FLAG, Boolean.TRUE));
+            commit(recovered, journal, mod);
+            assertEquals(102, journal.getLastSequence());
+        }
+
+        final DataTree again = createAndRecover();
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TOP_PATH.node(FLAG), ImmutableNodes.leafNode(FLAG, Boolean.TRUE));
+        mod.ready();
+        tree.commit(tree.prepare(mod));
+        assertEquals(root(tree), root(again));
+    }
+
+    @Test
+    public void testBackgroundCheckpoint() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final DataTree tree = createTree();
+        try (DataTreeJournal journal = DataTreeJournal.builder(directory).setSegmentSize(4096)
+                .setCheckpointInterval(40).setCheckpointExecutor(executor).recover(tree)) {
+            populate(tree, journal, 100);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, files("checkpoint-").size());
+
+        final DataTree recovered = createTree();
+        try (DataTreeJournal journal = DataTreeJournal.builder(directory).recover(recovered)) {
+            assertTrue(journal.getCheckpointSequence() >= 80);
+            assertEquals(101, journal.getLastSequence());
+        }
+        assertEquals(root(tree), root(recovered));
+    }
+
+    @Test
+    public void testSegmentGap() throws Exception {
+        final DataTree tree = createTree();
+        try (DataTreeJournal journal = DataTreeJournal.builder(directory).setSegmentSize(4096).recover(tree)) {
+            populate(tree, journal, 100);
+        }
+
+        final List<String> segments = files("journal-");
+        assertTrue(segments.size() > 2);
+        Collections.sort(segments);
+        assertTrue(new File(directory, segments.get(1)).delete());
+
+        try {
+            createAndRecover();
+            fail("Recovery should have failed");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains(segments.get(2)));
+        }
+
+        // Segments following the gap are retained
+        assertEquals(segments.size() - 1, files("journal-").size());
+    }
+
+    private DataTree createAndRecover() throws IOException, DataValidationFailedException {
+        final DataTree tree = createTree();
+        DataTreeJournal.builder(directory).recover(tree).close();
+        return tree;
+    }
+
+    @Test
+    public void testTornTail() throws Exception {
+        final DataTree tree = createTree();
+        try (DataTreeJournal journal = DataTreeJournal.builder(directory).recover(tree)) {
+            populate(tree, journal, 10);
+        }
+
+        // Corrupt the payload of the last entry, which writes entry 9
+        final List<String> segments = files("journal-");
+        assertEquals(1, segments.size());
+        try (RandomAccessFile raf = new RandomAccessFile(new File(directory, segments.get(0)), "rw")) {
+            long offset = 12;
+            long last = offset;
+            while (true) {
+                raf.seek(offset);
+                final int length = raf.readInt();
+                if (length == 0) {
+                    break;
+                }
+                last = offset;
+                offset += 16 + length;
+            }
+            raf.seek(last + 20);
+            raf.write(raf.read() ^ 0xff);
+        }
+
+        final DataTree recovered = createTree();
+        try (DataTreeJournal journal = DataTreeJournal.builder(directory).recover(recovered)) {
+            assertEquals(10, journal.getLastSequence());
+        }
+        assertTrue(recovered.takeSnapshot().readNode(entryPath(8)).isPresent());
+        assertFalse(recovered.takeSnapshot().readNode(entryPath(9)).isPresent());
+    }
+}
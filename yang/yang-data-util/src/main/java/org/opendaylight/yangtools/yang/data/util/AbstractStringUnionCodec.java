@@ -9,6 +9,8 @@
 package org.opendaylight.yangtools.yang.data.util;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
 import org.opendaylight.yangtools.concepts.Codec;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
@@ -16,12 +18,31 @@ import org.opendaylight.yangtools.yang.model.api.type.UnionTypeDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public abstract class AbstractStringUnionCodec implements Codec<String, Object> {
+/**
+ * Base class for codecs of union types. Member codecs are looked up on first use and retained. Values are
+ * deserialized by classifying them lexically once and probing only those members which can accept them. Members
+ * which implement {@link TryDeserializingCodec} are probed without relying on exceptions.
+ */
+public abstract class AbstractStringUnionCodec implements TryDeserializingCodec<Object> {
     private static final Logger LOG = LoggerFactory.getLogger(AbstractStringUnionCodec.class);
 
+    private static final class Member {
+        final TypeDefinition<?> type;
+        final Codec<String, Object> codec;
+        final int lexicalClasses;
+
+        Member(final TypeDefinition<?> type, final Codec<String, Object> codec) {
+            this.type = type;
+            this.codec = codec;
+            this.lexicalClasses = LexicalClassifier.requiredClasses(type);
+        }
+    }
+
     protected final DataSchemaNode schema;
     protected final UnionTypeDefinition typeDefinition;
 
+    private volatile List<Member> members;
+
     protected AbstractStringUnionCodec(final DataSchemaNode schema, final UnionTypeDefinition typeDefinition) {
         this.schema = Preconditions.checkNotNull(schema);
         this.typeDefinition = Preconditions.checkNotNull(typeDefinition);
@@ -31,16 +52,15 @@ public abstract class AbstractStringUnionCodec implements Codec<String, Object>
 
     @Override
     public final String serialize(final Object data) {
-        for (final TypeDefinition<?> type : typeDefinition.getTypes()) {
-            Codec<String, Object> codec = codecFor(type);
-            if (codec == null) {
-                LOG.debug("no codec found for {}", type);
+        for (final Member member : members()) {
+            if (member.codec == null) {
+                LOG.debug("no codec found for {}", member.type);
                 continue;
             }
             try {
-                return codec.serialize(data);
+                return member.codec.serialize(data);
             } catch (final Exception e) {
-                LOG.debug("Data {} did not match for {}", data, type, e);
+                LOG.debug("Data {} did not match for {}", data, member.type, e);
                 // invalid - try the next union type.
             }
         }
@@ -53,9 +73,20 @@ public abstract class AbstractStringUnionCodec implements Codec<String, Object>
             return null;
         }
 
+        final Object returnValue = tryDeserialize(stringRepresentation);
+        if (returnValue != null) {
+            return returnValue;
+        }
+        throw new IllegalArgumentException("Invalid value \"" + stringRepresentation + "\" for union type.");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final Object tryDeserialize(final String stringRepresentation) {
+        final int classes = LexicalClassifier.classify(stringRepresentation);
         Object returnValue = null;
-        for (final TypeDefinition<?> type : typeDefinition.getTypes()) {
-            Codec<String, Object> codec = codecFor(type);
+        for (final Member member : members()) {
+            final Codec<String, Object> codec = member.codec;
             if (codec == null) {
                 /*
                  * This is a type for which we have no codec (eg identity ref) so we'll say it's
@@ -64,6 +95,17 @@ public abstract class AbstractStringUnionCodec implements Codec<String, Object>
                 returnValue = stringRepresentation;
                 continue;
             }
+            if (codec instanceof TryDeserializingCodec) {
+                if (LexicalClassifier.mayMatch(classes, member.lexicalClasses)) {
+                    final Object deserialized = ((TryDeserializingCodec<Object>) codec).tryDeserialize(
+                        stringRepresentation);
+                    if (deserialized != null) {
+                        return deserialized;
+                    }
+                }
+                continue;
+            }
+
             try {
                 final Object deserialized = codec.deserialize(stringRepresentation);
                 if (deserialized != null) {
@@ -71,13 +113,24 @@ public abstract class AbstractStringUnionCodec implements Codec<String, Object>
                 }
                 returnValue = stringRepresentation;
             } catch (final Exception e) {
-                LOG.debug("Value {} did not matched representation for {}", stringRepresentation, type, e);
+                LOG.debug("Value {} did not matched representation for {}", stringRepresentation, member.type, e);
                 // invalid - try the next union type.
             }
         }
-        if (returnValue != null) {
-            return returnValue;
+        return returnValue;
+    }
+
+    private List<Member> members() {
+        List<Member> ret = members;
+        if (ret == null) {
+            // Benign race: concurrent callers create equivalent lists
+            final ImmutableList.Builder<Member> builder = ImmutableList.builder();
+            for (final TypeDefinition<?> type : typeDefinition.getTypes()) {
+                builder.add(new Member(type, codecFor(type)));
+            }
+            ret = builder.build();
+            members = ret;
         }
-        throw new IllegalArgumentException("Invalid value \"" + stringRepresentation + "\" for union type.");
+        return ret;
     }
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.util;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * Index of data schema node children by their name, used by data parsers to resolve element names. For each parent
+ * node it precomputes the results of {@link ParserStreamUtils#findSchemaNodeByNameAndNamespace(DataSchemaNode,
+ * String, URI)} for all names reachable from it, so a lookup does not walk choices and cases and does not allocate.
+ * Parent nodes are indexed on first access and the index is retained for as long as the parent node is reachable.
+ */
+@Beta
+@ThreadSafe
+public final class DataSchemaChildIndex {
+    // An index references its SchemaContext, hence it is held weakly, so that it does not keep the context alive
+    private static final LoadingCache<SchemaContext, DataSchemaChildIndex> SHARED_INDEXES = CacheBuilder.newBuilder()
+            .weakKeys().weakValues().build(new CacheLoader<SchemaContext, DataSchemaChildIndex>() {
+                @Override
+                public DataSchemaChildIndex load(final SchemaContext key) {
+                    return new DataSchemaChildIndex(key);
+                }
+            });
+
+    private final LoadingCache<DataSchemaNode, Map<String, Map<URI, List<DataSchemaNode>>>> children =
+            CacheBuilder.newBuilder().weakKeys().build(
+                new CacheLoader<DataSchemaNode, Map<String, Map<URI, List<DataSchemaNode>>>>() {
+                    @Override
+                    public Map<String, Map<URI, List<DataSchemaNode>>> load(final DataSchemaNode key) {
+                        return indexChildren(key);
+                    }
+                });
+    private final ConcurrentMap<String, Optional<URI>> moduleNamespaces = new ConcurrentHashMap<>();
+    private final SchemaContext schemaContext;
+
+    private DataSchemaChildIndex(final SchemaContext schemaContext) {
+        this.schemaContext = Preconditions.checkNotNull(schemaContext);
+    }
+
+    /**
+     * Create a new index for the specified SchemaContext.
+     *
+     * @param schemaContext SchemaContext to which parent nodes belong
+     * @return A new index
+     */
+    @Nonnull public static DataSchemaChildIndex create(@Nonnull final SchemaContext schemaContext) {
+        return new DataSchemaChildIndex(schemaContext);
+    }
+
+    /**
+     * Get an index for the specified SchemaContext, which may be shared with other users.
+     *
+     * @param schemaContext SchemaContext to which parent nodes belong
+     * @return A shared index
+     */
+    @Nonnull public static DataSchemaChildIndex getShared(@Nonnull final SchemaContext schemaContext) {
+        return SHARED_INDEXES.getUnchecked(schemaContext);
+    }
+
+    /**
+     * Find the path to a child node. The result is the same as the one of
+     * {@link ParserStreamUtils#findSchemaNodeByNameAndNamespace(DataSchemaNode, String, URI)}, except it is in
+     * the form of an immutable list.
+     *
+     * @param parent Parent node
+     * @param namespace Namespace of the child
+     * @param localName Local name of the child
+     * @return Schema nodes leading to the child, starting with the direct child of parent. Empty if no such child
+     *         exists.
+     */
+    @Nonnull public List<DataSchemaNode> findChild(@Nonnull final DataSchemaNode parent, final URI namespace,
+            @Nonnull final String localName) {
+        final Map<URI, List<DataSchemaNode>> candidates = children.getUnchecked(parent).get(localName);
+        if (candidates != null) {
+            final List<DataSchemaNode> ret = candidates.get(namespace);
+            if (ret != null) {
+                return ret;
+            }
+        }
+        return ImmutableList.of();
+    }
+
+    /**
+     * Find namespaces of all children with a particular local name, reachable from a parent either directly or
+     * through choices and cases.
+     *
+     * @param parent Parent node
+     * @param localName Local name of the child
+     * @return Set of namespaces, empty if there is no such child.
+     */
+    @Nonnull public Set<URI> findChildNamespaces(@Nonnull final DataSchemaNode parent,
+            @Nonnull final String localName) {
+        final Map<URI, List<DataSchemaNode>> candidates = children.getUnchecked(parent).get(localName);
+        return candidates == null ? ImmutableSet.of() : candidates.keySet();
+    }
+
+    /**
+     * Find the namespace of a module, as returned by {@link SchemaContext#findModuleByName(String, Date)} with
+     * a null revision.
+     *
+     * @param moduleName Module name
+     * @return Module namespace, or null if no such module exists
+     */
+    @Nullable public URI findModuleNamespace(@Nonnull final String moduleName) {
+        Optional<URI> ret = moduleNamespaces.get(moduleName);
+        if (ret == null) {
+            final Module module = schemaContext.findModuleByName(moduleName, null);
+            ret = module == null ? Optional.absent() : Optional.of(module.getNamespace());
+            final Optional<URI> raced = moduleNamespaces.putIfAbsent(moduleName, ret);
+            if (raced != null) {
+                ret = raced;
+            }
+        }
+        return ret.orNull();
+    }
+
+    private Map<String, Map<URI, List<DataSchemaNode>>> indexChildren(final DataSchemaNode parent) {
+        if (!(parent instanceof DataNodeContainer)) {
+            return ImmutableMap.of();
+        }
+
+        // Direct children take precedence over those in choices, the latest revision wins
+        final Map<String, Map<URI, List<DataSchemaNode>>> tmp = new LinkedHashMap<>();
+        final List<ChoiceSchemaNode> choices = new ArrayList<>();
+        for (DataSchemaNode child : ((DataNodeContainer) parent).getChildNodes()) {
+            if (child instanceof ChoiceSchemaNode) {
+                choices.add((ChoiceSchemaNode) child);
+                continue;
+            }
+
+            final QName qname = child.getQName();
+            final Map<URI, List<DataSchemaNode>> byNamespace = namespaceMap(tmp, qname.getLocalName());
+            final List<DataSchemaNode> existing = byNamespace.get(qname.getNamespace());
+            if (existing == null || isNewer(qname, existing.get(0).getQName())) {
+                byNamespace.put(qname.getNamespace(), ImmutableList.of(child));
+            }
+        }
+
+        // Children of choices, in order of appearance of choices and their cases
+        for (ChoiceSchemaNode choice : choices) {
+            for (ChoiceCaseNode caseNode : choice.getCases()) {
+                for (Entry<String, Map<URI, List<DataSchemaNode>>> e : children.getUnchecked(caseNode).entrySet()) {
+                    final Map<URI, List<DataSchemaNode>> byNamespace = namespaceMap(tmp, e.getKey());
+                    for (Entry<URI, List<DataSchemaNode>> ce : e.getValue().entrySet()) {
+                        if (!byNamespace.containsKey(ce.getKey())) {
+                            byNamespace.put(ce.getKey(), ImmutableList.<DataSchemaNode>builder().add(choice)
+                                .add(caseNode).addAll(ce.getValue()).build());
+                        }
+                    }
+                }
+            }
+        }
+
+        final ImmutableMap.Builder<String, Map<URI, List<DataSchemaNode>>> builder = ImmutableMap.builder();
+        for (Entry<String, Map<URI, List<DataSchemaNode>>> e : tmp.entrySet()) {
+            builder.put(e.getKey(), ImmutableMap.copyOf(e.getValue()));
+        }
+        return builder.build();
+    }
+
+    private static Map<URI, List<DataSchemaNode>> namespaceMap(final Map<String, Map<URI, List<DataSchemaNode>>> map,
+            final String localName) {
+        Map<URI, List<DataSchemaNode>> ret = map.get(localName);
+        if (ret == null) {
+            ret = new HashMap<>(2);
+            map.put(localName, ret);
+        }
+        return ret;
+    }
+
+    private static boolean isNewer(final QName candidate, final QName existing) {
+        final Date candidateRevision = candidate.getRevision();
+        final Date existingRevision = existing.getRevision();
+        return candidateRevision != null && existingRevision != null && candidateRevision.after(existingRevision);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.util;
+
+import com.google.common.annotations.Beta;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.BooleanTypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.DecimalTypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.EmptyTypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.IntegerTypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.UnsignedIntegerTypeDefinition;
+
+/**
+ * Cheap lexical classification of string values. A string is classified once by {@link #classify(String)}, which
+ * yields the set of lexical classes it may belong to. This set is then matched against the classes required by each
+ * candidate type, as determined by {@link #requiredClasses(TypeDefinition)}, so that types which can never accept
+ * the string are skipped without invoking their codecs.
+ *
+ * <p>
+ * Classification is conservative: a string which belongs to a class may still be rejected by the codec, but a string
+ * which does not belong to any of the classes required by a type is never accepted by it.
+ */
+@Beta
+public final class LexicalClassifier {
+    /**
+     * Empty string.
+     */
+    public static final int EMPTY = 1;
+    /**
+     * Boolean literal, case-insensitive.
+     */
+    public static final int BOOLEAN = 2;
+    /**
+     * Signed decimal or hexadecimal integer.
+     */
+    public static final int INTEGER = 4;
+    /**
+     * Decimal number, possibly with a fraction and an exponent.
+     */
+    public static final int DECIMAL = 8;
+
+    private LexicalClassifier() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Classify a string.
+     *
+     * @param str String to classify
+     * @return Bit mask of classes the string may belong to
+     */
+    public static int classify(@Nonnull final String str) {
+        final int length = str.length();
+        if (length == 0) {
+            return EMPTY;
+        }
+        if ("true".equalsIgnoreCase(str) || "false".equalsIgnoreCase(str)) {
+            return BOOLEAN;
+        }
+
+        final char first = str.charAt(0);
+        final int start = first == '+' || first == '-' ? 1 : 0;
+        if (start + 2 < length && str.charAt(start) == '0' && (str.charAt(start + 1) | 0x20) == 'x') {
+            for (int i = start + 2; i < length; ++i) {
+                if (Character.digit(str.charAt(i), 16) == -1) {
+                    return 0;
+                }
+            }
+            return INTEGER;
+        }
+
+        boolean digits = false;
+        boolean integer = true;
+        for (int i = start; i < length; ++i) {
+            final char c = str.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                integer = false;
+            } else {
+                return 0;
+            }
+        }
+        if (!digits) {
+            return 0;
+        }
+        return integer ? INTEGER | DECIMAL : DECIMAL;
+    }
+
+    /**
+     * Determine the classes a string has to belong to in order to be accepted by a type.
+     *
+     * @param type Type definition
+     * @return Bit mask of classes, 0 if the type may accept any string
+     */
+    public static int requiredClasses(@Nonnull final TypeDefinition<?> type) {
+        if (type instanceof BooleanTypeDefinition) {
+            return BOOLEAN;
+        }
+        if (type instanceof IntegerTypeDefinition || type instanceof UnsignedIntegerTypeDefinition) {
+            return INTEGER;
+        }
+        if (type instanceof DecimalTypeDefinition) {
+            return DECIMAL;
+        }
+        if (type instanceof EmptyTypeDefinition) {
+            return EMPTY;
+        }
+        return 0;
+    }
+
+    /**
+     * Check whether a classified string may be accepted by a type.
+     *
+     * @param classes Classes of the string, as returned by {@link #classify(String)}
+     * @param required Classes required by the type, as returned by {@link #requiredClasses(TypeDefinition)}
+     * @return False if the type cannot accept the string.
+     */
+    public static boolean mayMatch(final int classes, final int required) {
+        return required == 0 || (classes & required) != 0;
+    }
+}
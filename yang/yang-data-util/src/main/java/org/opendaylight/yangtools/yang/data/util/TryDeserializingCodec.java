@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.util;
+
+import com.google.common.annotations.Beta;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.concepts.Codec;
+
+/**
+ * A string codec which can test whether a string is a valid representation of its type without throwing an
+ * exception. Union codecs use this to probe their member types, where rejecting a value is the common case.
+ *
+ * @param <T> Deserialized type
+ */
+@Beta
+public interface TryDeserializingCodec<T> extends Codec<String, T> {
+    /**
+     * Attempt to deserialize a string. Unlike {@link #deserialize(Object)}, this method reports invalid input by
+     * returning null. Implementations should avoid constructing exceptions in the process.
+     *
+     * @param input String representation
+     * @return Deserialized value, or null if the input is not a valid representation.
+     */
+    @Nullable T tryDeserialize(@Nonnull String input);
+}
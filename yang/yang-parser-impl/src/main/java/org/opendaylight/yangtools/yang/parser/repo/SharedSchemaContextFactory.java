@@ -14,6 +14,7 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.AsyncFunction;
@@ -21,12 +22,18 @@ import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.antlr.v4.runtime.ParserRuleContext;
@@ -34,18 +41,22 @@ import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.Statement
 import org.opendaylight.yangtools.util.concurrent.ExceptionMapper;
 import org.opendaylight.yangtools.util.concurrent.ReflectiveExceptionMapper;
 import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.model.api.ModuleImport;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaContextFactory;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaResolutionException;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceFilter;
 import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
 import org.opendaylight.yangtools.yang.model.repo.api.StatementParserMode;
+import org.opendaylight.yangtools.yang.model.api.meta.DeclaredStatement;
+import org.opendaylight.yangtools.yang.model.api.meta.EffectiveStatement;
 import org.opendaylight.yangtools.yang.parser.impl.util.YangModelDependencyInfo;
 import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
 import org.opendaylight.yangtools.yang.parser.spi.source.SourceException;
 import org.opendaylight.yangtools.yang.parser.stmt.reactor.CrossSourceStatementReactor;
 import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
 import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangStatementSourceImpl;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.effective.EffectiveSchemaContext;
 import org.opendaylight.yangtools.yang.parser.util.ASTSchemaSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,6 +73,11 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
     };
     private final Cache<Collection<SourceIdentifier>, SchemaContext> cache = CacheBuilder.newBuilder().weakValues().build();
     private final Cache<Collection<SourceIdentifier>, SchemaContext> semVerCache = CacheBuilder.newBuilder().weakValues().build();
+    /*
+     * Contexts assembled from groups of modules which do not share any modules with the rest of a request. These are
+     * retained softly, so that a request differing from a previous one only in some of its groups can reuse the others.
+     */
+    private final Cache<ComponentKey, EffectiveSchemaContext> componentCache = CacheBuilder.newBuilder().softValues().build();
     private final SharedSchemaRepository repository;
     // FIXME: ignored right now
     private final SchemaSourceFilter filter;
@@ -78,7 +94,7 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
             final java.util.function.Predicate<QName> isFeatureSupported) {
         return createSchemaContext(requiredSources,
                 statementParserMode == StatementParserMode.SEMVER_MODE ? this.semVerCache : this.cache,
-                new AssembleSources(isFeatureSupported, statementParserMode));
+                new AssembleSources(componentCache, isFeatureSupported, statementParserMode));
     }
 
     private CheckedFuture<SchemaContext, SchemaResolutionException> createSchemaContext(final Collection<SourceIdentifier> requiredSources, final Cache<Collection<SourceIdentifier>, SchemaContext> cache, final AsyncFunction<List<ASTSchemaSource>, SchemaContext> assembleSources) {
@@ -171,14 +187,51 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
         }
     }
 
+    /**
+     * Cache key of a group of sources, built with a particular parser mode and feature set.
+     */
+    private static final class ComponentKey {
+        private final Set<SourceIdentifier> sources;
+        private final StatementParserMode statementParserMode;
+        private final java.util.function.Predicate<QName> isFeatureSupported;
+
+        ComponentKey(final Set<SourceIdentifier> sources, final StatementParserMode statementParserMode,
+                final java.util.function.Predicate<QName> isFeatureSupported) {
+            this.sources = ImmutableSet.copyOf(sources);
+            this.statementParserMode = statementParserMode;
+            this.isFeatureSupported = isFeatureSupported;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sources, statementParserMode, isFeatureSupported);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ComponentKey)) {
+                return false;
+            }
+            final ComponentKey other = (ComponentKey) obj;
+            return statementParserMode == other.statementParserMode
+                    && isFeatureSupported.equals(other.isFeatureSupported) && sources.equals(other.sources);
+        }
+    }
+
     private static final class AssembleSources implements AsyncFunction<List<ASTSchemaSource>, SchemaContext> {
 
+        private final Cache<ComponentKey, EffectiveSchemaContext> componentCache;
         private final java.util.function.Predicate<QName> isFeatureSupported;
         private final StatementParserMode statementParserMode;
         private final Function<ASTSchemaSource, SourceIdentifier> getIdentifier;
 
-        private AssembleSources(final java.util.function.Predicate<QName> isFeatureSupported,
+        private AssembleSources(final Cache<ComponentKey, EffectiveSchemaContext> componentCache,
+                final java.util.function.Predicate<QName> isFeatureSupported,
                 final StatementParserMode statementParserMode) {
+            this.componentCache = Preconditions.checkNotNull(componentCache);
             this.isFeatureSupported = Preconditions.checkNotNull(isFeatureSupported);
             this.statementParserMode = Preconditions.checkNotNull(statementParserMode);
             switch (statementParserMode) {
@@ -207,6 +260,40 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
                         res.getResolvedSources(), res.getUnsatisfiedImports());
             }
 
+            final List<Set<SourceIdentifier>> groups = findGroups(deps,
+                statementParserMode != StatementParserMode.SEMVER_MODE);
+            if (groups.size() == 1) {
+                return Futures.immediateCheckedFuture(buildContext(srcs));
+            }
+
+            /*
+             * Groups do not share any modules, hence no statement of one group can refer to a statement of another.
+             * Each group is assembled on its own, reusing the result of a previous request for the same group, and
+             * the results are merged into a single context. Every module is assembled in exactly one group, so all
+             * statements referring to its typedefs, groupings and identities see the same instances.
+             */
+            LOG.debug("Assembling {} independent groups", groups.size());
+            final List<DeclaredStatement<?>> rootDeclared = new ArrayList<>();
+            final List<EffectiveStatement<?, ?>> rootEffective = new ArrayList<>();
+            for (final Set<SourceIdentifier> group : groups) {
+                final ComponentKey key = new ComponentKey(group, statementParserMode, isFeatureSupported);
+                EffectiveSchemaContext groupContext = componentCache.getIfPresent(key);
+                if (groupContext == null) {
+                    groupContext = buildContext(Maps.filterKeys(srcs, group::contains));
+                    componentCache.put(key, groupContext);
+                } else {
+                    LOG.debug("Reusing assembled group {}", group);
+                }
+
+                rootDeclared.addAll(groupContext.getRootDeclaredStatements());
+                rootEffective.addAll(groupContext.getRootEffectiveStatements());
+            }
+
+            return Futures.immediateCheckedFuture(new EffectiveSchemaContext(rootDeclared, rootEffective));
+        }
+
+        private EffectiveSchemaContext buildContext(final Map<SourceIdentifier, ASTSchemaSource> srcs)
+                throws SchemaResolutionException {
             final Map<SourceIdentifier, ParserRuleContext> asts = Maps.transformValues(srcs, ASTSchemaSource.GET_AST);
             final CrossSourceStatementReactor.BuildAction reactor =
                     YangInferencePipeline.RFC6020_REACTOR.newBuild(statementParserMode, isFeatureSupported);
@@ -219,14 +306,103 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
                 reactor.addSource(new YangStatementSourceImpl(e.getKey(), (StatementContext) parserRuleCtx));
             }
 
-            final SchemaContext schemaContext;
             try {
-                schemaContext = reactor.buildEffective();
+                return reactor.buildEffective();
             } catch (ReactorException ex) {
                 throw new SchemaResolutionException("Failed to resolve required models", ex.getSourceIdentifier(), ex);
             }
+        }
+
+        /**
+         * Split sources into groups which can be assembled independently. Each module which is not imported by other
+         * sources forms the root of a closure over imports and includes. These are matched on revision if requested
+         * and the import specifies one, and on module name only otherwise. Closures sharing any module are joined into
+         * a single group, as a module can only be augmented, deviated or referenced by modules importing it. Groups
+         * and their members are reported in the order of the sources.
+         */
+        private static List<Set<SourceIdentifier>> findGroups(final Map<SourceIdentifier, YangModelDependencyInfo> deps,
+                final boolean matchRevisions) {
+            final Map<String, List<SourceIdentifier>> byName = new HashMap<>();
+            for (final SourceIdentifier id : deps.keySet()) {
+                byName.computeIfAbsent(deps.get(id).getName(), k -> new ArrayList<>()).add(id);
+            }
+
+            final Map<SourceIdentifier, Set<SourceIdentifier>> imported = new HashMap<>();
+            final Set<SourceIdentifier> importedAny = new HashSet<>();
+            for (final Entry<SourceIdentifier, YangModelDependencyInfo> e : deps.entrySet()) {
+                final Set<SourceIdentifier> ids = new LinkedHashSet<>();
+                for (final ModuleImport dep : e.getValue().getDependencies()) {
+                    for (final SourceIdentifier id : byName.getOrDefault(dep.getModuleName(), ImmutableList.of())) {
+                        if (!matchRevisions || dep.getRevision() == null
+                                || QName.formattedRevision(dep.getRevision()).equals(
+                                    deps.get(id).getFormattedRevision())) {
+                            ids.add(id);
+                        }
+                    }
+                }
+                imported.put(e.getKey(), ids);
+                importedAny.addAll(ids);
+            }
+
+            // Import cycles leave modules which are not reachable from any root, these become roots on their own
+            final List<Set<SourceIdentifier>> closures = new ArrayList<>();
+            final Set<SourceIdentifier> covered = new HashSet<>();
+            for (final SourceIdentifier id : deps.keySet()) {
+                if (!importedAny.contains(id)) {
+                    closures.add(closure(id, imported, covered));
+                }
+            }
+            for (final SourceIdentifier id : deps.keySet()) {
+                if (!covered.contains(id)) {
+                    closures.add(closure(id, imported, covered));
+                }
+            }
+
+            // Join closures sharing a module, each group is identified by its first closure
+            final int[] groupOf = new int[closures.size()];
+            for (int i = 0; i < groupOf.length; ++i) {
+                groupOf[i] = i;
+            }
+            for (final SourceIdentifier id : deps.keySet()) {
+                int first = -1;
+                for (int i = 0; i < groupOf.length; ++i) {
+                    if (closures.get(i).contains(id)) {
+                        if (first == -1) {
+                            first = groupOf[i];
+                        } else {
+                            final int joined = groupOf[i];
+                            for (int j = 0; j < groupOf.length; ++j) {
+                                if (groupOf[j] == joined) {
+                                    groupOf[j] = first;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
 
-            return Futures.immediateCheckedFuture(schemaContext);
+            final Map<Integer, Set<SourceIdentifier>> groups = new LinkedHashMap<>();
+            for (int i = 0; i < groupOf.length; ++i) {
+                groups.computeIfAbsent(groupOf[i], k -> new LinkedHashSet<>()).addAll(closures.get(i));
+            }
+            return ImmutableList.copyOf(groups.values());
+        }
+
+        private static Set<SourceIdentifier> closure(final SourceIdentifier root,
+                final Map<SourceIdentifier, Set<SourceIdentifier>> imported, final Set<SourceIdentifier> covered) {
+            final Set<SourceIdentifier> ret = new LinkedHashSet<>();
+            final Deque<SourceIdentifier> queue = new ArrayDeque<>();
+            queue.add(root);
+            ret.add(root);
+            while (!queue.isEmpty()) {
+                for (final SourceIdentifier next : imported.get(queue.poll())) {
+                    if (ret.add(next)) {
+                        queue.add(next);
+                    }
+                }
+            }
+            covered.addAll(ret);
+            return ret;
         }
     }
 }
@@ -14,8 +14,8 @@ import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -63,7 +63,11 @@ class BuildGlobalContext extends NamespaceStorageSupport implements NamespaceBeh
     private final Map<Class<?>, NamespaceBehaviourWithListeners<?, ?, ?>> supportedNamespaces = new HashMap<>();
 
     private final Map<ModelProcessingPhase, StatementSupportBundle> supports;
-    private final Set<SourceSpecificContext> sources = new HashSet<>();
+    /*
+     * Sources are kept in the order they were added, so that phase processing, error reporting and the order of
+     * statements in the resulting model do not depend on identity hash codes.
+     */
+    private final Set<SourceSpecificContext> sources = new LinkedHashSet<>();
 
     private ModelProcessingPhase currentPhase = ModelProcessingPhase.INIT;
     private ModelProcessingPhase finishedPhase = ModelProcessingPhase.INIT;
@@ -7,14 +7,22 @@
  */
 package org.opendaylight.yangtools.yang.parser.stmt.reactor;
 
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.ByteSource;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
@@ -65,6 +73,28 @@ public class CrossSourceStatementReactor {
         return new BuildAction(statementParserMode, isFeatureSupported);
     }
 
+    /**
+     * Create a new build which parses textual sources concurrently. Sources passed to
+     * {@link BuildAction#buildEffective(Collection)} and {@link BuildAction#buildEffective(List)} are turned into
+     * parse trees on the supplied executor, typically {@link java.util.concurrent.ForkJoinPool#commonPool()}, and
+     * are then processed by the reactor in the order in which they were supplied, so the resulting model is the same
+     * as the one produced by a sequential build.
+     *
+     * <p>
+     * Only parsing is parallel. Statement loading and modifier resolution in the individual processing phases, as
+     * well as building the effective model, still run sequentially on the calling thread, as they share namespace
+     * storage across sources.
+     *
+     * @param statementParserMode Statement parser mode
+     * @param isFeatureSupported Feature support predicate
+     * @param executor Executor on which individual sources are parsed
+     * @return A new build action
+     */
+    public final BuildAction newBuildWithParallelParsing(final StatementParserMode statementParserMode,
+            final Predicate<QName> isFeatureSupported, final ExecutorService executor) {
+        return new BuildAction(statementParserMode, isFeatureSupported, Preconditions.checkNotNull(executor));
+    }
+
     public static class Builder implements org.opendaylight.yangtools.concepts.Builder<CrossSourceStatementReactor> {
 
         final Map<ModelProcessingPhase, StatementSupportBundle> bundles = new EnumMap<>(ModelProcessingPhase.class);
@@ -88,6 +118,7 @@ public class CrossSourceStatementReactor {
 
     public class BuildAction {
         private final BuildGlobalContext context;
+        private final ExecutorService executor;
 
         public BuildAction() {
             this(StatementParserMode.DEFAULT_MODE, IfFeaturePredicates.ALL_FEATURES);
@@ -102,8 +133,14 @@ public class CrossSourceStatementReactor {
         }
 
         public BuildAction(final StatementParserMode statementParserMode, final Predicate<QName> isFeatureSupported) {
+            this(statementParserMode, isFeatureSupported, null);
+        }
+
+        BuildAction(final StatementParserMode statementParserMode, final Predicate<QName> isFeatureSupported,
+                final ExecutorService executor) {
             this.context = new BuildGlobalContext(supportedTerminology, supportedValidation, statementParserMode,
                     isFeatureSupported);
+            this.executor = executor;
         }
 
         public void addSource(final StatementStreamSource source) {
@@ -130,19 +167,67 @@ public class CrossSourceStatementReactor {
 
         public SchemaContext buildEffective(final Collection<ByteSource> yangByteSources) throws ReactorException,
                 IOException {
-            for (final ByteSource yangByteSource : yangByteSources) {
-                addSource(new YangStatementSourceImpl(yangByteSource.openStream()));
+            if (executor == null) {
+                for (final ByteSource yangByteSource : yangByteSources) {
+                    addSource(new YangStatementSourceImpl(yangByteSource.openStream()));
+                }
+            } else {
+                final List<Callable<YangStatementSourceImpl>> tasks = new ArrayList<>(yangByteSources.size());
+                for (final ByteSource yangByteSource : yangByteSources) {
+                    tasks.add(() -> {
+                        try (InputStream stream = yangByteSource.openStream()) {
+                            return new YangStatementSourceImpl(stream);
+                        }
+                    });
+                }
+                try {
+                    addParsedSources(tasks);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while parsing sources");
+                } catch (ExecutionException e) {
+                    Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+                    throw Throwables.propagate(e.getCause());
+                }
             }
 
             return buildEffective();
         }
 
         public SchemaContext buildEffective(final List<InputStream> yangInputStreams) throws ReactorException {
-            for (final InputStream yangInputStream : yangInputStreams) {
-                addSource(new YangStatementSourceImpl(yangInputStream));
+            if (executor == null) {
+                for (final InputStream yangInputStream : yangInputStreams) {
+                    addSource(new YangStatementSourceImpl(yangInputStream));
+                }
+            } else {
+                final List<Callable<YangStatementSourceImpl>> tasks = new ArrayList<>(yangInputStreams.size());
+                for (final InputStream yangInputStream : yangInputStreams) {
+                    tasks.add(() -> new YangStatementSourceImpl(yangInputStream));
+                }
+                try {
+                    addParsedSources(tasks);
+                } catch (InterruptedException e) {
+                    // This method does not declare a checked exception which could report interruption
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while parsing sources", e);
+                } catch (ExecutionException e) {
+                    // Parsing an input stream does not throw checked exceptions, same as in the sequential case
+                    throw Throwables.propagate(e.getCause());
+                }
             }
 
             return buildEffective();
         }
+
+        /*
+         * Parse all sources on the executor and add them in the order of the tasks. Statement processing itself
+         * remains sequential, as it populates namespaces and fires listeners which are shared between sources.
+         */
+        private void addParsedSources(final List<Callable<YangStatementSourceImpl>> tasks)
+                throws InterruptedException, ExecutionException {
+            for (final Future<YangStatementSourceImpl> future : executor.invokeAll(tasks)) {
+                addSource(future.get());
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.ArgumentContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.KeywordContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.StatementContext;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.Utils;
+
+/**
+ * Compact binary form of a parsed YANG statement tree. Only the information consumed by the statement reactor and
+ * dependency extraction is retained: keyword, unescaped argument and source position of each statement. Strings are
+ * interned into a per-stream dictionary, so that repeated keywords and arguments are written only once.
+ *
+ * <p>
+ * Restoring a stream builds {@link StatementContext} instances directly, without running the ANTLR lexer or parser.
+ * Arguments are restored as single-quoted strings, which {@link Utils#stringFromStringContext(ArgumentContext)} maps
+ * back to their original value.
+ */
+final class ASTStreamFormat {
+    private static final int MAGIC = 0x59414e47;
+    private static final short VERSION = 1;
+
+    private static final byte STRING_NULL = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte STRING_REF = 2;
+
+    private ASTStreamFormat() {
+        throw new UnsupportedOperationException();
+    }
+
+    static void writeAST(final DataOutput out, final StatementContext root) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        writeStatement(out, new HashMap<>(), root);
+    }
+
+    static StatementContext readAST(final DataInput in) throws IOException {
+        final int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException(String.format("Unexpected stream signature %08x", magic));
+        }
+        final short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported stream version " + version);
+        }
+
+        return readStatement(in, new ArrayList<>(), null);
+    }
+
+    private static void writeStatement(final DataOutput out, final Map<String, Integer> strings,
+            final StatementContext stmt) throws IOException {
+        final ArgumentContext argument = stmt.argument();
+
+        writeString(out, strings, stmt.keyword().getText());
+        writeString(out, strings, argument != null ? Utils.stringFromStringContext(argument) : null);
+        out.writeInt(stmt.getStart().getLine());
+        out.writeInt(stmt.getStart().getCharPositionInLine());
+
+        final List<StatementContext> children = stmt.statement();
+        out.writeInt(children.size());
+        for (StatementContext child : children) {
+            writeStatement(out, strings, child);
+        }
+    }
+
+    private static StatementContext readStatement(final DataInput in, final List<String> strings,
+            final ParserRuleContext parent) throws IOException {
+        final String keyword = readString(in, strings);
+        if (keyword == null) {
+            throw new IOException("Missing statement keyword");
+        }
+        final String argument = readString(in, strings);
+        final int line = in.readInt();
+        final int column = in.readInt();
+
+        final StatementContext stmt = new StatementContext(parent, 0);
+        final CommonToken start = new CommonToken(YangStatementParser.IDENTIFIER, keyword);
+        start.setLine(line);
+        start.setCharPositionInLine(column);
+        stmt.start = start;
+
+        final KeywordContext keywordCtx = new KeywordContext(stmt, 0);
+        keywordCtx.addChild(start);
+        stmt.addChild(keywordCtx);
+
+        if (argument != null) {
+            final ArgumentContext argumentCtx = new ArgumentContext(stmt, 0);
+            argumentCtx.addChild(new CommonToken(YangStatementParser.STRING, '\'' + argument + '\''));
+            stmt.addChild(argumentCtx);
+        }
+
+        final int count = in.readInt();
+        for (int i = 0; i < count; ++i) {
+            stmt.addChild(readStatement(in, strings, stmt));
+        }
+        return stmt;
+    }
+
+    private static void writeString(final DataOutput out, final Map<String, Integer> strings, final String str)
+            throws IOException {
+        if (str == null) {
+            out.writeByte(STRING_NULL);
+            return;
+        }
+
+        final Integer ref = strings.get(str);
+        if (ref != null) {
+            out.writeByte(STRING_REF);
+            out.writeInt(ref);
+            return;
+        }
+
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(STRING_VALUE);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        strings.put(str, strings.size());
+    }
+
+    private static String readString(final DataInput in, final List<String> strings) throws IOException {
+        final byte type = in.readByte();
+        switch (type) {
+            case STRING_NULL:
+                return null;
+            case STRING_VALUE:
+                final byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                final String str = new String(bytes, StandardCharsets.UTF_8);
+                strings.add(str);
+                return str;
+            case STRING_REF:
+                final int ref = in.readInt();
+                if (ref < 0 || ref >= strings.size()) {
+                    throw new IOException("Invalid string reference " + ref);
+                }
+                return strings.get(ref);
+            default:
+                throw new IOException("Unknown string type " + type);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.util;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.CheckedFuture;
+import com.google.common.util.concurrent.Futures;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.StatementContext;
+import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException;
+import org.opendaylight.yangtools.yang.model.repo.api.SchemaRepository;
+import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceException;
+import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.YangTextSchemaSource;
+import org.opendaylight.yangtools.yang.model.repo.spi.SchemaSourceRegistry;
+import org.opendaylight.yangtools.yang.model.repo.util.SchemaSourceTransformer;
+import org.opendaylight.yangtools.yang.model.repo.util.SchemaSourceTransformer.Transformation;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangStatementSourceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Transformation} from {@link YangTextSchemaSource} to {@link ASTSchemaSource}, which keeps parsed
+ * statement trees in a directory. Entries are keyed by source identifier and a hash of the source text, so a changed
+ * source is never served from a stale entry. Sources found in the cache are restored without invoking the ANTLR
+ * lexer and parser, which cuts down the time needed to bring up a large set of models after a restart.
+ *
+ * <p>
+ * This class can be used in place of {@link TextToASTTransformer#TRANSFORMATION}, or registered with a repository
+ * through {@link #createTransformer(SchemaRepository, SchemaSourceRegistry)}.
+ */
+@Beta
+public final class FilesystemASTCache implements Transformation<YangTextSchemaSource, ASTSchemaSource> {
+    private static final Logger LOG = LoggerFactory.getLogger(FilesystemASTCache.class);
+    private static final String FILE_SUFFIX = ".ast";
+
+    private final File storageDirectory;
+
+    public FilesystemASTCache(final File storageDirectory) {
+        this.storageDirectory = Preconditions.checkNotNull(storageDirectory);
+
+        if (!storageDirectory.exists()) {
+            Preconditions.checkArgument(storageDirectory.mkdirs(), "Unable to create cache directory at %s", storageDirectory);
+        }
+        Preconditions.checkArgument(storageDirectory.isDirectory());
+        Preconditions.checkArgument(storageDirectory.canWrite());
+        Preconditions.checkArgument(storageDirectory.canRead());
+    }
+
+    public SchemaSourceTransformer<YangTextSchemaSource, ASTSchemaSource> createTransformer(
+            final SchemaRepository provider, final SchemaSourceRegistry consumer) {
+        return new SchemaSourceTransformer<>(provider, YangTextSchemaSource.class, consumer, ASTSchemaSource.class,
+                this);
+    }
+
+    @Override
+    public CheckedFuture<ASTSchemaSource, SchemaSourceException> apply(final YangTextSchemaSource input)
+            throws IOException, YangSyntaxErrorException {
+        final byte[] bytes = input.read();
+        final File file = new File(storageDirectory, fileName(input.getIdentifier(),
+            Hashing.sha1().hashBytes(bytes).toString()));
+
+        StatementContext ast = restore(file);
+        if (ast == null) {
+            ast = new YangStatementSourceImpl(new ByteArrayInputStream(bytes)).getYangAST();
+            LOG.debug("Model {} parsed successfully", input);
+            if (ast != null) {
+                store(file, ast);
+            }
+        } else {
+            LOG.debug("Model {} restored from {}", input, file);
+        }
+
+        return Futures.immediateCheckedFuture(ASTSchemaSource.create(input.getIdentifier(), ast,
+            new String(bytes, StandardCharsets.UTF_8)));
+    }
+
+    static String fileName(final SourceIdentifier identifier, final String hash) {
+        final StringBuilder sb = new StringBuilder(identifier.getName());
+        final String rev = identifier.getRevision();
+        if (!Strings.isNullOrEmpty(rev) && !SourceIdentifier.NOT_PRESENT_FORMATTED_REVISION.equals(rev)) {
+            sb.append('@').append(rev);
+        }
+        return sb.append('#').append(hash).append(FILE_SUFFIX).toString();
+    }
+
+    private static StatementContext restore(final File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+            return ASTStreamFormat.readAST(new DataInputStream(is));
+        } catch (IOException e) {
+            LOG.warn("Ignoring unreadable cache entry {}", file, e);
+            return null;
+        }
+    }
+
+    private void store(final File file, final StatementContext ast) {
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(storageDirectory.toPath(), file.getName(), ".tmp");
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                final DataOutputStream out = new DataOutputStream(os);
+                ASTStreamFormat.writeAST(out, ast);
+                out.flush();
+            }
+
+            try {
+                Files.move(tmp, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                LOG.debug("Atomic move not supported, falling back to replace", e);
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+            LOG.trace("Stored parsed source as {}", file);
+        } catch (IOException e) {
+            LOG.warn("Failed to store parsed source as {}", file, e);
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    LOG.debug("Failed to remove temporary file {}", tmp, e);
+                }
+            }
+        }
+    }
+}
@@ -7,18 +7,28 @@
  */
 package org.opendaylight.yangtools.yang.parser.repo;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import org.opendaylight.yangtools.yang.model.repo.api.RevisionSourceIdentifier;
 
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.Futures;
+import java.util.Set;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.Module;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaResolutionException;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceException;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceFilter;
@@ -72,6 +82,111 @@ public class SharedSchemaContextFactoryTest {
         assertNotNull(schemaContext.checkedGet());
     }
 
+    @Test
+    public void testReuseOfIndependentComponents() throws Exception {
+        final ResourceYangSource source3 = new ResourceYangSource("/ietf/ietf-yang-types@2010-09-24.yang");
+        final SourceIdentifier s3 = RevisionSourceIdentifier.create("ietf-yang-types", "2010-09-24");
+        repository.registerSchemaSource(new SchemaSourceProvider<YangTextSchemaSource>() {
+            @Override
+            public CheckedFuture<YangTextSchemaSource, SchemaSourceException> getSource(final SourceIdentifier sourceIdentifier) {
+                return Futures.immediateCheckedFuture(source3);
+            }
+        }, PotentialSchemaSource.create(s3, YangTextSchemaSource.class, 1));
+
+        final SharedSchemaContextFactory sharedSchemaContextFactory = new SharedSchemaContextFactory(repository, filter);
+        final SchemaContext first = sharedSchemaContextFactory.createSchemaContext(Lists.newArrayList(s1, s2))
+                .checkedGet();
+        final SchemaContext second = sharedSchemaContextFactory.createSchemaContext(Lists.newArrayList(s1, s2, s3))
+                .checkedGet();
+
+        assertEquals(2, first.getModules().size());
+        assertEquals(3, second.getModules().size());
+
+        // Neither module imports the other, hence their assembled forms are reused
+        assertSame(first.findModuleByName("ietf-inet-types", null), second.findModuleByName("ietf-inet-types", null));
+        assertSame(first.findModuleByName("iana-timezones", null), second.findModuleByName("iana-timezones", null));
+    }
+
+    @Test
+    public void testSharedModulesAreAssembledOnce() throws Exception {
+        final SourceIdentifier closureA = register("/shared-closures/closure-a@2016-10-01.yang", "closure-a",
+            "2016-10-01");
+        final SourceIdentifier closureB = register("/shared-closures/closure-b@2016-10-01.yang", "closure-b",
+            "2016-10-01");
+
+        final SharedSchemaContextFactory sharedSchemaContextFactory = new SharedSchemaContextFactory(repository, filter);
+        final SchemaContext first = sharedSchemaContextFactory.createSchemaContext(
+            Lists.newArrayList(s1, closureA, s2)).checkedGet();
+        final SchemaContext second = sharedSchemaContextFactory.createSchemaContext(
+            Lists.newArrayList(s1, closureA, closureB, s2)).checkedGet();
+        assertEquals(4, second.getModules().size());
+
+        // iana-timezones does not share any modules with the others, hence it is reused
+        assertSame(first.findModuleByName("iana-timezones", null), second.findModuleByName("iana-timezones", null));
+
+        // Leaves of both closures derive their types from the typedef of the single ietf-inet-types module
+        final Module inetTypes = second.findModuleByName("ietf-inet-types", null);
+        final TypeDefinition<?> ipAddress = typedef(inetTypes, "ip-address").getBaseType();
+        assertSame(ipAddress, leafType(second.findModuleByName("closure-a", null), "address-a").getBaseType());
+        assertSame(ipAddress, leafType(second.findModuleByName("closure-b", null), "address-b").getBaseType());
+    }
+
+    private static TypeDefinition<?> typedef(final Module module, final String name) {
+        for (final TypeDefinition<?> typedef : module.getTypeDefinitions()) {
+            if (name.equals(typedef.getQName().getLocalName())) {
+                return typedef;
+            }
+        }
+        throw new AssertionError("Typedef " + name + " not found in " + module);
+    }
+
+    private static TypeDefinition<?> leafType(final Module module, final String name) {
+        return ((LeafSchemaNode) module.getDataChildByName(QName.create(module.getQNameModule(), name))).getType();
+    }
+
+    @Test
+    public void testModifiedModulesAreNotReused() throws Exception {
+        final SourceIdentifier topology = register("/ietf/network-topology@2013-10-21.yang", "network-topology",
+            "2013-10-21");
+        final SourceIdentifier closureA = register("/shared-closures/closure-a@2016-10-01.yang", "closure-a",
+            "2016-10-01");
+        final SourceIdentifier augment = register("/shared-closures/closure-augment@2016-10-01.yang",
+            "closure-augment", "2016-10-01");
+
+        final SharedSchemaContextFactory sharedSchemaContextFactory = new SharedSchemaContextFactory(repository, filter);
+        final SchemaContext first = sharedSchemaContextFactory.createSchemaContext(
+            Lists.newArrayList(s1, topology, closureA)).checkedGet();
+        final SchemaContext second = sharedSchemaContextFactory.createSchemaContext(
+            Lists.newArrayList(s1, topology, closureA, augment)).checkedGet();
+
+        assertEquals(4, second.getModules().size());
+
+        // network-topology is augmented in the second context only
+        final Module original = first.findModuleByName("network-topology", null);
+        final Module augmented = second.findModuleByName("network-topology", null);
+        assertNotSame(original, augmented);
+        assertEquals(0, augmentations(original).size());
+        assertEquals(1, augmentations(augmented).size());
+    }
+
+    private static Set<AugmentationSchema> augmentations(final Module module) {
+        final ContainerSchemaNode container = (ContainerSchemaNode) module.getDataChildByName(
+            QName.create(module.getQNameModule(), "network-topology"));
+        return container.getAvailableAugmentations();
+    }
+
+    private SourceIdentifier register(final String resource, final String name, final String revision) {
+        final ResourceYangSource source = new ResourceYangSource(resource);
+        final SourceIdentifier id = RevisionSourceIdentifier.create(name, revision);
+        repository.registerSchemaSource(new SchemaSourceProvider<YangTextSchemaSource>() {
+            @Override
+            public CheckedFuture<YangTextSchemaSource, SchemaSourceException> getSource(final SourceIdentifier sourceIdentifier) {
+                return Futures.immediateCheckedFuture(source);
+            }
+        }, PotentialSchemaSource.create(id, YangTextSchemaSource.class, 1));
+        return id;
+    }
+
     @Test
     public void testSourceRegisteredWithDifferentSI() throws Exception {
         final ResourceYangSource source1 = new ResourceYangSource("/ietf/ietf-inet-types@2010-09-24.yang");
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.Resources;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.StatementContext;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.repo.api.RevisionSourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.YangTextSchemaSource;
+import org.opendaylight.yangtools.yang.parser.stmt.reactor.CrossSourceStatementReactor.BuildAction;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangStatementSourceImpl;
+
+public class FilesystemASTCacheTest {
+    private static final String[] RESOURCES = { "/model/bar.yang", "/model/baz.yang", "/model/foo.yang",
+        "/model/subfoo.yang" };
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static YangTextSchemaSource source(final String resourceName) {
+        return YangTextSchemaSource.delegateForByteSource(YangTextSchemaSource.identifierFromFilename(
+            resourceName.substring(resourceName.lastIndexOf('/') + 1)),
+            Resources.asByteSource(FilesystemASTCacheTest.class.getResource(resourceName)));
+    }
+
+    private static List<ASTSchemaSource> load(final FilesystemASTCache cache) throws Exception {
+        final List<ASTSchemaSource> ret = new ArrayList<>();
+        for (String resource : RESOURCES) {
+            ret.add(cache.apply(source(resource)).checkedGet());
+        }
+        return ret;
+    }
+
+    private static SchemaContext build(final List<ASTSchemaSource> sources) throws Exception {
+        final BuildAction reactor = YangInferencePipeline.RFC6020_REACTOR.newBuild();
+        for (ASTSchemaSource source : sources) {
+            reactor.addSource(new YangStatementSourceImpl(source.getIdentifier(),
+                (StatementContext) source.getAST()));
+        }
+        return reactor.buildEffective();
+    }
+
+    private static List<String> describe(final SchemaContext context) {
+        final List<String> ret = new ArrayList<>();
+        for (Module module : context.getModules()) {
+            ret.add(module.getName() + " " + module.getDescription() + " "
+                    + module.getChildNodes().stream().map(node -> node.getQName().toString()).sorted()
+                        .collect(Collectors.toList())
+                    + " " + module.getTypeDefinitions().size() + " " + module.getGroupings().size()
+                    + " " + module.getAugmentations().size());
+        }
+        return ret;
+    }
+
+    @Test
+    public void testRestoreFromCache() throws Exception {
+        final File dir = folder.newFolder();
+        final List<ASTSchemaSource> parsed = load(new FilesystemASTCache(dir));
+        assertEquals(RESOURCES.length, dir.listFiles().length);
+
+        // A fresh instance has to pick up the entries stored by the first one
+        final List<ASTSchemaSource> restored = load(new FilesystemASTCache(dir));
+        assertEquals(RESOURCES.length, dir.listFiles().length);
+
+        for (int i = 0; i < RESOURCES.length; ++i) {
+            assertNotNull(parsed.get(i).getAST().getStart().getInputStream());
+            // Restored trees are not backed by a lexer
+            assertNull(restored.get(i).getAST().getStart().getInputStream());
+            assertEquals(parsed.get(i).getIdentifier(), restored.get(i).getIdentifier());
+            assertEquals(parsed.get(i).getDependencyInformation(), restored.get(i).getDependencyInformation());
+        }
+
+        assertEquals(describe(build(parsed)), describe(build(restored)));
+    }
+
+    @Test
+    public void testCorruptEntry() throws Exception {
+        final File dir = folder.newFolder();
+        final FilesystemASTCache cache = new FilesystemASTCache(dir);
+        load(cache);
+
+        for (File file : dir.listFiles()) {
+            try (FileOutputStream os = new FileOutputStream(file)) {
+                os.write(new byte[] { 1, 2, 3 });
+            }
+        }
+
+        // Corrupt entries are ignored and replaced
+        final List<ASTSchemaSource> reparsed = load(cache);
+        for (ASTSchemaSource source : reparsed) {
+            assertNotNull(source.getAST().getStart().getInputStream());
+        }
+        for (File file : dir.listFiles()) {
+            assertTrue(file.length() > 3);
+        }
+    }
+
+    @Test
+    public void testFileName() {
+        assertEquals("foo@2016-01-01#abcd.ast", FilesystemASTCache.fileName(
+            RevisionSourceIdentifier.create("foo", "2016-01-01"), "abcd"));
+        assertEquals("foo#abcd.ast", FilesystemASTCache.fileName(
+            RevisionSourceIdentifier.create("foo"), "abcd"));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.stmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.repo.api.IfFeaturePredicates;
+import org.opendaylight.yangtools.yang.model.repo.api.StatementParserMode;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
+
+public class ParallelParsingTest {
+    private static ExecutorService executor;
+    private static Collection<ByteSource> sources;
+
+    @BeforeClass
+    public static void setup() throws URISyntaxException {
+        executor = new ForkJoinPool(4);
+
+        final File[] files = new File(ParallelParsingTest.class.getResource("/ietf").toURI()).listFiles(
+            StmtTestUtils.YANG_FILE_FILTER);
+        Arrays.sort(files);
+        sources = new ArrayList<>(files.length);
+        for (File file : files) {
+            sources.add(Files.asByteSource(file));
+        }
+    }
+
+    @AfterClass
+    public static void teardown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testParallelParsingMatchesSequential() throws ReactorException, IOException {
+        final SchemaContext sequential = YangInferencePipeline.RFC6020_REACTOR.newBuild().buildEffective(sources);
+        final SchemaContext parallel = YangInferencePipeline.RFC6020_REACTOR.newBuildWithParallelParsing(
+            StatementParserMode.DEFAULT_MODE, IfFeaturePredicates.ALL_FEATURES, executor).buildEffective(sources);
+
+        assertFalse(sequential.getModules().isEmpty());
+        assertEquals(describe(sequential), describe(parallel));
+    }
+
+    @Test
+    public void testParallelParsingIsRepeatable() throws ReactorException, IOException {
+        final List<String> first = describe(YangInferencePipeline.RFC6020_REACTOR.newBuildWithParallelParsing(
+            StatementParserMode.DEFAULT_MODE, IfFeaturePredicates.ALL_FEATURES, executor).buildEffective(sources));
+
+        for (int i = 0; i < 5; ++i) {
+            assertEquals(first, describe(YangInferencePipeline.RFC6020_REACTOR.newBuildWithParallelParsing(
+                StatementParserMode.DEFAULT_MODE, IfFeaturePredicates.ALL_FEATURES, executor)
+                .buildEffective(sources)));
+        }
+    }
+
+    private static List<String> describe(final SchemaContext context) {
+        final List<String> ret = new ArrayList<>();
+        for (Module module : context.getModules()) {
+            ret.add(module.getName() + "@" + module.getRevision().getTime() + " "
+                    + module.getChildNodes().stream().map(node -> node.getQName().toString()).sorted()
+                        .collect(Collectors.toList())
+                    + " " + module.getTypeDefinitions().size() + " " + module.getIdentities().size());
+        }
+        return ret;
+    }
+}